@@ -0,0 +1,280 @@
+/**
+ * GameEngineJmhBenchmark.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.janbot.game.exception.InvalidInputException;
+
+
+
+/**
+ * ゲームエンジンの主要処理の計測 (JMH)
+ * 
+ * GameEngineBenchmark と同じ処理を同じ種の牌山で計測する。
+ * 割り当てバイト数は gc プロファイラの gc.alloc.rate.norm で確認する。(pom.xml の jmh プロファイル)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class GameEngineJmhBenchmark {
+    
+    /**
+     * 準備
+     * 
+     * @throws Exception 局面の生成に失敗した。
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // 実況の文字列化のみを計測するため、送信キューは止めておく
+        MessageDispatcher.getInstance().shutdown();
+        
+        _factory = DeckFactory.newSeededFactory(GameEngineBenchmark.RANDOM_SEED);
+        _info = GameEngineBenchmark.createMidGameInfo(_factory);
+        _announcer = new GameAnnouncer();
+        _waitIndex = new WaitIndex();
+        _hand = new JanPaiCount(_factory.createDeck().getPaiList().subList(0, 13));
+        for (final JanPai pai : JanPai.values()) {
+            _sourceList.add(pai.toString());
+        }
+        _sourceList.add("1m");
+        _sourceList.add("9s");
+        _sourceList.add("xx");
+    }
+    
+    
+    
+    /**
+     * 実況の文字列化
+     */
+    @Benchmark
+    public void announceUpdateOnSolo() {
+        _announcer.updateOnSolo(_info, ANNOUNCE_FLAG_SET);
+    }
+    
+    /**
+     * NPCのみの1局
+     * 
+     * @param state 牌山。
+     * @return 処理結果。
+     * @throws Exception ゲーム処理エラー。
+     */
+    @Benchmark
+    public TurnResult gameComOnly(final ComOnlyState state) throws Exception {
+        return new SoloJanController().start(state._deck, state._playerTable);
+    }
+    
+    /**
+     * ゲーム情報の複製
+     * 
+     * @return 複製したゲーム情報。
+     */
+    @Benchmark
+    public JanInfo infoClone() {
+        return _info.clone();
+    }
+    
+    /**
+     * 雀牌の解析 (解析失敗を含む)
+     * 
+     * @param blackhole 結果の捨て先。
+     */
+    @Benchmark
+    public void parserParse(final Blackhole blackhole) {
+        for (final String source : _sourceList) {
+            try {
+                blackhole.consume(JanPaiParser.parse(source));
+            }
+            catch (final InvalidInputException e) {
+                // 解析失敗も計測対象
+                blackhole.consume(e);
+            }
+        }
+    }
+    
+    /**
+     * 1局分のツモ切り
+     * 
+     * @param state 開始済みのコントローラ。
+     * @return 打牌回数。
+     * @throws Exception ゲーム処理エラー。
+     */
+    @Benchmark
+    public int soloDiscard(final DiscardState state) throws Exception {
+        int count = 0;
+        TurnResult result = TurnResult.CONTINUE;
+        while (!result.isGameSet()) {
+            result = result.isCallable() ? state._controller.next() : state._controller.discard();
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * 待ち判定の更新
+     * 
+     * @return 更新後の待ち判定。
+     */
+    @Benchmark
+    public WaitIndex waitUpdate() {
+        _waitIndex.update(_hand);
+        return _waitIndex;
+    }
+    
+    
+    
+    /**
+     * NPCのみの1局の状態 (計測ごとに牌山を引き直す)
+     */
+    @State(Scope.Thread)
+    public static class ComOnlyState {
+        
+        /**
+         * 準備
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            _factory = DeckFactory.newSeededFactory(GameEngineBenchmark.RANDOM_SEED);
+            _playerTable = GameEngineBenchmark.createPlayerTable(null);
+        }
+        
+        /**
+         * 牌山を引き直す
+         */
+        @Setup(Level.Invocation)
+        public void prepare() {
+            _deck = _factory.createDeck().getPaiList();
+        }
+        
+        
+        
+        /**
+         * 牌山生成器
+         */
+        private DeckFactory _factory = null;
+        
+        /**
+         * プレイヤーテーブル
+         */
+        private Map<Wind, Player> _playerTable = null;
+        
+        /**
+         * 牌山
+         */
+        private List<JanPai> _deck = null;
+        
+    }
+    
+    /**
+     * ツモ切りの状態 (計測ごとに開始済みのコントローラを作り直す)
+     */
+    @State(Scope.Thread)
+    public static class DiscardState {
+        
+        /**
+         * 準備
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            _factory = DeckFactory.newSeededFactory(GameEngineBenchmark.RANDOM_SEED);
+            _playerTable = GameEngineBenchmark.createPlayerTable(Wind.TON);
+        }
+        
+        /**
+         * コントローラを作り直す
+         * 
+         * @throws Exception ゲーム処理エラー。
+         */
+        @Setup(Level.Invocation)
+        public void prepare() throws Exception {
+            _controller = new SoloJanController();
+            _controller.start(_factory.createDeck().getPaiList(), _playerTable);
+        }
+        
+        
+        
+        /**
+         * 牌山生成器
+         */
+        private DeckFactory _factory = null;
+        
+        /**
+         * プレイヤーテーブル
+         */
+        private Map<Wind, Player> _playerTable = null;
+        
+        /**
+         * 開始済みのコントローラ
+         */
+        private SoloJanController _controller = null;
+        
+    }
+    
+    
+    
+    /**
+     * 実況フラグ
+     */
+    private static final EnumSet<AnnounceFlag> ANNOUNCE_FLAG_SET =
+        EnumSet.of(AnnounceFlag.FIELD, AnnounceFlag.RIVER_SINGLE, AnnounceFlag.HAND, AnnounceFlag.ACTIVE_TSUMO);
+    
+    
+    
+    /**
+     * 牌山生成器
+     */
+    private DeckFactory _factory = null;
+    
+    /**
+     * 途中局面のゲーム情報
+     */
+    private JanInfo _info = null;
+    
+    /**
+     * 実況者
+     */
+    private GameAnnouncer _announcer = null;
+    
+    /**
+     * 待ち判定
+     */
+    private WaitIndex _waitIndex = null;
+    
+    /**
+     * 待ち判定の対象の手牌
+     */
+    private JanPaiCount _hand = null;
+    
+    /**
+     * 解析対象の文字列のリスト
+     */
+    private final List<String> _sourceList = new ArrayList<>();
+    
+}
+
@@ -0,0 +1,100 @@
+/**
+ * Command.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot;
+
+import java.util.Collections;
+import java.util.List;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 解析済みコマンド
+ */
+final class Command {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param type コマンドの種類。
+     * @param paiList 牌の引数リスト。
+     * @param argList 文字列の引数リスト。
+     */
+    Command(final CommandType type, final List<JanPai> paiList, final List<String> argList) {
+        _type = type;
+        _paiList = Collections.unmodifiableList(paiList);
+        _argList = Collections.unmodifiableList(argList);
+    }
+    
+    
+    
+    /**
+     * 文字列の引数リストを取得
+     * 
+     * @return 文字列の引数リスト。(読み取り専用)
+     */
+    public List<String> getArgList() {
+        return _argList;
+    }
+    
+    /**
+     * 先頭の牌の引数を取得
+     * 
+     * @return 牌。牌の引数がない場合はnull。
+     */
+    public JanPai getPai() {
+        return _paiList.isEmpty() ? null : _paiList.get(0);
+    }
+    
+    /**
+     * 牌の引数リストを取得
+     * 
+     * @return 牌の引数リスト。(読み取り専用)
+     */
+    public List<JanPai> getPaiList() {
+        return _paiList;
+    }
+    
+    /**
+     * コマンドの種類を取得
+     * 
+     * @return コマンドの種類。
+     */
+    public CommandType getType() {
+        return _type;
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return "[" + _type + "] pai=" + _paiList + ", arg=" + _argList;
+    }
+    
+    
+    
+    /**
+     * コマンドの種類
+     */
+    private final CommandType _type;
+    
+    /**
+     * 牌の引数リスト
+     */
+    private final List<JanPai> _paiList;
+    
+    /**
+     * 文字列の引数リスト
+     */
+    private final List<String> _argList;
+    
+}
+
@@ -0,0 +1,384 @@
+/**
+ * CommandParser.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import wiz.project.jan.JanPai;
+import wiz.project.janbot.game.JanPaiParser;
+
+
+
+/**
+ * コマンド解析
+ * 
+ * 接頭辞はトライ木で1文字ずつ照合するので、コマンドと無関係な発言は先頭の1文字で弾かれる。
+ * 「jan 」に続く部分は、引数なしのコマンドを完全一致の表で、引数付きのコマンドを動詞の表で引く。
+ */
+final class CommandParser {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private CommandParser() {
+        // 発言への反応 (最長一致)
+        for (final String prefix : Arrays.asList("ri-chi!", "りち！", "りぃち！", "りーち！", "リーチ！")) {
+            putPrefix(prefix, CommandType.REACT_RICHI_DECLARE);
+        }
+        for (final String prefix : Arrays.asList("ri-chi", "りち", "りぃち", "りーち", "リーチ")) {
+            putPrefix(prefix, CommandType.REACT_RICHI);
+        }
+        putPrefix("カロセン", CommandType.REACT_KAROSEN);
+        putPrefix("キュイン", CommandType.REACT_KYUIN);
+        putPrefix(COMMAND_PREFIX, null);
+        
+        // 引数なしのコマンド
+        _commandTable.put("ochiro", CommandType.SHUTDOWN);
+        _commandTable.put("s", CommandType.START);
+        _commandTable.put("start", CommandType.START);
+        _commandTable.put("e", CommandType.END);
+        _commandTable.put("end", CommandType.END);
+        _commandTable.put("d", CommandType.DISCARD);
+        _commandTable.put("i", CommandType.INFO);
+        _commandTable.put("r", CommandType.RIVER);
+        _commandTable.put("ra", CommandType.RIVER_ALL);
+        _commandTable.put("i r", CommandType.INFO_RIVER);
+        _commandTable.put("r i", CommandType.INFO_RIVER);
+        _commandTable.put("i ra", CommandType.INFO_RIVER_ALL);
+        _commandTable.put("pon", CommandType.PON);
+        _commandTable.put("ron", CommandType.RON);
+        _commandTable.put("tsumo", CommandType.TSUMO);
+        _commandTable.put("replay", CommandType.REPLAY);
+        _commandTable.put("help", CommandType.HELP);
+        _commandTable.put("stats", CommandType.STATS);
+        _commandTable.put("locks", CommandType.LOCKS);
+        
+        // 引数付きのコマンド
+        _verbTable.put("d", new Syntax(CommandType.DISCARD, true, 1, 1));
+        _verbTable.put("chi", new Syntax(CommandType.CHI, true, 1, 1));
+        _verbTable.put("kan", new Syntax(CommandType.KAN, true, 1, 1));
+        _verbTable.put("replay", new Syntax(CommandType.REPLAY, false, 1, 2));
+        _verbTable.put("locks", new Syntax(CommandType.LOCKS, false, 1, 1));
+    }
+    
+    
+    
+    /**
+     * インスタンスを取得
+     * 
+     * @return インスタンス。
+     */
+    public static CommandParser getInstance() {
+        return INSTANCE;
+    }
+    
+    
+    
+    /**
+     * メッセージを解析
+     * 
+     * @param message メッセージ。
+     * @return 解析結果。コマンドでない場合はnull。
+     */
+    public Command parse(final String message) {
+        if (message == null) {
+            throw new NullPointerException("Message is null.");
+        }
+        
+        // 接頭辞を最長一致で照合
+        Node node = _root;
+        Node matched = null;
+        int matchedLength = 0;
+        for (int i = 0; i < message.length(); i++) {
+            node = node.getChild(message.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.isTerminal()) {
+                matched = node;
+                matchedLength = i + 1;
+            }
+        }
+        if (matched == null) {
+            return null;
+        }
+        
+        final CommandType type = matched.getType();
+        if (type != null) {
+            return new Command(type, NO_PAI_LIST, NO_ARG_LIST);
+        }
+        return parseCommand(message.substring(matchedLength));
+    }
+    
+    
+    
+    /**
+     * 「jan 」に続く部分を解析
+     * 
+     * @param source 解析対象。
+     * @return 解析結果。コマンドでない場合はnull。
+     */
+    private Command parseCommand(final String source) {
+        final CommandType type = _commandTable.get(source);
+        if (type != null) {
+            return new Command(type, NO_PAI_LIST, NO_ARG_LIST);
+        }
+        
+        final int index = source.indexOf(' ');
+        if (index < 0) {
+            return null;
+        }
+        final Syntax syntax = _verbTable.get(source.substring(0, index));
+        if (syntax == null) {
+            return null;
+        }
+        
+        final String argSource = source.substring(index + 1).trim();
+        final String[] argArray = argSource.isEmpty() ? new String[0] : argSource.split(" +");
+        if (argArray.length < syntax.getMinArgCount() || syntax.getMaxArgCount() < argArray.length) {
+            return null;
+        }
+        if (!syntax.isPaiArg()) {
+            return new Command(syntax.getType(), NO_PAI_LIST, Arrays.asList(argArray));
+        }
+        
+        final List<JanPai> paiList = new ArrayList<>(argArray.length);
+        for (final String arg : argArray) {
+            final JanPai pai = JanPaiParser.find(arg);
+            if (pai == null) {
+                return null;
+            }
+            paiList.add(pai);
+        }
+        return new Command(syntax.getType(), paiList, NO_ARG_LIST);
+    }
+    
+    /**
+     * 接頭辞を登録
+     * 
+     * @param prefix 接頭辞。
+     * @param type コマンドの種類。nullの場合はコマンドが続く。
+     */
+    private void putPrefix(final String prefix, final CommandType type) {
+        Node node = _root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.putChild(prefix.charAt(i));
+        }
+        node.setTerminal(type);
+    }
+    
+    
+    
+    /**
+     * 自分自身のインスタンス
+     */
+    private static final CommandParser INSTANCE = new CommandParser();
+    
+    /**
+     * コマンドの接頭辞
+     */
+    private static final String COMMAND_PREFIX = "jan ";
+    
+    /**
+     * 空の引数リスト
+     */
+    private static final List<JanPai> NO_PAI_LIST = Collections.emptyList();
+    private static final List<String> NO_ARG_LIST = Collections.emptyList();
+    
+    
+    
+    /**
+     * 接頭辞のトライ木
+     */
+    private final Node _root = new Node();
+    
+    /**
+     * 引数なしのコマンド表
+     */
+    private final Map<String, CommandType> _commandTable = new HashMap<>();
+    
+    /**
+     * 引数付きのコマンド表
+     */
+    private final Map<String, Syntax> _verbTable = new HashMap<>();
+    
+    
+    
+    /**
+     * トライ木のノード
+     */
+    private static final class Node {
+        
+        /**
+         * コンストラクタ
+         */
+        public Node() {
+        }
+        
+        
+        
+        /**
+         * 子ノードを取得
+         * 
+         * @param c 次の文字。
+         * @return 子ノード。存在しない場合はnull。
+         */
+        public Node getChild(final char c) {
+            return _childTable.get(c);
+        }
+        
+        /**
+         * コマンドの種類を取得
+         * 
+         * @return コマンドの種類。コマンドが続く場合はnull。
+         */
+        public CommandType getType() {
+            return _type;
+        }
+        
+        /**
+         * 接頭辞の終端か
+         * 
+         * @return 判定結果。
+         */
+        public boolean isTerminal() {
+            return _terminal;
+        }
+        
+        /**
+         * 子ノードを登録
+         * 
+         * @param c 次の文字。
+         * @return 子ノード。(登録済みの場合は既存のノード)
+         */
+        public Node putChild(final char c) {
+            Node child = _childTable.get(c);
+            if (child == null) {
+                child = new Node();
+                _childTable.put(c, child);
+            }
+            return child;
+        }
+        
+        /**
+         * 接頭辞の終端に設定
+         * 
+         * @param type コマンドの種類。
+         */
+        public void setTerminal(final CommandType type) {
+            _terminal = true;
+            _type = type;
+        }
+        
+        
+        
+        /**
+         * 子ノードの表
+         */
+        private final Map<Character, Node> _childTable = new HashMap<>();
+        
+        /**
+         * 接頭辞の終端か
+         */
+        private boolean _terminal = false;
+        
+        /**
+         * コマンドの種類
+         */
+        private CommandType _type = null;
+        
+    }
+    
+    /**
+     * 引数付きコマンドの構文
+     */
+    private static final class Syntax {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param type コマンドの種類。
+         * @param paiArg 引数が牌か。
+         * @param minArgCount 引数の最小数。
+         * @param maxArgCount 引数の最大数。
+         */
+        public Syntax(final CommandType type, final boolean paiArg, final int minArgCount, final int maxArgCount) {
+            _type = type;
+            _paiArg = paiArg;
+            _minArgCount = minArgCount;
+            _maxArgCount = maxArgCount;
+        }
+        
+        
+        
+        /**
+         * 引数の最大数を取得
+         * 
+         * @return 引数の最大数。
+         */
+        public int getMaxArgCount() {
+            return _maxArgCount;
+        }
+        
+        /**
+         * 引数の最小数を取得
+         * 
+         * @return 引数の最小数。
+         */
+        public int getMinArgCount() {
+            return _minArgCount;
+        }
+        
+        /**
+         * コマンドの種類を取得
+         * 
+         * @return コマンドの種類。
+         */
+        public CommandType getType() {
+            return _type;
+        }
+        
+        /**
+         * 引数が牌か
+         * 
+         * @return 判定結果。
+         */
+        public boolean isPaiArg() {
+            return _paiArg;
+        }
+        
+        
+        
+        /**
+         * コマンドの種類
+         */
+        private final CommandType _type;
+        
+        /**
+         * 引数が牌か
+         */
+        private final boolean _paiArg;
+        
+        /**
+         * 引数の最小数
+         */
+        private final int _minArgCount;
+        
+        /**
+         * 引数の最大数
+         */
+        private final int _maxArgCount;
+        
+    }
+    
+}
+
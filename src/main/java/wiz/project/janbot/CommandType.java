@@ -0,0 +1,127 @@
+/**
+ * CommandType.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot;
+
+
+
+/**
+ * コマンドの種類
+ */
+enum CommandType {
+    
+    /**
+     * 切断 (jan ochiro)
+     */
+    SHUTDOWN,
+    
+    /**
+     * 開始 (jan s)
+     */
+    START,
+    
+    /**
+     * 終了 (jan e)
+     */
+    END,
+    
+    /**
+     * 打牌 (jan d [牌])
+     */
+    DISCARD,
+    
+    /**
+     * 状態表示 (jan i)
+     */
+    INFO,
+    
+    /**
+     * 捨て牌表示 (jan r)
+     */
+    RIVER,
+    
+    /**
+     * 全員の捨て牌表示 (jan ra)
+     */
+    RIVER_ALL,
+    
+    /**
+     * 状態と捨て牌表示 (jan i r)
+     */
+    INFO_RIVER,
+    
+    /**
+     * 状態と全員の捨て牌表示 (jan i ra)
+     */
+    INFO_RIVER_ALL,
+    
+    /**
+     * チー (jan chi 牌)
+     */
+    CHI,
+    
+    /**
+     * ポン (jan pon)
+     */
+    PON,
+    
+    /**
+     * カン (jan kan 牌)
+     */
+    KAN,
+    
+    /**
+     * ロン (jan ron)
+     */
+    RON,
+    
+    /**
+     * ツモ和了 (jan tsumo)
+     */
+    TSUMO,
+    
+    /**
+     * リプレイ (jan replay [ゲームコード] [巡目])
+     */
+    REPLAY,
+    
+    /**
+     * ヘルプ (jan help)
+     */
+    HELP,
+    
+    /**
+     * 統計表示 (jan stats)
+     */
+    STATS,
+    
+    /**
+     * ロック計測 (jan locks [on|off|reset])
+     */
+    LOCKS,
+    
+    /**
+     * リーチ宣言への反応 (リーチ！)
+     */
+    REACT_RICHI_DECLARE,
+    
+    /**
+     * リーチへの反応 (リーチ)
+     */
+    REACT_RICHI,
+    
+    /**
+     * カロセンへの反応
+     */
+    REACT_KAROSEN,
+    
+    /**
+     * キュインへの反応
+     */
+    REACT_KYUIN,
+    
+}
+
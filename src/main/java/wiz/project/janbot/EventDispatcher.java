@@ -0,0 +1,295 @@
+/**
+ * EventDispatcher.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * 受信イベントの振り分け
+ * 
+ * 受信処理をキーごとの列に投入し、受信スレッドから切り離して実行する。
+ * 同じキーの処理は投入順に1つずつ、別のキーの処理は並行に実行する。
+ * 空になった列は破棄するので、キーが増え続けても列は溜まらない。
+ */
+final class EventDispatcher {
+    
+    /**
+     * コンストラクタ (共有のスレッドプールで実行)
+     */
+    public EventDispatcher() {
+        this(SHARED_EXECUTOR);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param executor 実行スレッドを借りる実行者。
+     */
+    public EventDispatcher(final Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("Executor is null.");
+        }
+        _executor = executor;
+    }
+    
+    
+    
+    /**
+     * 処理を投入 (完了を待たない)
+     * 
+     * @param key 実行順を揃えるキー。
+     * @param task 処理。
+     */
+    public void execute(final String key, final Runnable task) {
+        if (key == null) {
+            throw new NullPointerException("Key is null.");
+        }
+        if (task == null) {
+            throw new NullPointerException("Task is null.");
+        }
+        
+        while (true) {
+            Lane lane = _laneMap.get(key);
+            if (lane == null) {
+                final Lane newLane = new Lane(key);
+                lane = _laneMap.putIfAbsent(key, newLane);
+                if (lane == null) {
+                    lane = newLane;
+                }
+            }
+            if (lane.offer(task)) {
+                return;
+            }
+            // 破棄済みの列を掴んだ場合は取り直す
+        }
+    }
+    
+    /**
+     * 処理中の列の数を取得
+     * 
+     * @return 処理中の列の数。
+     */
+    public int getLaneCount() {
+        return _laneMap.size();
+    }
+    
+    /**
+     * 未実行の処理の数を取得
+     * 
+     * @return 未実行の処理の数。
+     */
+    public int getPendingCount() {
+        int count = 0;
+        for (final Lane lane : _laneMap.values()) {
+            count += lane.getPendingCount();
+        }
+        return count;
+    }
+    
+    
+    
+    /**
+     * 全ての振り分けで共有する実行スレッド
+     */
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(task, "EventDispatcher-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    
+    /**
+     * 生成した実行スレッドの数
+     */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    
+    
+    
+    /**
+     * 実行スレッドを借りる実行者
+     */
+    private final Executor _executor;
+    
+    /**
+     * 処理中の列 (キーごと)
+     */
+    private final ConcurrentMap<String, Lane> _laneMap = new ConcurrentHashMap<>();
+    
+    
+    
+    /**
+     * キーごとの処理の列
+     */
+    private final class Lane implements Runnable {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param key キー。
+         */
+        public Lane(final String key) {
+            _key = key;
+        }
+        
+        
+        
+        /**
+         * 未実行の処理の数を取得
+         * 
+         * @return 未実行の処理の数。
+         */
+        public int getPendingCount() {
+            synchronized (_LANE_LOCK) {
+                return _queue.size();
+            }
+        }
+        
+        /**
+         * 処理を追加
+         * 
+         * @param task 処理。
+         * @return 追加できたか。(破棄済みの列には追加できない)
+         */
+        public boolean offer(final Runnable task) {
+            synchronized (_LANE_LOCK) {
+                if (_closed) {
+                    return false;
+                }
+                _queue.addLast(task);
+                if (_running) {
+                    return true;
+                }
+                _running = true;
+            }
+            
+            try {
+                _executor.execute(this);
+            }
+            catch (final RuntimeException e) {
+                synchronized (_LANE_LOCK) {
+                    _queue.remove(task);
+                    _running = false;
+                }
+                throw e;
+            }
+            return true;
+        }
+        
+        /**
+         * 溜まった処理を順に実行
+         * 
+         * 列が空になったら破棄する。
+         */
+        public void run() {
+            boolean drained = false;
+            try {
+                while (true) {
+                    final Runnable task;
+                    synchronized (_LANE_LOCK) {
+                        task = _queue.pollFirst();
+                        if (task == null) {
+                            close();
+                            drained = true;
+                            return;
+                        }
+                    }
+                    
+                    try {
+                        task.run();
+                    }
+                    catch (final RuntimeException e) {
+                        // 後続の処理を止めないよう捨てる
+                        e.printStackTrace();
+                    }
+                }
+            }
+            finally {
+                if (!drained) {
+                    // エラーで抜けた場合も、残りの処理は別のスレッドに引き継ぐ
+                    restart();
+                }
+            }
+        }
+        
+        
+        
+        /**
+         * 列を破棄 (ロック取得済みで呼ぶ)
+         */
+        private void close() {
+            _running = false;
+            _closed = true;
+            _laneMap.remove(_key, this);
+        }
+        
+        /**
+         * 残りの処理を別のスレッドで再開
+         * 
+         * 残りが無い場合は列を破棄し、再開できない場合は実行中の状態だけ解除して次の追加時に再開させる。
+         */
+        private void restart() {
+            synchronized (_LANE_LOCK) {
+                if (_queue.isEmpty()) {
+                    close();
+                    return;
+                }
+            }
+            
+            try {
+                _executor.execute(this);
+            }
+            catch (final RuntimeException e) {
+                synchronized (_LANE_LOCK) {
+                    _running = false;
+                }
+            }
+        }
+        
+        
+        
+        /**
+         * ロックオブジェクト
+         */
+        private final Object _LANE_LOCK = new Object();
+        
+        
+        
+        /**
+         * キー
+         */
+        private final String _key;
+        
+        /**
+         * 未実行の処理
+         */
+        private final Deque<Runnable> _queue = new ArrayDeque<>();
+        
+        /**
+         * 実行スレッドを借りているか
+         */
+        private boolean _running = false;
+        
+        /**
+         * 破棄済みか
+         */
+        private boolean _closed = false;
+        
+    }
+    
+}
+
@@ -6,7 +6,13 @@
 
 package wiz.project.janbot;
 
+import java.io.IOException;
+
+import javax.management.JMException;
+
 import wiz.project.ircbot.IRCBOT;
+import wiz.project.janbot.game.GameMetrics;
+import wiz.project.janbot.game.MetricsHttpServer;
 
 
 
@@ -42,6 +48,7 @@ public final class JanBOT {
             final String serverHost = paramList[PARAM_INDEX_SERVER_URI];
             final int serverPort = Integer.parseInt(paramList[PARAM_INDEX_SERVER_PORT]);
             final String channel = paramList[PARAM_INDEX_CHANNEL_NAME];
+            startMetrics();
             IRCBOT.getInstance().initialize(BOT_NAME, serverHost, serverPort, channel, new MessageListener<>());
         }
         catch (final Throwable e) {
@@ -51,6 +58,25 @@ public final class JanBOT {
     
     
     
+    /**
+     * 計測値の公開を開始
+     * 
+     * JMXには常に登録し、HTTPはポートがシステムプロパティで指定された場合のみ公開する。
+     * 
+     * @throws JMException JMXへの登録に失敗した。
+     * @throws IOException HTTPの待ち受けに失敗した。
+     */
+    private static void startMetrics() throws JMException, IOException {
+        GameMetrics.getInstance().registerMBean();
+        
+        final int port = Integer.getInteger(METRICS_PORT_PROPERTY, 0);
+        if (port > 0) {
+            new MetricsHttpServer(GameMetrics.getInstance(), port).start();
+        }
+    }
+    
+    
+    
     /**
      * BOTのニックネーム
      */
@@ -68,5 +94,10 @@ public final class JanBOT {
     private static final int PARAM_INDEX_SERVER_PORT  = 1;
     private static final int PARAM_INDEX_CHANNEL_NAME = 2;
     
+    /**
+     * 計測値のHTTP公開ポートのシステムプロパティ名
+     */
+    private static final String METRICS_PORT_PROPERTY = "janbot.metrics.port";
+    
 }
 
@@ -6,9 +6,11 @@
 
 package wiz.project.janbot;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 import org.pircbotx.PircBotX;
 import org.pircbotx.hooks.ListenerAdapter;
@@ -17,12 +19,15 @@ import org.pircbotx.hooks.events.PrivateMessageEvent;
 
 import wiz.project.ircbot.IRCBOT;
 import wiz.project.janbot.game.AnnounceFlag;
+import wiz.project.janbot.game.CallPromptListener;
 import wiz.project.janbot.game.CallType;
 import wiz.project.janbot.game.GameMaster;
+import wiz.project.janbot.game.GameMetrics;
 import wiz.project.janbot.game.GameSetStatus;
+import wiz.project.janbot.game.LockProfiler;
+import wiz.project.janbot.game.MessageDispatcher;
+import wiz.project.janbot.game.TurnResult;
 import wiz.project.janbot.game.exception.BoneheadException;
-import wiz.project.janbot.game.exception.CallableException;
-import wiz.project.janbot.game.exception.GameSetException;
 import wiz.project.janbot.game.exception.InvalidInputException;
 import wiz.project.janbot.game.exception.JanException;
 
@@ -31,14 +36,18 @@ import wiz.project.janbot.game.exception.JanException;
 /**
  * メッセージ受付
  * 
+ * 副露の確認待ちは卓の席ごとに管理されるため、確認待ちのプレイヤーの発言のみを確認用のコマンドとして扱う。
+ * コマンドの処理は卓ごとの列に振り分けて実行する。(同じ卓の処理は受信順、別の卓の処理は並行)
+ * 
  * @param <T> PircBoxT、またはその継承クラス。
  */
-final class MessageListener<T extends PircBotX> extends ListenerAdapter<T> {
+final class MessageListener<T extends PircBotX> extends ListenerAdapter<T> implements CallPromptListener {
     
     /**
      * コンストラクタ
      */
     public MessageListener() {
+        GameMaster.getInstance().setPromptListener(this);
     }
     
     
@@ -55,119 +64,39 @@ final class MessageListener<T extends PircBotX> extends ListenerAdapter<T> {
             throw new NullPointerException("Event information is null.");
         }
         
-        // メッセージ解析
-        try {
-            if (_confirmMode) {
-                onConfirmMessage(event);
-                return;
-            }
-            
-            final String message = event.getMessage();
-            final String playerName = event.getUser().getNick();
-            if (message.equals("jan ochiro")) {
-                IRCBOT.getInstance().println("(  ；∀；)");
-                IRCBOT.getInstance().disconnect();
-            }
-            else if (message.equals("jan s") || message.equals("jan start")) {
-                GameMaster.getInstance().onStartSolo(playerName);
-            }
-            else if (message.equals("jan e") || message.equals("jan end")) {
-                GameMaster.getInstance().onEnd();
-            }
-            else if (message.equals("jan d")) {
-                GameMaster.getInstance().onDiscard();
-            }
-            else if (message.startsWith("jan d ")) {
-                GameMaster.getInstance().onDiscard(message.substring(6));
-            }
-            else if (message.equals("jan i")) {
-                GameMaster.getInstance().onInfo(ANNOUNCE_FLAG_FIELD);
-            }
-            else if (message.equals("jan r")) {
-                GameMaster.getInstance().onInfo(ANNOUNCE_FLAG_RIVER);
-            }
-            else if (message.equals("jan ra")) {
-                GameMaster.getInstance().onInfo(ANNOUNCE_FLAG_RIVER_ALL);
-            }
-            else if (message.equals("jan i r") || message.equals("jan r i")) {
-                GameMaster.getInstance().onInfo(ANNOUNCE_FLAG_FIELD_AND_RIVER);
-            }
-            else if (message.equals("jan i ra")) {
-                GameMaster.getInstance().onInfo(ANNOUNCE_FLAG_FIELD_AND_RIVER_ALL);
-            }
-//            else if (message.startsWith("jan ri- ")) {
-//                TODO リーチ対応
-//                GameMaster.getInstance().onRichi(message.substring(8));
-//            }
-            else if (message.startsWith("jan kan ")) {
-                GameMaster.getInstance().onCallKan(playerName, message.substring(8));
-            }
-            else if (message.equals("jan tsumo")) {
-                GameMaster.getInstance().onCompleteTsumo(playerName);
-            }
-            else if (message.equals("jan replay")) {
-                GameMaster.getInstance().onReplay(playerName);
-            }
-            else if (message.startsWith("jan replay ")) {
-                GameMaster.getInstance().onReplay(playerName, message.substring(11));
-            }
-//            else if (message.equals("jan download")) {
-//            上手く動かないので封印
-//                new Thread() {
-//                    @Override
-//                    public void run() {
-//                        try {
-//                            IRCBOT.getInstance().println("---- 牌山を" + playerName + "に送信中 ----");
-//                            event.getBot().dccSendFile(new File("./deck.bin"), event.getUser(), 180000);
-//                        }
-//                        catch (final Throwable e) {
-//                            // 何もしない
-//                        }
-//                    }
-//                }.start();
-//            }
-            else if (message.equals("jan help")) {
-                final List<String> messageList =
-                    Arrays.asList("s：開始   e：終了   replay：リプレイ",
-                                  "i：状態   r：捨て牌   d X：指定牌(ex.9p)を切る (X指定無し：ツモ切り)",
-                                  "ra：他家を含む全ての捨て牌",
-                                  "tsumo：ツモ和了   kan X：指定牌でカン");
-                IRCBOT.getInstance().println(messageList);
-            }
-            else if (message.startsWith("ri-chi!") || message.startsWith("りち！") || message.startsWith("りぃち！") || message.startsWith("りーち！") || message.startsWith("リーチ！")) {
-                IRCBOT.getInstance().println("⊂" + COLOR_FLAG + "04" + "●" + COLOR_FLAG + "⊃");
-            }
-            else if (message.startsWith("ri-chi") || message.startsWith("りち") || message.startsWith("りぃち") || message.startsWith("りーち") || message.startsWith("リーチ")) {
-                IRCBOT.getInstance().println("⊂" + COLOR_FLAG + "04" + "・" + COLOR_FLAG + "⊃");
-            }
-            else if (message.startsWith("カロセン")) {
-                IRCBOT.getInstance().println("⊂" + COLOR_FLAG + "04" + "㌍㌢" + COLOR_FLAG + "⊃");
+        // 処理時間は受信から出力の登録までを計測 (振り分け待ちを含む)
+        final long startTime = System.nanoTime();
+        
+        // メッセージ解析 (コマンド以外の発言はここで終了)
+        final Command command = CommandParser.getInstance().parse(event.getMessage());
+        if (command == null) {
+            return;
+        }
+        
+        // ゲーム処理は卓ごとの列で実行し、受信スレッドはすぐに戻す
+        final String channel = getChannelName(event);
+        final String playerName = event.getUser().getNick();
+        _dispatcher.execute(GameMaster.getInstance().getTableName(channel, playerName), new Runnable() {
+            public void run() {
+                onCommand(channel, playerName, command, startTime);
             }
-            else if (message.startsWith("キュイン")) {
-                IRCBOT.getInstance().println("⊂" + COLOR_FLAG + "04" + "㌒㌅" + COLOR_FLAG + "⊃");
+        });
+    }
+    
+    /**
+     * 確認待ちの時間切れ時の処理
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param result ゲームを進めた処理結果。
+     */
+    public void onTimeout(final String channel, final String playerName, final TurnResult result) {
+        // 同じ卓のコマンドと順序を揃える
+        _dispatcher.execute(GameMaster.getInstance().getTableName(channel, playerName), new Runnable() {
+            public void run() {
+                onTurnResult(channel, playerName, result);
             }
-        }
-        catch (final CallableException e) {
-            _confirmMode = true;
-            GameMaster.getInstance().onInfo(convertToCallAnnounceType(e.getTypeList()));
-        }
-        catch (final GameSetException e) {
-            _confirmMode = false;
-            onGameSet(e.getStatus());
-        }
-        catch (final BoneheadException e) {
-            IRCBOT.getInstance().println("(  ´∀｀) ＜ チョンボ");
-        }
-        catch (final InvalidInputException e) {
-            // 指定ミスに対しては何もしない
-        }
-        catch (final JanException e) {
-            IRCBOT.getInstance().println("(  ´∀｀) ＜ " + e.getMessage());
-        }
-        catch (final Throwable e) {
-            IRCBOT.getInstance().println("(  ´∀｀) ＜ " + e.getMessage());
-            throw e;
-        }
+        });
     }
     
     /**
@@ -214,87 +143,315 @@ final class MessageListener<T extends PircBotX> extends ListenerAdapter<T> {
     }
     
     /**
-     * 確認メッセージの処理
+     * チャンネル名を取得
      * 
      * @param event イベント情報。
-     * @throws JanException 例外イベント。
+     * @return チャンネル名。チャンネル情報が無い場合は空文字列。
      */
-    private void onConfirmMessage(final MessageEvent<T> event) throws JanException {
-        final String message = event.getMessage();
-        final String playerName = event.getUser().getNick();
+    private String getChannelName(final MessageEvent<T> event) {
+        if (event.getChannel() == null) {
+            return "";
+        }
+        return event.getChannel().getName();
+    }
+    
+    /**
+     * 情報表示コマンドの実況フラグを取得
+     * 
+     * @param type コマンドの種類。
+     * @return 実況フラグ。
+     */
+    private EnumSet<AnnounceFlag> getInfoAnnounceFlag(final CommandType type) {
+        switch (type) {
+        case INFO:
+            return ANNOUNCE_FLAG_FIELD;
+        case RIVER:
+            return ANNOUNCE_FLAG_RIVER;
+        case RIVER_ALL:
+            return ANNOUNCE_FLAG_RIVER_ALL;
+        case INFO_RIVER:
+            return ANNOUNCE_FLAG_FIELD_AND_RIVER;
+        case INFO_RIVER_ALL:
+            return ANNOUNCE_FLAG_FIELD_AND_RIVER_ALL;
+        default:
+            throw new IllegalArgumentException("Invalid command type - " + type);
+        }
+    }
+    
+    /**
+     * コマンド処理
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param command コマンド。
+     * @param startTime 受信時刻。(ナノ秒)
+     */
+    private void onCommand(final String channel, final String playerName, final Command command, final long startTime) {
+        final String commandName = command.getType().name().toLowerCase();
+        LockProfiler.getInstance().setCommand(commandName);
         try {
-            if (message.equals("jan ochiro")) {
-                _confirmMode = false;
-                IRCBOT.getInstance().println("(  ；∀；)");
-                IRCBOT.getInstance().disconnect();
-            }
-            else if (message.equals("jan e") || message.equals("jan end")) {
-                _confirmMode = false;
-                GameMaster.getInstance().onEnd();
-            }
-            else if (message.equals("jan d")) {
-                _confirmMode = false;
-                GameMaster.getInstance().onContinue();
-            }
-            else if (message.equals("jan i")) {
-                GameMaster.getInstance().onInfo(ANNOUNCE_FLAG_FIELD);
-            }
-            else if (message.equals("jan r")) {
-                GameMaster.getInstance().onInfo(ANNOUNCE_FLAG_RIVER);
-            }
-            else if (message.equals("jan ra")) {
-                GameMaster.getInstance().onInfo(ANNOUNCE_FLAG_RIVER_ALL);
-            }
-            else if (message.equals("jan i r") || message.equals("jan r i")) {
-                GameMaster.getInstance().onInfo(ANNOUNCE_FLAG_FIELD_AND_RIVER);
-            }
-            else if (message.startsWith("jan chi ")) {
-                _confirmMode = false;
-                GameMaster.getInstance().onCallChi(playerName, message.substring(8));
-            }
-            else if (message.equals("jan pon")) {
-                _confirmMode = false;
-                GameMaster.getInstance().onCallPon(playerName);
-            }
-            else if (message.startsWith("jan kan ")) {
-                _confirmMode = false;
-                GameMaster.getInstance().onCallKan(playerName, message.substring(8));
-            }
-            else if (message.equals("jan ron")) {
-                _confirmMode = false;
-                GameMaster.getInstance().onCompleteRon(playerName);
+            if (GameMaster.getInstance().isConfirming(channel, playerName)) {
+                onTurnResult(channel, playerName, onConfirmCommand(channel, playerName, command));
+                return;
             }
-            else if (message.equals("jan help")) {
+            
+            TurnResult result = TurnResult.CONTINUE;
+            switch (command.getType()) {
+            case SHUTDOWN:
+                shutdown(channel);
+                break;
+            case START:
+                result = GameMaster.getInstance().onStartSolo(channel, playerName);
+                break;
+            case END:
+                GameMaster.getInstance().onEnd(channel, playerName);
+                break;
+            case DISCARD:
+                if (command.getPai() == null) {
+                    result = GameMaster.getInstance().onDiscard(channel, playerName);
+                }
+                else {
+                    result = GameMaster.getInstance().onDiscard(channel, playerName, command.getPai());
+                }
+                break;
+            case INFO:
+            case RIVER:
+            case RIVER_ALL:
+            case INFO_RIVER:
+            case INFO_RIVER_ALL:
+                GameMaster.getInstance().onInfo(channel, playerName, getInfoAnnounceFlag(command.getType()));
+                break;
+//            case RICHI:
+//                TODO リーチ対応
+//                result = GameMaster.getInstance().onRichi(channel, playerName, command.getPai());
+//                break;
+            case KAN:
+                result = GameMaster.getInstance().onCallKan(channel, playerName, command.getPai());
+                break;
+            case TSUMO:
+                result = GameMaster.getInstance().onCompleteTsumo(channel, playerName);
+                break;
+            case REPLAY:
+                final List<String> argList = command.getArgList();
+                switch (argList.size()) {
+                case 0:
+                    result = GameMaster.getInstance().onReplay(channel, playerName);
+                    break;
+                case 1:
+                    result = GameMaster.getInstance().onReplay(channel, playerName, argList.get(0));
+                    break;
+                default:
+                    result = GameMaster.getInstance().onReplay(channel, playerName, argList.get(0), argList.get(1));
+                    break;
+                }
+                break;
+            case HELP:
                 final List<String> messageList =
-                    Arrays.asList("chi X：指定牌(ex.3p)を先頭牌としてチー",
-                                  "pon：ポン   kan X：指定牌でカン   ron：ロン",
+                    Arrays.asList("s：開始   e：終了   replay：リプレイ",
+                                  "i：状態   r：捨て牌   d X：指定牌(ex.9p)を切る (X指定無し：ツモ切り)",
                                   "ra：他家を含む全ての捨て牌",
-                                  "d：キャンセル");
-                IRCBOT.getInstance().println(messageList);
-            }
+                                  "tsumo：ツモ和了   kan X：指定牌でカン",
+                                  "stats：統計   locks [on|off|reset]：ロック計測");
+                MessageDispatcher.getInstance().talk(channel, messageList);
+                break;
+            case STATS:
+                MessageDispatcher.getInstance().talk(channel, GameMetrics.getInstance().toLineList());
+                break;
+            case LOCKS:
+                onLockProfileCommand(channel, command.getArgList());
+                break;
+            case REACT_RICHI_DECLARE:
+                MessageDispatcher.getInstance().talk(channel, "⊂" + COLOR_FLAG + "04" + "●" + COLOR_FLAG + "⊃");
+                break;
+            case REACT_RICHI:
+                MessageDispatcher.getInstance().talk(channel, "⊂" + COLOR_FLAG + "04" + "・" + COLOR_FLAG + "⊃");
+                break;
+            case REACT_KAROSEN:
+                MessageDispatcher.getInstance().talk(channel, "⊂" + COLOR_FLAG + "04" + "㌍㌢" + COLOR_FLAG + "⊃");
+                break;
+            case REACT_KYUIN:
+                MessageDispatcher.getInstance().talk(channel, "⊂" + COLOR_FLAG + "04" + "㌒㌅" + COLOR_FLAG + "⊃");
+                break;
+            default:
+                // 確認待ち専用のコマンドは無視
+                break;
+            }
+            onTurnResult(channel, playerName, result);
+        }
+        catch (final BoneheadException e) {
+            MessageDispatcher.getInstance().talk(channel, "(  ´∀｀) ＜ チョンボ");
+        }
+        catch (final InvalidInputException e) {
+            // 指定ミスに対しては何もしない
+        }
+        catch (final JanException e) {
+            MessageDispatcher.getInstance().talk(channel, "(  ´∀｀) ＜ " + e.getMessage());
+        }
+        catch (final IOException e) {
+            // 受信スレッドには戻せないので、ここで記録する
+            MessageDispatcher.getInstance().talk(channel, "(  ´∀｀) ＜ " + e.getMessage());
+            e.printStackTrace();
+        }
+        catch (final InterruptedException e) {
+            // 切断待ちの中断は割り込み状態だけ戻す
+            Thread.currentThread().interrupt();
         }
         catch (final Throwable e) {
-            // 確認モード継続
-            _confirmMode = true;
+            MessageDispatcher.getInstance().talk(channel, "(  ´∀｀) ＜ " + e.getMessage());
             throw e;
         }
+        finally {
+            GameMetrics.getInstance().recordCommand(commandName, System.nanoTime() - startTime);
+            LockProfiler.getInstance().clearCommand();
+        }
+    }
+    
+    /**
+     * 確認待ちのコマンド処理
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param command コマンド。
+     * @return 処理結果。
+     * @throws JanException 例外イベント。
+     * @throws InterruptedException 割り込みが発生した。
+     */
+    private TurnResult onConfirmCommand(final String channel, final String playerName, final Command command) throws JanException, InterruptedException {
+        TurnResult result = TurnResult.CONTINUE;
+        switch (command.getType()) {
+        case SHUTDOWN:
+            shutdown(channel);
+            break;
+        case END:
+            GameMaster.getInstance().onEnd(channel, playerName);
+            break;
+        case DISCARD:
+            if (command.getPai() == null) {
+                result = GameMaster.getInstance().onContinue(channel, playerName);
+            }
+            break;
+        case INFO:
+        case RIVER:
+        case RIVER_ALL:
+        case INFO_RIVER:
+            GameMaster.getInstance().onInfo(channel, playerName, getInfoAnnounceFlag(command.getType()));
+            break;
+        case CHI:
+            result = GameMaster.getInstance().onCallChi(channel, playerName, command.getPai());
+            break;
+        case PON:
+            result = GameMaster.getInstance().onCallPon(channel, playerName);
+            break;
+        case KAN:
+            result = GameMaster.getInstance().onCallKan(channel, playerName, command.getPai());
+            break;
+        case RON:
+            result = GameMaster.getInstance().onCompleteRon(channel, playerName);
+            break;
+        case HELP:
+            final List<String> messageList =
+                Arrays.asList("chi X：指定牌(ex.3p)を先頭牌としてチー",
+                              "pon：ポン   kan X：指定牌でカン   ron：ロン",
+                              "ra：他家を含む全ての捨て牌",
+                              "d：キャンセル");
+            MessageDispatcher.getInstance().talk(channel, messageList);
+            break;
+        default:
+            // 確認待ち中は他のコマンドを無視
+            break;
+        }
+        return result;
     }
     
     /**
      * ゲーム終了時の処理
      * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
      * @param status ゲーム終了状態。
      */
-    private void onGameSet(final GameSetStatus status) {
+    private void onGameSet(final String channel, final String playerName, final GameSetStatus status) {
         switch (status) {
         case GAME_OVER:
-            GameMaster.getInstance().onInfo(ANNOUNCE_FLAG_GAME_OVER);
+            GameMaster.getInstance().onInfo(channel, playerName, ANNOUNCE_FLAG_GAME_OVER);
+            break;
+        case COMPLETE_TSUMO:
+        case COMPLETE_RON:
+            // 和了は宣言時に実況済み
             break;
         default:
             throw new InternalError();
         }
     }
     
+    /**
+     * ロック計測コマンドの処理
+     * 
+     * @param channel チャンネル名。
+     * @param argList 引数リスト。(on：計測開始 off：計測終了 reset：消去 指定無し：表示)
+     */
+    private void onLockProfileCommand(final String channel, final List<String> argList) {
+        final LockProfiler profiler = LockProfiler.getInstance();
+        if (argList.isEmpty()) {
+            MessageDispatcher.getInstance().talk(channel, profiler.toLineList());
+            return;
+        }
+        
+        switch (argList.get(0)) {
+        case "on":
+            profiler.setEnabled(true);
+            break;
+        case "off":
+            profiler.setEnabled(false);
+            break;
+        case "reset":
+            profiler.reset();
+            break;
+        default:
+            // 不明な引数は無視
+            return;
+        }
+        MessageDispatcher.getInstance().talk(channel, "lock profile: " + (profiler.isEnabled() ? "on" : "off"));
+    }
+    
+    /**
+     * 処理結果に応じた後処理
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param result 処理結果。
+     */
+    private void onTurnResult(final String channel, final String playerName, final TurnResult result) {
+        if (result.isCallable()) {
+            final Map<String, List<CallType>> callableTable = result.getCallableTable();
+            if (callableTable.isEmpty()) {
+                // 席の指定がない場合は処理を行ったプレイヤーが確認待ち (ソロプレイ)
+                GameMaster.getInstance().openPrompt(channel, playerName, result.getCallTypeList());
+            }
+            else {
+                for (final Map.Entry<String, List<CallType>> entry : callableTable.entrySet()) {
+                    GameMaster.getInstance().openPrompt(channel, entry.getKey(), entry.getValue());
+                }
+            }
+            GameMaster.getInstance().onInfo(channel, playerName, convertToCallAnnounceType(result.getCallTypeList()));
+        }
+        else if (result.isGameSet()) {
+            onGameSet(channel, playerName, result.getStatus());
+        }
+    }
+    
+    /**
+     * BOTを切断
+     * 
+     * @param channel チャンネル名。
+     * @throws InterruptedException 割り込みが発生した。
+     */
+    private void shutdown(final String channel) throws InterruptedException {
+        MessageDispatcher.getInstance().talk(channel, "(  ；∀；)");
+        MessageDispatcher.getInstance().flush(DISCONNECT_FLUSH_TIMEOUT);
+        IRCBOT.getInstance().disconnect();
+    }
+    
     
     
     /**
@@ -318,12 +475,17 @@ final class MessageListener<T extends PircBotX> extends ListenerAdapter<T> {
      */
     private static final char COLOR_FLAG = 3;
     
+    /**
+     * 切断前に未送信メッセージを待機する時間 (ミリ秒)
+     */
+    private static final long DISCONNECT_FLUSH_TIMEOUT = 5000L;
+    
     
     
     /**
-     * 確認モード
+     * 受信イベントの振り分け
      */
-    private volatile boolean _confirmMode = false;
+    private final EventDispatcher _dispatcher = new EventDispatcher();
     
 }
 
@@ -0,0 +1,128 @@
+/**
+ * CallPrompt.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+
+
+/**
+ * 副露の確認待ち (1席分)
+ */
+final class CallPrompt {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param playerName 確認待ちのプレイヤー名。
+     * @param callTypeList 可能な副露タイプのリスト。
+     */
+    public CallPrompt(final String playerName, final List<CallType> callTypeList) {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (callTypeList == null) {
+            throw new NullPointerException("Call type list is null.");
+        }
+        
+        _playerName = playerName;
+        _callTypeList = Collections.unmodifiableList(new ArrayList<>(callTypeList));
+    }
+    
+    
+    
+    /**
+     * 時間切れの予約を取り消す
+     */
+    public void cancelTimeout() {
+        final Future<?> future;
+        synchronized (_FUTURE_LOCK) {
+            _cancelled = true;
+            future = _timeoutFuture;
+        }
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+    
+    /**
+     * 可能な副露タイプのリストを取得
+     * 
+     * @return 可能な副露タイプのリスト。(読み取り専用)
+     */
+    public List<CallType> getCallTypeList() {
+        return _callTypeList;
+    }
+    
+    /**
+     * 確認待ちのプレイヤー名を取得
+     * 
+     * @return 確認待ちのプレイヤー名。
+     */
+    public String getPlayerName() {
+        return _playerName;
+    }
+    
+    /**
+     * 時間切れの予約を設定
+     * 
+     * @param future 時間切れ処理の予約。(取り消し済みの場合はすぐに取り消す)
+     */
+    public void setTimeoutFuture(final Future<?> future) {
+        synchronized (_FUTURE_LOCK) {
+            if (!_cancelled) {
+                _timeoutFuture = future;
+                return;
+            }
+        }
+        future.cancel(false);
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return _playerName + " " + _callTypeList;
+    }
+    
+    
+    
+    /**
+     * ロックオブジェクト (時間切れの予約)
+     */
+    private final Object _FUTURE_LOCK = new Object();
+    
+    
+    
+    /**
+     * 確認待ちのプレイヤー名
+     */
+    private final String _playerName;
+    
+    /**
+     * 可能な副露タイプのリスト
+     */
+    private final List<CallType> _callTypeList;
+    
+    /**
+     * 時間切れ処理の予約
+     */
+    private Future<?> _timeoutFuture = null;
+    
+    /**
+     * 予約を取り消したか
+     */
+    private boolean _cancelled = false;
+    
+}
+
@@ -0,0 +1,26 @@
+/**
+ * CallPromptListener.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * 副露の確認待ちの時間切れの通知先
+ */
+public interface CallPromptListener {
+    
+    /**
+     * 確認待ちが時間切れになった (キャンセル扱いでゲームを進めた後に通知)
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param result ゲームを進めた処理結果。
+     */
+    public void onTimeout(final String channel, final String playerName, final TurnResult result);
+    
+}
+
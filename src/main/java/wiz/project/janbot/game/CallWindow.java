@@ -0,0 +1,349 @@
+/**
+ * CallWindow.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * 副露の受付 (打牌1回分)
+ * 
+ * 副露可能な全員の応答を集め、優先順位 (ロン > ポン・カン > チー) で1人に決める。
+ * ロンが重なった場合は打牌者の下家から近い順に優先する。(頭ハネ)
+ * 未応答の席が現在の最優先の応答を上回れなくなった時点で決着し、全員の応答を待たない。
+ * 時間切れ処理を含め、卓のメールボックスからのみ操作する。(スレッドセーフではない)
+ */
+final class CallWindow {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param discardWind 打牌者の風。
+     * @param discard 捨て牌。
+     * @param callableTable 席ごとの可能な副露タイプのリスト。(空のリストの席は対象外)
+     */
+    public CallWindow(final Wind discardWind, final JanPai discard, final Map<Wind, List<CallType>> callableTable) {
+        if (discardWind == null) {
+            throw new NullPointerException("Discard wind is null.");
+        }
+        if (discard == null) {
+            throw new NullPointerException("Discard is null.");
+        }
+        if (callableTable == null) {
+            throw new NullPointerException("Callable table is null.");
+        }
+        
+        _discardWind = discardWind;
+        _discard = discard;
+        for (final Map.Entry<Wind, List<CallType>> entry : callableTable.entrySet()) {
+            if (entry.getKey() != discardWind && !entry.getValue().isEmpty()) {
+                _callableTable.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+            }
+        }
+        _pendingList.addAll(_callableTable.keySet());
+        updateDecided();
+    }
+    
+    
+    
+    /**
+     * 未応答の席を全て見送り扱いにする (時間切れ)
+     * 
+     * @return 決着したか。
+     */
+    public boolean expire() {
+        _pendingList.clear();
+        return updateDecided();
+    }
+    
+    /**
+     * 席ごとの可能な副露タイプのリストを取得
+     * 
+     * @param wind 対象の風。
+     * @return 可能な副露タイプのリスト。(読み取り専用) 対象外の席は空のリスト。
+     */
+    public List<CallType> getCallableList(final Wind wind) {
+        final List<CallType> callableList = _callableTable.get(wind);
+        return callableList != null ? callableList : Collections.<CallType>emptyList();
+    }
+    
+    /**
+     * 捨て牌を取得
+     * 
+     * @return 捨て牌。
+     */
+    public JanPai getDiscard() {
+        return _discard;
+    }
+    
+    /**
+     * 打牌者の風を取得
+     * 
+     * @return 打牌者の風。
+     */
+    public Wind getDiscardWind() {
+        return _discardWind;
+    }
+    
+    /**
+     * 採用された副露タイプを取得
+     * 
+     * @return 副露タイプ。未決着、または全員見送りの場合はnull。
+     */
+    public CallType getWinnerCallType() {
+        return _decided ? _bestCallType : null;
+    }
+    
+    /**
+     * 採用された席の風を取得
+     * 
+     * @return 風。未決着、または全員見送りの場合はnull。
+     */
+    public Wind getWinnerWind() {
+        return _decided ? _bestWind : null;
+    }
+    
+    /**
+     * 決着したか
+     * 
+     * @return 判定結果。
+     */
+    public boolean isDecided() {
+        return _decided;
+    }
+    
+    /**
+     * 未応答の席か
+     * 
+     * @param wind 対象の風。
+     * @return 判定結果。(決着後は常にfalse)
+     */
+    public boolean isPending(final Wind wind) {
+        return !_decided && _pendingList.contains(wind);
+    }
+    
+    /**
+     * 見送り
+     * 
+     * @param wind 応答した席の風。
+     * @return 決着したか。
+     */
+    public boolean pass(final Wind wind) {
+        if (_decided) {
+            // 決着後の応答は無視
+            return true;
+        }
+        checkPending(wind);
+        _pendingList.remove(wind);
+        return updateDecided();
+    }
+    
+    /**
+     * 副露の応答
+     * 
+     * @param wind 応答した席の風。
+     * @param callType 副露タイプ。
+     * @return 決着したか。
+     */
+    public boolean respond(final Wind wind, final CallType callType) {
+        if (callType == null) {
+            throw new NullPointerException("Call type is null.");
+        }
+        
+        if (_decided) {
+            // 決着後の応答は無視
+            return true;
+        }
+        checkPending(wind);
+        if (!_callableTable.get(wind).contains(callType)) {
+            throw new IllegalArgumentException("Invalid call type - " + callType);
+        }
+        
+        _pendingList.remove(wind);
+        if (beats(wind, callType, _bestWind, _bestCallType)) {
+            _bestWind = wind;
+            _bestCallType = callType;
+        }
+        return updateDecided();
+    }
+    
+    /**
+     * 決着の処理権を取得
+     * 
+     * 決着後に最初の呼び出しのみがtrueを得る。(応答者と時間切れ処理の二重適用を防ぐ)
+     * 
+     * @return 処理権を得たか。
+     */
+    public boolean takeDecision() {
+        if (!_decided || _taken) {
+            return false;
+        }
+        _taken = true;
+        return true;
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return _discardWind + " " + _discard + " callable=" + _callableTable + ", pending=" + _pendingList + ", best=" + _bestWind + "/" + _bestCallType;
+    }
+    
+    
+    
+    /**
+     * 応答が既存の最優先の応答を上回るか
+     * 
+     * @param wind 応答した席の風。
+     * @param callType 副露タイプ。
+     * @param bestWind 最優先の応答の風。
+     * @param bestCallType 最優先の応答の副露タイプ。
+     * @return 判定結果。
+     */
+    private boolean beats(final Wind wind, final CallType callType, final Wind bestWind, final CallType bestCallType) {
+        if (bestCallType == null) {
+            return true;
+        }
+        
+        final int priority = getPriority(callType);
+        final int bestPriority = getPriority(bestCallType);
+        if (priority != bestPriority) {
+            return priority > bestPriority;
+        }
+        return getDistance(wind) < getDistance(bestWind);
+    }
+    
+    /**
+     * 未応答の席か確認
+     * 
+     * @param wind 応答した席の風。
+     */
+    private void checkPending(final Wind wind) {
+        if (wind == null) {
+            throw new NullPointerException("Wind is null.");
+        }
+        if (!_pendingList.contains(wind)) {
+            throw new IllegalArgumentException("Invalid wind - " + wind);
+        }
+    }
+    
+    /**
+     * 打牌者の下家からの距離を取得
+     * 
+     * @param wind 対象の風。
+     * @return 距離。(下家が1)
+     */
+    private int getDistance(final Wind wind) {
+        int distance = 1;
+        for (Wind target = _discardWind.getNext(); target != wind; target = target.getNext()) {
+            distance++;
+        }
+        return distance;
+    }
+    
+    /**
+     * 副露タイプの優先度を取得
+     * 
+     * @param callType 副露タイプ。
+     * @return 優先度。(大きいほど優先)
+     */
+    private int getPriority(final CallType callType) {
+        switch (callType) {
+        case RON:
+            return 3;
+        case PON:
+        case KAN_LIGHT:
+            return 2;
+        case CHI:
+            return 1;
+        default:
+            return 0;
+        }
+    }
+    
+    /**
+     * 決着したか判定して更新
+     * 
+     * @return 決着したか。
+     */
+    private boolean updateDecided() {
+        if (!_decided) {
+            boolean decided = true;
+            for (final Wind wind : _pendingList) {
+                // 未応答の席が最も強い応答をした場合に上回れるか
+                for (final CallType callType : _callableTable.get(wind)) {
+                    if (beats(wind, callType, _bestWind, _bestCallType)) {
+                        decided = false;
+                        break;
+                    }
+                }
+                if (!decided) {
+                    break;
+                }
+            }
+            if (decided) {
+                _decided = true;
+            }
+        }
+        return _decided;
+    }
+    
+    
+    
+    /**
+     * 打牌者の風
+     */
+    private final Wind _discardWind;
+    
+    /**
+     * 捨て牌
+     */
+    private final JanPai _discard;
+    
+    /**
+     * 席ごとの可能な副露タイプのリスト
+     */
+    private final Map<Wind, List<CallType>> _callableTable = new EnumMap<>(Wind.class);
+    
+    /**
+     * 未応答の席のリスト
+     */
+    private final List<Wind> _pendingList = new ArrayList<>();
+    
+    /**
+     * 最優先の応答の風
+     */
+    private Wind _bestWind = null;
+    
+    /**
+     * 最優先の応答の副露タイプ
+     */
+    private CallType _bestCallType = null;
+    
+    /**
+     * 決着したか
+     */
+    private boolean _decided = false;
+    
+    /**
+     * 決着の処理権を取得済みか
+     */
+    private boolean _taken = false;
+    
+}
+
@@ -0,0 +1,29 @@
+/**
+ * CallWindowListener.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.List;
+
+
+
+/**
+ * 副露の受付の時間切れの通知先
+ */
+interface CallWindowListener {
+    
+    /**
+     * 副露の受付が時間切れになった (未応答の席を見送り扱いにして決着を適用した後に通知)
+     * 
+     * 卓のメールボックスから呼び出す。
+     * 
+     * @param playerNameList 時間切れになった席のプレイヤー名のリスト。
+     * @param result 決着を適用した処理結果。
+     */
+    public void onTimeout(final List<String> playerNameList, final TurnResult result);
+    
+}
+
@@ -4,10 +4,10 @@
 
 package wiz.project.janbot.game;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Observer;
 
 import wiz.project.jan.JanPai;
 import wiz.project.jan.Wind;
@@ -31,13 +31,11 @@ class ChmJanController implements JanController {
     /**
      * コンストラクタ
      * 
-     * @param observer 監視者。
+     * @param listener イベントの購読者。
      */
-    public ChmJanController(final Observer observer) {
-        if (observer != null) {
-            synchronized (_GAME_INFO_LOCK) {
-                _info.addObserver(observer);
-            }
+    public ChmJanController(final GameEventListener listener) {
+        if (listener != null) {
+            _eventBus.subscribe(listener);
         }
     }
     
@@ -46,7 +44,7 @@ class ChmJanController implements JanController {
     /**
      * 副露
      */
-    public void call(final String playerName, final CallType type, final JanPai target) throws JanException {
+    public TurnResult call(final String playerName, final CallType type, final JanPai target) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -106,6 +104,7 @@ class ChmJanController implements JanController {
                 default:
                     throw new IllegalArgumentException("Invalid call type - " + type);
                 }
+                return TurnResult.CONTINUE;
             }
             catch (final Throwable e) {
                 // 副露しない場合、アクティブプレイヤーを元に戻す
@@ -118,7 +117,7 @@ class ChmJanController implements JanController {
     /**
      * 和了 (ロン)
      */
-    public void completeRon(final String playerName) throws JanException {
+    public TurnResult completeRon(final String playerName) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -148,7 +147,8 @@ class ChmJanController implements JanController {
                 
                 // ゲームセット
                 _onGame = false;
-                _info.notifyObservers(ANNOUNCE_FLAG_COMPLETE_RON);
+                publish(GameEventType.AGARI, _info.getActiveWind(), discard, null, GameSetStatus.COMPLETE_RON, ANNOUNCE_FLAG_COMPLETE_RON);
+                return TurnResult.gameSet(GameSetStatus.COMPLETE_RON);
             }
             catch (final Throwable e) {
                 // 和了しない場合、アクティブプレイヤーを元に戻す
@@ -161,7 +161,7 @@ class ChmJanController implements JanController {
     /**
      * 和了 (ツモ)
      */
-    public void completeTsumo() throws JanException {
+    public TurnResult completeTsumo() throws JanException {
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
@@ -172,26 +172,28 @@ class ChmJanController implements JanController {
             
             // ゲームセット
             _onGame = false;
-            _info.notifyObservers(ANNOUNCE_FLAG_COMPLETE_TSUMO);
+            publish(GameEventType.AGARI, _info.getActiveWind(), _info.getActiveTsumo(), null, GameSetStatus.COMPLETE_TSUMO, ANNOUNCE_FLAG_COMPLETE_TSUMO);
+            return TurnResult.gameSet(GameSetStatus.COMPLETE_TSUMO);
         }
     }
     
     /**
      * 打牌 (ツモ切り)
      */
-    public void discard() throws JanException {
+    public TurnResult discard() throws JanException {
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
         
         // TODO 打牌処理
         // SoloJanController からパクればOK？
+        return TurnResult.CONTINUE;
     }
     
     /**
      * 打牌 (手出し)
      */
-    public void discard(final JanPai target) throws JanException {
+    public TurnResult discard(final JanPai target) throws JanException {
         if (target == null) {
             throw new NullPointerException("Discard target is null.");
         }
@@ -201,6 +203,21 @@ class ChmJanController implements JanController {
         
         // TODO 打牌処理
         // SoloJanController からパクればOK？
+        return TurnResult.CONTINUE;
+    }
+    
+    /**
+     * 操作履歴を取得
+     */
+    public List<GameAction> getActionList() {
+        return Collections.emptyList();
+    }
+    
+    /**
+     * イベント配信を取得
+     */
+    public GameEventBus getEventBus() {
+        return _eventBus;
     }
     
     /**
@@ -208,33 +225,64 @@ class ChmJanController implements JanController {
      */
     public JanInfo getGameInfo() {
         synchronized (_GAME_INFO_LOCK) {
-            return _info.clone();
+            return _info.snapshot();
         }
     }
     
+    /**
+     * 手番の進行状態を取得
+     */
+    public TurnPhase getPhase() {
+        return _phase;
+    }
+    
     /**
      * 次のプレイヤーの打牌へ
      */
-    public void next() throws JanException {
+    public TurnResult next() throws JanException {
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
         
         // TODO 打牌処理
         // SoloJanController からパクればOK？
+        return TurnResult.CONTINUE;
+    }
+    
+    /**
+     * 副露の見送り
+     */
+    public TurnResult pass(final String playerName) throws JanException {
+        return next();
+    }
+    
+    /**
+     * 操作履歴を再実行して開始
+     */
+    public TurnResult replay(final List<JanPai> deck, final Map<Wind, Player> playerTable, final List<GameAction> actionList, final int turn) throws JanException {
+        throw new JanException("Replay is not supported.");
     }
     
     /**
      * リーチ
      */
-    public void richi(final JanPai target) throws JanException {
+    public TurnResult richi(final JanPai target) throws JanException {
         // 上が未実装なのでここには来ない
+        return TurnResult.CONTINUE;
+    }
+    
+    /**
+     * NPCの手番を自動で進めるか設定
+     */
+    public void setAutoPlay(final boolean autoPlay) {
+        // TODO 手番処理
+        // 手番処理を実装するまでは、自動で進めるかどうかに関係なく step() は何もしない
     }
     
     /**
      * 開始
      */
-    public void start(final List<JanPai> deck, final Map<Wind, Player> playerTable) throws JanException {
+    public TurnResult start(final List<JanPai> deck, final Map<Wind, Player> playerTable) throws JanException {
         if (deck == null) {
             throw new NullPointerException("Deck is null.");
         }
@@ -263,11 +311,48 @@ class ChmJanController implements JanController {
             // TODO ゲーム開始処理
             // 基本は SoloJanController から流用でOK
             // 王牌を生成しなかったり残り枚数が70じゃなかったり色々
+            return TurnResult.CONTINUE;
+        }
+    }
+    
+    /**
+     * 1手番進める
+     */
+    public TurnResult step() throws JanException {
+        if (!_onGame) {
+            throw new JanException("Game is not started.");
         }
+        
+        // TODO 手番処理
+        // SoloJanController の stepCore() を流用すればOK？
+        return TurnResult.CONTINUE;
     }
     
     
     
+    /**
+     * イベントを発行
+     * 
+     * 購読者がいない場合はスナップショットを作らない。
+     * 
+     * @param type イベントの種類。
+     * @param wind 対象プレイヤーの風。
+     * @param pai 対象牌。
+     * @param callType 副露タイプ。
+     * @param status ゲーム終了状態。
+     * @param flagSet 実況フラグ。
+     */
+    private void publish(final GameEventType type,
+                         final Wind wind,
+                         final JanPai pai,
+                         final CallType callType,
+                         final GameSetStatus status,
+                         final EnumSet<AnnounceFlag> flagSet) {
+        if (_eventBus.hasListener()) {
+            _eventBus.publish(new GameEvent(type, _info.snapshot(), wind, pai, callType, status, flagSet));
+        }
+    }
+    
     /**
      * 実況フラグ
      */
@@ -298,10 +383,20 @@ class ChmJanController implements JanController {
      */
     private JanInfo _info = new JanInfo();
     
+    /**
+     * イベント配信
+     */
+    private final GameEventBus _eventBus = new GameEventBus();
+    
     /**
      * ゲーム中か
      */
     private volatile boolean _onGame = false;
     
+    /**
+     * 手番の進行状態
+     */
+    private volatile TurnPhase _phase = TurnPhase.IDLE;
+    
 }
 
@@ -0,0 +1,100 @@
+/**
+ * Deck.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * 生成済みの牌山
+ */
+final class Deck {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param paiList 牌のリスト。
+     * @param windList 席決め用の風の並び。
+     * @param seed 乱数の種。
+     * @param seeded 種から再現できるか。
+     */
+    Deck(final List<JanPai> paiList, final List<Wind> windList, final long seed, final boolean seeded) {
+        _paiList = paiList;
+        _windList = windList;
+        _seed = seed;
+        _seeded = seeded;
+    }
+    
+    
+    
+    /**
+     * 牌のリストを取得
+     * 
+     * @return 牌のリスト。(複製)
+     */
+    public List<JanPai> getPaiList() {
+        return new ArrayList<>(_paiList);
+    }
+    
+    /**
+     * 乱数の種を取得
+     * 
+     * @return 乱数の種。種から再現できない場合は0。
+     */
+    public long getSeed() {
+        return _seed;
+    }
+    
+    /**
+     * 席決め用の風の並びを取得
+     * 
+     * 参加者は先頭の風から順に座る。
+     * 
+     * @return 風のリスト。(複製)
+     */
+    public List<Wind> getWindList() {
+        return new ArrayList<>(_windList);
+    }
+    
+    /**
+     * 種から再現できるか
+     * 
+     * @return 判定結果。
+     */
+    public boolean isSeeded() {
+        return _seeded;
+    }
+    
+    
+    
+    /**
+     * 牌のリスト
+     */
+    private final List<JanPai> _paiList;
+    
+    /**
+     * 席決め用の風の並び
+     */
+    private final List<Wind> _windList;
+    
+    /**
+     * 乱数の種
+     */
+    private final long _seed;
+    
+    /**
+     * 種から再現できるか
+     */
+    private final boolean _seeded;
+    
+}
+
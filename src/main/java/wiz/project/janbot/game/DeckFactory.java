@@ -0,0 +1,214 @@
+/**
+ * DeckFactory.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.jan.util.JanPaiUtil;
+
+
+
+/**
+ * 牌山の生成
+ * 
+ * 牌は序数のbyte配列上でシャッフルし、最後に一度だけ牌のリストへ変換する。(作業領域は使い回す)
+ * 席決め用の風の並びも同じ乱数列から決める。
+ * 種付きの生成器は牌山ごとの種を主乱数列から引き、その種だけで牌山を再現できる。
+ * 対局用の生成器はSecureRandomで直接シャッフルするため再現できない。(牌譜には牌山そのものを残す)
+ */
+final class DeckFactory {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param random 乱数生成器。
+     * @param seeded 種から再現できる牌山を生成するか。
+     */
+    private DeckFactory(final Random random, final boolean seeded) {
+        _random = random;
+        _seeded = seeded;
+    }
+    
+    
+    
+    /**
+     * 対局用の生成器を生成
+     * 
+     * @return 牌山の生成器。
+     */
+    public static DeckFactory newSecureFactory() {
+        return new DeckFactory(new SecureRandom(), false);
+    }
+    
+    /**
+     * 種付きの生成器を生成 (シミュレーション用)
+     * 
+     * @param seed 主乱数列の種。
+     * @return 牌山の生成器。
+     */
+    public static DeckFactory newSeededFactory(final long seed) {
+        return new DeckFactory(new XoshiroRandom(seed), true);
+    }
+    
+    
+    
+    /**
+     * 牌山を生成
+     * 
+     * @return 牌山。
+     */
+    public Deck createDeck() {
+        synchronized (_RANDOM_LOCK) {
+            if (!_seeded) {
+                return new Deck(shuffleDeck(_random), shuffleWind(_random), 0L, false);
+            }
+            return createDeckCore(_random.nextLong());
+        }
+    }
+    
+    /**
+     * 種から牌山を生成
+     * 
+     * @param seed 牌山の種。
+     * @return 牌山。(同じ種からは同じ牌山)
+     */
+    public Deck createDeck(final long seed) {
+        synchronized (_RANDOM_LOCK) {
+            return createDeckCore(seed);
+        }
+    }
+    
+    /**
+     * 独立した生成器を生成
+     * 
+     * 種付きの場合、新しい生成器の種は主乱数列から引く。(同じ種の生成器からは同じ生成器が得られる)
+     * 
+     * @return 牌山の生成器。
+     */
+    public DeckFactory split() {
+        if (!_seeded) {
+            return newSecureFactory();
+        }
+        synchronized (_RANDOM_LOCK) {
+            return newSeededFactory(_random.nextLong());
+        }
+    }
+    
+    
+    
+    /**
+     * 種から牌山を生成 (ロック取得済み)
+     * 
+     * @param seed 牌山の種。
+     * @return 牌山。
+     */
+    private Deck createDeckCore(final long seed) {
+        if (_deckRandom == null) {
+            _deckRandom = new XoshiroRandom(seed);
+        }
+        else {
+            _deckRandom.setSeed(seed);
+        }
+        final List<JanPai> paiList = shuffleDeck(_deckRandom);
+        return new Deck(paiList, shuffleWind(_deckRandom), seed, true);
+    }
+    
+    /**
+     * 作業領域上で牌山をシャッフル (ロック取得済み)
+     * 
+     * @param random 乱数生成器。
+     * @return 牌のリスト。
+     */
+    private List<JanPai> shuffleDeck(final Random random) {
+        final byte[] work = _work;
+        System.arraycopy(TEMPLATE, 0, work, 0, work.length);
+        for (int i = work.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final byte tmp = work[i];
+            work[i] = work[j];
+            work[j] = tmp;
+        }
+        
+        final List<JanPai> paiList = new ArrayList<>(work.length);
+        for (final byte ordinal : work) {
+            paiList.add(PAI_ARRAY[ordinal]);
+        }
+        return paiList;
+    }
+    
+    /**
+     * 風の並びをシャッフル (ロック取得済み)
+     * 
+     * @param random 乱数生成器。
+     * @return 風のリスト。
+     */
+    private List<Wind> shuffleWind(final Random random) {
+        final Wind[] windArray = Wind.values();
+        for (int i = windArray.length - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final Wind tmp = windArray[i];
+            windArray[i] = windArray[j];
+            windArray[j] = tmp;
+        }
+        return Arrays.asList(windArray);
+    }
+    
+    
+    
+    /**
+     * 牌の一覧 (序数順)
+     */
+    private static final JanPai[] PAI_ARRAY = JanPai.values();
+    
+    /**
+     * 全牌の序数 (シャッフル前の並び)
+     */
+    private static final byte[] TEMPLATE;
+    
+    static {
+        final List<JanPai> allPaiList = JanPaiUtil.createAllJanPaiList();
+        TEMPLATE = new byte[allPaiList.size()];
+        for (int i = 0; i < TEMPLATE.length; i++) {
+            TEMPLATE[i] = (byte)allPaiList.get(i).ordinal();
+        }
+    }
+    
+    
+    
+    /**
+     * ロックオブジェクト (乱数生成器と作業領域)
+     */
+    private final Object _RANDOM_LOCK = new Object();
+    
+    /**
+     * 乱数生成器
+     */
+    private final Random _random;
+    
+    /**
+     * 種から再現できる牌山を生成するか
+     */
+    private final boolean _seeded;
+    
+    /**
+     * 作業領域
+     */
+    private final byte[] _work = new byte[TEMPLATE.length];
+    
+    /**
+     * 牌山用の乱数生成器 (種付きで使い回す)
+     */
+    private XoshiroRandom _deckRandom = null;
+    
+}
+
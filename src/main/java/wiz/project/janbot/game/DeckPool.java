@@ -0,0 +1,249 @@
+/**
+ * DeckPool.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+
+
+/**
+ * シャッフル済み牌山のプール
+ * 
+ * 補充スレッドがプールを上限まで満たしておき、対局開始時はプールから取り出すだけで済ませる。
+ * 補充スレッドごとに生成器を分けるので、補充は互いにロックを奪い合わない。
+ * プールが空の場合は呼び出し元のスレッドで生成し、枯渇として記録する。(対局開始は待たせない)
+ */
+final class DeckPool {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param factory 牌山の生成器。
+     * @param capacity プールする牌山数の上限。
+     * @param threadCount 補充スレッド数。
+     */
+    public DeckPool(final DeckFactory factory, final int capacity, final int threadCount) {
+        if (factory == null) {
+            throw new NullPointerException("Deck factory is null.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity - " + capacity);
+        }
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Invalid thread count - " + threadCount);
+        }
+        
+        _factory = factory;
+        _capacity = capacity;
+        for (int i = 0; i < threadCount; i++) {
+            final DeckFactory threadFactory = factory.split();
+            final Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    refillLoop(threadFactory);
+                }
+            }, "DeckPool-" + i);
+            thread.setDaemon(true);
+            _threadList.add(thread);
+        }
+        for (final Thread thread : _threadList) {
+            thread.start();
+        }
+    }
+    
+    
+    
+    /**
+     * プールする牌山数の上限を取得
+     * 
+     * @return プールする牌山数の上限。
+     */
+    public int getCapacity() {
+        return _capacity;
+    }
+    
+    /**
+     * プール中の牌山数を取得
+     * 
+     * @return プール中の牌山数。
+     */
+    public int getPooledCount() {
+        synchronized (_POOL_LOCK) {
+            return _pool.size();
+        }
+    }
+    
+    /**
+     * 補充した牌山数を取得
+     * 
+     * @return 補充した牌山数。
+     */
+    public long getRefilledCount() {
+        synchronized (_POOL_LOCK) {
+            return _refilledCount;
+        }
+    }
+    
+    /**
+     * プールが空で呼び出し元が生成した回数を取得
+     * 
+     * @return 枯渇回数。
+     */
+    public long getStarvedCount() {
+        synchronized (_POOL_LOCK) {
+            return _starvedCount;
+        }
+    }
+    
+    /**
+     * 枯渇時に呼び出し元が生成に費やした累計時間を取得
+     * 
+     * @return 累計時間。(ナノ秒)
+     */
+    public long getStarvedNanos() {
+        synchronized (_POOL_LOCK) {
+            return _starvedNanos;
+        }
+    }
+    
+    /**
+     * 取り出した牌山数を取得
+     * 
+     * @return 取り出した牌山数。
+     */
+    public long getTakenCount() {
+        synchronized (_POOL_LOCK) {
+            return _takenCount;
+        }
+    }
+    
+    /**
+     * 補充を停止
+     * 
+     * 停止後もプールに残った牌山は取り出せる。空になった後は呼び出し元のスレッドで生成する。
+     */
+    public void shutdown() {
+        synchronized (_POOL_LOCK) {
+            _stopped = true;
+            _POOL_LOCK.notifyAll();
+        }
+    }
+    
+    /**
+     * 牌山を取り出す
+     * 
+     * @return 牌山。
+     */
+    public Deck take() {
+        synchronized (_POOL_LOCK) {
+            _takenCount++;
+            final Deck deck = _pool.poll();
+            if (deck != null) {
+                _POOL_LOCK.notifyAll();
+                return deck;
+            }
+        }
+        
+        // 呼び出し元で生成する
+        final long start = System.nanoTime();
+        final Deck deck = _factory.createDeck();
+        final long elapsed = System.nanoTime() - start;
+        synchronized (_POOL_LOCK) {
+            _starvedCount++;
+            _starvedNanos += elapsed;
+        }
+        return deck;
+    }
+    
+    
+    
+    /**
+     * 補充処理
+     * 
+     * @param factory 補充スレッド専用の生成器。
+     */
+    private void refillLoop(final DeckFactory factory) {
+        try {
+            while (true) {
+                synchronized (_POOL_LOCK) {
+                    while (_pool.size() + _creatingCount >= _capacity) {
+                        if (_stopped) {
+                            return;
+                        }
+                        _POOL_LOCK.wait();
+                    }
+                    if (_stopped) {
+                        return;
+                    }
+                    _creatingCount++;
+                }
+                
+                final Deck deck = factory.createDeck();
+                
+                synchronized (_POOL_LOCK) {
+                    _creatingCount--;
+                    _pool.add(deck);
+                    _refilledCount++;
+                }
+            }
+        }
+        catch (final InterruptedException e) {
+            // 停止
+        }
+    }
+    
+    
+    
+    /**
+     * ロックオブジェクト
+     */
+    private final Object _POOL_LOCK = new Object();
+    
+    
+    
+    /**
+     * 牌山の生成器 (枯渇時用)
+     */
+    private final DeckFactory _factory;
+    
+    /**
+     * プールする牌山数の上限
+     */
+    private final int _capacity;
+    
+    /**
+     * 補充スレッドのリスト
+     */
+    private final List<Thread> _threadList = new ArrayList<>();
+    
+    /**
+     * 牌山のプール
+     */
+    private final Deque<Deck> _pool = new ArrayDeque<>();
+    
+    /**
+     * 停止したか
+     */
+    private boolean _stopped = false;
+    
+    /**
+     * 補充中の牌山数
+     */
+    private int _creatingCount = 0;
+    
+    /**
+     * 統計情報
+     */
+    private long _takenCount = 0;
+    private long _refilledCount = 0;
+    private long _starvedCount = 0;
+    private long _starvedNanos = 0;
+    
+}
+
@@ -0,0 +1,123 @@
+/**
+ * GameAction.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * 牌譜に記録する1操作
+ */
+final class GameAction {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param type 操作の種類。
+     * @param wind 操作したプレイヤーの風。
+     * @param pai 対象牌。対象がない場合はnull。
+     */
+    public GameAction(final GameActionType type, final Wind wind, final JanPai pai) {
+        if (type == null) {
+            throw new NullPointerException("Action type is null.");
+        }
+        if (wind == null) {
+            throw new NullPointerException("Wind is null.");
+        }
+        
+        _type = type;
+        _wind = wind;
+        _pai = pai;
+    }
+    
+    
+    
+    /**
+     * オブジェクトを比較
+     */
+    @Override
+    public boolean equals(final Object target) {
+        if (target == null) {
+            return false;
+        }
+        if (this == target) {
+            return true;
+        }
+        if (!(target instanceof GameAction)) {
+            return false;
+        }
+        
+        final GameAction targetAction = (GameAction)target;
+        return _type == targetAction._type &&
+               _wind == targetAction._wind &&
+               _pai == targetAction._pai;
+    }
+    
+    /**
+     * 対象牌を取得
+     * 
+     * @return 対象牌。対象がない場合はnull。
+     */
+    public JanPai getPai() {
+        return _pai;
+    }
+    
+    /**
+     * 操作の種類を取得
+     * 
+     * @return 操作の種類。
+     */
+    public GameActionType getType() {
+        return _type;
+    }
+    
+    /**
+     * 操作したプレイヤーの風を取得
+     * 
+     * @return 操作したプレイヤーの風。
+     */
+    public Wind getWind() {
+        return _wind;
+    }
+    
+    /**
+     * ハッシュコードを取得
+     */
+    @Override
+    public int hashCode() {
+        return (_type.ordinal() << 16) | (_wind.ordinal() << 8) | (_pai != null ? _pai.ordinal() + 1 : 0);
+    }
+    
+    /**
+     * 文字列に変換
+     */
+    @Override
+    public String toString() {
+        return "[" + _type + "] wind=" + _wind + ", pai=" + _pai;
+    }
+    
+    
+    
+    /**
+     * 操作の種類
+     */
+    private final GameActionType _type;
+    
+    /**
+     * 操作したプレイヤーの風
+     */
+    private final Wind _wind;
+    
+    /**
+     * 対象牌
+     */
+    private final JanPai _pai;
+    
+}
+
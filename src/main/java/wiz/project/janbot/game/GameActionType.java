@@ -0,0 +1,127 @@
+/**
+ * GameActionType.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * 牌譜に記録する操作の種類
+ */
+enum GameActionType {
+    
+    /**
+     * 打牌
+     */
+    DISCARD,
+    
+    /**
+     * リーチ宣言打牌
+     */
+    RICHI,
+    
+    /**
+     * チー
+     */
+    CHI,
+    
+    /**
+     * ポン
+     */
+    PON,
+    
+    /**
+     * 大明カン
+     */
+    KAN_LIGHT,
+    
+    /**
+     * 加カン
+     */
+    KAN_ADD,
+    
+    /**
+     * 暗カン
+     */
+    KAN_DARK,
+    
+    /**
+     * 副露の見送り
+     */
+    NEXT,
+    
+    /**
+     * ロン和了
+     */
+    COMPLETE_RON,
+    
+    /**
+     * ツモ和了
+     */
+    COMPLETE_TSUMO;
+    
+    
+    
+    /**
+     * 副露タイプから変換
+     * 
+     * @param type 副露タイプ。
+     * @return 操作の種類。
+     */
+    public static GameActionType fromCallType(final CallType type) {
+        if (type == null) {
+            throw new NullPointerException("Call type is null.");
+        }
+        
+        switch (type) {
+        case CHI:
+            return CHI;
+        case PON:
+            return PON;
+        case KAN_LIGHT:
+            return KAN_LIGHT;
+        case KAN_ADD:
+            return KAN_ADD;
+        case KAN_DARK:
+            return KAN_DARK;
+        default:
+            throw new IllegalArgumentException("Invalid call type - " + type);
+        }
+    }
+    
+    /**
+     * 打牌か
+     * 
+     * @return 判定結果。
+     */
+    public boolean isDiscard() {
+        return this == DISCARD || this == RICHI;
+    }
+    
+    /**
+     * 副露タイプに変換
+     * 
+     * @return 副露タイプ。副露でない場合はnull。
+     */
+    public CallType toCallType() {
+        switch (this) {
+        case CHI:
+            return CallType.CHI;
+        case PON:
+            return CallType.PON;
+        case KAN_LIGHT:
+            return CallType.KAN_LIGHT;
+        case KAN_ADD:
+            return CallType.KAN_ADD;
+        case KAN_DARK:
+            return CallType.KAN_DARK;
+        default:
+            return null;
+        }
+    }
+    
+}
+
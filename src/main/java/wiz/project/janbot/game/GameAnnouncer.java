@@ -11,11 +11,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Observable;
-import java.util.Observer;
 
-import wiz.project.ircbot.IRCBOT;
-import wiz.project.jan.Hand;
 import wiz.project.jan.JanPai;
 import wiz.project.jan.MenTsu;
 import wiz.project.jan.MenTsuType;
@@ -26,7 +22,7 @@ import wiz.project.jan.Wind;
 /**
  * ゲーム実況者
  */
-public class GameAnnouncer implements Observer {
+public class GameAnnouncer implements GameEventListener {
     
     /**
      * コンストラクタ
@@ -34,23 +30,31 @@ public class GameAnnouncer implements Observer {
     public GameAnnouncer() {
     }
     
+    /**
+     * コンストラクタ
+     * 
+     * @param channel 実況先のチャンネル名。空文字列の場合はBOTの参加チャンネル。
+     */
+    public GameAnnouncer(final String channel) {
+        if (channel != null) {
+            _channel = channel;
+        }
+    }
+    
     
     
     /**
-     * 状況更新時の処理
+     * イベント受信時の処理
      * 
-     * @param target 監視対象。
-     * @param param 更新パラメータ。
+     * @param event ゲームイベント。
      */
-    @SuppressWarnings("unchecked")
-    public void update(final Observable target, final Object param) {
-        if (target instanceof JanInfo) {
-            if (param instanceof EnumSet) {
-                updateOnSolo((JanInfo)target, (EnumSet<AnnounceFlag>)param);
-            }
-            else if (param instanceof AnnounceFlag) {
-                updateOnSolo((JanInfo)target, EnumSet.of((AnnounceFlag)param));
-            }
+    public void onEvent(final GameEvent event) {
+        if (event == null) {
+            throw new NullPointerException("Game event is null.");
+        }
+        
+        if (event.hasAnnounce()) {
+            updateOnSolo(event.getInfo(), event.getFlagSet());
         }
     }
     
@@ -63,11 +67,7 @@ public class GameAnnouncer implements Observer {
      * @return 変換結果。
      */
     protected String convertJanPaiToString(final JanPai pai) {
-        final StringBuilder buf = new StringBuilder();
-        buf.append(COLOR_FLAG).append(getColorCode(pai));
-        buf.append(pai);
-        buf.append(COLOR_FLAG);
-        return buf.toString();
+        return JANPAI_STRING_ARRAY[pai.ordinal()];
     }
     
     /**
@@ -84,33 +84,35 @@ public class GameAnnouncer implements Observer {
             throw new NullPointerException("Announce type is null.");
         }
         
+        // 実況1回分の出力で使い回すバッファ
+        final StringBuilder buf = new StringBuilder(BUFFER_CAPACITY);
         final Wind playerWind = getPlayerWind(info);
         final List<String> messageList = new ArrayList<>();
         if (isCallable(flagSet)) {
-            messageList.add(convertCallInfoToString(info.getActiveDiscard(), flagSet));
+            messageList.add(convertCallInfoToString(buf, info.getActiveDiscard(), flagSet));
             messageList.add("(詳細：「jan help」を参照)");
         }
         if (flagSet.contains(AnnounceFlag.AFTER_CALL)) {
             messageList.add("捨て牌を選んでください");
         }
         if (flagSet.contains(AnnounceFlag.FIELD)) {
-            messageList.add(convertFieldToString(playerWind, info, flagSet.contains(AnnounceFlag.URA_DORA)));
+            messageList.add(convertFieldToString(buf, playerWind, info, flagSet.contains(AnnounceFlag.URA_DORA)));
         }
         if (flagSet.contains(AnnounceFlag.RIVER_SINGLE)) {
-            messageList.add(convertRiverToString(info.getRiver(playerWind)));
+            messageList.add(convertRiverToString(buf, "", playerWind, info.getRiver(playerWind)));
         }
         if (flagSet.contains(AnnounceFlag.RIVER_ALL)) {
             // 出力文字数制限対策
             // 分割して出力バッファに渡す
-            IRCBOT.getInstance().println(messageList);
-            IRCBOT.getInstance().println("東" + convertRiverToString(info.getRiver(Wind.TON)));
-            IRCBOT.getInstance().println("南" + convertRiverToString(info.getRiver(Wind.NAN)));
-            IRCBOT.getInstance().println("西" + convertRiverToString(info.getRiver(Wind.SHA)));
-            IRCBOT.getInstance().println("北" + convertRiverToString(info.getRiver(Wind.PEI)));
+            println(messageList);
+            println(convertRiverToString(buf, "東", Wind.TON, info.getRiver(Wind.TON)));
+            println(convertRiverToString(buf, "南", Wind.NAN, info.getRiver(Wind.NAN)));
+            println(convertRiverToString(buf, "西", Wind.SHA, info.getRiver(Wind.SHA)));
+            println(convertRiverToString(buf, "北", Wind.PEI, info.getRiver(Wind.PEI)));
             messageList.clear();
         }
         if (flagSet.contains(AnnounceFlag.HAND)) {
-            messageList.add(convertHandToString(playerWind, info, flagSet));
+            messageList.add(convertHandToString(buf, playerWind, info, flagSet));
         }
         
         if (flagSet.contains(AnnounceFlag.COMPLETE_RON)) {
@@ -123,7 +125,7 @@ public class GameAnnouncer implements Observer {
             messageList.add("---- 流局 ----");
         }
         
-        IRCBOT.getInstance().println(messageList);
+        println(messageList);
     }
     
     
@@ -131,13 +133,14 @@ public class GameAnnouncer implements Observer {
     /**
      * 副露情報を文字列に変換
      * 
+     * @param buf 作業用バッファ。
      * @param discard 捨て牌。
      * @param flagSet 実況フラグ。
      * @return 変換結果。
      */
-    private String convertCallInfoToString(final JanPai discard, final EnumSet<AnnounceFlag> flagSet) {
-        final StringBuilder buf = new StringBuilder();
-        buf.append(convertJanPaiToString(discard)).append(" <- ");
+    private String convertCallInfoToString(final StringBuilder buf, final JanPai discard, final EnumSet<AnnounceFlag> flagSet) {
+        buf.setLength(0);
+        buf.append(getJanPaiString(discard)).append(" <- ");
         if (flagSet.contains(AnnounceFlag.CALLABLE_RON)) {
             buf.append("ロン可能です：  ");
         }
@@ -162,27 +165,27 @@ public class GameAnnouncer implements Observer {
     /**
      * 場情報を文字列に変換
      * 
+     * @param buf 作業用バッファ。
      * @param wind 対象プレイヤーの風。
      * @param info ゲーム情報。
      * @param includeUraDora 裏ドラを表示するか。
      * @return 変換結果。
      */
-    private String convertFieldToString(final Wind wind, final JanInfo info, final boolean includeUraDora) {
-        final StringBuilder buf = new StringBuilder();
+    private String convertFieldToString(final StringBuilder buf, final Wind wind, final JanInfo info, final boolean includeUraDora) {
+        buf.setLength(0);
         buf.append("場風：").append(info.getFieldWind()).append("   ");
         buf.append("自風：").append(wind).append("   ");
         
-        final WanPai wanPai = info.getWanPai();
         buf.append("ドラ：");
-        for (final JanPai pai : wanPai.getDoraList()) {
-            buf.append(convertJanPaiToString(pai));
+        for (final JanPai pai : info.getDoraList()) {
+            buf.append(getJanPaiString(pai));
         }
         buf.append("   ");
         
         if (includeUraDora) {
             buf.append("裏ドラ：");
-            for (final JanPai pai : wanPai.getUraDoraList()) {
-                buf.append(convertJanPaiToString(pai));
+            for (final JanPai pai : info.getUraDoraList()) {
+                buf.append(getJanPaiString(pai));
             }
             buf.append("   ");
         }
@@ -192,19 +195,17 @@ public class GameAnnouncer implements Observer {
     }
     
     /**
-     * 副露牌を文字列に変換
+     * 副露牌を文字列に変換して追加
      * 
-     * @param hand 手牌。
-     * @return 変換結果。
+     * @param buf 追加先。
+     * @param fixedMenTsuList 副露した面子リスト。(並べ替えるため呼び出し元専用の複製を渡す)
      */
-    private String convertFixedMenTsuToString(final Hand hand) {
-        final StringBuilder buf = new StringBuilder();
-        if (hand.getFixedMenTsuCount() == 0) {
-            return buf.toString();
+    private void appendFixedMenTsu(final StringBuilder buf, final List<MenTsu> fixedMenTsuList) {
+        if (fixedMenTsuList.isEmpty()) {
+            return;
         }
         
         buf.append(" ");
-        final List<MenTsu> fixedMenTsuList = hand.getFixedMenTsuList();
         Collections.reverse(fixedMenTsuList);
         for (final MenTsu fixedMenTsu : fixedMenTsuList) {
             buf.append(" ");
@@ -212,74 +213,77 @@ public class GameAnnouncer implements Observer {
             if (fixedMenTsu.getMenTsuType() == MenTsuType.KAN_DARK) {
                 final JanPai pai = sourceList.get(0);
                 final String source = "[■]" + pai + pai + "[■]";
-                buf.append(COLOR_FLAG).append(getColorCode(pai)).append(source).append(COLOR_FLAG);
+                buf.append(COLOR_FLAG).append(COLOR_CODE_ARRAY[pai.ordinal()]).append(source).append(COLOR_FLAG);
             }
             else {
-                buf.append(COLOR_FLAG).append(getColorCode(sourceList.get(0)));
+                buf.append(COLOR_FLAG).append(COLOR_CODE_ARRAY[sourceList.get(0).ordinal()]);
                 for (final JanPai pai : sourceList) {
                     buf.append(pai);
                 }
                 buf.append(COLOR_FLAG);
             }
         }
-        return buf.toString();
     }
     
     /**
      * 手牌を文字列に変換
      * 
+     * @param buf 作業用バッファ。
      * @param wind 対象プレイヤーの風。
      * @param info ゲーム情報。
      * @param flagSet 実況フラグ。
      * @return 変換結果。
      */
-    private String convertHandToString(final Wind wind, final JanInfo info, final EnumSet<AnnounceFlag> flagSet) {
-        final Hand hand = info.getHand(wind);
-        final StringBuilder buf = new StringBuilder();
-        buf.append(convertMenzenHandToString(hand));
+    private String convertHandToString(final StringBuilder buf, final Wind wind, final JanInfo info, final EnumSet<AnnounceFlag> flagSet) {
+        buf.setLength(0);
+        for (final JanPai pai : info.getMenZenList(wind)) {
+            buf.append(getJanPaiString(pai));
+        }
         if (flagSet.contains(AnnounceFlag.ACTIVE_TSUMO)) {
-            buf.append(" ").append(convertJanPaiToString(info.getActiveTsumo()));
+            buf.append(" ").append(getJanPaiString(info.getActiveTsumo()));
         }
         else if (flagSet.contains(AnnounceFlag.ACTIVE_DISCARD)) {
-            buf.append(" ").append(convertJanPaiToString(info.getActiveDiscard()));
-        }
-        buf.append(convertFixedMenTsuToString(hand));
-        return buf.toString();
-    }
-    
-    /**
-     * 面前手牌を文字列に変換
-     * 
-     * @param hand 手牌。
-     * @return 変換結果。
-     */
-    private String convertMenzenHandToString(final Hand hand) {
-        final StringBuilder buf = new StringBuilder();
-        for (final JanPai pai : hand.getMenZenList()) {
-            buf.append(convertJanPaiToString(pai));
+            buf.append(" ").append(getJanPaiString(info.getActiveDiscard()));
         }
+        appendFixedMenTsu(buf, info.getFixedMenTsuList(wind));
         return buf.toString();
     }
     
     /**
      * 捨て牌リストを文字列に変換
      * 
+     * 捨て牌リストは打牌のたびに別インスタンスへ置き換わるため、前回と同一インスタンスなら前回の変換結果を返す。
+     * 
+     * @param buf 作業用バッファ。
+     * @param header 行頭に付ける文字列。
+     * @param wind 捨て牌リストの持ち主の風。
      * @param river 捨て牌リスト。
      * @return 変換結果。
      */
-    private String convertRiverToString(final List<JanPai> river) {
-        final StringBuilder buf = new StringBuilder();
-        int count = 1;
-        buf.append("捨牌：");
-        for (final JanPai pai : river) {
-            buf.append(convertJanPaiToString(pai));
-            
-            if (count % 6 == 0) {
-                buf.append("  ");
+    private String convertRiverToString(final StringBuilder buf, final String header, final Wind wind, final List<JanPai> river) {
+        _RIVER_CACHE_LOCK.lock();
+        try {
+            final int index = wind.ordinal();
+            if (_riverCacheArray[index] != river) {
+                buf.setLength(0);
+                int count = 1;
+                buf.append("捨牌：");
+                for (final JanPai pai : river) {
+                    buf.append(getJanPaiString(pai));
+                    
+                    if (count % 6 == 0) {
+                        buf.append("  ");
+                    }
+                    count++;
+                }
+                _riverCacheArray[index] = river;
+                _riverStringArray[index] = buf.toString();
             }
-            count++;
+            return header.isEmpty() ? _riverStringArray[index] : header + _riverStringArray[index];
+        }
+        finally {
+            _RIVER_CACHE_LOCK.unlock();
         }
-        return buf.toString();
     }
     
     /**
@@ -288,7 +292,7 @@ public class GameAnnouncer implements Observer {
      * @param pai 雀牌。
      * @return 対応する色コード。
      */
-    private String getColorCode(final JanPai pai) {
+    private static String getColorCode(final JanPai pai) {
         switch (pai) {
         case MAN_1:
         case MAN_2:
@@ -332,6 +336,25 @@ public class GameAnnouncer implements Observer {
         }
     }
     
+    /**
+     * 変換済みの雀牌文字列を取得
+     * 
+     * @param pai 雀牌。
+     * @return 変換結果。
+     */
+    private String getJanPaiString(final JanPai pai) {
+        String[] janPaiStringArray = _janPaiStringArray;
+        if (janPaiStringArray == null) {
+            // 派生クラスの変換も反映させるため、初回の実況時にまとめて変換する
+            janPaiStringArray = new String[JANPAI_ARRAY.length];
+            for (final JanPai target : JANPAI_ARRAY) {
+                janPaiStringArray[target.ordinal()] = convertJanPaiToString(target);
+            }
+            _janPaiStringArray = janPaiStringArray;
+        }
+        return janPaiStringArray[pai.ordinal()];
+    }
+    
     /**
      * プレイヤーの風を取得
      * 
@@ -364,10 +387,87 @@ public class GameAnnouncer implements Observer {
     
     
     
+    /**
+     * メッセージを出力
+     * 
+     * @param message メッセージ。
+     */
+    private void println(final String message) {
+        MessageDispatcher.getInstance().talk(_channel, message);
+    }
+    
+    /**
+     * メッセージを出力
+     * 
+     * @param messageList メッセージリスト。
+     */
+    private void println(final List<String> messageList) {
+        MessageDispatcher.getInstance().talk(_channel, messageList);
+    }
+    
+    
+    
     /**
      * 色付けフラグ
      */
     private static final char COLOR_FLAG = 3;
     
+    /**
+     * 全ての牌
+     */
+    private static final JanPai[] JANPAI_ARRAY = JanPai.values();
+    
+    /**
+     * 牌ごとの色コード
+     */
+    private static final String[] COLOR_CODE_ARRAY = new String[JANPAI_ARRAY.length];
+    
+    /**
+     * 牌ごとの色付き文字列
+     */
+    private static final String[] JANPAI_STRING_ARRAY = new String[JANPAI_ARRAY.length];
+    
+    static {
+        for (final JanPai pai : JANPAI_ARRAY) {
+            final String colorCode = getColorCode(pai);
+            COLOR_CODE_ARRAY[pai.ordinal()] = colorCode;
+            JANPAI_STRING_ARRAY[pai.ordinal()] = COLOR_FLAG + colorCode + pai + COLOR_FLAG;
+        }
+    }
+    
+    /**
+     * 作業用バッファの初期容量
+     */
+    private static final int BUFFER_CAPACITY = 256;
+    
+    
+    
+    /**
+     * ロックオブジェクト
+     */
+    private final ProfiledLock _RIVER_CACHE_LOCK = new ProfiledLock("announcer.river_cache");
+    
+    
+    
+    /**
+     * 実況先のチャンネル名
+     */
+    private String _channel = "";
+    
+    /**
+     * 変換済みの雀牌文字列 (初回の実況時に生成)
+     */
+    private volatile String[] _janPaiStringArray = null;
+    
+    /**
+     * 前回変換した風ごとの捨て牌リスト
+     */
+    private final Object[] _riverCacheArray = new Object[Wind.values().length];
+    
+    /**
+     * 前回変換した風ごとの捨て牌文字列
+     */
+    private final String[] _riverStringArray = new String[Wind.values().length];
+    
 }
 
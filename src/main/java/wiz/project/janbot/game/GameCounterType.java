@@ -0,0 +1,37 @@
+/**
+ * GameCounterType.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * ゲームの集計項目
+ */
+public enum GameCounterType {
+    
+    /**
+     * ゲーム開始
+     */
+    GAME_STARTED,
+    
+    /**
+     * 副露の確認
+     */
+    CALL_OFFERED,
+    
+    /**
+     * 和了
+     */
+    AGARI,
+    
+    /**
+     * 流局
+     */
+    RYUKYOKU,
+    
+}
+
@@ -0,0 +1,250 @@
+/**
+ * GameEvent.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.EnumSet;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * ゲームイベント (発行時点のゲーム情報のスナップショットを持つ)
+ */
+public final class GameEvent {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param type イベントの種類。
+     * @param info ゲーム情報。
+     * @param wind 対象プレイヤーの風。
+     * @param pai 対象牌。
+     * @param callType 副露タイプ。
+     * @param status ゲーム終了状態。
+     * @param flagSet 実況フラグ。
+     */
+    GameEvent(final GameEventType type,
+              final JanInfo info,
+              final Wind wind,
+              final JanPai pai,
+              final CallType callType,
+              final GameSetStatus status,
+              final EnumSet<AnnounceFlag> flagSet) {
+        if (info == null) {
+            throw new NullPointerException("Game information is null.");
+        }
+        
+        _type = type;
+        _info = info;
+        _wind = wind;
+        _pai = pai;
+        _callType = callType;
+        _status = status;
+        _flagSet = flagSet != null ? EnumSet.copyOf(flagSet) : EnumSet.noneOf(AnnounceFlag.class);
+    }
+    
+    
+    
+    /**
+     * 和了イベントを生成
+     * 
+     * @param info ゲーム情報。
+     * @param wind 和了者の風。
+     * @param pai 和了牌。
+     * @param status ゲーム終了状態。
+     * @param flagSet 実況フラグ。
+     * @return ゲームイベント。
+     */
+    public static GameEvent agari(final JanInfo info, final Wind wind, final JanPai pai, final GameSetStatus status, final EnumSet<AnnounceFlag> flagSet) {
+        return new GameEvent(GameEventType.AGARI, info, wind, pai, null, status, flagSet);
+    }
+    
+    /**
+     * 副露イベントを生成
+     * 
+     * @param info ゲーム情報。
+     * @param wind 副露したプレイヤーの風。
+     * @param pai 副露対象牌。
+     * @param callType 副露タイプ。
+     * @param flagSet 実況フラグ。
+     * @return ゲームイベント。
+     */
+    public static GameEvent call(final JanInfo info, final Wind wind, final JanPai pai, final CallType callType, final EnumSet<AnnounceFlag> flagSet) {
+        return new GameEvent(GameEventType.CALL, info, wind, pai, callType, null, flagSet);
+    }
+    
+    /**
+     * 打牌イベントを生成
+     * 
+     * @param info ゲーム情報。
+     * @param wind 打牌したプレイヤーの風。
+     * @param pai 捨て牌。
+     * @return ゲームイベント。
+     */
+    public static GameEvent discard(final JanInfo info, final Wind wind, final JanPai pai) {
+        return new GameEvent(GameEventType.DISCARD, info, wind, pai, null, null, null);
+    }
+    
+    /**
+     * 情報表示イベントを生成
+     * 
+     * @param info ゲーム情報。
+     * @param flagSet 実況フラグ。
+     * @return ゲームイベント。
+     */
+    public static GameEvent info(final JanInfo info, final EnumSet<AnnounceFlag> flagSet) {
+        return new GameEvent(GameEventType.INFO, info, null, null, null, null, flagSet);
+    }
+    
+    /**
+     * 流局イベントを生成
+     * 
+     * @param info ゲーム情報。
+     * @return ゲームイベント。
+     */
+    public static GameEvent ryukyoku(final JanInfo info) {
+        return new GameEvent(GameEventType.RYUKYOKU, info, null, null, null, GameSetStatus.GAME_OVER, null);
+    }
+    
+    /**
+     * ツモイベントを生成
+     * 
+     * @param info ゲーム情報。
+     * @param wind ツモったプレイヤーの風。
+     * @param pai ツモ牌。
+     * @param flagSet 実況フラグ。
+     * @return ゲームイベント。
+     */
+    public static GameEvent tsumo(final JanInfo info, final Wind wind, final JanPai pai, final EnumSet<AnnounceFlag> flagSet) {
+        return new GameEvent(GameEventType.TSUMO, info, wind, pai, null, null, flagSet);
+    }
+    
+    
+    
+    /**
+     * 副露タイプを取得
+     * 
+     * @return 副露タイプ。副露イベント以外はnull。
+     */
+    public CallType getCallType() {
+        return _callType;
+    }
+    
+    /**
+     * 実況フラグを取得
+     * 
+     * @return 実況フラグ。
+     */
+    public EnumSet<AnnounceFlag> getFlagSet() {
+        return EnumSet.copyOf(_flagSet);
+    }
+    
+    /**
+     * ゲーム情報を取得
+     * 
+     * @return ゲーム情報。(読み取り専用)
+     */
+    public JanInfo getInfo() {
+        return _info;
+    }
+    
+    /**
+     * 対象牌を取得
+     * 
+     * @return 対象牌。(ツモ牌、捨て牌、副露対象牌、和了牌) 対象がない場合はnull。
+     */
+    public JanPai getPai() {
+        return _pai;
+    }
+    
+    /**
+     * ゲーム終了状態を取得
+     * 
+     * @return ゲーム終了状態。和了・流局イベント以外はnull。
+     */
+    public GameSetStatus getStatus() {
+        return _status;
+    }
+    
+    /**
+     * イベントの種類を取得
+     * 
+     * @return イベントの種類。
+     */
+    public GameEventType getType() {
+        return _type;
+    }
+    
+    /**
+     * 対象プレイヤーの風を取得
+     * 
+     * @return 対象プレイヤーの風。対象がいない場合はnull。
+     */
+    public Wind getWind() {
+        return _wind;
+    }
+    
+    /**
+     * 実況が必要か
+     * 
+     * @return 判定結果。
+     */
+    public boolean hasAnnounce() {
+        return !_flagSet.isEmpty();
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return "[" + _type + "] wind=" + _wind + ", pai=" + _pai + ", call=" + _callType + ", status=" + _status + ", flag=" + _flagSet;
+    }
+    
+    
+    
+    /**
+     * イベントの種類
+     */
+    private final GameEventType _type;
+    
+    /**
+     * ゲーム情報
+     */
+    private final JanInfo _info;
+    
+    /**
+     * 対象プレイヤーの風
+     */
+    private final Wind _wind;
+    
+    /**
+     * 対象牌
+     */
+    private final JanPai _pai;
+    
+    /**
+     * 副露タイプ
+     */
+    private final CallType _callType;
+    
+    /**
+     * ゲーム終了状態
+     */
+    private final GameSetStatus _status;
+    
+    /**
+     * 実況フラグ
+     */
+    private final EnumSet<AnnounceFlag> _flagSet;
+    
+}
+
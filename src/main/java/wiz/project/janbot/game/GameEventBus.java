@@ -0,0 +1,161 @@
+/**
+ * GameEventBus.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+
+
+/**
+ * ゲームイベントの配信
+ * 
+ * 購読者リストは書き込み時複製のため、発行時にロックを取らない。
+ * 非同期購読者へは指定された実行者を通して配信する。(順序を保つには単一スレッドの実行者を使う)
+ */
+public final class GameEventBus {
+    
+    /**
+     * コンストラクタ
+     */
+    public GameEventBus() {
+    }
+    
+    
+    
+    /**
+     * 購読者がいるか
+     * 
+     * @return 判定結果。
+     */
+    public boolean hasListener() {
+        return !_listenerList.isEmpty();
+    }
+    
+    /**
+     * イベントを発行
+     * 
+     * @param event ゲームイベント。
+     */
+    public void publish(final GameEvent event) {
+        if (event == null) {
+            throw new NullPointerException("Game event is null.");
+        }
+        
+        for (final GameEventListener listener : _listenerList) {
+            listener.onEvent(event);
+        }
+    }
+    
+    /**
+     * 購読を開始 (発行スレッドで配信)
+     * 
+     * @param listener 購読者。
+     */
+    public void subscribe(final GameEventListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("Listener is null.");
+        }
+        _listenerList.add(listener);
+    }
+    
+    /**
+     * 購読を開始 (指定された実行者で配信)
+     * 
+     * @param listener 購読者。
+     * @param executor 配信に使う実行者。
+     */
+    public void subscribe(final GameEventListener listener, final Executor executor) {
+        if (listener == null) {
+            throw new NullPointerException("Listener is null.");
+        }
+        if (executor == null) {
+            throw new NullPointerException("Executor is null.");
+        }
+        _listenerList.add(new AsyncListener(listener, executor));
+    }
+    
+    /**
+     * 購読を終了
+     * 
+     * @param listener 購読者。
+     */
+    public void unsubscribe(final GameEventListener listener) {
+        for (final GameEventListener target : _listenerList) {
+            if (target == listener) {
+                _listenerList.remove(target);
+            }
+            else if (target instanceof AsyncListener && ((AsyncListener)target).getListener() == listener) {
+                _listenerList.remove(target);
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 購読者リスト
+     */
+    private final List<GameEventListener> _listenerList = new CopyOnWriteArrayList<>();
+    
+    
+    
+    /**
+     * 非同期購読者
+     */
+    private static final class AsyncListener implements GameEventListener {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param listener 購読者。
+         * @param executor 配信に使う実行者。
+         */
+        public AsyncListener(final GameEventListener listener, final Executor executor) {
+            _listener = listener;
+            _executor = executor;
+        }
+        
+        
+        
+        /**
+         * 購読者を取得
+         * 
+         * @return 購読者。
+         */
+        public GameEventListener getListener() {
+            return _listener;
+        }
+        
+        /**
+         * イベント受信時の処理
+         */
+        public void onEvent(final GameEvent event) {
+            _executor.execute(new Runnable() {
+                public void run() {
+                    _listener.onEvent(event);
+                }
+            });
+        }
+        
+        
+        
+        /**
+         * 購読者
+         */
+        private final GameEventListener _listener;
+        
+        /**
+         * 配信に使う実行者
+         */
+        private final Executor _executor;
+        
+    }
+    
+}
+
@@ -0,0 +1,24 @@
+/**
+ * GameEventListener.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * ゲームイベントの購読者
+ */
+public interface GameEventListener {
+    
+    /**
+     * イベント受信時の処理
+     * 
+     * @param event ゲームイベント。
+     */
+    public void onEvent(final GameEvent event);
+    
+}
+
@@ -0,0 +1,47 @@
+/**
+ * GameEventType.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * ゲームイベントの種類
+ */
+public enum GameEventType {
+    
+    /**
+     * 情報表示
+     */
+    INFO,
+    
+    /**
+     * ツモ
+     */
+    TSUMO,
+    
+    /**
+     * 打牌
+     */
+    DISCARD,
+    
+    /**
+     * 副露
+     */
+    CALL,
+    
+    /**
+     * 和了
+     */
+    AGARI,
+    
+    /**
+     * 流局
+     */
+    RYUKYOKU,
+    
+}
+
@@ -7,22 +7,20 @@
 package wiz.project.janbot.game;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.security.SecureRandom;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
-import wiz.io.serializer.Serializer;
-import wiz.project.ircbot.IRCBOT;
 import wiz.project.jan.JanPai;
 import wiz.project.jan.Wind;
-import wiz.project.jan.util.JanPaiUtil;
 import wiz.project.janbot.game.exception.InvalidInputException;
 import wiz.project.janbot.game.exception.JanException;
 
@@ -37,6 +35,12 @@ public final class GameMaster {
      * コンストラクタを自分自身に限定許可
      */
     private GameMaster() {
+        _promptTimer.setRemoveOnCancelPolicy(true);
+        GameMetrics.getInstance().addSource(new MetricsSource() {
+            public void collect(final Map<String, Long> table) {
+                collectMetrics(table);
+            }
+        });
     }
     
     
@@ -53,24 +57,92 @@ public final class GameMaster {
     
     
     /**
-     * ゲームの状態を取得
+     * ゲームの状態を取得 (全卓)
      * 
-     * @return ゲームの状態。
+     * @return ゲームの状態。卓が1つも存在しない場合は待機。
      */
     public GameStatus getStatus() {
-        synchronized (_STATUS_LOCK) {
-            return _status;
+        GameStatus result = GameStatus.IDLE;
+        for (final GameTable table : _tableManager.getTableList()) {
+            final GameStatus status = table.getStatus();
+            if (status == GameStatus.PLAYING_VS) {
+                return status;
+            }
+            if (!status.isIdle()) {
+                result = status;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * ゲームの状態を取得
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @return プレイヤーが着席している卓の状態。
+     */
+    public GameStatus getStatus(final String channel, final String playerName) {
+        if (channel == null) {
+            throw new NullPointerException("Channel name is null.");
+        }
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        
+        final GameTable table = _tableManager.getTable(channel, playerName);
+        if (table == null) {
+            return GameStatus.IDLE;
+        }
+        return table.getStatus();
+    }
+    
+    /**
+     * 卓名を取得
+     * 
+     * 同じ卓に着席しているプレイヤーは同じ名前になる。(未着席の場合はプレイヤーごとの名前)
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @return 卓名。
+     */
+    public String getTableName(final String channel, final String playerName) {
+        if (channel == null) {
+            throw new NullPointerException("Channel name is null.");
         }
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        
+        final GameTable table = _tableManager.getTable(channel, playerName);
+        if (table == null) {
+            return new TableKey(channel, playerName).toString();
+        }
+        return table.getKey().toString();
+    }
+    
+    /**
+     * 副露の確認待ちか
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @return 判定結果。
+     */
+    public boolean isConfirming(final String channel, final String playerName) {
+        final GameTable table = _tableManager.getTable(channel, playerName);
+        return table != null && table.getPrompt(playerName) != null;
     }
     
     /**
      * チー処理
      * 
+     * @param channel チャンネル名。
      * @param playerName プレイヤー名。
      * @param target 先頭牌。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      */
-    public void onCallChi(final String playerName, final String target) throws JanException {
+    public TurnResult onCallChi(final String channel, final String playerName, final JanPai target) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -82,28 +154,44 @@ public final class GameMaster {
         }
         
         // 開始判定
-        synchronized (_STATUS_LOCK) {
-            if (_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Not started ---");
-                return;
-            }
+        final GameTable table = getPlayingTable(channel, playerName);
+        if (table == null) {
+            return TurnResult.CONTINUE;
         }
         
-        synchronized (_CONTROLLER_LOCK) {
-            if (!_controller.getGameInfo().isActivePlayer(playerName)) {
-                _controller.call(playerName, CallType.CHI, convertStringToJanPai(target));
+        return table.respond(playerName, new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                return table.call(playerName, CallType.CHI, target);
             }
+        });
+    }
+    
+    /**
+     * チー処理
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param target 先頭牌の表記。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult onCallChi(final String channel, final String playerName, final String target) throws JanException {
+        if (target == null) {
+            throw new NullPointerException("Head pai is null.");
         }
+        return onCallChi(channel, playerName, JanPaiParser.parse(target));
     }
     
     /**
      * カン処理
      * 
+     * @param channel チャンネル名。
      * @param playerName プレイヤー名。
      * @param target 対象牌。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      */
-    public void onCallKan(final String playerName, final String target) throws JanException {
+    public TurnResult onCallKan(final String channel, final String playerName, final JanPai target) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -115,40 +203,43 @@ public final class GameMaster {
         }
         
         // 開始判定
-        synchronized (_STATUS_LOCK) {
-            if (_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Not started ---");
-                return;
-            }
+        final GameTable table = getPlayingTable(channel, playerName);
+        if (table == null) {
+            return TurnResult.CONTINUE;
         }
         
-        synchronized (_CONTROLLER_LOCK) {
-            final JanPai targetPai = convertStringToJanPai(target);
-            final JanInfo info = _controller.getGameInfo();
-            if (!info.isActivePlayer(playerName)) {
-                // 大明カン
-                _controller.call(playerName, CallType.KAN_LIGHT, targetPai);
-            }
-            else {
-                if (info.getActiveHand().getMenZenMap().get(targetPai) < 3) {
-                    // 加カン
-                    _controller.call(playerName, CallType.KAN_ADD, targetPai);
-                }
-                else {
-                    // 暗カン
-                    _controller.call(playerName, CallType.KAN_DARK, targetPai);
-                }
+        return table.respond(playerName, new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                return table.callKan(playerName, target);
             }
+        });
+    }
+    
+    /**
+     * カン処理
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param target 対象牌の表記。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult onCallKan(final String channel, final String playerName, final String target) throws JanException {
+        if (target == null) {
+            throw new NullPointerException("Call target is null.");
         }
+        return onCallKan(channel, playerName, JanPaiParser.parse(target));
     }
     
     /**
      * ポン処理
      * 
+     * @param channel チャンネル名。
      * @param playerName プレイヤー名。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      */
-    public void onCallPon(final String playerName) throws JanException {
+    public TurnResult onCallPon(final String channel, final String playerName) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -157,27 +248,27 @@ public final class GameMaster {
         }
         
         // 開始判定
-        synchronized (_STATUS_LOCK) {
-            if (_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Not started ---");
-                return;
-            }
+        final GameTable table = getPlayingTable(channel, playerName);
+        if (table == null) {
+            return TurnResult.CONTINUE;
         }
         
-        synchronized (_CONTROLLER_LOCK) {
-            if (!_controller.getGameInfo().isActivePlayer(playerName)) {
-                _controller.call(playerName, CallType.PON, null);
+        return table.respond(playerName, new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                return table.call(playerName, CallType.PON, null);
             }
-        }
+        });
     }
     
     /**
      * ロン和了処理
      * 
+     * @param channel チャンネル名。
      * @param playerName プレイヤー名。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      */
-    public void onCompleteRon(final String playerName) throws JanException {
+    public TurnResult onCompleteRon(final String channel, final String playerName) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -186,27 +277,27 @@ public final class GameMaster {
         }
         
         // 開始判定
-        synchronized (_STATUS_LOCK) {
-            if (_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Not started ---");
-                return;
-            }
+        final GameTable table = getPlayingTable(channel, playerName);
+        if (table == null) {
+            return TurnResult.CONTINUE;
         }
         
-        synchronized (_CONTROLLER_LOCK) {
-            if (!_controller.getGameInfo().isActivePlayer(playerName)) {
-                _controller.completeRon(playerName);
+        return table.respond(playerName, new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                return table.completeRon(playerName);
             }
-        }
+        });
     }
     
     /**
      * ツモ和了処理
      * 
+     * @param channel チャンネル名。
      * @param playerName プレイヤー名。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      */
-    public void onCompleteTsumo(final String playerName) throws JanException {
+    public TurnResult onCompleteTsumo(final String channel, final String playerName) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -215,132 +306,162 @@ public final class GameMaster {
         }
         
         // 開始判定
-        synchronized (_STATUS_LOCK) {
-            if (_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Not started ---");
-                return;
-            }
+        final GameTable table = getPlayingTable(channel, playerName);
+        if (table == null) {
+            return TurnResult.CONTINUE;
         }
         
-        synchronized (_CONTROLLER_LOCK) {
-            if (_controller.getGameInfo().isActivePlayer(playerName)) {
-                _controller.completeTsumo();
-            }
-        }
+        return table.completeTsumo(playerName);
     }
     
     /**
      * 副露せずに続行
      * 
+     * 自分の席のみ見送り扱いにする。他の席の確認待ちは締め切らない。
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      */
-    public void onContinue() throws JanException {
+    public TurnResult onContinue(final String channel, final String playerName) throws JanException {
         // 開始判定
-        synchronized (_STATUS_LOCK) {
-            if (_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Not started ---");
-                return;
-            }
+        final GameTable table = getPlayingTable(channel, playerName);
+        if (table == null) {
+            return TurnResult.CONTINUE;
         }
         
-        synchronized (_CONTROLLER_LOCK) {
-            _controller.next();
-        }
+        return table.respond(playerName, new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                return table.pass(playerName);
+            }
+        });
     }
     
     /**
      * 打牌処理
      * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      */
-    public void onDiscard() throws JanException {
+    public TurnResult onDiscard(final String channel, final String playerName) throws JanException {
         // 開始判定
-        synchronized (_STATUS_LOCK) {
-            if (_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Not started ---");
-                return;
-            }
+        final GameTable table = getPlayingTable(channel, playerName);
+        if (table == null) {
+            return TurnResult.CONTINUE;
         }
         
-        synchronized (_CONTROLLER_LOCK) {
-            _controller.discard();
-        }
+        return table.discard();
     }
     
     /**
      * 打牌処理
      * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
      * @param target 捨て牌。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      */
-    public void onDiscard(final String target) throws JanException {
+    public TurnResult onDiscard(final String channel, final String playerName, final JanPai target) throws JanException {
         if (target == null) {
             throw new NullPointerException("Discard target is null.");
         }
         
         // 開始判定
-        synchronized (_STATUS_LOCK) {
-            if (_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Not started ---");
-                return;
-            }
+        final GameTable table = getPlayingTable(channel, playerName);
+        if (table == null) {
+            return TurnResult.CONTINUE;
         }
         
+        return table.discard(target);
+    }
+    
+    /**
+     * 打牌処理
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param target 捨て牌の表記。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult onDiscard(final String channel, final String playerName, final String target) throws JanException {
+        if (target == null) {
+            throw new NullPointerException("Discard target is null.");
+        }
         if (target.isEmpty()) {
             throw new InvalidInputException("Discard target is empty.");
         }
-        final JanPai targetPai = convertStringToJanPai(target);
-        synchronized (_CONTROLLER_LOCK) {
-            _controller.discard(targetPai);
-        }
+        return onDiscard(channel, playerName, JanPaiParser.parse(target));
     }
     
     /**
-     * 終了処理
+     * 終了処理 (全卓)
      */
     public void onEnd() {
-        synchronized (_STATUS_LOCK) {
-            if (_status != GameStatus.IDLE) {
-                _status = GameStatus.IDLE;
-                IRCBOT.getInstance().println("--- 終了 ---");
+        for (final GameTable table : _tableManager.closeAll()) {
+            saveRecord(table.getKey().getChannel(), table);
+            if (table.close()) {
+                println(table.getKey().getChannel(), "--- 終了 ---");
             }
         }
     }
     
+    /**
+     * 終了処理
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     */
+    public void onEnd(final String channel, final String playerName) {
+        final GameTable table = _tableManager.getTable(channel, playerName);
+        if (table == null) {
+            return;
+        }
+        
+        // 途中終了した局も保存
+        saveRecord(channel, table);
+        
+        _tableManager.close(table);
+        if (table.close()) {
+            println(channel, "--- 終了 ---");
+        }
+    }
+    
     /**
      * 情報表示
      * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
      * @param flagSet 情報表示フラグ。
      */
-    public void onInfo(final EnumSet<AnnounceFlag> flagSet) {
+    public void onInfo(final String channel, final String playerName, final EnumSet<AnnounceFlag> flagSet) {
         if (flagSet == null) {
             throw new NullPointerException("Announce flag is null.");
         }
         
         // 開始判定
-        synchronized (_STATUS_LOCK) {
-            if (_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Not started ---");
-                return;
-            }
+        final GameTable table = getPlayingTable(channel, playerName);
+        if (table == null) {
+            return;
         }
         
-        synchronized (_CONTROLLER_LOCK) {
-            final JanInfo info = _controller.getGameInfo();
-            info.addObserver(_announcer);
-            info.notifyObservers(flagSet);
-        }
+        table.info(flagSet);
     }
     
     /**
      * リプレイ処理
      * 
+     * @param channel チャンネル名。
      * @param playerName プレイヤー名。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      * @throws IOException ファイル入出力に失敗。
      */
-    @SuppressWarnings("unchecked")
-    public void onReplay(final String playerName) throws JanException, IOException {
+    public TurnResult onReplay(final String channel, final String playerName) throws JanException, IOException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -348,92 +469,125 @@ public final class GameMaster {
             throw new IllegalArgumentException("Player name is empty.");
         }
         
-        // 開始済み判定
-        synchronized (_STATUS_LOCK) {
-            if (!_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Already started ---");
-                return;
-            }
-            _status = GameStatus.PLAYING_SOLO;
+        return replay(channel, playerName, getRecordStore().readLast(), 1);
+    }
+    
+    /**
+     * リプレイ処理
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param gameCode ゲームコード。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     * @throws IOException ファイル入出力に失敗。
+     */
+    public TurnResult onReplay(final String channel, final String playerName, final String gameCode) throws JanException, IOException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
         }
-        
-        if (!Files.exists(Paths.get(DECK_SAVE_PATH)) ||
-            !Files.exists(Paths.get(PLAYER_TABLE_SAVE_PATH))) {
-            IRCBOT.getInstance().println("--- Replay data is not found ---");
-            return;
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        if (gameCode == null) {
+            throw new NullPointerException("Game code is null.");
         }
         
-        // 牌山と席順をロード
-        final List<JanPai> deck = (List<JanPai>)Serializer.read(DECK_SAVE_PATH);
-        final Map<Wind, Player> playerTable = (Map<Wind, Player>)Serializer.read(PLAYER_TABLE_SAVE_PATH);
-        
-        // プレイヤー名を差し替え
-        final Wind playerWind = getPlayerWind(playerTable);
-        playerTable.put(playerWind, new Player(playerName, PlayerType.HUMAN));
+        return onReplay(channel, playerName, gameCode, "1");
+    }
+    
+    /**
+     * リプレイ処理 (巡目指定)
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param gameCode ゲームコード。
+     * @param turn 再開する巡目。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     * @throws IOException ファイル入出力に失敗。
+     */
+    public TurnResult onReplay(final String channel, final String playerName, final String gameCode, final String turn) throws JanException, IOException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        if (playerName.isEmpty()) {
+            throw new IllegalArgumentException("Player name is empty.");
+        }
+        if (gameCode == null) {
+            throw new NullPointerException("Game code is null.");
+        }
+        if (turn == null) {
+            throw new NullPointerException("Turn is null.");
+        }
         
-        // ゲーム開始
-        synchronized (_CONTROLLER_LOCK) {
-            _controller = createJanController(true);
-            _controller.start(deck, playerTable);
+        final long sequence;
+        final int turnNumber;
+        try {
+            sequence = GameRecordStore.parseGameCode(gameCode);
+            turnNumber = Integer.parseInt(turn.trim());
+        }
+        catch (final IllegalArgumentException e) {
+            throw new InvalidInputException(e.getMessage());
         }
+        if (turnNumber <= 0) {
+            throw new InvalidInputException("Invalid turn - " + turn);
+        }
+        return replay(channel, playerName, getRecordStore().read(sequence), turnNumber);
     }
     
     /**
      * リーチ処理
      * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
      * @param target 捨て牌。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      */
-    public void onRichi(final String target) throws JanException {
+    public TurnResult onRichi(final String channel, final String playerName, final JanPai target) throws JanException {
         if (target == null) {
             throw new NullPointerException("Discard target is null.");
         }
         
         // 開始判定
-        synchronized (_STATUS_LOCK) {
-            if (_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Not started ---");
-                return;
-            }
+        final GameTable table = getPlayingTable(channel, playerName);
+        if (table == null) {
+            return TurnResult.CONTINUE;
         }
         
-        if (target.isEmpty()) {
-            throw new InvalidInputException("Discard target is empty.");
-        }
-        final JanPai targetPai = convertStringToJanPai(target);
-        synchronized (_CONTROLLER_LOCK) {
-            _controller.richi(targetPai);
-        }
+        return table.richi(target);
     }
     
     /**
-     * リプレイ処理
+     * リーチ処理
      * 
+     * @param channel チャンネル名。
      * @param playerName プレイヤー名。
-     * @param gameCode ゲームコード。
+     * @param target 捨て牌の表記。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
-     * @throws IOException ファイル入出力に失敗。
      */
-    public void onReplay(final String playerName, final String gameCode) throws JanException, IOException {
-        if (playerName == null) {
-            throw new NullPointerException("Player name is null.");
+    public TurnResult onRichi(final String channel, final String playerName, final String target) throws JanException {
+        if (target == null) {
+            throw new NullPointerException("Discard target is null.");
         }
-        if (playerName.isEmpty()) {
-            throw new IllegalArgumentException("Player name is empty.");
+        if (target.isEmpty()) {
+            throw new InvalidInputException("Discard target is empty.");
         }
-        
-        // TODO ゲーム指定リプレイ
-        onReplay(playerName);
+        return onRichi(channel, playerName, JanPaiParser.parse(target));
     }
     
     /**
      * 開始処理 (ソロ)
      * 
+     * @param channel チャンネル名。
      * @param playerName プレイヤー名。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      * @throws IOException ファイル入出力に失敗。
      */
-    public void onStartSolo(final String playerName) throws JanException, IOException {
+    public TurnResult onStartSolo(final String channel, final String playerName) throws JanException, IOException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -442,36 +596,52 @@ public final class GameMaster {
         }
         
         // 開始済み判定
-        synchronized (_STATUS_LOCK) {
-            if (!_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Already started ---");
-                return;
-            }
-            _status = GameStatus.PLAYING_SOLO;
+        final GameTable table = openTable(channel, Arrays.asList(playerName), GameStatus.PLAYING_SOLO);
+        if (table == null) {
+            return TurnResult.CONTINUE;
         }
         
-        // 牌山生成と席決め
-        final List<JanPai> deck = createDeck();
-        final Map<Wind, Player> playerTable = createPlayerTable(Arrays.asList(playerName));
-        
-        // 保存 (リプレイ用)
-        Serializer.writeOverwrite(deck, DECK_SAVE_PATH);
-        Serializer.writeOverwrite(playerTable, PLAYER_TABLE_SAVE_PATH);
-        
-        // ゲーム開始
-        synchronized (_CONTROLLER_LOCK) {
-            _controller = createJanController(true);
-            _controller.start(deck, playerTable);
+        try {
+            // 牌山と席決め (プール済み)
+            final Deck deck = _deckPool.take();
+            final Map<Wind, Player> playerTable = createPlayerTable(Arrays.asList(playerName), deck.getWindList());
+            
+            // 牌譜は終局時に操作履歴付きで保存 (リプレイ用)
+            table.setRecord(new GameRecord(deck.getPaiList(), playerTable, deck.getSeed(), System.currentTimeMillis()));
+            
+            // ゲーム開始 (開始処理中の終局も集計・保存できるよう、購読してから開始)
+            final GameEventListener recordListener = new GameEventListener() {
+                public void onEvent(final GameEvent event) {
+                    switch (event.getType()) {
+                    case AGARI:
+                    case RYUKYOKU:
+                        saveRecord(channel, table);
+                        break;
+                    default:
+                        break;
+                    }
+                }
+            };
+            final TurnResult result = table.start(true, deck.getPaiList(), playerTable, Arrays.asList(_metricsListener, recordListener));
+            GameMetrics.getInstance().countUp(GameCounterType.GAME_STARTED);
+            return result;
+        }
+        catch (final Throwable e) {
+            // 開始できなかった卓は閉じる
+            closeTable(table);
+            throw e;
         }
     }
     
     /**
      * 開始処理 (対戦)
      * 
+     * @param channel チャンネル名。
      * @param playerNameList プレイヤー名のリスト。
+     * @return 処理結果。
      * @throws JanException ゲーム処理エラー。
      */
-    public void onStartVS(final List<String> playerNameList) throws JanException {
+    public TurnResult onStartVS(final String channel, final List<String> playerNameList) throws JanException {
         if (playerNameList == null) {
             throw new NullPointerException("Player name list is null.");
         }
@@ -480,149 +650,133 @@ public final class GameMaster {
         }
         
         // 開始済み判定
-        synchronized (_STATUS_LOCK) {
-            if (!_status.isIdle()) {
-                IRCBOT.getInstance().println("--- Already started ---");
-                return;
+        final GameTable table = openTable(channel, playerNameList, GameStatus.PLAYING_VS);
+        if (table == null) {
+            return TurnResult.CONTINUE;
+        }
+        
+        try {
+            // 牌山と席決め (プール済み)
+            final Deck deck = _deckPool.take();
+            final Map<Wind, Player> playerTable = createPlayerTable(playerNameList, deck.getWindList());
+            
+            // 副露の受付の時間切れは確認待ちの時間切れと同じく通知する
+            table.setCallTimeout(CALL_WINDOW_TIMEOUT);
+            table.setCallWindowListener(new CallWindowListener() {
+                public void onTimeout(final List<String> timeoutPlayerNameList, final TurnResult result) {
+                    onCallWindowTimeout(table, timeoutPlayerNameList, result);
+                }
+            });
+            
+            // ゲーム開始 (開始処理中の終局も集計できるよう、購読してから開始)
+            final TurnResult result = table.start(false, deck.getPaiList(), playerTable, Arrays.asList(_metricsListener));
+            GameMetrics.getInstance().countUp(GameCounterType.GAME_STARTED);
+            return result;
+        }
+        catch (final Throwable e) {
+            // 開始できなかった卓は閉じる
+            closeTable(table);
+            throw e;
+        }
+    }
+    
+    /**
+     * 副露の確認待ちを開始
+     * 
+     * 確認待ちは席ごとに持ち、時間切れになるとキャンセル扱いでゲームを進める。
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param callTypeList 可能な副露タイプのリスト。
+     */
+    public void openPrompt(final String channel, final String playerName, final List<CallType> callTypeList) {
+        final GameTable table = _tableManager.getTable(channel, playerName);
+        if (table == null || table.getStatus().isIdle()) {
+            return;
+        }
+        
+        final CallPrompt prompt = new CallPrompt(playerName, callTypeList);
+        table.openPrompt(prompt);
+        GameMetrics.getInstance().countUp(GameCounterType.CALL_OFFERED);
+        prompt.setTimeoutFuture(_promptTimer.schedule(new Runnable() {
+            public void run() {
+                onPromptTimeout(table, prompt);
             }
-            _status = GameStatus.PLAYING_VS;
-        }
-        
-        // 牌山生成と席決め
-        final List<JanPai> deck = createDeck();
-        final Map<Wind, Player> playerTable = createPlayerTable(playerNameList);
-        
-        // ゲーム開始
-        synchronized (_CONTROLLER_LOCK) {
-            _controller = createJanController(false);
-            _controller.start(deck, playerTable);
-        }
-    }
-    
-    
-    
-    /**
-     * 文字列を牌に変換
-     * 
-     * @param source 変換元。
-     * @return 変換結果。
-     * @throws InvalidInputException 不正な入力。
-     */
-    private JanPai convertStringToJanPai(final String source) throws InvalidInputException {
-        switch (source) {
-        case "1m":
-            return JanPai.MAN_1;
-        case "2m":
-            return JanPai.MAN_2;
-        case "3m":
-            return JanPai.MAN_3;
-        case "4m":
-            return JanPai.MAN_4;
-        case "5m":
-            return JanPai.MAN_5;
-        case "6m":
-            return JanPai.MAN_6;
-        case "7m":
-            return JanPai.MAN_7;
-        case "8m":
-            return JanPai.MAN_8;
-        case "9m":
-            return JanPai.MAN_9;
-        case "1p":
-            return JanPai.PIN_1;
-        case "2p":
-            return JanPai.PIN_2;
-        case "3p":
-            return JanPai.PIN_3;
-        case "4p":
-            return JanPai.PIN_4;
-        case "5p":
-            return JanPai.PIN_5;
-        case "6p":
-            return JanPai.PIN_6;
-        case "7p":
-            return JanPai.PIN_7;
-        case "8p":
-            return JanPai.PIN_8;
-        case "9p":
-            return JanPai.PIN_9;
-        case "1s":
-            return JanPai.SOU_1;
-        case "2s":
-            return JanPai.SOU_2;
-        case "3s":
-            return JanPai.SOU_3;
-        case "4s":
-            return JanPai.SOU_4;
-        case "5s":
-            return JanPai.SOU_5;
-        case "6s":
-            return JanPai.SOU_6;
-        case "7s":
-            return JanPai.SOU_7;
-        case "8s":
-            return JanPai.SOU_8;
-        case "9s":
-            return JanPai.SOU_9;
-        case "東":
-        case "ton":
-        case "dong":
-            return JanPai.TON;
-        case "南":
-        case "nan":
-            return JanPai.NAN;
-        case "西":
-        case "sha":
-        case "sya":
-        case "xi":
-            return JanPai.SHA;
-        case "北":
-        case "pei":
-        case "pe":
-        case "bei":
-            return JanPai.PEI;
-        case "白":
-        case "haku":
-        case "bai":
-            return JanPai.HAKU;
-        case "發":
-        case "hatu":
-        case "hatsu":
-        case "fa":
-            return JanPai.HATU;
-        case "中":
-        case "chun":
-        case "ch":
-        case "zhong":
-            return JanPai.CHUN;
-        default:
-            throw new InvalidInputException("Invalid jan pai - " + source);
-        }
-    }
-    
-    /**
-     * 牌山を生成
-     * 
-     * @return 牌山。
-     */
-    private List<JanPai> createDeck() {
-        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
-        Collections.shuffle(deck, new SecureRandom());
-        return deck;
-    }
-    
-    /**
-     * 麻雀コントローラを生成
-     * 
-     * @param solo ソロプレイか。
-     * @return 麻雀コントローラ。
-     */
-    private JanController createJanController(final boolean solo) {
-        if (solo) {
-            return new SoloJanController(_announcer);
-        }
-        else {
-            return new VSJanController();
+        }, _promptTimeout, TimeUnit.MILLISECONDS));
+    }
+    
+    /**
+     * 確認待ちの時間切れの通知先を設定
+     * 
+     * @param listener 通知先。nullの場合は通知しない。
+     */
+    public void setPromptListener(final CallPromptListener listener) {
+        _promptListener = listener;
+    }
+    
+    /**
+     * 確認待ちの制限時間を設定
+     * 
+     * @param timeout 制限時間。(ミリ秒)
+     */
+    public void setPromptTimeout(final long timeout) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Invalid timeout - " + timeout);
+        }
+        _promptTimeout = timeout;
+    }
+    
+    
+    
+    /**
+     * 卓を閉じる
+     * 
+     * @param table 対象卓。
+     */
+    private void closeTable(final GameTable table) {
+        _tableManager.close(table);
+        table.close();
+    }
+    
+    /**
+     * 各部品の計測値を収集
+     * 
+     * @param table 収集先。
+     */
+    private void collectMetrics(final Map<String, Long> table) {
+        table.put("table.open", (long)_tableManager.getTableList().size());
+        
+        table.put("deck_pool.pooled", (long)_deckPool.getPooledCount());
+        table.put("deck_pool.taken", _deckPool.getTakenCount());
+        table.put("deck_pool.refilled", _deckPool.getRefilledCount());
+        table.put("deck_pool.starved", _deckPool.getStarvedCount());
+        table.put("deck_pool.starved_ns", _deckPool.getStarvedNanos());
+        
+        final MessageDispatcher dispatcher = MessageDispatcher.getInstance();
+        table.put("dispatcher.posted", dispatcher.getPostedCount());
+        table.put("dispatcher.sent", dispatcher.getSentLineCount());
+        table.put("dispatcher.pending", (long)dispatcher.getPendingCount());
+        table.put("dispatcher.max_pending", (long)dispatcher.getMaxPendingCount());
+        table.put("dispatcher.dropped", dispatcher.getDroppedCount());
+        table.put("dispatcher.failed", dispatcher.getFailedCount());
+        table.put("dispatcher.throttled", dispatcher.getThrottledCount());
+        table.put("dispatcher.throttled_ns", dispatcher.getThrottledNanos());
+        
+        final GameRecordWriter writer;
+        synchronized (_RECORD_STORE_LOCK) {
+            writer = _recordWriter;
+        }
+        if (writer != null) {
+            table.put("record_writer.written", writer.getWrittenCount());
+            table.put("record_writer.batch", writer.getBatchCount());
+            table.put("record_writer.pending", (long)writer.getPendingCount());
+            table.put("record_writer.max_pending", (long)writer.getMaxPendingCount());
+            table.put("record_writer.overflow", writer.getOverflowCount());
+            table.put("record_writer.failed", writer.getFailedCount());
+            table.put("record_writer.sync_failed", writer.getSyncFailedCount());
+            table.put("record_writer.sync_ns", writer.getSyncNanos());
+            table.put("record_writer.latency_total_ns", writer.getTotalLatencyNanos());
+            table.put("record_writer.latency_max_ns", writer.getMaxLatencyNanos());
         }
     }
     
@@ -630,13 +784,10 @@ public final class GameMaster {
      * プレイヤーテーブルを生成
      * 
      * @param playerNameList 参加プレイヤー名のリスト。
+     * @param windList 席決め用の風の並び。(シャッフル済み)
      * @return プレイヤーテーブル。
      */
-    private Map<Wind, Player> createPlayerTable(final List<String> playerNameList) {
-        // 風をシャッフル
-        final List<Wind> windList = new ArrayList<>(Arrays.asList(Wind.values()));
-        Collections.shuffle(windList, new SecureRandom());
-        
+    private Map<Wind, Player> createPlayerTable(final List<String> playerNameList, final List<Wind> windList) {
         // プレイヤーを格納
         final Map<Wind, Player> playerTable = new TreeMap<>();
         for (final String playerName : playerNameList) {
@@ -666,6 +817,219 @@ public final class GameMaster {
         throw new InternalError();
     }
     
+    /**
+     * 進行中の卓を取得
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @return プレイヤーが着席している進行中の卓。存在しない場合はnull。
+     */
+    private GameTable getPlayingTable(final String channel, final String playerName) {
+        if (channel == null) {
+            throw new NullPointerException("Channel name is null.");
+        }
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        
+        final GameTable table = _tableManager.getTable(channel, playerName);
+        if (table == null || table.getStatus().isIdle()) {
+            println(channel, "--- Not started ---");
+            return null;
+        }
+        return table;
+    }
+    
+    /**
+     * 牌譜の保存領域を取得 (初回に開く)
+     * 
+     * @return 牌譜の保存領域。
+     * @throws IOException 保存領域を開けなかった。
+     */
+    private GameRecordStore getRecordStore() throws IOException {
+        synchronized (_RECORD_STORE_LOCK) {
+            if (_recordStore == null) {
+                _recordStore = new GameRecordStore(Paths.get(RECORD_STORE_PATH));
+            }
+            return _recordStore;
+        }
+    }
+    
+    /**
+     * 牌譜の書き込みを取得 (初回に開く)
+     * 
+     * @return 牌譜の書き込み。
+     * @throws IOException 保存領域を開けなかった。
+     */
+    private GameRecordWriter getRecordWriter() throws IOException {
+        synchronized (_RECORD_STORE_LOCK) {
+            if (_recordWriter == null) {
+                _recordWriter = new GameRecordWriter(getRecordStore(), RECORD_WRITER_CAPACITY, RECORD_WRITER_BATCH_SIZE, RECORD_SYNC_POLICY);
+            }
+            return _recordWriter;
+        }
+    }
+    
+    /**
+     * 副露の受付の時間切れ処理
+     * 
+     * 時間切れの席の確認待ちを締め切り、決着を適用した処理結果を確認待ちの時間切れと同じ通知先へ渡す。
+     * 
+     * @param table 対象卓。
+     * @param playerNameList 時間切れになった席のプレイヤー名のリスト。
+     * @param result 決着を適用した処理結果。
+     */
+    private void onCallWindowTimeout(final GameTable table, final List<String> playerNameList, final TurnResult result) {
+        if (playerNameList.isEmpty()) {
+            return;
+        }
+        
+        final String channel = table.getKey().getChannel();
+        for (final String playerName : playerNameList) {
+            final CallPrompt prompt = table.claimPrompt(playerName);
+            if (prompt != null) {
+                prompt.cancelTimeout();
+            }
+            println(channel, "--- Time up: " + playerName + " ---");
+        }
+        
+        final CallPromptListener listener = _promptListener;
+        if (listener != null) {
+            listener.onTimeout(channel, playerNameList.get(0), result);
+        }
+    }
+    
+    /**
+     * 確認待ちの時間切れ処理
+     * 
+     * @param table 対象卓。
+     * @param prompt 確認待ち。
+     */
+    private void onPromptTimeout(final GameTable table, final CallPrompt prompt) {
+        // 応答済み、または置き換わった確認待ちは無視
+        if (!table.claimPrompt(prompt)) {
+            return;
+        }
+        
+        final String channel = table.getKey().getChannel();
+        try {
+            println(channel, "--- Time up: " + prompt.getPlayerName() + " ---");
+            final TurnResult result = table.pass(prompt.getPlayerName());
+            final CallPromptListener listener = _promptListener;
+            if (listener != null) {
+                listener.onTimeout(channel, prompt.getPlayerName(), result);
+            }
+        }
+        catch (final JanException e) {
+            println(channel, "(  ´∀｀) ＜ " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 卓を開く
+     * 
+     * @param channel チャンネル名。
+     * @param playerNameList 着席するプレイヤー名のリスト。
+     * @param status 開始後の状態。
+     * @return 開いた卓。既に着席済みのプレイヤーがいる場合はnull。
+     */
+    private GameTable openTable(final String channel, final List<String> playerNameList, final GameStatus status) {
+        if (channel == null) {
+            throw new NullPointerException("Channel name is null.");
+        }
+        
+        final GameTable table = _tableManager.open(channel, playerNameList);
+        if (table == null || !table.open(status)) {
+            println(channel, "--- Already started ---");
+            return null;
+        }
+        return table;
+    }
+    
+    /**
+     * メッセージを出力
+     * 
+     * @param channel チャンネル名。空文字列の場合はBOTの参加チャンネル。
+     * @param message メッセージ。
+     */
+    private void println(final String channel, final String message) {
+        MessageDispatcher.getInstance().talk(channel, message);
+    }
+    
+    /**
+     * リプレイを開始
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @param record 牌譜。存在しない場合はnull。
+     * @param turn 再開する巡目。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    private TurnResult replay(final String channel, final String playerName, final GameRecord record, final int turn) throws JanException {
+        if (record == null) {
+            println(channel, "--- Replay data is not found ---");
+            return TurnResult.CONTINUE;
+        }
+        
+        // 開始済み判定
+        final GameTable table = openTable(channel, Arrays.asList(playerName), GameStatus.PLAYING_SOLO);
+        if (table == null) {
+            return TurnResult.CONTINUE;
+        }
+        
+        try {
+            // 牌山と席順をロード
+            final List<JanPai> deck = record.getDeck();
+            final Map<Wind, Player> playerTable = record.getPlayerTable();
+            
+            // プレイヤー名を差し替え
+            final Wind playerWind = getPlayerWind(playerTable);
+            playerTable.put(playerWind, new Player(playerName, PlayerType.HUMAN));
+            
+            // 指定巡目まで進めて開始
+            return table.replay(deck, playerTable, record.getActionList(), turn);
+        }
+        catch (final Throwable e) {
+            // 開始できなかった卓は閉じる
+            closeTable(table);
+            throw e;
+        }
+    }
+    
+    /**
+     * 牌譜を保存
+     * 
+     * 書き込み完了後にゲームコードを通知する。保存する牌譜がない卓では何もしない。
+     * 
+     * @param channel チャンネル名。
+     * @param table 卓。
+     */
+    private void saveRecord(final String channel, final GameTable table) {
+        final GameRecord record = table.takeRecord();
+        if (record == null) {
+            return;
+        }
+        
+        final GameRecordCallback callback = new GameRecordCallback() {
+            public void onFailed(final Throwable e) {
+                println(channel, "--- Failed to save game record ---");
+            }
+            public void onSyncFailed(final String gameCode, final Throwable e) {
+                println(channel, "--- Game code: " + gameCode + " (failed to sync) ---");
+            }
+            public void onWritten(final String gameCode) {
+                println(channel, "--- Game code: " + gameCode + " ---");
+            }
+        };
+        try {
+            getRecordWriter().submit(record, callback);
+        }
+        catch (final IOException e) {
+            callback.onFailed(e);
+        }
+    }
+    
     
     
     /**
@@ -676,8 +1040,34 @@ public final class GameMaster {
     /**
      * 保存パス
      */
-    private static final String DECK_SAVE_PATH         = "./deck.bin";
-    private static final String PLAYER_TABLE_SAVE_PATH = "./player_table.bin";
+    private static final String RECORD_STORE_PATH = "./record";
+    
+    /**
+     * 牌譜書き込みの設定
+     */
+    private static final int RECORD_WRITER_CAPACITY = 256;
+    private static final int RECORD_WRITER_BATCH_SIZE = 32;
+    private static final SyncPolicy RECORD_SYNC_POLICY = SyncPolicy.BATCH;
+    
+    /**
+     * 牌山プールの設定 (システムプロパティで変更可能、値は DeckPool で検証)
+     */
+    private static final String DECK_POOL_CAPACITY_PROPERTY = "janbot.deck.pool.capacity";
+    private static final String DECK_POOL_THREAD_COUNT_PROPERTY = "janbot.deck.pool.threads";
+    private static final int DEFAULT_DECK_POOL_CAPACITY = 16;
+    private static final int DEFAULT_DECK_POOL_THREAD_COUNT = 1;
+    
+    /**
+     * 副露の確認待ちの制限時間 (ミリ秒)
+     */
+    private static final long CALL_PROMPT_TIMEOUT = 60000L;
+    
+    /**
+     * 副露の受付の制限時間 (ミリ秒)
+     * 
+     * 席ごとの確認待ちの時間切れで締め切れなかった場合の打ち切り用に、確認待ちより長くする。
+     */
+    private static final long CALL_WINDOW_TIMEOUT = CALL_PROMPT_TIMEOUT + 10000L;
     
     /**
      * NPCリスト
@@ -690,31 +1080,72 @@ public final class GameMaster {
     
     
     /**
-     * ロックオブジェクト (ゲームコントローラ)
+     * ロックオブジェクト
+     */
+    private final Object _RECORD_STORE_LOCK = new Object();
+    
+    
+    
+    /**
+     * 卓管理
      */
-    private final Object _CONTROLLER_LOCK = new Object();
+    private final TableManager _tableManager = new TableManager();
     
     /**
-     * ロックオブジェクト (ゲームの状態)
+     * シャッフル済み牌山のプール
      */
-    private final Object _STATUS_LOCK = new Object();
+    private final DeckPool _deckPool = new DeckPool(DeckFactory.newSecureFactory(),
+                                                    Integer.getInteger(DECK_POOL_CAPACITY_PROPERTY, DEFAULT_DECK_POOL_CAPACITY),
+                                                    Integer.getInteger(DECK_POOL_THREAD_COUNT_PROPERTY, DEFAULT_DECK_POOL_THREAD_COUNT));
     
+    /**
+     * 確認待ちの時間切れ処理の実行者
+     */
+    private final ScheduledThreadPoolExecutor _promptTimer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(task, "CallPromptTimer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    
+    /**
+     * 終局の集計
+     */
+    private final GameEventListener _metricsListener = new GameEventListener() {
+        public void onEvent(final GameEvent event) {
+            switch (event.getType()) {
+            case AGARI:
+                GameMetrics.getInstance().countUp(GameCounterType.AGARI);
+                break;
+            case RYUKYOKU:
+                GameMetrics.getInstance().countUp(GameCounterType.RYUKYOKU);
+                break;
+            default:
+                break;
+            }
+        }
+    };
     
+    /**
+     * 確認待ちの時間切れの通知先
+     */
+    private volatile CallPromptListener _promptListener = null;
     
     /**
-     * ゲームコントローラ
+     * 確認待ちの制限時間 (ミリ秒)
      */
-    private JanController _controller = null;
+    private volatile long _promptTimeout = CALL_PROMPT_TIMEOUT;
     
     /**
-     * ゲーム実況者
+     * 牌譜の保存領域
      */
-    private GameAnnouncer _announcer = new GameAnnouncer();
+    private GameRecordStore _recordStore = null;
     
     /**
-     * ゲームの状態
+     * 牌譜の書き込み
      */
-    private GameStatus _status = GameStatus.IDLE;
+    private GameRecordWriter _recordWriter = null;
     
 }
 
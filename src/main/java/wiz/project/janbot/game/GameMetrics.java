@@ -0,0 +1,274 @@
+/**
+ * GameMetrics.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+
+/**
+ * 計測値の集計
+ * 
+ * コマンドごとの処理時間、ゲームの集計項目、卓の処理待ち時間を保持する。
+ * 各部品 (牌山プール、送信キュー、牌譜書き込み) の計測値は提供元から収集する。
+ */
+public final class GameMetrics {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private GameMetrics() {
+        for (final GameCounterType type : GameCounterType.values()) {
+            _counterTable.put(type, new AtomicLong());
+        }
+    }
+    
+    
+    
+    /**
+     * インスタンスを取得
+     * 
+     * @return インスタンス。
+     */
+    public static GameMetrics getInstance() {
+        return INSTANCE;
+    }
+    
+    
+    
+    /**
+     * 集計項目を加算
+     * 
+     * @param type 集計項目。
+     */
+    public void countUp(final GameCounterType type) {
+        if (type == null) {
+            throw new NullPointerException("Counter type is null.");
+        }
+        _counterTable.get(type).incrementAndGet();
+    }
+    
+    /**
+     * コマンドの処理時間を取得
+     * 
+     * @param command コマンド名。
+     * @return 処理時間のヒストグラム。記録がない場合はnull。
+     */
+    public LatencyHistogram getCommandHistogram(final String command) {
+        return _commandTable.get(command);
+    }
+    
+    /**
+     * 集計項目の値を取得
+     * 
+     * @param type 集計項目。
+     * @return 集計項目の値。
+     */
+    public long getCount(final GameCounterType type) {
+        if (type == null) {
+            throw new NullPointerException("Counter type is null.");
+        }
+        return _counterTable.get(type).get();
+    }
+    
+    /**
+     * 卓の処理待ち時間を取得
+     * 
+     * @return 待ち時間のヒストグラム。
+     */
+    public LatencyHistogram getTableWaitHistogram() {
+        return _tableWaitHistogram;
+    }
+    
+    /**
+     * 全ての計測値を取得
+     * 
+     * @return 計測値名と値のテーブル。(時間はナノ秒)
+     */
+    public Map<String, Long> getSnapshot() {
+        final Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (final Map.Entry<GameCounterType, AtomicLong> entry : _counterTable.entrySet()) {
+            snapshot.put("game." + getName(entry.getKey()), entry.getValue().get());
+        }
+        putHistogram(snapshot, "table_wait", _tableWaitHistogram);
+        for (final Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(_commandTable).entrySet()) {
+            putHistogram(snapshot, "command." + entry.getKey(), entry.getValue());
+        }
+        for (final MetricsSource source : _sourceList) {
+            source.collect(snapshot);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * コマンドの処理時間を記録
+     * 
+     * @param command コマンド名。
+     * @param nanos 処理時間。(ナノ秒)
+     */
+    public void recordCommand(final String command, final long nanos) {
+        if (command == null) {
+            throw new NullPointerException("Command name is null.");
+        }
+        
+        LatencyHistogram histogram = _commandTable.get(command);
+        if (histogram == null) {
+            final LatencyHistogram created = new LatencyHistogram();
+            histogram = _commandTable.putIfAbsent(command, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        histogram.record(nanos);
+    }
+    
+    /**
+     * JMXに登録
+     * 
+     * @throws JMException 登録に失敗した。
+     */
+    public void registerMBean() throws JMException {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(MBEAN_NAME);
+        if (!server.isRegistered(name)) {
+            server.registerMBean(new MetricsMBean(this), name);
+        }
+    }
+    
+    /**
+     * 表示用の文字列リストに変換
+     * 
+     * @return 変換結果。
+     */
+    public List<String> toLineList() {
+        final List<String> lineList = new ArrayList<>();
+        final StringBuilder buf = new StringBuilder();
+        for (final GameCounterType type : GameCounterType.values()) {
+            buf.append(buf.length() == 0 ? "game: " : "  ");
+            buf.append(getName(type)).append("=").append(getCount(type));
+        }
+        lineList.add(buf.toString());
+        lineList.add(convertHistogramToString("table_wait", _tableWaitHistogram));
+        for (final Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(_commandTable).entrySet()) {
+            lineList.add(convertHistogramToString(entry.getKey(), entry.getValue()));
+        }
+        return lineList;
+    }
+    
+    
+    
+    /**
+     * 計測値の提供元を追加
+     * 
+     * @param source 計測値の提供元。
+     */
+    void addSource(final MetricsSource source) {
+        if (source == null) {
+            throw new NullPointerException("Metrics source is null.");
+        }
+        _sourceList.add(source);
+    }
+    
+    
+    
+    /**
+     * ヒストグラムを表示用の文字列に変換
+     * 
+     * @param name 計測値名。
+     * @param histogram ヒストグラム。
+     * @return 変換結果。
+     */
+    private static String convertHistogramToString(final String name, final LatencyHistogram histogram) {
+        return String.format("%s: n=%d  p50=%.2fms  p99=%.2fms  max=%.2fms",
+                             name,
+                             histogram.getCount(),
+                             histogram.getPercentile(50.0) / NANOS_PER_MILLI,
+                             histogram.getPercentile(99.0) / NANOS_PER_MILLI,
+                             histogram.getMax() / NANOS_PER_MILLI);
+    }
+    
+    /**
+     * 集計項目の計測値名を取得
+     * 
+     * @param type 集計項目。
+     * @return 計測値名。
+     */
+    private static String getName(final GameCounterType type) {
+        return type.name().toLowerCase();
+    }
+    
+    /**
+     * ヒストグラムの計測値を格納
+     * 
+     * @param snapshot 格納先。
+     * @param name 計測値名。
+     * @param histogram ヒストグラム。
+     */
+    private static void putHistogram(final Map<String, Long> snapshot, final String name, final LatencyHistogram histogram) {
+        snapshot.put(name + ".count", histogram.getCount());
+        snapshot.put(name + ".total_ns", histogram.getTotal());
+        snapshot.put(name + ".p50_ns", histogram.getPercentile(50.0));
+        snapshot.put(name + ".p90_ns", histogram.getPercentile(90.0));
+        snapshot.put(name + ".p99_ns", histogram.getPercentile(99.0));
+        snapshot.put(name + ".max_ns", histogram.getMax());
+    }
+    
+    
+    
+    /**
+     * 自分自身のインスタンス
+     */
+    private static final GameMetrics INSTANCE = new GameMetrics();
+    
+    /**
+     * JMXの登録名
+     */
+    private static final String MBEAN_NAME = "wiz.project.janbot:type=GameMetrics";
+    
+    /**
+     * 1ミリ秒あたりのナノ秒
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    
+    
+    
+    /**
+     * 集計項目ごとの値
+     */
+    private final Map<GameCounterType, AtomicLong> _counterTable = new EnumMap<>(GameCounterType.class);
+    
+    /**
+     * コマンドごとの処理時間
+     */
+    private final ConcurrentMap<String, LatencyHistogram> _commandTable = new ConcurrentHashMap<>();
+    
+    /**
+     * 卓の処理待ち時間 (メールボックスへの投入から実行開始まで)
+     */
+    private final LatencyHistogram _tableWaitHistogram = new LatencyHistogram();
+    
+    /**
+     * 計測値の提供元リスト
+     */
+    private final List<MetricsSource> _sourceList = new CopyOnWriteArrayList<>();
+    
+}
+
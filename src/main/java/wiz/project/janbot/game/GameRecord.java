@@ -0,0 +1,443 @@
+/**
+ * GameRecord.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * 牌譜 (牌山、席順、乱数シード、開始時刻と操作履歴)
+ * 
+ * バイナリ形式 (ビッグエンディアン)
+ *   magic     4 byte  "JREC"
+ *   version   1 byte
+ *   seed      8 byte
+ *   timestamp 8 byte  (開始時刻のミリ秒)
+ *   deck      1 byte  (牌数) + 牌数 x 1 byte (JanPaiの序数)
+ *   seat      4 x (1 byte 種類 + 1 byte 名前長 + 名前 (UTF-8))  東南西北の順
+ *   action    4 byte  (操作数) + 操作数 x 3 byte (種類, 風, 牌 (なしは0xFF))
+ */
+final class GameRecord {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param deck 牌山。
+     * @param playerTable プレイヤーテーブル。
+     * @param seed 乱数シード。
+     * @param timestamp 開始時刻。
+     */
+    public GameRecord(final List<JanPai> deck, final Map<Wind, Player> playerTable, final long seed, final long timestamp) {
+        if (deck == null) {
+            throw new NullPointerException("Deck is null.");
+        }
+        if (playerTable == null) {
+            throw new NullPointerException("Player table is null.");
+        }
+        if (deck.size() > MAX_DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid deck size - " + deck.size());
+        }
+        
+        _deck = new byte[deck.size()];
+        for (int i = 0; i < _deck.length; i++) {
+            _deck[i] = (byte)deck.get(i).ordinal();
+        }
+        
+        _playerArray = new Player[SEAT_COUNT];
+        _nameArray = new byte[SEAT_COUNT][];
+        for (final Wind wind : Wind.values()) {
+            final Player player = playerTable.get(wind);
+            if (player == null) {
+                throw new IllegalArgumentException("Player is not found - " + wind);
+            }
+            final byte[] name = player.getName().getBytes(CHARSET);
+            if (name.length > MAX_NAME_LENGTH) {
+                throw new IllegalArgumentException("Invalid player name - " + player.getName());
+            }
+            _playerArray[wind.ordinal()] = player;
+            _nameArray[wind.ordinal()] = name;
+        }
+        
+        _seed = seed;
+        _timestamp = timestamp;
+    }
+    
+    
+    
+    /**
+     * バイナリから牌譜を復元
+     * 
+     * @param source 読み込み元。
+     * @return 牌譜。
+     * @throws IOException 不正な形式。
+     */
+    public static GameRecord read(final byte[] source) throws IOException {
+        if (source == null) {
+            throw new NullPointerException("Source is null.");
+        }
+        return read(ByteBuffer.wrap(source));
+    }
+    
+    /**
+     * バッファから牌譜を復元
+     * 
+     * バッファの位置は牌譜の直後に進む。
+     * 
+     * @param buf 読み込み元。
+     * @return 牌譜。
+     * @throws IOException 不正な形式。
+     */
+    public static GameRecord read(final ByteBuffer buf) throws IOException {
+        if (buf == null) {
+            throw new NullPointerException("Source buffer is null.");
+        }
+        
+        try {
+            final byte[] magic = new byte[MAGIC.length];
+            buf.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Invalid game record magic.");
+            }
+            final int version = buf.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IOException("Invalid game record version - " + version);
+            }
+            final long seed = buf.getLong();
+            final long timestamp = buf.getLong();
+            
+            final int deckSize = buf.get() & 0xFF;
+            final List<JanPai> deck = new ArrayList<>(deckSize);
+            for (int i = 0; i < deckSize; i++) {
+                deck.add(toJanPai(buf.get()));
+            }
+            
+            final Map<Wind, Player> playerTable = new TreeMap<>();
+            for (final Wind wind : Wind.values()) {
+                final int typeIndex = buf.get() & 0xFF;
+                if (typeIndex >= PLAYER_TYPE_ARRAY.length) {
+                    throw new IOException("Invalid player type - " + typeIndex);
+                }
+                final byte[] name = new byte[buf.get() & 0xFF];
+                buf.get(name);
+                playerTable.put(wind, new Player(new String(name, CHARSET), PLAYER_TYPE_ARRAY[typeIndex]));
+            }
+            
+            final GameRecord record = new GameRecord(deck, playerTable, seed, timestamp);
+            final int actionCount = buf.getInt();
+            if (actionCount < 0 || actionCount > buf.remaining() / ACTION_SIZE) {
+                throw new IOException("Invalid action count - " + actionCount);
+            }
+            for (int i = 0; i < actionCount; i++) {
+                final int typeIndex = buf.get() & 0xFF;
+                final int windIndex = buf.get() & 0xFF;
+                final byte pai = buf.get();
+                if (typeIndex >= ACTION_TYPE_ARRAY.length) {
+                    throw new IOException("Invalid action type - " + typeIndex);
+                }
+                if (windIndex >= WIND_ARRAY.length) {
+                    throw new IOException("Invalid wind - " + windIndex);
+                }
+                final JanPai target = pai == NO_PAI ? null : toJanPai(pai);
+                record._actionList.add(new GameAction(ACTION_TYPE_ARRAY[typeIndex], WIND_ARRAY[windIndex], target));
+            }
+            return record;
+        }
+        catch (final BufferUnderflowException e) {
+            throw new IOException("Game record is truncated.", e);
+        }
+    }
+    
+    /**
+     * ファイルから牌譜を読み込む
+     * 
+     * @param path 読み込み元のパス。
+     * @return 牌譜。
+     * @throws IOException 読み込みに失敗。
+     */
+    public static GameRecord read(final Path path) throws IOException {
+        if (path == null) {
+            throw new NullPointerException("Path is null.");
+        }
+        return read(Files.readAllBytes(path));
+    }
+    
+    
+    
+    /**
+     * 操作を記録
+     * 
+     * @param action 操作。
+     */
+    public void addAction(final GameAction action) {
+        if (action == null) {
+            throw new NullPointerException("Action is null.");
+        }
+        
+        synchronized (_ACTION_LOCK) {
+            _actionList.add(action);
+        }
+    }
+    
+    /**
+     * 操作履歴を取得
+     * 
+     * @return 操作履歴。(変更不可)
+     */
+    public List<GameAction> getActionList() {
+        synchronized (_ACTION_LOCK) {
+            return Collections.unmodifiableList(new ArrayList<>(_actionList));
+        }
+    }
+    
+    /**
+     * 牌山を取得
+     * 
+     * @return 牌山。
+     */
+    public List<JanPai> getDeck() {
+        final List<JanPai> deck = new ArrayList<>(_deck.length);
+        for (final byte pai : _deck) {
+            deck.add(JANPAI_ARRAY[pai]);
+        }
+        return deck;
+    }
+    
+    /**
+     * プレイヤーテーブルを取得
+     * 
+     * @return プレイヤーテーブル。
+     */
+    public Map<Wind, Player> getPlayerTable() {
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        for (final Wind wind : Wind.values()) {
+            playerTable.put(wind, _playerArray[wind.ordinal()]);
+        }
+        return playerTable;
+    }
+    
+    /**
+     * 乱数シードを取得
+     * 
+     * @return 乱数シード。
+     */
+    public long getSeed() {
+        return _seed;
+    }
+    
+    /**
+     * 開始時刻を取得
+     * 
+     * @return 開始時刻。(ミリ秒)
+     */
+    public long getTimestamp() {
+        return _timestamp;
+    }
+    
+    /**
+     * バイナリに変換
+     * 
+     * @return 変換結果。
+     */
+    public byte[] toByteArray() {
+        synchronized (_ACTION_LOCK) {
+            final byte[] result = new byte[getSizeCore()];
+            writeCore(ByteBuffer.wrap(result));
+            return result;
+        }
+    }
+    
+    /**
+     * ファイルに書き込む (上書き)
+     * 
+     * 一時ファイルに書き込んで同期した後に置き換えるため、途中で落ちても元のファイルは壊れない。
+     * 
+     * @param path 書き込み先のパス。
+     * @throws IOException 書き込みに失敗。
+     */
+    public void write(final Path path) throws IOException {
+        if (path == null) {
+            throw new NullPointerException("Path is null.");
+        }
+        
+        final Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (final FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buf = ByteBuffer.wrap(toByteArray());
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            channel.force(true);
+        }
+        Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    
+    
+    /**
+     * バイナリのサイズを取得
+     * 
+     * @return バイナリのサイズ。
+     */
+    private int getSizeCore() {
+        int size = HEADER_SIZE + _deck.length + 4 + _actionList.size() * ACTION_SIZE;
+        for (final byte[] name : _nameArray) {
+            size += 2 + name.length;
+        }
+        return size;
+    }
+    
+    /**
+     * 序数を牌に変換
+     * 
+     * @param index 序数。
+     * @return 牌。
+     * @throws IOException 不正な序数。
+     */
+    private static JanPai toJanPai(final byte index) throws IOException {
+        if (index < 0 || index >= JANPAI_ARRAY.length) {
+            throw new IOException("Invalid jan pai - " + (index & 0xFF));
+        }
+        return JANPAI_ARRAY[index];
+    }
+    
+    /**
+     * バッファに書き込む
+     * 
+     * @param buf 書き込み先。
+     */
+    private void writeCore(final ByteBuffer buf) {
+        buf.put(MAGIC);
+        buf.put((byte)VERSION);
+        buf.putLong(_seed);
+        buf.putLong(_timestamp);
+        
+        buf.put((byte)_deck.length);
+        buf.put(_deck);
+        
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            buf.put((byte)_playerArray[i].getType().ordinal());
+            buf.put((byte)_nameArray[i].length);
+            buf.put(_nameArray[i]);
+        }
+        
+        buf.putInt(_actionList.size());
+        for (final GameAction action : _actionList) {
+            buf.put((byte)action.getType().ordinal());
+            buf.put((byte)action.getWind().ordinal());
+            buf.put(action.getPai() != null ? (byte)action.getPai().ordinal() : NO_PAI);
+        }
+    }
+    
+    
+    
+    /**
+     * 識別子
+     */
+    private static final byte[] MAGIC = { 'J', 'R', 'E', 'C' };
+    
+    /**
+     * 形式のバージョン
+     */
+    private static final int VERSION = 1;
+    
+    /**
+     * 固定長部分のサイズ (識別子、バージョン、シード、開始時刻、牌数)
+     */
+    private static final int HEADER_SIZE = 4 + 1 + 8 + 8 + 1;
+    
+    /**
+     * 1操作のサイズ
+     */
+    private static final int ACTION_SIZE = 3;
+    
+    /**
+     * 牌なし
+     */
+    private static final byte NO_PAI = (byte)0xFF;
+    
+    /**
+     * 上限値
+     */
+    private static final int MAX_DECK_SIZE   = 0xFF;
+    private static final int MAX_NAME_LENGTH = 0xFF;
+    
+    /**
+     * 席数
+     */
+    private static final int SEAT_COUNT = 4;
+    
+    /**
+     * 文字コード
+     */
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    
+    /**
+     * 序数から値への変換テーブル
+     */
+    private static final JanPai[] JANPAI_ARRAY = JanPai.values();
+    private static final Wind[] WIND_ARRAY = Wind.values();
+    private static final PlayerType[] PLAYER_TYPE_ARRAY = PlayerType.values();
+    private static final GameActionType[] ACTION_TYPE_ARRAY = GameActionType.values();
+    
+    
+    
+    /**
+     * ロックオブジェクト
+     */
+    private final Object _ACTION_LOCK = new Object();
+    
+    
+    
+    /**
+     * 牌山 (JanPaiの序数)
+     */
+    private final byte[] _deck;
+    
+    /**
+     * プレイヤー (風の序数順)
+     */
+    private final Player[] _playerArray;
+    
+    /**
+     * プレイヤー名 (UTF-8)
+     */
+    private final byte[][] _nameArray;
+    
+    /**
+     * 乱数シード
+     */
+    private final long _seed;
+    
+    /**
+     * 開始時刻
+     */
+    private final long _timestamp;
+    
+    /**
+     * 操作履歴
+     */
+    private final List<GameAction> _actionList = new ArrayList<>();
+    
+}
+
@@ -0,0 +1,39 @@
+/**
+ * GameRecordCallback.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * 牌譜の書き込み結果の通知先
+ */
+interface GameRecordCallback {
+    
+    /**
+     * 書き込みに失敗した
+     * 
+     * @param e 発生した例外。
+     */
+    public void onFailed(final Throwable e);
+    
+    /**
+     * 追記は完了したが、ディスクへの同期に失敗した
+     * 
+     * @param gameCode ゲームコード。
+     * @param e 発生した例外。
+     */
+    public void onSyncFailed(final String gameCode, final Throwable e);
+    
+    /**
+     * 書き込みが完了した
+     * 
+     * @param gameCode ゲームコード。
+     */
+    public void onWritten(final String gameCode);
+    
+}
+
@@ -0,0 +1,537 @@
+/**
+ * GameRecordStore.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+
+
+/**
+ * 牌譜の保存領域 (追記専用)
+ * 
+ * 牌譜は固定サイズのデータセグメントに [4 byte 長さ][4 byte CRC32][牌譜] の形で追記する。
+ * 索引セグメントには通し番号ごとに8バイトの位置 ((セグメント番号 + 1) << 32 | オフセット) を持ち、
+ * ゲームコード (通し番号の36進表記) から牌譜をO(1)で読み込む。
+ * 各セグメントはメモリマップして使うため、全体を読み込むことはない。
+ * 
+ * ディスクへの同期は呼び出し側の方針に任せるため、データと索引のページの書き出し順は保証されない。
+ * 復元時は索引を先頭から確認し、最初の空き、直前の牌譜と連続しないエントリ、
+ * または長さとCRCが一致しない牌譜以降を切り捨てる。(切り捨てた分は次の追記で上書きされる)
+ */
+final class GameRecordStore {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param directory 保存先ディレクトリ。
+     * @throws IOException 保存領域を開けなかった。
+     */
+    public GameRecordStore(final Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_INDEX_ENTRY_COUNT);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param directory 保存先ディレクトリ。
+     * @param segmentSize データセグメントのサイズ。(バイト)
+     * @param indexEntryCount 索引セグメント1つあたりの件数。
+     * @throws IOException 保存領域を開けなかった。
+     */
+    GameRecordStore(final Path directory, final int segmentSize, final int indexEntryCount) throws IOException {
+        if (directory == null) {
+            throw new NullPointerException("Directory is null.");
+        }
+        if (segmentSize <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Invalid segment size - " + segmentSize);
+        }
+        if (indexEntryCount <= 0 || indexEntryCount > Integer.MAX_VALUE / INDEX_ENTRY_SIZE) {
+            throw new IllegalArgumentException("Invalid index entry count - " + indexEntryCount);
+        }
+        
+        _directory = directory;
+        _segmentSize = segmentSize;
+        _indexEntryCount = indexEntryCount;
+        Files.createDirectories(directory);
+        recover();
+    }
+    
+    
+    
+    /**
+     * ゲームコードを通し番号に変換
+     * 
+     * @param gameCode ゲームコード。
+     * @return 通し番号。
+     */
+    public static long parseGameCode(final String gameCode) {
+        if (gameCode == null) {
+            throw new NullPointerException("Game code is null.");
+        }
+        
+        try {
+            final long sequence = Long.parseLong(gameCode.trim(), Character.MAX_RADIX);
+            if (sequence < 0) {
+                throw new IllegalArgumentException("Invalid game code - " + gameCode);
+            }
+            return sequence;
+        }
+        catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid game code - " + gameCode);
+        }
+    }
+    
+    /**
+     * 通し番号をゲームコードに変換
+     * 
+     * @param sequence 通し番号。
+     * @return ゲームコード。
+     */
+    public static String toGameCode(final long sequence) {
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Invalid sequence - " + sequence);
+        }
+        return Long.toString(sequence, Character.MAX_RADIX).toUpperCase(Locale.ENGLISH);
+    }
+    
+    
+    
+    /**
+     * 牌譜を追記
+     * 
+     * @param record 牌譜。
+     * @return ゲームコード。
+     * @throws IOException 書き込みに失敗。
+     */
+    public String append(final GameRecord record) throws IOException {
+        if (record == null) {
+            throw new NullPointerException("Game record is null.");
+        }
+        
+        final byte[] data = record.toByteArray();
+        final int size = RECORD_HEADER_SIZE + data.length;
+        if (size > _segmentSize) {
+            throw new IllegalArgumentException("Invalid record size - " + data.length);
+        }
+        
+        synchronized (_APPEND_LOCK) {
+            if (_writePosition + size > _segmentSize) {
+                _writeSegment++;
+                _writePosition = 0;
+            }
+            
+            final ByteBuffer buf = getDataSegment(_writeSegment, true).duplicate();
+            buf.position(_writePosition);
+            buf.putInt(data.length);
+            buf.putInt(getChecksum(data, 0, data.length));
+            buf.put(data);
+            
+            final long sequence = _count;
+            final ByteBuffer index = getIndexSegment((int)(sequence / _indexEntryCount), true);
+            index.putLong((int)(sequence % _indexEntryCount) * INDEX_ENTRY_SIZE, toIndexEntry(_writeSegment, _writePosition));
+            
+            _writePosition += size;
+            _count = sequence + 1;
+            return toGameCode(sequence);
+        }
+    }
+    
+    /**
+     * ディスクに同期して閉じる
+     */
+    public void close() {
+        synchronized (_APPEND_LOCK) {
+            synchronized (_SEGMENT_LOCK) {
+                forceCore();
+                _dataSegmentList.clear();
+                _indexSegmentList.clear();
+            }
+        }
+    }
+    
+    /**
+     * ディスクに同期
+     */
+    public void force() {
+        synchronized (_APPEND_LOCK) {
+            synchronized (_SEGMENT_LOCK) {
+                forceCore();
+            }
+        }
+    }
+    
+    /**
+     * 保存済みの牌譜数を取得
+     * 
+     * @return 保存済みの牌譜数。
+     */
+    public long getCount() {
+        return _count;
+    }
+    
+    /**
+     * 牌譜を読み込む
+     * 
+     * @param gameCode ゲームコード。
+     * @return 牌譜。存在しない場合はnull。
+     * @throws IOException 読み込みに失敗。
+     */
+    public GameRecord read(final String gameCode) throws IOException {
+        return read(parseGameCode(gameCode));
+    }
+    
+    /**
+     * 牌譜を読み込む
+     * 
+     * @param sequence 通し番号。
+     * @return 牌譜。存在しない場合はnull。
+     * @throws IOException 読み込みに失敗。
+     */
+    public GameRecord read(final long sequence) throws IOException {
+        if (sequence < 0 || sequence >= _count) {
+            return null;
+        }
+        
+        final ByteBuffer index = getIndexSegment((int)(sequence / _indexEntryCount), false);
+        final long entry = index.getLong((int)(sequence % _indexEntryCount) * INDEX_ENTRY_SIZE);
+        final int segment = (int)(entry >>> 32) - 1;
+        final int offset = (int)entry;
+        final int length = getRecordLength(segment, offset);
+        if (length <= 0) {
+            throw new IOException("Invalid record - " + toGameCode(sequence));
+        }
+        
+        final ByteBuffer buf = getDataSegment(segment, false).duplicate();
+        buf.position(offset + RECORD_HEADER_SIZE);
+        buf.limit(offset + RECORD_HEADER_SIZE + length);
+        return GameRecord.read(buf);
+    }
+    
+    /**
+     * 最後に保存した牌譜を読み込む
+     * 
+     * @return 牌譜。存在しない場合はnull。
+     * @throws IOException 読み込みに失敗。
+     */
+    public GameRecord readLast() throws IOException {
+        return read(_count - 1);
+    }
+    
+    
+    
+    /**
+     * 指定した通し番号以降の索引を消去
+     * 
+     * @param sequence 消去を始める通し番号。
+     * @param lastIndexSegment 最後の索引セグメント番号。
+     * @throws IOException 索引を開けなかった。
+     */
+    private void clearIndex(final long sequence, final int lastIndexSegment) throws IOException {
+        for (int indexSegment = (int)(sequence / _indexEntryCount); indexSegment <= lastIndexSegment; indexSegment++) {
+            final MappedByteBuffer index = getIndexSegment(indexSegment, false);
+            final int firstSlot = indexSegment == sequence / _indexEntryCount ? (int)(sequence % _indexEntryCount) : 0;
+            boolean cleared = false;
+            for (int slot = firstSlot; slot < _indexEntryCount; slot++) {
+                if (index.getLong(slot * INDEX_ENTRY_SIZE) != 0) {
+                    index.putLong(slot * INDEX_ENTRY_SIZE, 0);
+                    cleared = true;
+                }
+            }
+            if (cleared) {
+                index.force();
+            }
+        }
+    }
+    
+    /**
+     * マップ済みセグメントをディスクに同期
+     */
+    private void forceCore() {
+        for (final MappedByteBuffer buf : _dataSegmentList) {
+            if (buf != null) {
+                buf.force();
+            }
+        }
+        for (final MappedByteBuffer buf : _indexSegmentList) {
+            if (buf != null) {
+                buf.force();
+            }
+        }
+    }
+    
+    /**
+     * CRC32を計算
+     * 
+     * @param data 対象データ。
+     * @param offset 開始位置。
+     * @param length 長さ。
+     * @return CRC32。(下位32ビット)
+     */
+    private static int getChecksum(final byte[] data, final int offset, final int length) {
+        final CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        return (int)crc.getValue();
+    }
+    
+    /**
+     * データセグメントを取得
+     * 
+     * @param segment セグメント番号。
+     * @param create 存在しない場合に作成するか。
+     * @return データセグメント。
+     * @throws IOException セグメントを開けなかった。
+     */
+    private MappedByteBuffer getDataSegment(final int segment, final boolean create) throws IOException {
+        synchronized (_SEGMENT_LOCK) {
+            return getSegment(_dataSegmentList, getDataPath(segment), segment, _segmentSize, create);
+        }
+    }
+    
+    /**
+     * データセグメントのパスを取得
+     * 
+     * @param segment セグメント番号。
+     * @return パス。
+     */
+    private Path getDataPath(final int segment) {
+        return _directory.resolve(String.format("record_%05d.dat", segment));
+    }
+    
+    /**
+     * 索引セグメントのパスを取得
+     * 
+     * @param segment セグメント番号。
+     * @return パス。
+     */
+    private Path getIndexPath(final int segment) {
+        return _directory.resolve(String.format("record_%05d.idx", segment));
+    }
+    
+    /**
+     * 索引セグメントを取得
+     * 
+     * @param segment セグメント番号。
+     * @param create 存在しない場合に作成するか。
+     * @return 索引セグメント。
+     * @throws IOException セグメントを開けなかった。
+     */
+    private MappedByteBuffer getIndexSegment(final int segment, final boolean create) throws IOException {
+        synchronized (_SEGMENT_LOCK) {
+            return getSegment(_indexSegmentList, getIndexPath(segment), segment, _indexEntryCount * INDEX_ENTRY_SIZE, create);
+        }
+    }
+    
+    /**
+     * データセグメントに書かれた牌譜の長さを取得 (長さとCRCを検証)
+     * 
+     * @param segment セグメント番号。
+     * @param offset オフセット。
+     * @return 牌譜の長さ。位置、長さ、CRCのいずれかが不正な場合は0。
+     * @throws IOException セグメントを開けなかった。
+     */
+    private int getRecordLength(final int segment, final int offset) throws IOException {
+        if (segment < 0 || offset < 0 || offset > _segmentSize - RECORD_HEADER_SIZE || !Files.exists(getDataPath(segment))) {
+            return 0;
+        }
+        final ByteBuffer buf = getDataSegment(segment, false).duplicate();
+        final int length = buf.getInt(offset);
+        if (length <= 0 || length > _segmentSize - offset - RECORD_HEADER_SIZE) {
+            return 0;
+        }
+        
+        final byte[] data = new byte[length];
+        buf.position(offset + RECORD_HEADER_SIZE);
+        buf.get(data);
+        if (getChecksum(data, 0, length) != buf.getInt(offset + 4)) {
+            return 0;
+        }
+        return length;
+    }
+    
+    /**
+     * セグメントを取得 (未マップの場合はマップする)
+     * 
+     * @param segmentList マップ済みセグメントリスト。
+     * @param path セグメントのパス。
+     * @param segment セグメント番号。
+     * @param size セグメントのサイズ。
+     * @param create 存在しない場合に作成するか。
+     * @return セグメント。
+     * @throws IOException セグメントを開けなかった。
+     */
+    private MappedByteBuffer getSegment(final List<MappedByteBuffer> segmentList,
+                                        final Path path,
+                                        final int segment,
+                                        final int size,
+                                        final boolean create) throws IOException {
+        if (segment < 0) {
+            throw new IOException("Invalid segment - " + segment);
+        }
+        while (segmentList.size() <= segment) {
+            segmentList.add(null);
+        }
+        
+        MappedByteBuffer buf = segmentList.get(segment);
+        if (buf == null) {
+            if (!create && !Files.exists(path)) {
+                throw new IOException("Segment is not found - " + path);
+            }
+            try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buf = channel.map(MapMode.READ_WRITE, 0, size);
+            }
+            segmentList.set(segment, buf);
+        }
+        return buf;
+    }
+    
+    /**
+     * 既存の保存領域から書き込み位置を復元
+     * 
+     * 索引を先頭から確認し、空き、直前の牌譜と連続しないエントリ、または長さかCRCが不正な牌譜で止める。
+     * それ以降の索引は消去し、古いエントリが後の追記で再び有効に見えることを防ぐ。
+     * 
+     * @throws IOException 復元に失敗。
+     */
+    private void recover() throws IOException {
+        int lastIndexSegment = -1;
+        while (Files.exists(getIndexPath(lastIndexSegment + 1))) {
+            lastIndexSegment++;
+        }
+        if (lastIndexSegment < 0) {
+            return;
+        }
+        
+        long count = 0;
+        int writeSegment = 0;
+        int writePosition = 0;
+        scan:
+        for (int indexSegment = 0; indexSegment <= lastIndexSegment; indexSegment++) {
+            final ByteBuffer index = getIndexSegment(indexSegment, false);
+            for (int slot = 0; slot < _indexEntryCount; slot++) {
+                final long entry = index.getLong(slot * INDEX_ENTRY_SIZE);
+                final int segment = (int)(entry >>> 32) - 1;
+                final int offset = (int)entry;
+                
+                // 追記は前詰めなので、直前の牌譜の直後か次のセグメントの先頭以外は不正
+                final boolean next = segment == writeSegment && offset == writePosition;
+                final boolean nextSegment = segment == writeSegment + 1 && offset == 0 && count > 0;
+                if (entry == 0 || !(next || nextSegment)) {
+                    break scan;
+                }
+                final int length = getRecordLength(segment, offset);
+                if (length <= 0) {
+                    break scan;
+                }
+                
+                count++;
+                writeSegment = segment;
+                writePosition = offset + RECORD_HEADER_SIZE + length;
+            }
+        }
+        
+        clearIndex(count, lastIndexSegment);
+        _count = count;
+        _writeSegment = writeSegment;
+        _writePosition = writePosition;
+    }
+    
+    /**
+     * 索引エントリに変換
+     * 
+     * @param segment セグメント番号。
+     * @param offset オフセット。
+     * @return 索引エントリ。(0は未使用)
+     */
+    private static long toIndexEntry(final int segment, final int offset) {
+        return ((long)(segment + 1) << 32) | (offset & 0xFFFFFFFFL);
+    }
+    
+    
+    
+    /**
+     * 既定のデータセグメントサイズ
+     */
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    
+    /**
+     * 既定の索引セグメント1つあたりの件数
+     */
+    private static final int DEFAULT_INDEX_ENTRY_COUNT = 1024 * 1024;
+    
+    /**
+     * 牌譜の前に置く長さとCRCのサイズ
+     */
+    private static final int RECORD_HEADER_SIZE = 8;
+    
+    /**
+     * 索引エントリのサイズ
+     */
+    private static final int INDEX_ENTRY_SIZE = 8;
+    
+    
+    
+    /**
+     * ロックオブジェクト
+     */
+    private final Object _APPEND_LOCK = new Object();
+    private final Object _SEGMENT_LOCK = new Object();
+    
+    
+    
+    /**
+     * 保存先ディレクトリ
+     */
+    private final Path _directory;
+    
+    /**
+     * データセグメントのサイズ
+     */
+    private final int _segmentSize;
+    
+    /**
+     * 索引セグメント1つあたりの件数
+     */
+    private final int _indexEntryCount;
+    
+    /**
+     * マップ済みデータセグメント
+     */
+    private final List<MappedByteBuffer> _dataSegmentList = new ArrayList<>();
+    
+    /**
+     * マップ済み索引セグメント
+     */
+    private final List<MappedByteBuffer> _indexSegmentList = new ArrayList<>();
+    
+    /**
+     * 保存済みの牌譜数
+     */
+    private volatile long _count = 0;
+    
+    /**
+     * 書き込み中のデータセグメント番号
+     */
+    private int _writeSegment = 0;
+    
+    /**
+     * 書き込み位置
+     */
+    private int _writePosition = 0;
+    
+}
+
@@ -0,0 +1,531 @@
+/**
+ * GameRecordWriter.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * 牌譜の非同期書き込み
+ * 
+ * 受け付けた牌譜は書き込みスレッドが複数卓分まとめて保存領域に追記し、同期方針に従ってディスクに同期する。
+ * 結果は同期の後に通知するので、通知を受けた牌譜は方針の範囲で永続化されている。
+ * 追記後の同期に失敗した場合は、ゲームコードと同期のエラーを onSyncFailed() で通知する。
+ * キューが一杯の場合は呼び出し元のスレッドで書き込む。(牌譜は捨てない)
+ */
+final class GameRecordWriter {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param store 牌譜の保存領域。
+     * @param capacity 未書き込み牌譜数の上限。
+     * @param batchSize 1回にまとめて書き込む牌譜数の上限。
+     * @param syncPolicy ディスク同期方針。
+     */
+    public GameRecordWriter(final GameRecordStore store, final int capacity, final int batchSize, final SyncPolicy syncPolicy) {
+        if (store == null) {
+            throw new NullPointerException("Game record store is null.");
+        }
+        if (syncPolicy == null) {
+            throw new NullPointerException("Sync policy is null.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity - " + capacity);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Invalid batch size - " + batchSize);
+        }
+        
+        _store = store;
+        _capacity = capacity;
+        _batchSize = batchSize;
+        _syncPolicy = syncPolicy;
+    }
+    
+    
+    
+    /**
+     * 未書き込み牌譜の書き込み完了を待機
+     * 
+     * @param timeout 待機時間。(ミリ秒)
+     * @return 全て書き込めたか。
+     * @throws InterruptedException 割り込みが発生した。
+     */
+    public boolean flush(final long timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        synchronized (_QUEUE_LOCK) {
+            while (_pendingCount > 0) {
+                final long rest = deadline - System.nanoTime();
+                if (rest <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(_QUEUE_LOCK, rest);
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * まとめ書き込みの回数を取得
+     * 
+     * @return まとめ書き込みの回数。
+     */
+    public long getBatchCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _batchCount;
+        }
+    }
+    
+    /**
+     * 書き込みに失敗した牌譜数を取得
+     * 
+     * @return 書き込みに失敗した牌譜数。
+     */
+    public long getFailedCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _failedCount;
+        }
+    }
+    
+    /**
+     * 受付から書き込み完了までの最大時間を取得
+     * 
+     * @return 最大時間。(ナノ秒)
+     */
+    public long getMaxLatencyNanos() {
+        synchronized (_QUEUE_LOCK) {
+            return _maxLatencyNanos;
+        }
+    }
+    
+    /**
+     * 未書き込み牌譜数の最大値を取得
+     * 
+     * @return 未書き込み牌譜数の最大値。
+     */
+    public int getMaxPendingCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _maxPendingCount;
+        }
+    }
+    
+    /**
+     * キューが一杯で呼び出し元が書き込んだ牌譜数を取得
+     * 
+     * @return 呼び出し元が書き込んだ牌譜数。
+     */
+    public long getOverflowCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _overflowCount;
+        }
+    }
+    
+    /**
+     * 未書き込み牌譜数を取得
+     * 
+     * @return 未書き込み牌譜数。
+     */
+    public int getPendingCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _pendingCount;
+        }
+    }
+    
+    /**
+     * 追記後の同期に失敗した牌譜数を取得
+     * 
+     * @return 同期に失敗した牌譜数。
+     */
+    public long getSyncFailedCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _syncFailedCount;
+        }
+    }
+    
+    /**
+     * ディスク同期の累計時間を取得
+     * 
+     * @return 累計時間。(ナノ秒)
+     */
+    public long getSyncNanos() {
+        synchronized (_QUEUE_LOCK) {
+            return _syncNanos;
+        }
+    }
+    
+    /**
+     * 受付から書き込み完了までの累計時間を取得
+     * 
+     * @return 累計時間。(ナノ秒)
+     */
+    public long getTotalLatencyNanos() {
+        synchronized (_QUEUE_LOCK) {
+            return _totalLatencyNanos;
+        }
+    }
+    
+    /**
+     * 書き込んだ牌譜数を取得
+     * 
+     * @return 書き込んだ牌譜数。
+     */
+    public long getWrittenCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _writtenCount;
+        }
+    }
+    
+    /**
+     * 書き込みを停止
+     * 
+     * 受付済みの牌譜は書き込んでから停止する。停止後の牌譜は呼び出し元のスレッドで書き込む。
+     */
+    public void shutdown() {
+        synchronized (_QUEUE_LOCK) {
+            _stopped = true;
+            _QUEUE_LOCK.notifyAll();
+        }
+    }
+    
+    /**
+     * 牌譜の書き込みを受け付け
+     * 
+     * @param record 牌譜。
+     * @param callback 結果の通知先。
+     */
+    public void submit(final GameRecord record, final GameRecordCallback callback) {
+        if (record == null) {
+            throw new NullPointerException("Game record is null.");
+        }
+        if (callback == null) {
+            throw new NullPointerException("Callback is null.");
+        }
+        
+        final Entry entry = new Entry(record, callback, System.nanoTime());
+        synchronized (_QUEUE_LOCK) {
+            if (!_stopped && _pendingCount < _capacity) {
+                _queue.add(entry);
+                _pendingCount++;
+                _maxPendingCount = Math.max(_maxPendingCount, _pendingCount);
+                
+                if (_writeThread == null) {
+                    startWriteThread();
+                }
+                _QUEUE_LOCK.notifyAll();
+                return;
+            }
+            _overflowCount++;
+        }
+        
+        // 呼び出し元で書き込む
+        final List<Entry> batch = new ArrayList<>(1);
+        batch.add(entry);
+        writeBatch(batch);
+    }
+    
+    
+    
+    /**
+     * 書き込みスレッドを開始 (ロック取得済みで呼ぶ)
+     */
+    private void startWriteThread() {
+        _writeThread = new Thread(new Runnable() {
+            public void run() {
+                writeLoop();
+            }
+        }, "GameRecordWriter");
+        _writeThread.setDaemon(true);
+        _writeThread.start();
+    }
+    
+    /**
+     * まとめて書き込む
+     * 
+     * @param batch 書き込む牌譜リスト。
+     */
+    private void writeBatch(final List<Entry> batch) {
+        final String[] gameCodeArray = new String[batch.size()];
+        final Throwable[] errorArray = new Throwable[batch.size()];
+        final Throwable[] syncErrorArray = new Throwable[batch.size()];
+        long syncNanos = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                gameCodeArray[i] = _store.append(batch.get(i).getRecord());
+            }
+            catch (final Throwable e) {
+                errorArray[i] = e;
+                continue;
+            }
+            if (_syncPolicy == SyncPolicy.EVERY_RECORD) {
+                final long start = System.nanoTime();
+                syncErrorArray[i] = sync();
+                syncNanos += System.nanoTime() - start;
+            }
+        }
+        if (_syncPolicy == SyncPolicy.BATCH) {
+            final long start = System.nanoTime();
+            final Throwable syncError = sync();
+            syncNanos += System.nanoTime() - start;
+            if (syncError != null) {
+                // まとめて同期した牌譜は全て同期の失敗として扱う
+                for (int i = 0; i < batch.size(); i++) {
+                    if (errorArray[i] == null) {
+                        syncErrorArray[i] = syncError;
+                    }
+                }
+            }
+        }
+        
+        final long now = System.nanoTime();
+        int failedCount = 0;
+        int syncFailedCount = 0;
+        long totalLatency = 0;
+        long maxLatency = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            final long latency = now - batch.get(i).getSubmitTime();
+            totalLatency += latency;
+            maxLatency = Math.max(maxLatency, latency);
+            if (errorArray[i] != null) {
+                failedCount++;
+            }
+            else if (syncErrorArray[i] != null) {
+                syncFailedCount++;
+            }
+        }
+        synchronized (_QUEUE_LOCK) {
+            _batchCount++;
+            _writtenCount += batch.size() - failedCount;
+            _failedCount += failedCount;
+            _syncFailedCount += syncFailedCount;
+            _syncNanos += syncNanos;
+            _totalLatencyNanos += totalLatency;
+            _maxLatencyNanos = Math.max(_maxLatencyNanos, maxLatency);
+        }
+        
+        for (int i = 0; i < batch.size(); i++) {
+            final GameRecordCallback callback = batch.get(i).getCallback();
+            try {
+                if (errorArray[i] != null) {
+                    callback.onFailed(errorArray[i]);
+                }
+                else if (syncErrorArray[i] != null) {
+                    callback.onSyncFailed(gameCodeArray[i], syncErrorArray[i]);
+                }
+                else {
+                    callback.onWritten(gameCodeArray[i]);
+                }
+            }
+            catch (final RuntimeException e) {
+                // 通知先の失敗は書き込みに影響させない
+            }
+        }
+    }
+    
+    /**
+     * 書き込み処理
+     */
+    private void writeLoop() {
+        try {
+            while (true) {
+                final List<Entry> batch = new ArrayList<>();
+                synchronized (_QUEUE_LOCK) {
+                    while (_queue.isEmpty()) {
+                        if (_stopped) {
+                            return;
+                        }
+                        _QUEUE_LOCK.wait();
+                    }
+                    while (!_queue.isEmpty() && batch.size() < _batchSize) {
+                        batch.add(_queue.poll());
+                    }
+                }
+                
+                try {
+                    writeBatch(batch);
+                }
+                finally {
+                    // 途中で抜けた場合も、取り出した分は未書き込みから外す
+                    synchronized (_QUEUE_LOCK) {
+                        _pendingCount -= batch.size();
+                        _QUEUE_LOCK.notifyAll();
+                    }
+                }
+            }
+        }
+        catch (final InterruptedException e) {
+            // 停止
+        }
+        finally {
+            synchronized (_QUEUE_LOCK) {
+                if (_writeThread == Thread.currentThread()) {
+                    _writeThread = null;
+                }
+                if (!_queue.isEmpty()) {
+                    // エラーで抜けた場合は、残りの牌譜を新しいスレッドで書き込む
+                    startWriteThread();
+                }
+            }
+        }
+    }
+    
+    /**
+     * ディスクに同期
+     * 
+     * @return 発生した例外。同期できた場合はNull。
+     */
+    private Throwable sync() {
+        try {
+            _store.force();
+            return null;
+        }
+        catch (final Throwable e) {
+            return e;
+        }
+    }
+    
+    
+    
+    /**
+     * ロックオブジェクト
+     */
+    private final Object _QUEUE_LOCK = new Object();
+    
+    
+    
+    /**
+     * 牌譜の保存領域
+     */
+    private final GameRecordStore _store;
+    
+    /**
+     * 未書き込み牌譜数の上限
+     */
+    private final int _capacity;
+    
+    /**
+     * 1回にまとめて書き込む牌譜数の上限
+     */
+    private final int _batchSize;
+    
+    /**
+     * ディスク同期方針
+     */
+    private final SyncPolicy _syncPolicy;
+    
+    /**
+     * 書き込み待ちキュー
+     */
+    private final Deque<Entry> _queue = new ArrayDeque<>();
+    
+    /**
+     * 書き込みスレッド
+     */
+    private Thread _writeThread = null;
+    
+    /**
+     * 停止したか
+     */
+    private boolean _stopped = false;
+    
+    /**
+     * 未書き込み牌譜数 (書き込み中を含む)
+     */
+    private int _pendingCount = 0;
+    
+    /**
+     * 未書き込み牌譜数の最大値
+     */
+    private int _maxPendingCount = 0;
+    
+    /**
+     * 統計情報
+     */
+    private long _writtenCount = 0;
+    private long _failedCount = 0;
+    private long _syncFailedCount = 0;
+    private long _overflowCount = 0;
+    private long _batchCount = 0;
+    private long _syncNanos = 0;
+    private long _totalLatencyNanos = 0;
+    private long _maxLatencyNanos = 0;
+    
+    
+    
+    /**
+     * 書き込み待ちの牌譜
+     */
+    private static final class Entry {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param record 牌譜。
+         * @param callback 結果の通知先。
+         * @param submitTime 受付時刻。(ナノ秒)
+         */
+        public Entry(final GameRecord record, final GameRecordCallback callback, final long submitTime) {
+            _record = record;
+            _callback = callback;
+            _submitTime = submitTime;
+        }
+        
+        
+        
+        /**
+         * 結果の通知先を取得
+         * 
+         * @return 結果の通知先。
+         */
+        public GameRecordCallback getCallback() {
+            return _callback;
+        }
+        
+        /**
+         * 牌譜を取得
+         * 
+         * @return 牌譜。
+         */
+        public GameRecord getRecord() {
+            return _record;
+        }
+        
+        /**
+         * 受付時刻を取得
+         * 
+         * @return 受付時刻。(ナノ秒)
+         */
+        public long getSubmitTime() {
+            return _submitTime;
+        }
+        
+        
+        
+        /**
+         * 牌譜
+         */
+        private final GameRecord _record;
+        
+        /**
+         * 結果の通知先
+         */
+        private final GameRecordCallback _callback;
+        
+        /**
+         * 受付時刻
+         */
+        private final long _submitTime;
+        
+    }
+    
+}
+
@@ -0,0 +1,680 @@
+/**
+ * GameTable.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * 卓 (ゲームコントローラと実況者を卓ごとに保持する)
+ * 
+ * 副露の確認待ちは席ごとに持つので、ある席の確認待ちが他の席や他の卓の進行を妨げない。
+ * ゲームコントローラと牌譜はメールボックスの処理からのみ触るので、コントローラ側にロックは不要。
+ */
+final class GameTable {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param key 卓のキー。
+     * @param playerNameList 着席するプレイヤー名のリスト。
+     */
+    public GameTable(final TableKey key, final List<String> playerNameList) {
+        if (key == null) {
+            throw new NullPointerException("Table key is null.");
+        }
+        if (playerNameList == null) {
+            throw new NullPointerException("Player name list is null.");
+        }
+        
+        _key = key;
+        _playerNameList = new ArrayList<>(playerNameList);
+        _announcer = new GameAnnouncer(key.getChannel());
+    }
+    
+    
+    
+    /**
+     * 副露 (チー・ポン)
+     * 
+     * @param playerName プレイヤー名。
+     * @param type 副露タイプ。
+     * @param target 牌指定。nullを許可する。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult call(final String playerName, final CallType type, final JanPai target) throws JanException {
+        return _mailbox.call(new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                if (!_controller.getGameInfo().isActivePlayer(playerName)) {
+                    return _controller.call(playerName, type, target);
+                }
+                return TurnResult.CONTINUE;
+            }
+        });
+    }
+    
+    /**
+     * 副露 (カン)
+     * 
+     * @param playerName プレイヤー名。
+     * @param target 対象牌。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult callKan(final String playerName, final JanPai target) throws JanException {
+        return _mailbox.call(new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                final JanInfo info = _controller.getGameInfo();
+                if (!info.isActivePlayer(playerName)) {
+                    // 大明カン
+                    return _controller.call(playerName, CallType.KAN_LIGHT, target);
+                }
+                else {
+                    if (info.getHandCount(info.getActiveWind()).get(target) < 3) {
+                        // 加カン
+                        return _controller.call(playerName, CallType.KAN_ADD, target);
+                    }
+                    else {
+                        // 暗カン
+                        return _controller.call(playerName, CallType.KAN_DARK, target);
+                    }
+                }
+            }
+        });
+    }
+    
+    /**
+     * 確認待ちを引き取る (応答処理の開始)
+     * 
+     * 引き取った確認待ちは、応答に失敗した場合に restorePrompt() で戻す。
+     * 
+     * @param playerName プレイヤー名。
+     * @return 引き取った確認待ち。確認待ちでない場合はnull。
+     */
+    public CallPrompt claimPrompt(final String playerName) {
+        _PROMPT_LOCK.lock();
+        try {
+            return _promptTable.remove(playerName);
+        }
+        finally {
+            _PROMPT_LOCK.unlock();
+        }
+    }
+    
+    /**
+     * 指定の確認待ちを引き取る (時間切れ処理の開始)
+     * 
+     * @param prompt 確認待ち。
+     * @return 引き取れたか。(応答済み、または新しい確認待ちに置き換わった場合はfalse)
+     */
+    public boolean claimPrompt(final CallPrompt prompt) {
+        _PROMPT_LOCK.lock();
+        try {
+            if (_promptTable.get(prompt.getPlayerName()) != prompt) {
+                return false;
+            }
+            _promptTable.remove(prompt.getPlayerName());
+            return true;
+        }
+        finally {
+            _PROMPT_LOCK.unlock();
+        }
+    }
+    
+    /**
+     * 終了
+     * 
+     * @return 進行中の卓を終了させたか。
+     */
+    public boolean close() {
+        _PROMPT_LOCK.lock();
+        try {
+            for (final CallPrompt prompt : _promptTable.values()) {
+                prompt.cancelTimeout();
+            }
+            _promptTable.clear();
+        }
+        finally {
+            _PROMPT_LOCK.unlock();
+        }
+        _STATUS_LOCK.lock();
+        try {
+            if (_status.isIdle()) {
+                return false;
+            }
+            _status = GameStatus.IDLE;
+            return true;
+        }
+        finally {
+            _STATUS_LOCK.unlock();
+        }
+    }
+    
+    /**
+     * ロン和了
+     * 
+     * @param playerName プレイヤー名。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult completeRon(final String playerName) throws JanException {
+        return _mailbox.call(new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                if (!_controller.getGameInfo().isActivePlayer(playerName)) {
+                    return _controller.completeRon(playerName);
+                }
+                return TurnResult.CONTINUE;
+            }
+        });
+    }
+    
+    /**
+     * ツモ和了
+     * 
+     * @param playerName プレイヤー名。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult completeTsumo(final String playerName) throws JanException {
+        return _mailbox.call(new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                if (_controller.getGameInfo().isActivePlayer(playerName)) {
+                    return _controller.completeTsumo();
+                }
+                return TurnResult.CONTINUE;
+            }
+        });
+    }
+    
+    /**
+     * 打牌 (ツモ切り)
+     * 
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult discard() throws JanException {
+        return _mailbox.call(new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                return _controller.discard();
+            }
+        });
+    }
+    
+    /**
+     * 打牌 (手出し)
+     * 
+     * @param target 捨て牌。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult discard(final JanPai target) throws JanException {
+        return _mailbox.call(new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                return _controller.discard(target);
+            }
+        });
+    }
+    
+    /**
+     * 実況者を取得
+     * 
+     * @return 実況者。
+     */
+    public GameAnnouncer getAnnouncer() {
+        return _announcer;
+    }
+    
+    /**
+     * イベント配信を取得
+     * 
+     * @return イベント配信。開始前はnull。
+     */
+    public GameEventBus getEventBus() {
+        return callWithoutException(new Callable<GameEventBus>() {
+            public GameEventBus call() {
+                return _controller != null ? _controller.getEventBus() : null;
+            }
+        });
+    }
+    
+    /**
+     * 卓のキーを取得
+     * 
+     * @return 卓のキー。
+     */
+    public TableKey getKey() {
+        return _key;
+    }
+    
+    /**
+     * 着席しているプレイヤー名のリストを取得
+     * 
+     * @return 着席しているプレイヤー名のリスト。
+     */
+    public List<String> getPlayerNameList() {
+        return new ArrayList<>(_playerNameList);
+    }
+    
+    /**
+     * 確認待ちを取得
+     * 
+     * @param playerName プレイヤー名。
+     * @return 確認待ち。確認待ちでない場合はnull。
+     */
+    public CallPrompt getPrompt(final String playerName) {
+        _PROMPT_LOCK.lock();
+        try {
+            return _promptTable.get(playerName);
+        }
+        finally {
+            _PROMPT_LOCK.unlock();
+        }
+    }
+    
+    /**
+     * ゲームの状態を取得
+     * 
+     * @return ゲームの状態。
+     */
+    public GameStatus getStatus() {
+        _STATUS_LOCK.lock();
+        try {
+            return _status;
+        }
+        finally {
+            _STATUS_LOCK.unlock();
+        }
+    }
+    
+    /**
+     * 情報表示
+     * 
+     * @param flagSet 情報表示フラグ。
+     */
+    public void info(final EnumSet<AnnounceFlag> flagSet) {
+        callWithoutException(new Callable<Void>() {
+            public Void call() {
+                _announcer.onEvent(GameEvent.info(_controller.getGameInfo(), flagSet));
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * 卓を使用中にする
+     * 
+     * @param status 開始後の状態。
+     * @return 使用中にできたか。(既に使用中の場合はfalse)
+     */
+    public boolean open(final GameStatus status) {
+        _STATUS_LOCK.lock();
+        try {
+            if (!_status.isIdle()) {
+                return false;
+            }
+            _status = status;
+            return true;
+        }
+        finally {
+            _STATUS_LOCK.unlock();
+        }
+    }
+    
+    /**
+     * 確認待ちを開始
+     * 
+     * 同じ席の古い確認待ちは置き換える。(古い時間切れの予約は取り消す)
+     * 
+     * @param prompt 確認待ち。
+     */
+    public void openPrompt(final CallPrompt prompt) {
+        if (prompt == null) {
+            throw new NullPointerException("Call prompt is null.");
+        }
+        
+        final CallPrompt oldPrompt;
+        _PROMPT_LOCK.lock();
+        try {
+            oldPrompt = _promptTable.put(prompt.getPlayerName(), prompt);
+        }
+        finally {
+            _PROMPT_LOCK.unlock();
+        }
+        if (oldPrompt != null && oldPrompt != prompt) {
+            oldPrompt.cancelTimeout();
+        }
+    }
+    
+    /**
+     * 副露の見送り
+     * 
+     * @param playerName プレイヤー名。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult pass(final String playerName) throws JanException {
+        return _mailbox.call(new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                return _controller.pass(playerName);
+            }
+        });
+    }
+    
+    /**
+     * 操作履歴を再実行して開始 (ソロプレイ)
+     * 
+     * @param deck 牌山。
+     * @param playerTable プレイヤーテーブル。
+     * @param actionList 操作履歴。
+     * @param turn 再開する巡目。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult replay(final List<JanPai> deck, final Map<Wind, Player> playerTable, final List<GameAction> actionList, final int turn) throws JanException {
+        return _mailbox.call(new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                _controller = createJanController(true);
+                return _controller.replay(deck, playerTable, actionList, turn);
+            }
+        });
+    }
+    
+    /**
+     * 確認待ちへの応答
+     * 
+     * 確認待ちを引き取ってから応答し、成功した場合は時間切れの予約を取り消す。(失敗した場合は戻す)
+     * 
+     * @param playerName プレイヤー名。
+     * @param task 応答処理。(卓のメールボックスで実行)
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult respond(final String playerName, final Callable<TurnResult> task) throws JanException {
+        final CallPrompt prompt = claimPrompt(playerName);
+        try {
+            final TurnResult result = _mailbox.call(task);
+            if (prompt != null) {
+                prompt.cancelTimeout();
+            }
+            return result;
+        }
+        catch (final Throwable e) {
+            restorePrompt(prompt);
+            throw e;
+        }
+    }
+    
+    /**
+     * 引き取った確認待ちを戻す (応答処理の失敗)
+     * 
+     * 既に新しい確認待ちがある場合は戻さない。
+     * 
+     * @param prompt 確認待ち。nullの場合は何もしない。
+     */
+    public void restorePrompt(final CallPrompt prompt) {
+        if (prompt == null) {
+            return;
+        }
+        
+        _PROMPT_LOCK.lock();
+        try {
+            if (!_promptTable.containsKey(prompt.getPlayerName())) {
+                _promptTable.put(prompt.getPlayerName(), prompt);
+            }
+        }
+        finally {
+            _PROMPT_LOCK.unlock();
+        }
+    }
+    
+    /**
+     * リーチ
+     * 
+     * @param target 捨て牌。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult richi(final JanPai target) throws JanException {
+        return _mailbox.call(new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                return _controller.richi(target);
+            }
+        });
+    }
+    
+    /**
+     * 副露の受付時間を設定 (対戦の開始前に呼ぶ)
+     * 
+     * @param timeout 受付時間。(ミリ秒) 時間切れの席は見送り扱い。
+     */
+    public void setCallTimeout(final long timeout) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Invalid timeout - " + timeout);
+        }
+        
+        callWithoutException(new Callable<Void>() {
+            public Void call() {
+                _callTimeout = timeout;
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * 副露の受付の時間切れの通知先を設定 (対戦の開始前に呼ぶ)
+     * 
+     * @param listener 通知先。nullの場合は通知しない。
+     */
+    public void setCallWindowListener(final CallWindowListener listener) {
+        callWithoutException(new Callable<Void>() {
+            public Void call() {
+                _callWindowListener = listener;
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * 保存する牌譜を設定
+     * 
+     * @param record 牌譜。(操作履歴は取り出し時に追加する)
+     */
+    public void setRecord(final GameRecord record) {
+        callWithoutException(new Callable<Void>() {
+            public Void call() {
+                _record = record;
+                return null;
+            }
+        });
+    }
+    
+    /**
+     * 開始
+     * 
+     * @param solo ソロプレイか。
+     * @param deck 牌山。
+     * @param playerTable プレイヤーテーブル。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult start(final boolean solo, final List<JanPai> deck, final Map<Wind, Player> playerTable) throws JanException {
+        return start(solo, deck, playerTable, Collections.<GameEventListener>emptyList());
+    }
+    
+    /**
+     * 開始 (イベントの購読者を指定)
+     * 
+     * 購読者は開始前に登録するので、開始処理中に終局した場合のイベントも受け取れる。
+     * 
+     * @param solo ソロプレイか。
+     * @param deck 牌山。
+     * @param playerTable プレイヤーテーブル。
+     * @param listenerList イベントの購読者のリスト。
+     * @return 処理結果。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public TurnResult start(final boolean solo,
+                            final List<JanPai> deck,
+                            final Map<Wind, Player> playerTable,
+                            final List<GameEventListener> listenerList) throws JanException {
+        if (listenerList == null) {
+            throw new NullPointerException("Listener list is null.");
+        }
+        
+        return _mailbox.call(new Callable<TurnResult>() {
+            public TurnResult call() throws JanException {
+                _controller = createJanController(solo);
+                for (final GameEventListener listener : listenerList) {
+                    _controller.getEventBus().subscribe(listener);
+                }
+                return _controller.start(deck, playerTable);
+            }
+        });
+    }
+    
+    /**
+     * 保存する牌譜を取り出す
+     * 
+     * 取り出した時点までの操作履歴を追加して返す。取り出しは1回のみ。
+     * 
+     * @return 牌譜。設定されていないか取り出し済みの場合はnull。
+     */
+    public GameRecord takeRecord() {
+        return callWithoutException(new Callable<GameRecord>() {
+            public GameRecord call() {
+                final GameRecord record = _record;
+                if (record == null) {
+                    return null;
+                }
+                _record = null;
+                
+                if (_controller != null) {
+                    for (final GameAction action : _controller.getActionList()) {
+                        record.addAction(action);
+                    }
+                }
+                return record;
+            }
+        });
+    }
+    
+    
+    
+    /**
+     * 麻雀コントローラを生成
+     * 
+     * @param solo ソロプレイか。
+     * @return 麻雀コントローラ。
+     */
+    private JanController createJanController(final boolean solo) {
+        if (solo) {
+            return new SoloJanController(_announcer);
+        }
+        else {
+            final VSJanController controller = new VSJanController(_mailbox);
+            if (_callTimeout > 0) {
+                controller.setCallTimeout(_callTimeout);
+            }
+            controller.setCallWindowListener(_callWindowListener);
+            return controller;
+        }
+    }
+    
+    /**
+     * ゲーム処理エラーが発生しない処理をメールボックスで実行
+     * 
+     * @param <T> 処理結果の型。
+     * @param task 処理。
+     * @return 処理結果。
+     */
+    private <T> T callWithoutException(final Callable<T> task) {
+        try {
+            return _mailbox.call(task);
+        }
+        catch (final JanException e) {
+            throw new InternalError(e.toString());
+        }
+    }
+    
+    
+    
+    /**
+     * ロックオブジェクト (ゲームの状態)
+     */
+    private final ProfiledLock _STATUS_LOCK = new ProfiledLock("table.status");
+    
+    /**
+     * ロックオブジェクト (確認待ち)
+     */
+    private final ProfiledLock _PROMPT_LOCK = new ProfiledLock("table.prompt");
+    
+    
+    
+    /**
+     * 卓のメールボックス (ゲームコントローラの操作を投入順に実行)
+     */
+    private final TableMailbox _mailbox = new TableMailbox();
+    
+    /**
+     * 卓のキー
+     */
+    private final TableKey _key;
+    
+    /**
+     * 着席しているプレイヤー名のリスト
+     */
+    private final List<String> _playerNameList;
+    
+    /**
+     * ゲーム実況者
+     */
+    private final GameAnnouncer _announcer;
+    
+    /**
+     * 席ごとの確認待ち (プレイヤー名をキーとする)
+     */
+    private final Map<String, CallPrompt> _promptTable = new HashMap<>();
+    
+    /**
+     * ゲームコントローラ (メールボックスの処理からのみ触る)
+     */
+    private JanController _controller = null;
+    
+    /**
+     * 保存する牌譜 (メールボックスの処理からのみ触る)
+     */
+    private GameRecord _record = null;
+    
+    /**
+     * 副露の受付時間 (ミリ秒、0の場合はコントローラの既定値。メールボックスの処理からのみ触る)
+     */
+    private long _callTimeout = 0L;
+    
+    /**
+     * 副露の受付の時間切れの通知先 (メールボックスの処理からのみ触る)
+     */
+    private CallWindowListener _callWindowListener = null;
+    
+    /**
+     * ゲームの状態
+     */
+    private GameStatus _status = GameStatus.IDLE;
+    
+}
+
@@ -26,39 +26,58 @@ interface JanController {
      * @param playerName プレイヤー名。
      * @param type 副露タイプ。
      * @param target 牌指定。nullを許可する。
+     * @return 処理結果。
      * @throws JanException 例外イベント。
      */
-    public void call(final String playerName, final CallType type, final JanPai target) throws JanException;
+    public TurnResult call(final String playerName, final CallType type, final JanPai target) throws JanException;
     
     /**
      * 和了 (ロン)
      * 
      * @param playerName プレイヤー名。
+     * @return 処理結果。
      * @throws JanException 例外イベント。
      */
-    public void completeRon(final String playerName) throws JanException;
+    public TurnResult completeRon(final String playerName) throws JanException;
     
     /**
      * 和了 (ツモ)
      * 
+     * @return 処理結果。
      * @throws JanException 例外イベント。
      */
-    public void completeTsumo() throws JanException;
+    public TurnResult completeTsumo() throws JanException;
     
     /**
      * 打牌 (ツモ切り)
      * 
+     * @return 処理結果。
      * @throws JanException 例外イベント。
      */
-    public void discard() throws JanException;
+    public TurnResult discard() throws JanException;
     
     /**
      * 打牌 (手出し)
      * 
      * @param target 捨て牌。
+     * @return 処理結果。
      * @throws JanException 例外イベント。
      */
-    public void discard(final JanPai target) throws JanException;
+    public TurnResult discard(final JanPai target) throws JanException;
+    
+    /**
+     * 操作履歴を取得
+     * 
+     * @return 操作履歴。(変更不可)
+     */
+    public List<GameAction> getActionList();
+    
+    /**
+     * イベント配信を取得
+     * 
+     * @return イベント配信。
+     */
+    public GameEventBus getEventBus();
     
     /**
      * ゲーム情報を取得
@@ -67,28 +86,82 @@ interface JanController {
      */
     public JanInfo getGameInfo();
     
+    /**
+     * 手番の進行状態を取得
+     * 
+     * @return 手番の進行状態。
+     */
+    public TurnPhase getPhase();
+    
     /**
      * 次のプレイヤーの打牌へ
      * 
+     * @return 処理結果。
+     * @throws JanException 例外イベント。
+     */
+    public TurnResult next() throws JanException;
+    
+    /**
+     * 副露の見送り
+     * 
+     * 副露の確認待ちの席ごとの応答。他の席の確認待ちには影響しない。
+     * 
+     * @param playerName プレイヤー名。
+     * @return 処理結果。
+     * @throws JanException 例外イベント。
+     */
+    public TurnResult pass(final String playerName) throws JanException;
+    
+    /**
+     * 操作履歴を再実行して開始
+     * 
+     * 指定巡目の打牌直前まで実況なしで進める。
+     * 
+     * @param deck 牌山。
+     * @param playerTable プレイヤーテーブル。
+     * @param actionList 操作履歴。
+     * @param turn 再開する巡目。(人間の打牌回数 + 1)
+     * @return 処理結果。
      * @throws JanException 例外イベント。
      */
-    public void next() throws JanException;
+    public TurnResult replay(final List<JanPai> deck, final Map<Wind, Player> playerTable, final List<GameAction> actionList, final int turn) throws JanException;
     
     /**
      * リーチ
      * 
+     * @return 処理結果。
      * @throws JanException 例外イベント。
      */
-    public void richi(final JanPai target) throws JanException;
+    public TurnResult richi(final JanPai target) throws JanException;
+    
+    /**
+     * NPCの手番を自動で進めるか設定
+     * 
+     * 自動で進めない場合、ツモ待ちで処理を戻すため step() で1手番ずつ進める。
+     * 
+     * @param autoPlay 自動で進めるか。
+     */
+    public void setAutoPlay(final boolean autoPlay);
     
     /**
      * 開始
      * 
      * @param deck 牌山。
      * @param playerTable プレイヤーテーブル。
+     * @return 処理結果。
+     * @throws JanException 例外イベント。
+     */
+    public TurnResult start(final List<JanPai> deck, final Map<Wind, Player> playerTable) throws JanException;
+    
+    /**
+     * 1手番進める
+     * 
+     * ツモ待ちの場合のみ、ツモとNPCの打牌を1回分処理する。
+     * 
+     * @return 処理結果。
      * @throws JanException 例外イベント。
      */
-    public void start(final List<JanPai> deck, final Map<Wind, Player> playerTable) throws JanException;
+    public TurnResult step() throws JanException;
     
 }
 
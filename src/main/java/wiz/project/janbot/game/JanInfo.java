@@ -7,31 +7,40 @@
 package wiz.project.janbot.game;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Observable;
 import java.util.TreeMap;
 
 import wiz.project.jan.Hand;
 import wiz.project.jan.JanPai;
+import wiz.project.jan.MenTsu;
 import wiz.project.jan.Wind;
 
 
 
 /**
  * 麻雀ゲームの情報
+ * 
+ * 格納済みの牌山、プレイヤーテーブル、捨て牌リスト、手牌、王牌は書き換えず、
+ * 更新時は変更のあった要素だけを差し替える。そのため複製とスナップショットは要素を共有できる。
+ * 手牌と王牌は外へ渡すときに複製し、参照だけの場合は複製せずに済む取得メソッドを使う。
  */
-public final class JanInfo extends Observable implements Cloneable {
+public final class JanInfo implements Cloneable {
     
     /**
      * コンストラクタ
      */
     public JanInfo() {
+        _readOnly = false;
+        final Map<Wind, Player> playerTable = new TreeMap<>();
         for (final Wind wind : Wind.values()) {
-            _playerTable.put(wind, new Player());
+            playerTable.put(wind, new Player());
             _handTable.put(wind, new Hand());
-            _riverTable.put(wind, new ArrayList<JanPai>());
+            _riverTable.put(wind, EMPTY_RIVER);
         }
+        _playerTable = Collections.unmodifiableMap(playerTable);
     }
     
     /**
@@ -40,23 +49,41 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param source 複製元。
      */
     public JanInfo(final JanInfo source) {
+        this(source, false);
+    }
+    
+    /**
+     * コピーコンストラクタ
+     * 
+     * 格納済みの要素は書き換えられないため、複製元と共有する。
+     * 
+     * @param source 複製元。
+     * @param readOnly 読み取り専用か。
+     */
+    private JanInfo(final JanInfo source, final boolean readOnly) {
+        _readOnly = readOnly;
         if (source != null) {
-            _playerTable = deepCopyMap(source._playerTable);
-            _deck = deepCopyList(source._deck);
+            _playerTable = source._playerTable;
+            _deck = source._deck;
             _deckIndex = source._deckIndex;
-            _wanPai = source._wanPai.clone();
+            _wanPai = source._wanPai;
             _fieldWind = source._fieldWind;
             _activeWind = source._activeWind;
             _remainCount = source._remainCount;
             _activeTsumo = source._activeTsumo;
             _activeDiscard = source._activeDiscard;
-            
-            for (final Map.Entry<Wind, Hand> entry : source._handTable.entrySet()) {
-                _handTable.put(entry.getKey(), entry.getValue().clone());
-            }
-            for (final Map.Entry<Wind, List<JanPai>> entry : source._riverTable.entrySet()) {
-                _riverTable.put(entry.getKey(), deepCopyList(entry.getValue()));
+            _handTable.putAll(source._handTable);
+            _riverTable.putAll(source._riverTable);
+            _version = source._version;
+        }
+        else {
+            final Map<Wind, Player> playerTable = new TreeMap<>();
+            for (final Wind wind : Wind.values()) {
+                playerTable.put(wind, new Player());
+                _handTable.put(wind, new Hand());
+                _riverTable.put(wind, EMPTY_RIVER);
             }
+            _playerTable = Collections.unmodifiableMap(playerTable);
         }
     }
     
@@ -69,9 +96,13 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param discard 捨て牌。
      */
     public void addDiscard(final Wind wind, final JanPai discard) {
+        checkWritable();
         if (wind != null) {
             if (discard != null) {
-                _riverTable.get(wind).add(discard);
+                final List<JanPai> river = new ArrayList<>(_riverTable.get(wind));
+                river.add(discard);
+                _riverTable.put(wind, Collections.unmodifiableList(river));
+                _version++;
             }
         }
     }
@@ -80,7 +111,8 @@ public final class JanInfo extends Observable implements Cloneable {
      * フィールドを全消去
      */
     public void clear() {
-        _deck.clear();
+        checkWritable();
+        _deck = Collections.emptyList();
         _deckIndex = 0;
         _wanPai = new WanPai();
         _fieldWind = Wind.TON;
@@ -89,15 +121,20 @@ public final class JanInfo extends Observable implements Cloneable {
         _activeTsumo = JanPai.HAKU;
         _activeDiscard = JanPai.HAKU;
         
+        final Map<Wind, Player> playerTable = new TreeMap<>();
         for (final Wind wind : Wind.values()) {
-            _playerTable.put(wind, new Player());
+            playerTable.put(wind, new Player());
             _handTable.put(wind, new Hand());
-            _riverTable.put(wind, new ArrayList<JanPai>());
+            _riverTable.put(wind, EMPTY_RIVER);
         }
+        _playerTable = Collections.unmodifiableMap(playerTable);
+        _version++;
     }
     
     /**
-     * オブジェクトを複製 (ディープコピー)
+     * オブジェクトを複製
+     * 
+     * 格納済みの要素は共有し、以降の更新は複製元と独立して行われる。
      * 
      * @return 複製結果。
      */
@@ -110,8 +147,10 @@ public final class JanInfo extends Observable implements Cloneable {
      * 残り枚数を減少
      */
     public void decreaseRemainCount() {
+        checkWritable();
         if (_remainCount > 0) {
             _remainCount--;
+            _version++;
         }
     }
     
@@ -172,10 +211,10 @@ public final class JanInfo extends Observable implements Cloneable {
     /**
      * 牌山を取得
      * 
-     * @return 牌山。
+     * @return 牌山。(変更不可)
      */
     public List<JanPai> getDeck() {
-        return deepCopyList(_deck);
+        return _deck;
     }
     
     /**
@@ -187,6 +226,17 @@ public final class JanInfo extends Observable implements Cloneable {
         return _deckIndex;
     }
     
+    /**
+     * ドラリストを取得
+     * 
+     * 王牌を複製せずに取得する。
+     * 
+     * @return ドラリスト。(表示牌ではない)
+     */
+    public List<JanPai> getDoraList() {
+        return _wanPai.getDoraList();
+    }
+    
     /**
      * 場風を取得
      * 
@@ -196,9 +246,28 @@ public final class JanInfo extends Observable implements Cloneable {
         return _fieldWind;
     }
     
+    /**
+     * 副露した面子リストを取得
+     * 
+     * 手牌を複製せずに取得する。
+     * 
+     * @param wind 風。
+     * @return 副露した面子リスト。
+     */
+    public List<MenTsu> getFixedMenTsuList(final Wind wind) {
+        if (wind != null) {
+            return _handTable.get(wind).getFixedMenTsuList();
+        }
+        else {
+            return new ArrayList<>();
+        }
+    }
+    
     /**
      * 手牌を取得
      * 
+     * 格納中の手牌は複製とスナップショットで共有しているため、常に複製を返す。
+     * 
      * @param wind 風。
      * @return 手牌。
      */
@@ -211,6 +280,23 @@ public final class JanInfo extends Observable implements Cloneable {
         }
     }
     
+    /**
+     * 門前の手牌の枚数表を取得
+     * 
+     * 手牌を複製せずに集計する。
+     * 
+     * @param wind 風。
+     * @return 門前の手牌の枚数表。
+     */
+    public JanPaiCount getHandCount(final Wind wind) {
+        if (wind != null) {
+            return new JanPaiCount(_handTable.get(wind));
+        }
+        else {
+            return new JanPaiCount();
+        }
+    }
+    
     /**
      * 牌山から牌を取得
      * 
@@ -220,6 +306,23 @@ public final class JanInfo extends Observable implements Cloneable {
         return _deck.get(_deckIndex);
     }
     
+    /**
+     * 門前の手牌リストを取得
+     * 
+     * 手牌を複製せずに取得する。
+     * 
+     * @param wind 風。
+     * @return 門前の手牌リスト。
+     */
+    public List<JanPai> getMenZenList(final Wind wind) {
+        if (wind != null) {
+            return _handTable.get(wind).getMenZenList();
+        }
+        else {
+            return new ArrayList<>();
+        }
+    }
+    
     /**
      * プレイヤーを取得
      * 
@@ -238,10 +341,10 @@ public final class JanInfo extends Observable implements Cloneable {
     /**
      * プレイヤーテーブルを取得
      * 
-     * @return プレイヤーテーブル。
+     * @return プレイヤーテーブル。(変更不可)
      */
     public Map<Wind, Player> getPlayerTable() {
-        return deepCopyMap(_playerTable);
+        return _playerTable;
     }
     
     /**
@@ -257,20 +360,42 @@ public final class JanInfo extends Observable implements Cloneable {
      * 捨て牌リストを取得
      * 
      * @param wind 風。
-     * @return 捨て牌リスト。
+     * @return 捨て牌リスト。(変更不可)
      */
     public List<JanPai> getRiver(final Wind wind) {
         if (wind != null) {
-            return deepCopyList(_riverTable.get(wind));
+            return _riverTable.get(wind);
         }
         else {
-            return new ArrayList<>();
+            return EMPTY_RIVER;
         }
     }
     
+    /**
+     * 裏ドラリストを取得
+     * 
+     * 王牌を複製せずに取得する。
+     * 
+     * @return 裏ドラリスト。(表示牌ではない)
+     */
+    public List<JanPai> getUraDoraList() {
+        return _wanPai.getUraDoraList();
+    }
+    
+    /**
+     * 版数を取得
+     * 
+     * @return 版数。状態が更新されるたびに増加する。
+     */
+    public long getVersion() {
+        return _version;
+    }
+    
     /**
      * 王牌を取得
      * 
+     * 格納中の王牌は複製とスナップショットで共有しているため、常に複製を返す。
+     * 
      * @return 王牌。
      */
     public WanPai getWanPai() {
@@ -297,6 +422,15 @@ public final class JanInfo extends Observable implements Cloneable {
         return getActivePlayer().getName().equals(playerName);
     }
     
+    /**
+     * 読み取り専用か
+     * 
+     * @return 判定結果。
+     */
+    public boolean isReadOnly() {
+        return _readOnly;
+    }
+    
     /**
      * ゲームに参加中のプレイヤーか
      * 
@@ -315,29 +449,20 @@ public final class JanInfo extends Observable implements Cloneable {
         return false;
     }
     
-    /**
-     * 監視者に状態を通知 (強制)
-     * 
-     * @param param 通知パラメータ。
-     */
-    @Override
-    public void notifyObservers(final Object param) {
-        setChanged();
-        super.notifyObservers(param);
-    }
-    
     /**
      * 直前の捨て牌を設定
      * 
      * @param pai 直前の捨て牌。
      */
     public void setActiveDiscard(final JanPai pai) {
+        checkWritable();
         if (pai != null) {
             _activeDiscard = pai;
         }
         else {
             _activeDiscard = JanPai.HAKU;
         }
+        _version++;
     }
     
     /**
@@ -346,6 +471,7 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param playerName プレイヤー名。
      */
     public void setActivePlayer(final String playerName) {
+        checkWritable();
         if (playerName != null) {
             for (final Map.Entry<Wind, Player> entry : _playerTable.entrySet()) {
                 if (entry.getValue().getName().equals(playerName)) {
@@ -361,12 +487,14 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param pai 直前のツモ牌。
      */
     public void setActiveTsumo(final JanPai pai) {
+        checkWritable();
         if (pai != null) {
             _activeTsumo = pai;
         }
         else {
             _activeTsumo = JanPai.HAKU;
         }
+        _version++;
     }
     
     /**
@@ -375,19 +503,23 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param wind アクティブプレイヤーの風。
      */
     public void setActiveWind(final Wind wind) {
+        checkWritable();
         if (wind != null) {
             _activeWind = wind;
         }
         else {
             _activeWind = Wind.TON;
         }
+        _version++;
     }
     
     /**
      * アクティブプレイヤーの風を次に移す
      */
     public void setActiveWindToNext() {
+        checkWritable();
         _activeWind = _activeWind.getNext();
+        _version++;
     }
     
     /**
@@ -396,12 +528,14 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param deck 牌山。
      */
     public void setDeck(final List<JanPai> deck) {
+        checkWritable();
         if (deck != null) {
-            _deck = deepCopyList(deck);
+            _deck = Collections.unmodifiableList(new ArrayList<>(deck));
         }
         else {
-            _deck.clear();
+            _deck = Collections.emptyList();
         }
+        _version++;
     }
     
     /**
@@ -410,6 +544,7 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param index 牌山インデックス。
      */
     public void setDeckIndex(final int index) {
+        checkWritable();
         if (index > 0) {
             final int deckSize = _deck.size();
             if (index < deckSize) {
@@ -422,6 +557,7 @@ public final class JanInfo extends Observable implements Cloneable {
         else {
             _deckIndex = 0;
         }
+        _version++;
     }
     
     /**
@@ -430,28 +566,34 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param wind 場風。
      */
     public void setFieldWind(final Wind wind) {
+        checkWritable();
         if (wind != null) {
             _fieldWind = wind;
         }
         else {
             _fieldWind = Wind.TON;
         }
+        _version++;
     }
     
     /**
      * 手牌を設定
      * 
+     * 渡した手牌はそのまま格納して共有するため、呼び出し元は以後変更してはならない。
+     * 
      * @param wind 風。
      * @param hand 手牌。
      */
     public void setHand(final Wind wind, final Hand hand) {
+        checkWritable();
         if (wind != null) {
             if (hand != null) {
-                _handTable.put(wind, hand.clone());
+                _handTable.put(wind, hand);
             }
             else {
                 _handTable.put(wind, new Hand());
             }
+            _version++;
         }
     }
     
@@ -461,12 +603,14 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param playerTable プレイヤーテーブル。
      */
     public void setPlayerTable(final Map<Wind, Player> playerTable) {
+        checkWritable();
         if (playerTable != null) {
-            _playerTable = deepCopyMap(playerTable);
+            _playerTable = Collections.unmodifiableMap(new TreeMap<>(playerTable));
         }
         else {
-            _playerTable.clear();
+            _playerTable = Collections.emptyMap();
         }
+        _version++;
     }
     
     /**
@@ -475,12 +619,14 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param remainCount 残り枚数。
      */
     public void setRemainCount(final int remainCount) {
+        checkWritable();
         if (remainCount > 0) {
             _remainCount = remainCount;
         }
         else {
             _remainCount = 0;
         }
+        _version++;
     }
     
     /**
@@ -490,63 +636,79 @@ public final class JanInfo extends Observable implements Cloneable {
      * @param river 捨て牌リスト。
      */
     public void setRiver(final Wind wind, final List<JanPai> river) {
+        checkWritable();
         if (wind != null) {
             if (river != null) {
-                _riverTable.put(wind, deepCopyList(river));
+                _riverTable.put(wind, Collections.unmodifiableList(new ArrayList<>(river)));
             }
             else {
-                _riverTable.put(wind, new ArrayList<JanPai>());
+                _riverTable.put(wind, EMPTY_RIVER);
             }
+            _version++;
         }
     }
     
     /**
      * 王牌を設定
      * 
+     * 渡した王牌はそのまま格納して共有するため、呼び出し元は以後変更してはならない。
+     * 
      * @param wanPai 王牌。
      */
     public void setWanPai(final WanPai wanPai) {
+        checkWritable();
         if (wanPai != null) {
-            _wanPai = wanPai.clone();
+            _wanPai = wanPai;
         }
         else {
             _wanPai = new WanPai();
         }
+        _version++;
     }
     
-    
-    
     /**
-     * リストをディープコピー
+     * 読み取り専用のスナップショットを取得
      * 
-     * @param sourceList 複製元。
-     * @return 複製結果。
+     * 格納済みの要素は共有するため、風ごとの参照を写すだけで済む。
+     * 
+     * @return スナップショット。
      */
-    private <E> List<E> deepCopyList(final List<E> sourceList) {
-        return new ArrayList<>(sourceList);
+    public JanInfo snapshot() {
+        if (_readOnly) {
+            return this;
+        }
+        return new JanInfo(this, true);
     }
     
+    
+    
     /**
-     * マップをディープコピー
-     * 
-     * @param source 複製元。
-     * @return 複製結果。
+     * 書き込み可能か確認
      */
-    private <S, T> Map<S, T> deepCopyMap(final Map<S, T> source) {
-        return new TreeMap<>(source);
+    private void checkWritable() {
+        if (_readOnly) {
+            throw new UnsupportedOperationException("Snapshot is read-only.");
+        }
     }
     
     
     
+    /**
+     * 空の捨て牌リスト
+     */
+    private static final List<JanPai> EMPTY_RIVER = Collections.emptyList();
+    
+    
+    
     /**
      * プレイヤーテーブル
      */
-    private Map<Wind, Player> _playerTable = new TreeMap<>();
+    private Map<Wind, Player> _playerTable;
     
     /**
      * 牌山
      */
-    private List<JanPai> _deck = new ArrayList<>();
+    private List<JanPai> _deck = Collections.emptyList();
     
     /**
      * 牌山インデックス
@@ -576,12 +738,12 @@ public final class JanInfo extends Observable implements Cloneable {
     /**
      * 手牌テーブル
      */
-    private Map<Wind, Hand> _handTable = new TreeMap<>();
+    private final Map<Wind, Hand> _handTable = new EnumMap<>(Wind.class);
     
     /**
      * 捨て牌テーブル
      */
-    private Map<Wind, List<JanPai>> _riverTable = new TreeMap<>();
+    private final Map<Wind, List<JanPai>> _riverTable = new EnumMap<>(Wind.class);
     
     /**
      * 直前のツモ牌
@@ -593,5 +755,15 @@ public final class JanInfo extends Observable implements Cloneable {
      */
     private JanPai _activeDiscard = JanPai.HAKU;
     
+    /**
+     * 版数
+     */
+    private long _version = 0;
+    
+    /**
+     * 読み取り専用か
+     */
+    private final boolean _readOnly;
+    
 }
 
@@ -0,0 +1,241 @@
+/**
+ * JanPaiCount.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import wiz.project.jan.Hand;
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 牌の枚数表 (JanPai の序数で索引する)
+ */
+public final class JanPaiCount implements Cloneable {
+    
+    /**
+     * コンストラクタ
+     */
+    public JanPaiCount() {
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param hand 手牌。門前の牌のみを数える。
+     */
+    public JanPaiCount(final Hand hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        
+        for (final JanPai pai : JANPAI_ARRAY) {
+            _countArray[pai.ordinal()] = (byte)hand.getMenZenJanPaiCount(pai);
+        }
+    }
+    
+    /**
+     * コピーコンストラクタ
+     * 
+     * @param source 複製元。
+     */
+    public JanPaiCount(final JanPaiCount source) {
+        if (source != null) {
+            System.arraycopy(source._countArray, 0, _countArray, 0, SIZE);
+        }
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param sourceList 牌リスト。
+     */
+    public JanPaiCount(final List<JanPai> sourceList) {
+        if (sourceList == null) {
+            throw new NullPointerException("Source list is null.");
+        }
+        
+        for (final JanPai pai : sourceList) {
+            add(pai);
+        }
+    }
+    
+    
+    
+    /**
+     * 牌を追加
+     * 
+     * @param pai 追加する牌。
+     */
+    public void add(final JanPai pai) {
+        if (pai == null) {
+            throw new NullPointerException("Source pai is null.");
+        }
+        
+        _countArray[pai.ordinal()]++;
+    }
+    
+    /**
+     * オブジェクトを複製
+     * 
+     * @return 複製結果。
+     */
+    @Override
+    public JanPaiCount clone() {
+        return new JanPaiCount(this);
+    }
+    
+    /**
+     * 牌を含むか
+     * 
+     * @param pai 確認対象牌。
+     * @return 確認結果。
+     */
+    public boolean contains(final JanPai pai) {
+        if (pai == null) {
+            return false;
+        }
+        return _countArray[pai.ordinal()] > 0;
+    }
+    
+    /**
+     * 等価なオブジェクトか
+     * 
+     * @param target 比較対象。
+     * @return 比較結果。
+     */
+    @Override
+    public boolean equals(final Object target) {
+        if (target == null) {
+            return false;
+        }
+        if (this == target) {
+            return true;
+        }
+        if (!(target instanceof JanPaiCount)) {
+            return false;
+        }
+        return Arrays.equals(_countArray, ((JanPaiCount)target)._countArray);
+    }
+    
+    /**
+     * 牌の枚数を取得
+     * 
+     * @param pai 対象牌。
+     * @return 牌の枚数。
+     */
+    public int get(final JanPai pai) {
+        if (pai == null) {
+            return 0;
+        }
+        return _countArray[pai.ordinal()];
+    }
+    
+    /**
+     * 序数を指定して牌の枚数を取得
+     * 
+     * @param index 牌の序数。
+     * @return 牌の枚数。
+     */
+    public int getAt(final int index) {
+        return _countArray[index];
+    }
+    
+    /**
+     * 牌の総数を取得
+     * 
+     * @return 牌の総数。
+     */
+    public int getTotal() {
+        int total = 0;
+        for (final byte count : _countArray) {
+            total += count;
+        }
+        return total;
+    }
+    
+    /**
+     * ハッシュコードを取得
+     * 
+     * @return ハッシュコード。
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(_countArray);
+    }
+    
+    /**
+     * 牌を削除
+     * 
+     * @param pai 削除する牌。
+     */
+    public void remove(final JanPai pai) {
+        if (pai == null) {
+            throw new NullPointerException("Source pai is null.");
+        }
+        
+        final int index = pai.ordinal();
+        if (_countArray[index] > 0) {
+            _countArray[index]--;
+        }
+    }
+    
+    /**
+     * 牌マップに変換
+     * 
+     * 枚数が0の牌は含まない。(クリーン済みの手牌マップと同じ形式)
+     * 
+     * @return 牌マップ。
+     */
+    public Map<JanPai, Integer> toMap() {
+        final Map<JanPai, Integer> resultMap = new TreeMap<>();
+        for (final JanPai pai : JANPAI_ARRAY) {
+            final int count = _countArray[pai.ordinal()];
+            if (count > 0) {
+                resultMap.put(pai, count);
+            }
+        }
+        return resultMap;
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+    
+    
+    
+    /**
+     * 牌の種類数
+     */
+    public static final int SIZE = 34;
+    
+    
+    
+    /**
+     * 全ての牌 (values() の複製を避けるため保持する)
+     */
+    private static final JanPai[] JANPAI_ARRAY = JanPai.values();
+    
+    
+    
+    /**
+     * 牌ごとの枚数
+     */
+    private final byte[] _countArray = new byte[SIZE];
+    
+}
+
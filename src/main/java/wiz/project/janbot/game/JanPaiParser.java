@@ -0,0 +1,101 @@
+/**
+ * JanPaiParser.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import wiz.project.jan.JanPai;
+import wiz.project.janbot.game.exception.InvalidInputException;
+
+
+
+/**
+ * 牌の表記の解析
+ * 
+ * 数牌は「数字+種類」(ex.9p)、字牌は漢字・ローマ字・中国語の読みを受け付ける。
+ * 表記は起動時に表へ展開しておき、解析は1回の検索で済ませる。
+ */
+public final class JanPaiParser {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private JanPaiParser() {
+    }
+    
+    
+    
+    /**
+     * 文字列を牌に変換
+     * 
+     * @param source 変換元。
+     * @return 変換結果。対応する牌がない場合はnull。
+     */
+    public static JanPai find(final String source) {
+        if (source == null) {
+            throw new NullPointerException("Source is null.");
+        }
+        return PAI_TABLE.get(source);
+    }
+    
+    /**
+     * 文字列を牌に変換
+     * 
+     * @param source 変換元。
+     * @return 変換結果。
+     * @throws InvalidInputException 不正な入力。
+     */
+    public static JanPai parse(final String source) throws InvalidInputException {
+        final JanPai pai = find(source);
+        if (pai == null) {
+            throw new InvalidInputException("Invalid jan pai - " + source);
+        }
+        return pai;
+    }
+    
+    
+    
+    /**
+     * 表記を登録
+     * 
+     * @param pai 牌。
+     * @param sourceArray 表記。
+     */
+    private static void put(final JanPai pai, final String... sourceArray) {
+        for (final String source : sourceArray) {
+            PAI_TABLE.put(source, pai);
+        }
+    }
+    
+    
+    
+    /**
+     * 表記と牌の対応表
+     */
+    private static final Map<String, JanPai> PAI_TABLE = new HashMap<>();
+    
+    static {
+        final JanPai[] manArray = { JanPai.MAN_1, JanPai.MAN_2, JanPai.MAN_3, JanPai.MAN_4, JanPai.MAN_5, JanPai.MAN_6, JanPai.MAN_7, JanPai.MAN_8, JanPai.MAN_9 };
+        final JanPai[] pinArray = { JanPai.PIN_1, JanPai.PIN_2, JanPai.PIN_3, JanPai.PIN_4, JanPai.PIN_5, JanPai.PIN_6, JanPai.PIN_7, JanPai.PIN_8, JanPai.PIN_9 };
+        final JanPai[] souArray = { JanPai.SOU_1, JanPai.SOU_2, JanPai.SOU_3, JanPai.SOU_4, JanPai.SOU_5, JanPai.SOU_6, JanPai.SOU_7, JanPai.SOU_8, JanPai.SOU_9 };
+        for (int i = 0; i < 9; i++) {
+            put(manArray[i], (i + 1) + "m");
+            put(pinArray[i], (i + 1) + "p");
+            put(souArray[i], (i + 1) + "s");
+        }
+        put(JanPai.TON, "東", "ton", "dong");
+        put(JanPai.NAN, "南", "nan");
+        put(JanPai.SHA, "西", "sha", "sya", "xi");
+        put(JanPai.PEI, "北", "pei", "pe", "bei");
+        put(JanPai.HAKU, "白", "haku", "bai");
+        put(JanPai.HATU, "發", "hatu", "hatsu", "fa");
+        put(JanPai.CHUN, "中", "chun", "ch", "zhong");
+    }
+    
+}
+
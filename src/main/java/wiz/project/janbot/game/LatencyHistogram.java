@@ -0,0 +1,202 @@
+/**
+ * LatencyHistogram.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+
+/**
+ * 所要時間のヒストグラム
+ * 
+ * 2の冪ごとの区間を16分割した対数線形の区間で数える。(相対誤差は約6%以内)
+ * 記録はロックを取らないので、計測対象の処理と競合しない。
+ */
+public final class LatencyHistogram {
+    
+    /**
+     * コンストラクタ
+     */
+    public LatencyHistogram() {
+    }
+    
+    
+    
+    /**
+     * 記録数を取得
+     * 
+     * @return 記録数。
+     */
+    public long getCount() {
+        return _count.get();
+    }
+    
+    /**
+     * 最大値を取得
+     * 
+     * @return 最大値。(ナノ秒)
+     */
+    public long getMax() {
+        return _max.get();
+    }
+    
+    /**
+     * 平均値を取得
+     * 
+     * @return 平均値。(ナノ秒) 記録がない場合は0。
+     */
+    public long getMean() {
+        final long count = _count.get();
+        return count > 0 ? _total.get() / count : 0;
+    }
+    
+    /**
+     * 指定した百分位の値を取得
+     * 
+     * @param percentile 百分位。(0.0～100.0)
+     * @return 百分位の値。(ナノ秒) 該当区間の上限値を返す。記録がない場合は0。
+     */
+    public long getPercentile(final double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Invalid percentile - " + percentile);
+        }
+        
+        // 区間ごとの数は記録と並行して増えるので、合計は区間から数え直す
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += _bucketArray.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        
+        final long rank = Math.max(1, (long)Math.ceil(total * percentile / 100.0));
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += _bucketArray.get(i);
+            if (count >= rank) {
+                return Math.min(getUpperBound(i), _max.get());
+            }
+        }
+        return _max.get();
+    }
+    
+    /**
+     * 合計値を取得
+     * 
+     * @return 合計値。(ナノ秒)
+     */
+    public long getTotal() {
+        return _total.get();
+    }
+    
+    /**
+     * 所要時間を記録
+     * 
+     * @param nanos 所要時間。(ナノ秒) 負の値は0として扱う。
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+        _bucketArray.incrementAndGet(getIndex(value));
+        _count.incrementAndGet();
+        _total.addAndGet(value);
+        
+        long max = _max.get();
+        while (value > max && !_max.compareAndSet(max, value)) {
+            max = _max.get();
+        }
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", mean=" + getMean() + ", p50=" + getPercentile(50.0) + ", p99=" + getPercentile(99.0) + ", max=" + getMax();
+    }
+    
+    
+    
+    /**
+     * 値の区間番号を取得
+     * 
+     * @param value 値。(0以上)
+     * @return 区間番号。
+     */
+    static int getIndex(final long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int)value;
+        }
+        
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int mantissa = (int)(value >>> shift) - SUB_BUCKET_COUNT;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + mantissa;
+    }
+    
+    /**
+     * 区間の上限値を取得
+     * 
+     * @param index 区間番号。
+     * @return 区間の上限値。
+     */
+    static long getUpperBound(final int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        
+        final int offset = index - LINEAR_LIMIT;
+        final int shift = offset / SUB_BUCKET_COUNT + 1;
+        final long mantissa = offset % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+    
+    
+    
+    /**
+     * 2の冪ごとの区間の分割数
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    
+    /**
+     * 1刻みで数える値の上限
+     */
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT * 2;
+    
+    /**
+     * 区間数 (long の最大値まで)
+     */
+    private static final int BUCKET_COUNT = getIndex(Long.MAX_VALUE) + 1;
+    
+    
+    
+    /**
+     * 区間ごとの記録数
+     */
+    private final AtomicLongArray _bucketArray = new AtomicLongArray(BUCKET_COUNT);
+    
+    /**
+     * 記録数
+     */
+    private final AtomicLong _count = new AtomicLong();
+    
+    /**
+     * 合計値 (ナノ秒)
+     */
+    private final AtomicLong _total = new AtomicLong();
+    
+    /**
+     * 最大値 (ナノ秒)
+     */
+    private final AtomicLong _max = new AtomicLong();
+    
+}
+
@@ -0,0 +1,285 @@
+/**
+ * LockProfiler.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+
+/**
+ * ロックの待ち時間と保持時間の計測
+ * 
+ * ロックごと、コマンドごとに集計する。コマンド名はコマンドを処理するスレッドに設定しておく。
+ * (設定のないスレッドはスレッド名で集計する)
+ * 計測は無効で開始し、システムプロパティ janbot.lock.profile=true か setEnabled() で有効にする。
+ */
+public final class LockProfiler {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private LockProfiler() {
+    }
+    
+    
+    
+    /**
+     * インスタンスを取得
+     * 
+     * @return インスタンス。
+     */
+    public static LockProfiler getInstance() {
+        return INSTANCE;
+    }
+    
+    
+    
+    /**
+     * 現在のスレッドのコマンド名を解除
+     */
+    public void clearCommand() {
+        _commandHolder.remove();
+    }
+    
+    /**
+     * 現在のスレッドのコマンド名を取得
+     * 
+     * @return コマンド名。設定されていない場合は括弧付きのスレッド名。
+     */
+    public String getCommand() {
+        final String command = _commandHolder.get();
+        if (command == null) {
+            return "(" + Thread.currentThread().getName() + ")";
+        }
+        return command;
+    }
+    
+    /**
+     * 計測が有効か
+     * 
+     * @return 判定結果。
+     */
+    public boolean isEnabled() {
+        return _enabled;
+    }
+    
+    /**
+     * 計測結果を消去
+     */
+    public void reset() {
+        _entryTable.clear();
+    }
+    
+    /**
+     * 現在のスレッドのコマンド名を設定
+     * 
+     * @param command コマンド名。
+     */
+    public void setCommand(final String command) {
+        if (command == null) {
+            throw new NullPointerException("Command name is null.");
+        }
+        _commandHolder.set(command);
+    }
+    
+    /**
+     * 計測の有効・無効を設定
+     * 
+     * @param enabled 有効にするか。
+     */
+    public void setEnabled(final boolean enabled) {
+        _enabled = enabled;
+    }
+    
+    /**
+     * 表示用の文字列リストに変換 (待ち時間の合計が長い順)
+     * 
+     * @return 変換結果。
+     */
+    public List<String> toLineList() {
+        final List<Entry> entryList = new ArrayList<>(_entryTable.values());
+        Collections.sort(entryList, new Comparator<Entry>() {
+            public int compare(final Entry entry0, final Entry entry1) {
+                return Long.compare(entry1.getWait().getTotal(), entry0.getWait().getTotal());
+            }
+        });
+        
+        final List<String> lineList = new ArrayList<>();
+        lineList.add("lock profile: " + (_enabled ? "on" : "off"));
+        for (final Entry entry : entryList) {
+            lineList.add(entry.toString());
+        }
+        return lineList;
+    }
+    
+    
+    
+    /**
+     * 保持時間を記録
+     * 
+     * @param lockName ロック名。
+     * @param command コマンド名。
+     * @param nanos 保持時間。(ナノ秒)
+     */
+    void recordHold(final String lockName, final String command, final long nanos) {
+        getEntry(lockName, command).getHold().record(nanos);
+    }
+    
+    /**
+     * 待ち時間を記録
+     * 
+     * @param lockName ロック名。
+     * @param command コマンド名。
+     * @param nanos 待ち時間。(ナノ秒)
+     */
+    void recordWait(final String lockName, final String command, final long nanos) {
+        getEntry(lockName, command).getWait().record(nanos);
+    }
+    
+    
+    
+    /**
+     * 集計単位を取得
+     * 
+     * @param lockName ロック名。
+     * @param command コマンド名。
+     * @return 集計単位。
+     */
+    private Entry getEntry(final String lockName, final String command) {
+        final String key = lockName + " " + command;
+        Entry entry = _entryTable.get(key);
+        if (entry == null) {
+            final Entry created = new Entry(lockName, command);
+            entry = _entryTable.putIfAbsent(key, created);
+            if (entry == null) {
+                entry = created;
+            }
+        }
+        return entry;
+    }
+    
+    
+    
+    /**
+     * 自分自身のインスタンス
+     */
+    private static final LockProfiler INSTANCE = new LockProfiler();
+    
+    /**
+     * 計測を有効にするシステムプロパティ名
+     */
+    private static final String ENABLED_PROPERTY = "janbot.lock.profile";
+    
+    /**
+     * 1ミリ秒あたりのナノ秒
+     */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    
+    
+    
+    /**
+     * ロック名とコマンド名ごとの集計
+     */
+    private final ConcurrentMap<String, Entry> _entryTable = new ConcurrentHashMap<>();
+    
+    /**
+     * スレッドごとのコマンド名
+     */
+    private final ThreadLocal<String> _commandHolder = new ThreadLocal<>();
+    
+    /**
+     * 計測が有効か
+     */
+    private volatile boolean _enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+    
+    
+    
+    /**
+     * 集計単位
+     */
+    private static final class Entry {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param lockName ロック名。
+         * @param command コマンド名。
+         */
+        public Entry(final String lockName, final String command) {
+            _lockName = lockName;
+            _command = command;
+        }
+        
+        
+        
+        /**
+         * 保持時間を取得
+         * 
+         * @return 保持時間のヒストグラム。
+         */
+        public LatencyHistogram getHold() {
+            return _hold;
+        }
+        
+        /**
+         * 待ち時間を取得
+         * 
+         * @return 待ち時間のヒストグラム。
+         */
+        public LatencyHistogram getWait() {
+            return _wait;
+        }
+        
+        /**
+         * 文字列に変換
+         * 
+         * @return 変換結果。
+         */
+        @Override
+        public String toString() {
+            return String.format("%s <%s>: n=%d  wait p99=%.3fms max=%.3fms total=%.1fms  hold p99=%.3fms max=%.3fms",
+                                 _lockName,
+                                 _command,
+                                 _wait.getCount(),
+                                 _wait.getPercentile(99.0) / NANOS_PER_MILLI,
+                                 _wait.getMax() / NANOS_PER_MILLI,
+                                 _wait.getTotal() / NANOS_PER_MILLI,
+                                 _hold.getPercentile(99.0) / NANOS_PER_MILLI,
+                                 _hold.getMax() / NANOS_PER_MILLI);
+        }
+        
+        
+        
+        /**
+         * ロック名
+         */
+        private final String _lockName;
+        
+        /**
+         * コマンド名
+         */
+        private final String _command;
+        
+        /**
+         * 待ち時間
+         */
+        private final LatencyHistogram _wait = new LatencyHistogram();
+        
+        /**
+         * 保持時間
+         */
+        private final LatencyHistogram _hold = new LatencyHistogram();
+        
+    }
+    
+}
+
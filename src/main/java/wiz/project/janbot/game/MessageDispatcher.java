@@ -0,0 +1,677 @@
+/**
+ * MessageDispatcher.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import wiz.project.ircbot.IRCBOT;
+
+
+
+/**
+ * 送信メッセージの非同期配送
+ * 
+ * 送信先ごとにキューへ溜め、専用スレッドが送信先を順番に回しながらまとめて送信する。
+ * 送信間隔はトークンバケットで制御し、キューが上限に達した場合は新しいメッセージを破棄する。
+ */
+public final class MessageDispatcher {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private MessageDispatcher() {
+        this(IRC_SENDER, DEFAULT_BURST_SIZE, DEFAULT_SEND_INTERVAL, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param sender 送信先。
+     * @param burstSize 連続送信可能な行数。
+     * @param sendInterval 1行あたりの送信間隔。(ミリ秒)
+     * @param capacity 未送信メッセージの上限数。
+     */
+    MessageDispatcher(final MessageSender sender, final int burstSize, final long sendInterval, final int capacity) {
+        if (sender == null) {
+            throw new NullPointerException("Sender is null.");
+        }
+        if (burstSize <= 0) {
+            throw new IllegalArgumentException("Invalid burst size - " + burstSize);
+        }
+        if (sendInterval < 0) {
+            throw new IllegalArgumentException("Invalid send interval - " + sendInterval);
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity - " + capacity);
+        }
+        
+        _sender = sender;
+        _burstSize = burstSize;
+        _sendIntervalNanos = TimeUnit.MILLISECONDS.toNanos(sendInterval);
+        _capacity = capacity;
+        _tokens = burstSize;
+        _lastRefillTime = System.nanoTime();
+    }
+    
+    
+    
+    /**
+     * インスタンスを取得
+     * 
+     * @return インスタンス。
+     */
+    public static MessageDispatcher getInstance() {
+        return INSTANCE;
+    }
+    
+    
+    
+    /**
+     * 未送信メッセージの送信完了を待機
+     * 
+     * @param timeout 待機時間。(ミリ秒)
+     * @return 全て送信できたか。
+     * @throws InterruptedException 割り込みが発生した。
+     */
+    public boolean flush(final long timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        synchronized (_QUEUE_LOCK) {
+            while (_pendingCount > 0) {
+                final long rest = deadline - System.nanoTime();
+                if (rest <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(_QUEUE_LOCK, rest);
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * 破棄したメッセージ数を取得
+     * 
+     * @return 破棄したメッセージ数。
+     */
+    public long getDroppedCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _droppedCount;
+        }
+    }
+    
+    /**
+     * 送信に失敗した行数を取得
+     * 
+     * @return 送信に失敗した行数。
+     */
+    public long getFailedCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _failedCount;
+        }
+    }
+    
+    /**
+     * 未送信メッセージ数の最大値を取得
+     * 
+     * @return 未送信メッセージ数の最大値。
+     */
+    public int getMaxPendingCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _maxPendingCount;
+        }
+    }
+    
+    /**
+     * 未送信メッセージ数を取得
+     * 
+     * @return 未送信メッセージ数。
+     */
+    public int getPendingCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _pendingCount;
+        }
+    }
+    
+    /**
+     * 受け付けたメッセージ数を取得
+     * 
+     * @return 受け付けたメッセージ数。
+     */
+    public long getPostedCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _postedCount;
+        }
+    }
+    
+    /**
+     * 送信した行数を取得
+     * 
+     * @return 送信した行数。(連結後)
+     */
+    public long getSentLineCount() {
+        synchronized (_QUEUE_LOCK) {
+            return _sentLineCount;
+        }
+    }
+    
+    /**
+     * 送信間隔の制御で待機した回数を取得
+     * 
+     * @return 待機回数。
+     */
+    public long getThrottledCount() {
+        return _throttledCount;
+    }
+    
+    /**
+     * 送信間隔の制御で待機した時間を取得
+     * 
+     * @return 待機時間。(ナノ秒)
+     */
+    public long getThrottledNanos() {
+        return _throttledNanos;
+    }
+    
+    /**
+     * BOTの参加チャンネルへメッセージを送信
+     * 
+     * @param message メッセージ。
+     */
+    public void println(final String message) {
+        post("", Arrays.asList(message));
+    }
+    
+    /**
+     * BOTの参加チャンネルへメッセージを送信
+     * 
+     * @param messageList メッセージリスト。
+     */
+    public void println(final List<String> messageList) {
+        post("", messageList);
+    }
+    
+    /**
+     * 短いメッセージを1行に連結して送信するか設定
+     * 
+     * @param linePacking 連結するか。
+     */
+    public void setLinePacking(final boolean linePacking) {
+        _linePacking = linePacking;
+    }
+    
+    /**
+     * 配送を停止
+     * 
+     * 受付済みのメッセージは送信してから停止する。
+     */
+    public void shutdown() {
+        synchronized (_QUEUE_LOCK) {
+            _stopped = true;
+            _QUEUE_LOCK.notifyAll();
+        }
+    }
+    
+    /**
+     * 指定チャンネルへメッセージを送信
+     * 
+     * @param target 送信先のチャンネル名。空文字列の場合はBOTの参加チャンネル。
+     * @param message メッセージ。
+     */
+    public void talk(final String target, final String message) {
+        post(target, Arrays.asList(message));
+    }
+    
+    /**
+     * 指定チャンネルへメッセージを送信
+     * 
+     * @param target 送信先のチャンネル名。空文字列の場合はBOTの参加チャンネル。
+     * @param messageList メッセージリスト。
+     */
+    public void talk(final String target, final List<String> messageList) {
+        post(target, messageList);
+    }
+    
+    
+    
+    /**
+     * 送信権を取得 (トークンバケット)
+     * 
+     * @throws InterruptedException 割り込みが発生した。
+     */
+    private void acquireToken() throws InterruptedException {
+        if (_sendIntervalNanos == 0) {
+            return;
+        }
+        
+        while (true) {
+            final long now = System.nanoTime();
+            _tokens = Math.min(_burstSize, _tokens + (double)(now - _lastRefillTime) / _sendIntervalNanos);
+            _lastRefillTime = now;
+            if (_tokens >= 1.0) {
+                _tokens -= 1.0;
+                return;
+            }
+            
+            final long waitNanos = (long)Math.ceil((1.0 - _tokens) * _sendIntervalNanos);
+            _throttledCount++;
+            _throttledNanos += waitNanos;
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+    
+    /**
+     * 配送処理
+     */
+    private void dispatch() {
+        try {
+            while (true) {
+                final String target;
+                final List<String> batch = new ArrayList<>();
+                synchronized (_QUEUE_LOCK) {
+                    while (_queueTable.isEmpty()) {
+                        if (_stopped) {
+                            return;
+                        }
+                        _QUEUE_LOCK.wait();
+                    }
+                    
+                    // 先頭の送信先から連続送信可能な行数だけ取り出す
+                    final Iterator<Map.Entry<String, Deque<String>>> iterator = _queueTable.entrySet().iterator();
+                    final Map.Entry<String, Deque<String>> entry = iterator.next();
+                    target = entry.getKey();
+                    final Deque<String> queue = entry.getValue();
+                    iterator.remove();
+                    while (!queue.isEmpty() && batch.size() < _burstSize) {
+                        batch.add(queue.poll());
+                    }
+                    if (!queue.isEmpty()) {
+                        // 残りは他の送信先の後に回す
+                        _queueTable.put(target, queue);
+                    }
+                }
+                
+                final List<String> lineList = pack(target, batch);
+                int sentCount = 0;
+                try {
+                    for (final String line : lineList) {
+                        acquireToken();
+                        try {
+                            _sender.send(target, line);
+                            sentCount++;
+                        }
+                        catch (final RuntimeException e) {
+                            // 失敗した行は数えるだけで次の行へ
+                        }
+                    }
+                }
+                finally {
+                    // 途中で抜けた場合も、取り出した分は未送信から外す
+                    synchronized (_QUEUE_LOCK) {
+                        _pendingCount -= batch.size();
+                        _sentLineCount += sentCount;
+                        _failedCount += lineList.size() - sentCount;
+                        _QUEUE_LOCK.notifyAll();
+                    }
+                }
+            }
+        }
+        catch (final InterruptedException e) {
+            // 停止
+        }
+        finally {
+            synchronized (_QUEUE_LOCK) {
+                if (_dispatchThread == Thread.currentThread()) {
+                    _dispatchThread = null;
+                }
+                if (!_stopped && !_queueTable.isEmpty()) {
+                    // エラーで抜けた場合は、残りのメッセージを新しいスレッドで配送する
+                    startDispatchThread();
+                }
+            }
+        }
+    }
+    
+    /**
+     * 文字のUTF-8でのバイト数を取得
+     * 
+     * @param codePoint コードポイント。
+     * @return バイト数。
+     */
+    private static int getByteCount(final int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        if (codePoint < 0x10000) {
+            return 3;
+        }
+        return 4;
+    }
+    
+    /**
+     * 文字列のUTF-8でのバイト数を取得
+     * 
+     * @param source 対象文字列。
+     * @return バイト数。
+     */
+    private static int getByteCount(final String source) {
+        int count = 0;
+        for (int i = 0; i < source.length(); ) {
+            final int codePoint = source.codePointAt(i);
+            count += getByteCount(codePoint);
+            i += Character.charCount(codePoint);
+        }
+        return count;
+    }
+    
+    /**
+     * 1行に送信できる本文のバイト数を取得
+     * 
+     * @param target 送信先のチャンネル名。
+     * @return バイト数。
+     */
+    static int getPayloadLimit(final String target) {
+        final int targetBytes = Math.max(getByteCount(target), TARGET_RESERVE);
+        return MAX_LINE_BYTES - COMMAND_BYTES - targetBytes - PREFIX_RESERVE;
+    }
+    
+    /**
+     * 送信用の行に変換 (長い行は分割し、連結が有効なら短い行を連結する)
+     * 
+     * @param target 送信先のチャンネル名。
+     * @param messageList メッセージリスト。
+     * @return 送信用の行リスト。
+     */
+    List<String> pack(final String target, final List<String> messageList) {
+        final int limit = getPayloadLimit(target);
+        final List<String> resultList = new ArrayList<>();
+        final StringBuilder buf = new StringBuilder();
+        int bufBytes = 0;
+        for (final String message : messageList) {
+            for (final String line : split(message, limit)) {
+                if (!_linePacking) {
+                    resultList.add(line);
+                    continue;
+                }
+                
+                final int lineBytes = getByteCount(line);
+                if (buf.length() > 0 && bufBytes + PACK_SEPARATOR_BYTES + lineBytes <= limit) {
+                    buf.append(PACK_SEPARATOR).append(line);
+                    bufBytes += PACK_SEPARATOR_BYTES + lineBytes;
+                    continue;
+                }
+                if (buf.length() > 0) {
+                    resultList.add(buf.toString());
+                    buf.setLength(0);
+                }
+                buf.append(line);
+                bufBytes = lineBytes;
+            }
+        }
+        if (buf.length() > 0) {
+            resultList.add(buf.toString());
+        }
+        return resultList;
+    }
+    
+    /**
+     * メッセージを受け付け
+     * 
+     * @param target 送信先のチャンネル名。空文字列の場合はBOTの参加チャンネル。
+     * @param messageList メッセージリスト。
+     */
+    private void post(final String target, final List<String> messageList) {
+        if (target == null) {
+            throw new NullPointerException("Target is null.");
+        }
+        if (messageList == null) {
+            throw new NullPointerException("Message list is null.");
+        }
+        for (final String message : messageList) {
+            if (message == null) {
+                throw new NullPointerException("Message is null.");
+            }
+        }
+        if (messageList.isEmpty()) {
+            return;
+        }
+        
+        synchronized (_QUEUE_LOCK) {
+            final int size = messageList.size();
+            if (_stopped || _pendingCount + size > _capacity) {
+                _droppedCount += size;
+                return;
+            }
+            
+            Deque<String> queue = _queueTable.get(target);
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                _queueTable.put(target, queue);
+            }
+            queue.addAll(messageList);
+            _pendingCount += size;
+            _postedCount += size;
+            _maxPendingCount = Math.max(_maxPendingCount, _pendingCount);
+            
+            if (_dispatchThread == null) {
+                startDispatchThread();
+            }
+            _QUEUE_LOCK.notifyAll();
+        }
+    }
+    
+    /**
+     * 長い行を分割
+     * 
+     * @param source 分割元。
+     * @param limit 1行のバイト数の上限。
+     * @return 分割結果。
+     */
+    private static List<String> split(final String source, final int limit) {
+        final List<String> resultList = new ArrayList<>();
+        int start = 0;
+        int bytes = 0;
+        for (int i = 0; i < source.length(); ) {
+            final int codePoint = source.codePointAt(i);
+            final int codeBytes = getByteCount(codePoint);
+            if (bytes + codeBytes > limit) {
+                resultList.add(source.substring(start, i));
+                start = i;
+                bytes = 0;
+            }
+            bytes += codeBytes;
+            i += Character.charCount(codePoint);
+        }
+        resultList.add(source.substring(start));
+        return resultList;
+    }
+    
+    /**
+     * 配送スレッドを開始 (ロック取得済みで呼ぶ)
+     */
+    private void startDispatchThread() {
+        _dispatchThread = new Thread(new Runnable() {
+            public void run() {
+                dispatch();
+            }
+        }, "MessageDispatcher");
+        _dispatchThread.setDaemon(true);
+        _dispatchThread.start();
+    }
+    
+    
+    
+    /**
+     * IRCへの送信
+     */
+    private static final MessageSender IRC_SENDER = new MessageSender() {
+        public void send(final String target, final String message) {
+            if (target.isEmpty()) {
+                IRCBOT.getInstance().println(message);
+            }
+            else {
+                IRCBOT.getInstance().talk(target, message);
+            }
+        }
+    };
+    
+    /**
+     * 連続送信可能な行数 (デフォルト)
+     */
+    private static final int DEFAULT_BURST_SIZE = 5;
+    
+    /**
+     * 1行あたりの送信間隔 (デフォルト、ミリ秒)
+     */
+    private static final long DEFAULT_SEND_INTERVAL = 1000L;
+    
+    /**
+     * 未送信メッセージの上限数 (デフォルト)
+     */
+    private static final int DEFAULT_CAPACITY = 1000;
+    
+    /**
+     * IRCの1行の最大バイト数 (改行込み)
+     */
+    private static final int MAX_LINE_BYTES = 512;
+    
+    /**
+     * コマンド部分のバイト数 ("PRIVMSG " + " :" + 改行)
+     */
+    private static final int COMMAND_BYTES = 12;
+    
+    /**
+     * 送信先として確保するバイト数の最小値 (チャンネル名の最大長)
+     */
+    private static final int TARGET_RESERVE = 50;
+    
+    /**
+     * 中継時にサーバが付加するプレフィックス用に確保するバイト数
+     */
+    private static final int PREFIX_RESERVE = 64;
+    
+    /**
+     * 連結時の区切り
+     */
+    private static final String PACK_SEPARATOR = "  ";
+    private static final int PACK_SEPARATOR_BYTES = PACK_SEPARATOR.length();
+    
+    /**
+     * 自分自身のインスタンス
+     */
+    private static final MessageDispatcher INSTANCE = new MessageDispatcher();
+    
+    
+    
+    /**
+     * ロックオブジェクト
+     */
+    private final Object _QUEUE_LOCK = new Object();
+    
+    
+    
+    /**
+     * 送信先
+     */
+    private final MessageSender _sender;
+    
+    /**
+     * 連続送信可能な行数
+     */
+    private final int _burstSize;
+    
+    /**
+     * 1行あたりの送信間隔 (ナノ秒)
+     */
+    private final long _sendIntervalNanos;
+    
+    /**
+     * 未送信メッセージの上限数
+     */
+    private final int _capacity;
+    
+    /**
+     * 送信先ごとの未送信メッセージ (受付順)
+     */
+    private final Map<String, Deque<String>> _queueTable = new LinkedHashMap<>();
+    
+    /**
+     * 配送スレッド
+     */
+    private Thread _dispatchThread = null;
+    
+    /**
+     * 停止済みか
+     */
+    private boolean _stopped = false;
+    
+    /**
+     * 短いメッセージを連結するか
+     */
+    private volatile boolean _linePacking = false;
+    
+    /**
+     * 送信可能な行数 (配送スレッドのみが参照)
+     */
+    private double _tokens;
+    
+    /**
+     * 最後に送信可能な行数を補充した時刻 (ナノ秒)
+     */
+    private long _lastRefillTime;
+    
+    /**
+     * 未送信メッセージ数
+     */
+    private int _pendingCount = 0;
+    
+    /**
+     * 未送信メッセージ数の最大値
+     */
+    private int _maxPendingCount = 0;
+    
+    /**
+     * 受け付けたメッセージ数
+     */
+    private long _postedCount = 0;
+    
+    /**
+     * 送信した行数
+     */
+    private long _sentLineCount = 0;
+    
+    /**
+     * 破棄したメッセージ数
+     */
+    private long _droppedCount = 0;
+    
+    /**
+     * 送信に失敗した行数
+     */
+    private long _failedCount = 0;
+    
+    /**
+     * 送信間隔の制御で待機した回数
+     */
+    private volatile long _throttledCount = 0;
+    
+    /**
+     * 送信間隔の制御で待機した時間 (ナノ秒)
+     */
+    private volatile long _throttledNanos = 0;
+    
+}
+
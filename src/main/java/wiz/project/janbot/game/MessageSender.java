@@ -0,0 +1,25 @@
+/**
+ * MessageSender.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * メッセージ送信先
+ */
+interface MessageSender {
+    
+    /**
+     * メッセージを1行送信
+     * 
+     * @param target 送信先のチャンネル名。空文字列の場合はBOTの参加チャンネル。
+     * @param message メッセージ。
+     */
+    public void send(final String target, final String message);
+    
+}
+
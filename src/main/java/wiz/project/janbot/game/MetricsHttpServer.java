@@ -0,0 +1,156 @@
+/**
+ * MetricsHttpServer.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+
+/**
+ * 計測値のHTTP公開
+ * 
+ * ローカルホストのみで待ち受け、GET /metrics に「名前 値」の行形式 (Prometheusのテキスト形式) で応答する。
+ */
+public final class MetricsHttpServer {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param metrics 計測値の集計。
+     * @param port 待ち受けポート。0の場合は空いているポート。
+     * @throws IOException 待ち受けに失敗した。
+     */
+    public MetricsHttpServer(final GameMetrics metrics, final int port) throws IOException {
+        if (metrics == null) {
+            throw new NullPointerException("Metrics is null.");
+        }
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("Invalid port - " + port);
+        }
+        
+        _metrics = metrics;
+        _server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        _server.createContext(CONTEXT_PATH, new HttpHandler() {
+            public void handle(final HttpExchange exchange) throws IOException {
+                onRequest(exchange);
+            }
+        });
+    }
+    
+    
+    
+    /**
+     * 待ち受けポートを取得
+     * 
+     * @return 待ち受けポート。
+     */
+    public int getPort() {
+        return _server.getAddress().getPort();
+    }
+    
+    /**
+     * 待ち受けを開始
+     */
+    public void start() {
+        _server.start();
+    }
+    
+    /**
+     * 待ち受けを終了
+     */
+    public void stop() {
+        _server.stop(0);
+    }
+    
+    
+    
+    /**
+     * 計測値名を公開用の名前に変換
+     * 
+     * @param name 計測値名。
+     * @return 変換結果。
+     */
+    static String convertName(final String name) {
+        final StringBuilder buf = new StringBuilder(NAME_PREFIX);
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_') {
+                buf.append(c);
+            }
+            else {
+                buf.append('_');
+            }
+        }
+        return buf.toString();
+    }
+    
+    
+    
+    /**
+     * リクエスト受信時の処理
+     * 
+     * @param exchange リクエストと応答。
+     * @throws IOException 応答に失敗した。
+     */
+    private void onRequest(final HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            
+            final StringBuilder buf = new StringBuilder();
+            for (final Map.Entry<String, Long> entry : _metrics.getSnapshot().entrySet()) {
+                buf.append(convertName(entry.getKey())).append(' ').append(entry.getValue()).append('\n');
+            }
+            final byte[] body = buf.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+        finally {
+            exchange.close();
+        }
+    }
+    
+    
+    
+    /**
+     * 公開するパス
+     */
+    private static final String CONTEXT_PATH = "/metrics";
+    
+    /**
+     * 公開用の名前の接頭辞
+     */
+    private static final String NAME_PREFIX = "janbot_";
+    
+    
+    
+    /**
+     * 計測値の集計
+     */
+    private final GameMetrics _metrics;
+    
+    /**
+     * HTTPサーバ
+     */
+    private final HttpServer _server;
+    
+}
+
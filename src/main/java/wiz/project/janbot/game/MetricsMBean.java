@@ -0,0 +1,115 @@
+/**
+ * MetricsMBean.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+
+
+
+/**
+ * 計測値のJMX公開 (読み取り専用)
+ * 
+ * コマンドの計測値は初回の記録時に増えるので、属性は取得のたびに計測値から作る。
+ */
+final class MetricsMBean implements DynamicMBean {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param metrics 計測値の集計。
+     */
+    public MetricsMBean(final GameMetrics metrics) {
+        if (metrics == null) {
+            throw new NullPointerException("Metrics is null.");
+        }
+        _metrics = metrics;
+    }
+    
+    
+    
+    /**
+     * 属性を取得
+     */
+    public Object getAttribute(final String attribute) throws AttributeNotFoundException {
+        final Long value = _metrics.getSnapshot().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+    
+    /**
+     * 属性をまとめて取得
+     */
+    public AttributeList getAttributes(final String[] attributes) {
+        final Map<String, Long> snapshot = _metrics.getSnapshot();
+        final AttributeList resultList = new AttributeList();
+        for (final String attribute : attributes) {
+            final Long value = snapshot.get(attribute);
+            if (value != null) {
+                resultList.add(new Attribute(attribute, value));
+            }
+        }
+        return resultList;
+    }
+    
+    /**
+     * 公開情報を取得
+     */
+    public MBeanInfo getMBeanInfo() {
+        final List<MBeanAttributeInfo> infoList = new ArrayList<>();
+        for (final String name : _metrics.getSnapshot().keySet()) {
+            infoList.add(new MBeanAttributeInfo(name, Long.class.getName(), name, true, false, false));
+        }
+        return new MBeanInfo(GameMetrics.class.getName(),
+                             "JanBOT metrics",
+                             infoList.toArray(new MBeanAttributeInfo[infoList.size()]),
+                             null,
+                             null,
+                             null);
+    }
+    
+    /**
+     * 操作を実行 (操作は公開しない)
+     */
+    public Object invoke(final String actionName, final Object[] params, final String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+    
+    /**
+     * 属性を設定 (全て読み取り専用)
+     */
+    public void setAttribute(final Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Read only - " + attribute.getName());
+    }
+    
+    /**
+     * 属性をまとめて設定 (全て読み取り専用)
+     */
+    public AttributeList setAttributes(final AttributeList attributes) {
+        return new AttributeList();
+    }
+    
+    
+    
+    /**
+     * 計測値の集計
+     */
+    private final GameMetrics _metrics;
+    
+}
+
@@ -0,0 +1,26 @@
+/**
+ * MetricsSource.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Map;
+
+
+
+/**
+ * 計測値の提供元
+ */
+interface MetricsSource {
+    
+    /**
+     * 計測値を収集
+     * 
+     * @param table 収集先。(計測値名と値)
+     */
+    public void collect(final Map<String, Long> table);
+    
+}
+
@@ -0,0 +1,126 @@
+/**
+ * ProfiledLock.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+
+
+/**
+ * 待ち時間と保持時間を計測できるロック
+ * 
+ * 計測は LockProfiler が有効な場合のみ行う。(再入時は計測しない)
+ * 待ち時間のヒストグラムを指定した場合、待ち時間のみは常に記録する。
+ */
+final class ProfiledLock {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param name ロック名。
+     */
+    public ProfiledLock(final String name) {
+        this(name, null);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param name ロック名。
+     * @param waitHistogram 常に記録する待ち時間のヒストグラム。nullの場合は記録しない。
+     */
+    public ProfiledLock(final String name, final LatencyHistogram waitHistogram) {
+        if (name == null) {
+            throw new NullPointerException("Lock name is null.");
+        }
+        _name = name;
+        _waitHistogram = waitHistogram;
+    }
+    
+    
+    
+    /**
+     * ロック名を取得
+     * 
+     * @return ロック名。
+     */
+    public String getName() {
+        return _name;
+    }
+    
+    /**
+     * ロックを取得
+     */
+    public void lock() {
+        final LockProfiler profiler = LockProfiler.getInstance();
+        final boolean profiling = profiler.isEnabled();
+        if (!profiling && _waitHistogram == null) {
+            _lock.lock();
+            return;
+        }
+        
+        final long waitStart = System.nanoTime();
+        _lock.lock();
+        if (_lock.getHoldCount() > 1) {
+            // 再入
+            return;
+        }
+        
+        final long acquireTime = System.nanoTime();
+        if (_waitHistogram != null) {
+            _waitHistogram.record(acquireTime - waitStart);
+        }
+        if (profiling) {
+            _holdStart = acquireTime;
+            _holdCommand = profiler.getCommand();
+            profiler.recordWait(_name, _holdCommand, acquireTime - waitStart);
+        }
+    }
+    
+    /**
+     * ロックを解放
+     */
+    public void unlock() {
+        if (_holdStart != 0 && _lock.getHoldCount() == 1) {
+            LockProfiler.getInstance().recordHold(_name, _holdCommand, System.nanoTime() - _holdStart);
+            _holdStart = 0;
+            _holdCommand = null;
+        }
+        _lock.unlock();
+    }
+    
+    
+    
+    /**
+     * ロック本体
+     */
+    private final ReentrantLock _lock = new ReentrantLock();
+    
+    /**
+     * ロック名
+     */
+    private final String _name;
+    
+    /**
+     * 常に記録する待ち時間のヒストグラム
+     */
+    private final LatencyHistogram _waitHistogram;
+    
+    /**
+     * 保持を開始した時刻 (ナノ秒) 計測していない場合は0
+     * 
+     * 保持しているスレッドのみが読み書きする。
+     */
+    private long _holdStart = 0;
+    
+    /**
+     * 保持を開始したコマンド名
+     */
+    private String _holdCommand = null;
+    
+}
+
@@ -0,0 +1,230 @@
+/**
+ * SimulationResult.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * シミュレーション結果
+ */
+public final class SimulationResult {
+    
+    /**
+     * コンストラクタ
+     */
+    public SimulationResult() {
+    }
+    
+    
+    
+    /**
+     * 局の結果を追加
+     * 
+     * @param status ゲーム終了状態。
+     * @param winner 和了者の風。流局の場合はnull。
+     */
+    public void add(final GameSetStatus status, final Wind winner) {
+        if (status == null) {
+            throw new NullPointerException("Game set status is null.");
+        }
+        
+        _handCount++;
+        switch (status) {
+        case COMPLETE_TSUMO:
+            _tsumoCount++;
+            break;
+        case COMPLETE_RON:
+            _ronCount++;
+            break;
+        case GAME_OVER:
+            _drawCount++;
+            break;
+        }
+        if (winner != null) {
+            _winCountArray[winner.ordinal()]++;
+        }
+    }
+    
+    /**
+     * 流局数を取得
+     * 
+     * @return 流局数。
+     */
+    public long getDrawCount() {
+        return _drawCount;
+    }
+    
+    /**
+     * 経過時間を取得
+     * 
+     * @return 経過時間。(ナノ秒)
+     */
+    public long getElapsedNanos() {
+        return _elapsedNanos;
+    }
+    
+    /**
+     * 局数を取得
+     * 
+     * @return 局数。
+     */
+    public long getHandCount() {
+        return _handCount;
+    }
+    
+    /**
+     * 1秒あたりの局数を取得
+     * 
+     * @return 1秒あたりの局数。
+     */
+    public double getHandsPerSecond() {
+        if (_elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return _handCount * 1000000000.0 / _elapsedNanos;
+    }
+    
+    /**
+     * ロン和了数を取得
+     * 
+     * @return ロン和了数。
+     */
+    public long getRonCount() {
+        return _ronCount;
+    }
+    
+    /**
+     * ツモ和了数を取得
+     * 
+     * @return ツモ和了数。
+     */
+    public long getTsumoCount() {
+        return _tsumoCount;
+    }
+    
+    /**
+     * 風ごとの和了数を取得
+     * 
+     * @param wind 風。
+     * @return 和了数。
+     */
+    public long getWinCount(final Wind wind) {
+        if (wind == null) {
+            throw new NullPointerException("Wind is null.");
+        }
+        return _winCountArray[wind.ordinal()];
+    }
+    
+    /**
+     * 別の結果を合算
+     * 
+     * @param source 合算元。
+     */
+    public void merge(final SimulationResult source) {
+        if (source == null) {
+            throw new NullPointerException("Source result is null.");
+        }
+        
+        _handCount += source._handCount;
+        _tsumoCount += source._tsumoCount;
+        _ronCount += source._ronCount;
+        _drawCount += source._drawCount;
+        for (int i = 0; i < _winCountArray.length; i++) {
+            _winCountArray[i] += source._winCountArray[i];
+        }
+    }
+    
+    /**
+     * 経過時間を設定
+     * 
+     * @param elapsedNanos 経過時間。(ナノ秒)
+     */
+    public void setElapsedNanos(final long elapsedNanos) {
+        _elapsedNanos = elapsedNanos;
+    }
+    
+    /**
+     * 集計結果を文字列リストに変換
+     * 
+     * @return 集計結果。
+     */
+    public List<String> toReport() {
+        final List<String> resultList = new ArrayList<>();
+        resultList.add(String.format("hands     : %,d (%.3f sec, %,.0f hands/sec)", _handCount, _elapsedNanos / 1000000000.0, getHandsPerSecond()));
+        resultList.add(String.format("draw      : %,d (%.2f%%)", _drawCount, getRate(_drawCount)));
+        resultList.add(String.format("tsumo     : %,d (%.2f%%)", _tsumoCount, getRate(_tsumoCount)));
+        resultList.add(String.format("ron       : %,d (%.2f%%)", _ronCount, getRate(_ronCount)));
+        for (final Wind wind : Wind.values()) {
+            resultList.add(String.format("win (%s) : %,d (%.2f%%)", wind, getWinCount(wind), getRate(getWinCount(wind))));
+        }
+        return resultList;
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return toReport().toString();
+    }
+    
+    
+    
+    /**
+     * 局数に対する割合を取得
+     * 
+     * @param count 件数。
+     * @return 割合。(百分率)
+     */
+    private double getRate(final long count) {
+        if (_handCount == 0) {
+            return 0.0;
+        }
+        return count * 100.0 / _handCount;
+    }
+    
+    
+    
+    /**
+     * 局数
+     */
+    private long _handCount = 0;
+    
+    /**
+     * ツモ和了数
+     */
+    private long _tsumoCount = 0;
+    
+    /**
+     * ロン和了数
+     */
+    private long _ronCount = 0;
+    
+    /**
+     * 流局数
+     */
+    private long _drawCount = 0;
+    
+    /**
+     * 風ごとの和了数
+     */
+    private final long[] _winCountArray = new long[Wind.values().length];
+    
+    /**
+     * 経過時間 (ナノ秒)
+     */
+    private long _elapsedNanos = 0;
+    
+}
+
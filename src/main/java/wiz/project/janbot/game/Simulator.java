@@ -0,0 +1,241 @@
+/**
+ * Simulator.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * 対局シミュレータ (NPCのみの卓を実況なしで回す)
+ * 
+ * NPCはツモ切り固定で和了宣言をしないため、配牌時の待ちに最初に当たった牌を和了とみなして集計する。
+ * 局ごとの牌山は種と局番号のみから決まるため、スレッド数によらず同じ結果になる。
+ */
+public final class Simulator {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param threadCount スレッド数。
+     */
+    public Simulator(final int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Invalid thread count - " + threadCount);
+        }
+        
+        _threadCount = threadCount;
+    }
+    
+    
+    
+    /**
+     * エントリポイント
+     * 
+     * @param paramList 実行引数リスト。(局数、乱数の種、スレッド数)
+     */
+    public static void main(final String[] paramList) {
+        if (paramList == null) {
+            throw new NullPointerException("Parameter list is null.");
+        }
+        
+        final int handCount = paramList.length > PARAM_INDEX_HAND_COUNT ? Integer.parseInt(paramList[PARAM_INDEX_HAND_COUNT]) : DEFAULT_HAND_COUNT;
+        final long seed = paramList.length > PARAM_INDEX_SEED ? Long.parseLong(paramList[PARAM_INDEX_SEED]) : DEFAULT_SEED;
+        final int threadCount = paramList.length > PARAM_INDEX_THREAD_COUNT ? Integer.parseInt(paramList[PARAM_INDEX_THREAD_COUNT]) : Runtime.getRuntime().availableProcessors();
+        
+        try {
+            final SimulationResult result = new Simulator(threadCount).run(seed, handCount);
+            System.out.println("threads   : " + threadCount + ", seed : " + seed);
+            for (final String line : result.toReport()) {
+                System.out.println(line);
+            }
+        }
+        catch (final Throwable e) {
+            e.printStackTrace();
+        }
+    }
+    
+    
+    
+    /**
+     * シミュレーションを実行
+     * 
+     * @param seed 乱数の種。
+     * @param handCount 局数。
+     * @return 集計結果。
+     * @throws InterruptedException 割り込みが発生した。
+     */
+    public SimulationResult run(final long seed, final int handCount) throws InterruptedException {
+        if (handCount < 0) {
+            throw new IllegalArgumentException("Invalid hand count - " + handCount);
+        }
+        
+        final long start = System.nanoTime();
+        final ExecutorService executor = Executors.newFixedThreadPool(_threadCount);
+        try {
+            final List<Future<SimulationResult>> futureList = new ArrayList<>();
+            for (int i = 0; i < _threadCount; i++) {
+                final int offset = i;
+                futureList.add(executor.submit(new Callable<SimulationResult>() {
+                    public SimulationResult call() throws JanException {
+                        final DeckFactory factory = DeckFactory.newSeededFactory(seed);
+                        final SimulationResult result = new SimulationResult();
+                        for (int index = offset; index < handCount; index += _threadCount) {
+                            simulate(factory, seed + index * SEED_STEP, result);
+                        }
+                        return result;
+                    }
+                }));
+            }
+            
+            final SimulationResult total = new SimulationResult();
+            for (final Future<SimulationResult> future : futureList) {
+                try {
+                    total.merge(future.get());
+                }
+                catch (final ExecutionException e) {
+                    throw new IllegalStateException("Simulation failed.", e.getCause());
+                }
+            }
+            total.setElapsedNanos(System.nanoTime() - start);
+            return total;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * 1局分をシミュレート
+     * 
+     * @param seed 乱数の種。
+     * @param index 局番号。
+     * @param result 集計先。
+     * @throws JanException ゲーム処理エラー。
+     */
+    public void simulate(final long seed, final int index, final SimulationResult result) throws JanException {
+        if (result == null) {
+            throw new NullPointerException("Result is null.");
+        }
+        
+        simulate(DeckFactory.newSeededFactory(seed), seed + index * SEED_STEP, result);
+    }
+    
+    
+    
+    /**
+     * 局の結果を判定
+     * 
+     * ツモ切りのみの場合、捨て牌はそのプレイヤーのツモ牌と一致し、手牌は配牌から変化しない。
+     * 
+     * @param info 終局時のゲーム情報。
+     * @param result 集計先。
+     */
+    private void judge(final JanInfo info, final SimulationResult result) {
+        final Wind[] windArray = Wind.values();
+        final long[] waitBitsArray = new long[windArray.length];
+        for (final Wind wind : windArray) {
+            waitBitsArray[wind.ordinal()] = WaitEngine.getInstance().getWaitBits(info.getHandCount(wind));
+        }
+        
+        Wind activeWind = Wind.TON;
+        for (int turn = 0; ; turn++) {
+            final List<JanPai> river = info.getRiver(activeWind);
+            final int riverIndex = turn / windArray.length;
+            if (riverIndex >= river.size()) {
+                break;
+            }
+            
+            final long paiBit = 1L << river.get(riverIndex).ordinal();
+            if ((waitBitsArray[activeWind.ordinal()] & paiBit) != 0L) {
+                result.add(GameSetStatus.COMPLETE_TSUMO, activeWind);
+                return;
+            }
+            
+            // 頭ハネ (打牌者の下家から順に判定)
+            for (Wind target = activeWind.getNext(); target != activeWind; target = target.getNext()) {
+                if ((waitBitsArray[target.ordinal()] & paiBit) != 0L) {
+                    result.add(GameSetStatus.COMPLETE_RON, target);
+                    return;
+                }
+            }
+            activeWind = activeWind.getNext();
+        }
+        result.add(GameSetStatus.GAME_OVER, null);
+    }
+    
+    /**
+     * 1局分をシミュレート (生成器を使い回す)
+     * 
+     * @param factory 牌山の生成器。
+     * @param deckSeed 牌山の種。
+     * @param result 集計先。
+     * @throws JanException ゲーム処理エラー。
+     */
+    private void simulate(final DeckFactory factory, final long deckSeed, final SimulationResult result) throws JanException {
+        // NPCのみのため、必ず流局まで進む
+        final SoloJanController controller = new SoloJanController();
+        controller.start(factory.createDeck(deckSeed).getPaiList(), PLAYER_TABLE);
+        judge(controller.getGameInfo(), result);
+    }
+    
+    
+    
+    /**
+     * プレイヤーテーブル (全員NPC)
+     */
+    private static final Map<Wind, Player> PLAYER_TABLE = new TreeMap<>();
+    
+    static {
+        for (final Wind wind : Wind.values()) {
+            PLAYER_TABLE.put(wind, new Player("COM_" + wind.name(), PlayerType.COM));
+        }
+    }
+    
+    /**
+     * 局ごとの種の間隔
+     */
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+    
+    /**
+     * 局数 (デフォルト)
+     */
+    private static final int DEFAULT_HAND_COUNT = 100000;
+    
+    /**
+     * 乱数の種 (デフォルト)
+     */
+    private static final long DEFAULT_SEED = 0L;
+    
+    /**
+     * 実行パラメータインデックス
+     */
+    private static final int PARAM_INDEX_HAND_COUNT   = 0;
+    private static final int PARAM_INDEX_SEED         = 1;
+    private static final int PARAM_INDEX_THREAD_COUNT = 2;
+    
+    
+    
+    /**
+     * スレッド数
+     */
+    private final int _threadCount;
+    
+}
+
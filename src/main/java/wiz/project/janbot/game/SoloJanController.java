@@ -9,22 +9,17 @@ package wiz.project.janbot.game;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Observer;
-import java.util.TreeMap;
 
 import wiz.project.jan.Hand;
 import wiz.project.jan.JanPai;
 import wiz.project.jan.MenTsu;
 import wiz.project.jan.MenTsuType;
 import wiz.project.jan.Wind;
-import wiz.project.jan.util.HandCheckUtil;
-import wiz.project.jan.util.JanPaiUtil;
 import wiz.project.janbot.game.exception.BoneheadException;
-import wiz.project.janbot.game.exception.CallableException;
-import wiz.project.janbot.game.exception.GameSetException;
 import wiz.project.janbot.game.exception.InvalidInputException;
 import wiz.project.janbot.game.exception.JanException;
 
@@ -32,6 +27,8 @@ import wiz.project.janbot.game.exception.JanException;
 
 /**
  * 麻雀コントローラ (ソロ)
+ * 
+ * スレッドセーフではない。卓から使う場合は卓のメールボックスの処理からのみ操作される。
  */
 class SoloJanController implements JanController {
     
@@ -44,13 +41,11 @@ class SoloJanController implements JanController {
     /**
      * コンストラクタ
      * 
-     * @param observer 監視者。
+     * @param listener イベントの購読者。
      */
-    public SoloJanController(final Observer observer) {
-        if (observer != null) {
-            synchronized (_GAME_INFO_LOCK) {
-                _info.addObserver(observer);
-            }
+    public SoloJanController(final GameEventListener listener) {
+        if (listener != null) {
+            _eventBus.subscribe(listener);
         }
     }
     
@@ -59,7 +54,7 @@ class SoloJanController implements JanController {
     /**
      * 副露
      */
-    public void call(final String playerName, final CallType type, final JanPai target) throws JanException {
+    public TurnResult call(final String playerName, final CallType type, final JanPai target) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -73,54 +68,55 @@ class SoloJanController implements JanController {
             throw new JanException("Game is not started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
-            if (!_info.isValidPlayer(playerName)) {
-                throw new IllegalArgumentException("Inavlid player name - " + playerName);
-            }
-            if (_info.getRemainCount() == 0) {
-                throw new BoneheadException("Can't call.");
-            }
-            
-            // 打牌したプレイヤーの風を記録
-            final Wind activeWind = _info.getActiveWind();
-            try {
-                // 副露宣言したプレイヤーをアクティブ化して判定
-                _info.setActivePlayer(playerName);
-                switch (type) {
-                case CHI:
-                    if (activeWind.getNext() != _info.getActiveWind()) {
-                        throw new InvalidInputException("Can't chi.");
-                    }
-                    callChi(target);
-                    break;
-                case PON:
-                    callPon();
-                    break;
-                case KAN_LIGHT:
-                    callKanLight(target);
-                    break;
-                case KAN_ADD:
-                    callKanAdd(target);
-                    break;
-                case KAN_DARK:
-                    callKanDark(target);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Invalid call type - " + type);
+        if (!_info.isValidPlayer(playerName)) {
+            throw new IllegalArgumentException("Inavlid player name - " + playerName);
+        }
+        if (_info.getRemainCount() == 0) {
+            throw new BoneheadException("Can't call.");
+        }
+        
+        // 打牌したプレイヤーの風を記録
+        final Wind activeWind = _info.getActiveWind();
+        try {
+            // 副露宣言したプレイヤーをアクティブ化して判定
+            _info.setActivePlayer(playerName);
+            switch (type) {
+            case CHI:
+                if (activeWind.getNext() != _info.getActiveWind()) {
+                    throw new InvalidInputException("Can't chi.");
                 }
+                callChi(target);
+                break;
+            case PON:
+                callPon();
+                break;
+            case KAN_LIGHT:
+                callKanLight(target);
+                break;
+            case KAN_ADD:
+                callKanAdd(target);
+                break;
+            case KAN_DARK:
+                callKanDark(target);
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid call type - " + type);
             }
-            catch (final Throwable e) {
-                // 副露しない場合、アクティブプレイヤーを元に戻す
-                _info.setActiveWind(activeWind);
-                throw e;
-            }
+            addAction(GameActionType.fromCallType(type), _info.getActiveWind(), target);
+            _phase = TurnPhase.WAIT_DISCARD;
+            return TurnResult.CONTINUE;
+        }
+        catch (final Throwable e) {
+            // 副露しない場合、アクティブプレイヤーを元に戻す
+            _info.setActiveWind(activeWind);
+            throw e;
         }
     }
     
     /**
      * 和了 (ロン)
      */
-    public void completeRon(final String playerName) throws JanException {
+    public TurnResult completeRon(final String playerName) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -131,85 +127,89 @@ class SoloJanController implements JanController {
             throw new JanException("Game is not started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
-            if (!_info.isValidPlayer(playerName)) {
-                throw new IllegalArgumentException("Inavlid player name - " + playerName);
-            }
-            
-            // 打牌したプレイヤーの風を記録
-            final Wind activeWind = _info.getActiveWind();
-            try {
-                // ロン宣言したプレイヤーをアクティブ化して判定
-                _info.setActivePlayer(playerName);
-                final JanPai discard = _info.getActiveDiscard();
-                final Map<JanPai, Integer> handWithDiscard = getHandMap(_info, _info.getActiveWind(), discard);
-                if (!HandCheckUtil.isComplete(handWithDiscard)) {
-                    // チョンボ
-                    throw new BoneheadException("Not completed.");
-                }
-                if (_info.getActiveRiver().contains(discard)) {
-                    // フリテン
-                    throw new BoneheadException("Furiten.");
-                }
-                
-                _onGame = false;
-                _info.notifyObservers(ANNOUNCE_FLAG_COMPLETE_RON);
+        if (!_info.isValidPlayer(playerName)) {
+            throw new IllegalArgumentException("Inavlid player name - " + playerName);
+        }
+        
+        // 打牌したプレイヤーの風を記録
+        final Wind activeWind = _info.getActiveWind();
+        try {
+            // ロン宣言したプレイヤーをアクティブ化して判定
+            _info.setActivePlayer(playerName);
+            final JanPai discard = _info.getActiveDiscard();
+            final JanPaiCount handWithDiscard = getHandCount(_info, _info.getActiveWind(), discard);
+            if (!WaitEngine.getInstance().isComplete(handWithDiscard)) {
+                // チョンボ
+                throw new BoneheadException("Not completed.");
             }
-            catch (final Throwable e) {
-                // 和了しない場合、アクティブプレイヤーを元に戻す
-                _info.setActiveWind(activeWind);
-                throw e;
+            if (_info.getActiveRiver().contains(discard)) {
+                // フリテン
+                throw new BoneheadException("Furiten.");
             }
+            
+            addAction(GameActionType.COMPLETE_RON, _info.getActiveWind(), null);
+            _onGame = false;
+            _phase = TurnPhase.END;
+            publish(GameEventType.AGARI, _info.getActiveWind(), discard, null, GameSetStatus.COMPLETE_RON, ANNOUNCE_FLAG_COMPLETE_RON);
+            return TurnResult.gameSet(GameSetStatus.COMPLETE_RON);
+        }
+        catch (final Throwable e) {
+            // 和了しない場合、アクティブプレイヤーを元に戻す
+            _info.setActiveWind(activeWind);
+            throw e;
         }
     }
     
     /**
      * 和了 (ツモ)
      */
-    public void completeTsumo() throws JanException {
+    public TurnResult completeTsumo() throws JanException {
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
-            final Map<JanPai, Integer> handWithTsumo = getHandMap(_info, _info.getActiveWind(), _info.getActiveTsumo());
-            if (!HandCheckUtil.isComplete(handWithTsumo)) {
-                // チョンボ
-                throw new BoneheadException("Not completed.");
-            }
-            
-            _onGame = false;
-            _info.notifyObservers(ANNOUNCE_FLAG_COMPLETE_TSUMO);
+        final JanPaiCount handWithTsumo = getHandCount(_info, _info.getActiveWind(), _info.getActiveTsumo());
+        if (!WaitEngine.getInstance().isComplete(handWithTsumo)) {
+            // チョンボ
+            throw new BoneheadException("Not completed.");
         }
+        
+        addAction(GameActionType.COMPLETE_TSUMO, _info.getActiveWind(), null);
+        _onGame = false;
+        _phase = TurnPhase.END;
+        publish(GameEventType.AGARI, _info.getActiveWind(), _info.getActiveTsumo(), null, GameSetStatus.COMPLETE_TSUMO, ANNOUNCE_FLAG_COMPLETE_TSUMO);
+        return TurnResult.gameSet(GameSetStatus.COMPLETE_TSUMO);
     }
     
     /**
      * 打牌 (ツモ切り)
      */
-    public void discard() throws JanException {
+    public TurnResult discard() throws JanException {
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
         
-        _firstPhase = false;
-        
         if (_afterCall) {
             throw new InvalidInputException("Tsumo pai is not exist.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
-            discardCore(_info.getActiveTsumo());
-            
-            // 次の打牌へ
-            _info.setActiveWindToNext();
-            onPhase();
+        // 打牌を受け付けた時点で初巡を終える
+        _firstPhase = false;
+        addAction(getDiscardActionType(), _info.getActiveWind(), _info.getActiveTsumo());
+        final TurnResult result = discardCore(_info.getActiveTsumo());
+        if (result.isCallable()) {
+            return result;
         }
+        
+        // 次の打牌へ
+        _info.setActiveWindToNext();
+        return onPhase();
     }
     
     /**
      * 打牌 (手出し)
      */
-    public void discard(final JanPai target) throws JanException {
+    public TurnResult discard(final JanPai target) throws JanException {
         if (target == null) {
             throw new NullPointerException("Discard target is null.");
         }
@@ -217,73 +217,151 @@ class SoloJanController implements JanController {
             throw new JanException("Game is not started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
-            final JanPai activeTsumo = _info.getActiveTsumo();
-            if (!_afterCall) {
-                if (target == activeTsumo) {
-                    // 直前のツモ牌が指定された
-                    discard();
-                    return;
-                }
-            }
-            
-            final Hand hand = _info.getActiveHand();
-            if (hand.getMenZenMap().get(target) <= 0) {
-                // 手牌に存在しないが指定された
-                throw new InvalidInputException("Invalid discard target - " + target);
-            }
-            
-            // 打牌
-            _firstPhase = false;
-            hand.removeJanPai(target);
-            if (!_afterCall) {
-                hand.addJanPai(activeTsumo);
+        final JanPai activeTsumo = _info.getActiveTsumo();
+        if (!_afterCall) {
+            if (target == activeTsumo) {
+                // 直前のツモ牌が指定された
+                return discard();
             }
-            _afterCall = false;
-            
-            final Wind activeWind = _info.getActiveWind();
-            _info.setHand(activeWind, hand);
-            
-            // 手変わりがあったので待ち判定更新
-            updateWaitList(_info, activeWind);
-            
-            discardCore(target);
-            
-            // 次の打牌へ
-            _info.setActiveWindToNext();
-            onPhase();
         }
+        
+        final Wind activeWind = _info.getActiveWind();
+        if (!_info.getHandCount(activeWind).contains(target)) {
+            // 手牌に存在しないが指定された
+            throw new InvalidInputException("Invalid discard target - " + target);
+        }
+        
+        final Hand hand = _info.getActiveHand();
+        
+        // 打牌
+        addAction(getDiscardActionType(), activeWind, target);
+        _firstPhase = false;
+        hand.removeJanPai(target);
+        if (!_afterCall) {
+            hand.addJanPai(activeTsumo);
+        }
+        _afterCall = false;
+        _info.setHand(activeWind, hand);
+        
+        // 手変わりがあったので待ち判定更新
+        updateWaitList(_info, activeWind);
+        
+        final TurnResult result = discardCore(target);
+        if (result.isCallable()) {
+            return result;
+        }
+        
+        // 次の打牌へ
+        _info.setActiveWindToNext();
+        return onPhase();
+    }
+    
+    /**
+     * 操作履歴を取得
+     */
+    public List<GameAction> getActionList() {
+        return Collections.unmodifiableList(new ArrayList<>(_actionList));
+    }
+    
+    /**
+     * イベント配信を取得
+     */
+    public GameEventBus getEventBus() {
+        return _eventBus;
     }
     
     /**
      * ゲーム情報を取得
      */
     public JanInfo getGameInfo() {
-        synchronized (_GAME_INFO_LOCK) {
-            return _info.clone();
-        }
+        return _info.snapshot();
+    }
+    
+    /**
+     * 手番の進行状態を取得
+     */
+    public TurnPhase getPhase() {
+        return _phase;
     }
     
     /**
      * 次のプレイヤーの打牌へ
      */
-    public void next() throws JanException {
+    public TurnResult next() throws JanException {
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
         
         _firstPhase = false;
         
-        synchronized (_GAME_INFO_LOCK) {
-            _info.setActiveWindToNext();
-            onPhase();
+        addAction(GameActionType.NEXT, _info.getActiveWind(), null);
+        _info.setActiveWindToNext();
+        return onPhase();
+    }
+    
+    /**
+     * 副露の見送り
+     * 
+     * 確認待ちの席は1つなので、次のプレイヤーの打牌へ進める。
+     */
+    public TurnResult pass(final String playerName) throws JanException {
+        return next();
+    }
+    
+    /**
+     * 操作履歴を再実行して開始
+     */
+    public TurnResult replay(final List<JanPai> deck, final Map<Wind, Player> playerTable, final List<GameAction> actionList, final int turn) throws JanException {
+        if (actionList == null) {
+            throw new NullPointerException("Action list is null.");
         }
+        if (turn <= 0) {
+            throw new IllegalArgumentException("Invalid turn - " + turn);
+        }
+        
+        // 指定巡目の打牌直前まで実況なしで進める
+        TurnResult result;
+        _muted = true;
+        try {
+            result = start(deck, playerTable);
+            int discardCount = 0;
+            for (final GameAction action : actionList) {
+                if (result.isGameSet()) {
+                    break;
+                }
+                if (action.getType().isDiscard()) {
+                    if (discardCount == turn - 1) {
+                        break;
+                    }
+                    discardCount++;
+                }
+                result = replayAction(action);
+            }
+        }
+        finally {
+            _muted = false;
+        }
+        
+        // 再開位置を実況
+        if (result.isGameSet()) {
+            final GameSetStatus status = result.getStatus();
+            if (status == GameSetStatus.COMPLETE_RON) {
+                publish(GameEventType.AGARI, _info.getActiveWind(), _info.getActiveDiscard(), null, status, ANNOUNCE_FLAG_COMPLETE_RON);
+            }
+            else if (status == GameSetStatus.COMPLETE_TSUMO) {
+                publish(GameEventType.AGARI, _info.getActiveWind(), _info.getActiveTsumo(), null, status, ANNOUNCE_FLAG_COMPLETE_TSUMO);
+            }
+        }
+        else if (_phase == TurnPhase.WAIT_DISCARD) {
+            publish(GameEventType.INFO, null, null, null, null, _afterCall ? ANNOUNCE_FLAG_HAND_AFTER_CALL : ANNOUNCE_FLAG_HAND_TSUMO_FIELD);
+        }
+        return result;
     }
     
     /**
      * リーチ
      */
-    public void richi(final JanPai target) throws JanException {
+    public TurnResult richi(final JanPai target) throws JanException {
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
@@ -293,13 +371,26 @@ class SoloJanController implements JanController {
         
         _onRichi = true;
         
-        discard(target);
+        _richiDeclared = true;
+        try {
+            return discard(target);
+        }
+        finally {
+            _richiDeclared = false;
+        }
+    }
+    
+    /**
+     * NPCの手番を自動で進めるか設定
+     */
+    public void setAutoPlay(final boolean autoPlay) {
+        _autoPlay = autoPlay;
     }
     
     /**
      * 開始
      */
-    public void start(final List<JanPai> deck, final Map<Wind, Player> playerTable) throws JanException {
+    public TurnResult start(final List<JanPai> deck, final Map<Wind, Player> playerTable) throws JanException {
         if (deck == null) {
             throw new NullPointerException("Deck is null.");
         }
@@ -316,50 +407,71 @@ class SoloJanController implements JanController {
             throw new JanException("Game is already started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
-            _onGame = true;
-            _info.clear();
-            
-            // 席決めと山積み
-            _info.setFieldWind(Wind.TON);
-            _info.setPlayerTable(playerTable);
-            _info.setDeck(deck);
-            
-            // 王牌を生成
-            final int deckSize = deck.size();
-            _info.setWanPai(new WanPai(new ArrayList<>(deck.subList(deckSize - 14, deckSize))));
-            
-            // 配牌
-            _info.setHand(Wind.TON, new Hand(new ArrayList<JanPai>(deck.subList( 0, 13))));
-            _info.setHand(Wind.NAN, new Hand(new ArrayList<JanPai>(deck.subList(13, 26))));
-            _info.setHand(Wind.SHA, new Hand(new ArrayList<JanPai>(deck.subList(26, 39))));
-            _info.setHand(Wind.PEI, new Hand(new ArrayList<JanPai>(deck.subList(39, 52))));
-            _info.setDeckIndex(13 * 4);
-            _info.setRemainCount(70);
-            
-            // 待ち判定
-            for (final Wind wind : Wind.values()) {
-                if (playerTable.get(wind).getType() == PlayerType.COM) {
-                    // NPCはツモ切り固定
-                    _completeWait.put(wind, new ArrayList<JanPai>());
-                    _chiWait.put(wind, new ArrayList<JanPai>());
-                    _ponWait.put(wind, new ArrayList<JanPai>());
-                }
-                else {
-                    updateWaitList(_info, wind);
-                }
+        _onGame = true;
+        _info.clear();
+        _actionList.clear();
+        
+        // 席決めと山積み
+        _info.setFieldWind(Wind.TON);
+        _info.setPlayerTable(playerTable);
+        _info.setDeck(deck);
+        
+        // 王牌を生成
+        final int deckSize = deck.size();
+        _info.setWanPai(new WanPai(new ArrayList<>(deck.subList(deckSize - 14, deckSize))));
+        
+        // 配牌
+        _info.setHand(Wind.TON, new Hand(new ArrayList<JanPai>(deck.subList( 0, 13))));
+        _info.setHand(Wind.NAN, new Hand(new ArrayList<JanPai>(deck.subList(13, 26))));
+        _info.setHand(Wind.SHA, new Hand(new ArrayList<JanPai>(deck.subList(26, 39))));
+        _info.setHand(Wind.PEI, new Hand(new ArrayList<JanPai>(deck.subList(39, 52))));
+        _info.setDeckIndex(13 * 4);
+        _info.setRemainCount(70);
+        
+        // 待ち判定
+        for (final Wind wind : Wind.values()) {
+            _waitIndexTable.put(wind, new WaitIndex());
+            if (playerTable.get(wind).getType() == PlayerType.COM) {
+                // NPCはツモ切り固定
+                continue;
             }
-            
-            // 1巡目
-            _onRichi = false;
-            _firstPhase = true;
-            _info.setActiveWind(Wind.TON);
-            onPhase();
+            updateWaitList(_info, wind);
+        }
+        
+        // 1巡目
+        _onRichi = false;
+        _firstPhase = true;
+        _info.setActiveWind(Wind.TON);
+        return onPhase();
+    }
+    
+    /**
+     * 1手番進める
+     */
+    public TurnResult step() throws JanException {
+        if (!_onGame) {
+            throw new JanException("Game is not started.");
         }
+        
+        if (_phase != TurnPhase.DRAW) {
+            return TurnResult.CONTINUE;
+        }
+        return stepCore();
     }
     
     
     
+    /**
+     * 操作を記録
+     * 
+     * @param type 操作の種類。
+     * @param wind 操作したプレイヤーの風。
+     * @param pai 対象牌。
+     */
+    private void addAction(final GameActionType type, final Wind wind, final JanPai pai) {
+        _actionList.add(new GameAction(type, wind, pai));
+    }
+    
     /**
      * チー
      * 
@@ -424,7 +536,7 @@ class SoloJanController implements JanController {
         
         // 捨て牌選択
         _afterCall = true;
-        _info.notifyObservers(ANNOUNCE_FLAG_HAND_AFTER_CALL);
+        publish(GameEventType.CALL, activeWind, discard, CallType.CHI, null, ANNOUNCE_FLAG_HAND_AFTER_CALL);
         
         // 手変わりに対する待ち判定更新は、ここではなく打牌時に行う。
     }
@@ -474,7 +586,7 @@ class SoloJanController implements JanController {
         postProcessKan(activeWind);
         
         // 捨て牌選択
-        _info.notifyObservers(ANNOUNCE_FLAG_HAND_TSUMO_FIELD_AFTER_CALL);
+        publish(GameEventType.CALL, activeWind, target, CallType.KAN_ADD, null, ANNOUNCE_FLAG_HAND_TSUMO_FIELD_AFTER_CALL);
     }
     
     /**
@@ -490,8 +602,8 @@ class SoloJanController implements JanController {
         
         final Wind activeWind = _info.getActiveWind();
         final JanPai activeTsumo = _info.getActiveTsumo();
-        final Map<JanPai, Integer> count = getHandMap(_info, activeWind, activeTsumo);
-        if (!count.containsKey(target) || count.get(target) < 4) {
+        final JanPaiCount count = getHandCount(_info, activeWind, activeTsumo);
+        if (count.get(target) < 4) {
             // 指定牌を4枚持っていない
             throw new InvalidInputException("Can't kan.");
         }
@@ -516,7 +628,7 @@ class SoloJanController implements JanController {
         postProcessKan(activeWind);
         
         // 捨て牌選択
-        _info.notifyObservers(ANNOUNCE_FLAG_HAND_TSUMO_FIELD_AFTER_CALL);
+        publish(GameEventType.CALL, activeWind, target, CallType.KAN_DARK, null, ANNOUNCE_FLAG_HAND_TSUMO_FIELD_AFTER_CALL);
     }
     
     /**
@@ -553,7 +665,7 @@ class SoloJanController implements JanController {
         postProcessKan(activeWind);
         
         // 捨て牌選択
-        _info.notifyObservers(ANNOUNCE_FLAG_HAND_TSUMO_FIELD_AFTER_CALL);
+        publish(GameEventType.CALL, activeWind, target, CallType.KAN_LIGHT, null, ANNOUNCE_FLAG_HAND_TSUMO_FIELD_AFTER_CALL);
     }
     
     /**
@@ -584,7 +696,7 @@ class SoloJanController implements JanController {
         
         // 捨て牌選択
         _afterCall = true;
-        _info.notifyObservers(ANNOUNCE_FLAG_HAND_AFTER_CALL);
+        publish(GameEventType.CALL, activeWind, discard, CallType.PON, null, ANNOUNCE_FLAG_HAND_AFTER_CALL);
         
         // 手変わりに対する待ち判定更新は、ここではなく打牌時に行う。
     }
@@ -593,12 +705,13 @@ class SoloJanController implements JanController {
      * 牌を切る
      * 
      * @param target 対象牌。
-     * @throws CallableException 副露が可能。
+     * @return 処理結果。
      */
-    private void discardCore(final JanPai target) throws CallableException {
+    private TurnResult discardCore(final JanPai target) {
         final Wind activeWind = _info.getActiveWind();
         _info.addDiscard(activeWind, target);
         _info.setActiveDiscard(target);
+        publish(GameEventType.DISCARD, activeWind, target, null, null, null);
         
         // 他家の待ち判定
         Wind targetWind = activeWind.getNext();
@@ -607,11 +720,13 @@ class SoloJanController implements JanController {
                 // NPCはツモ切り固定
                 final List<CallType> callableList = getCallableList(_info, activeWind, targetWind, target);
                 if (!callableList.isEmpty()) {
-                    throw new CallableException(callableList);
+                    _phase = TurnPhase.WAIT_CALL;
+                    return TurnResult.callable(callableList);
                 }
             }
             targetWind = targetWind.getNext();
         }
+        return TurnResult.CONTINUE;
     }
     
     /**
@@ -625,8 +740,9 @@ class SoloJanController implements JanController {
      */
     private List<CallType> getCallableList(final JanInfo info, final Wind activeWind, final Wind targetWind, final JanPai discard) {
         final List<CallType> callTypeList = new ArrayList<>();
+        final WaitIndex waitIndex = _waitIndexTable.get(targetWind);
         // ロン可能か
-        if (_completeWait.get(targetWind).contains(discard)) {
+        if (waitIndex.isCompleteWait(discard)) {
             callTypeList.add(CallType.RON);
         }
         
@@ -641,15 +757,15 @@ class SoloJanController implements JanController {
         
         // チー可能か
         if (activeWind.getNext() == targetWind) {
-            if (_chiWait.get(targetWind).contains(discard)) {
+            if (waitIndex.isChiWait(discard)) {
                 callTypeList.add(CallType.CHI);
             }
         }
         
         // ポン可能か
-        if (_ponWait.get(targetWind).contains(discard)) {
+        if (waitIndex.isPonWait(discard)) {
             callTypeList.add(CallType.PON);
-            if (info.getHand(targetWind).getMenZenJanPaiCount(discard) == 3) {
+            if (waitIndex.isKanWait(discard)) {
                 callTypeList.add(CallType.KAN_LIGHT);
             }
         }
@@ -657,46 +773,25 @@ class SoloJanController implements JanController {
     }
     
     /**
-     * チーの待ち牌リストを取得
+     * 記録する打牌の種類を取得
      * 
-     * @param hand クリーン済みの手牌マップ。
-     * @return チーの待ち牌リスト。
-     */
-    private List<JanPai> getChiWaitList(final Map<JanPai, Integer> hand) {
-        final List<JanPai> resultList = new ArrayList<>();
-        for (final JanPai pai : JanPai.values()) {
-            if (isCallableChi(hand, pai)) {
-                resultList.add(pai);
-            }
-        }
-        return resultList;
-    }
-    
-    /**
-     * プレイヤーの手牌マップを取得
-     * 
-     * @param info ゲーム情報。
-     * @param wind プレイヤーの風。
-     * @return プレイヤーの手牌マップ。
+     * @return 操作の種類。
      */
-    private Map<JanPai, Integer> getHandMap(final JanInfo info, final Wind wind) {
-        final Map<JanPai, Integer> hand = info.getHand(wind).getMenZenMap();
-        JanPaiUtil.cleanJanPaiMap(hand);
-        return hand;
+    private GameActionType getDiscardActionType() {
+        return _richiDeclared ? GameActionType.RICHI : GameActionType.DISCARD;
     }
     
     /**
-     * 指定牌込みでプレイヤーの手牌マップを取得
+     * 指定牌込みでプレイヤーの手牌の枚数表を取得
      * 
      * @param info ゲーム情報。
      * @param wind プレイヤーの風。
      * @param source 手牌に追加する牌。
-     * @return プレイヤーの手牌マップ。
+     * @return プレイヤーの手牌の枚数表。
      */
-    private Map<JanPai, Integer> getHandMap(final JanInfo info, final Wind wind, final JanPai source) {
-        final Map<JanPai, Integer> hand = info.getHand(wind).getMenZenMap();
-        JanPaiUtil.addJanPai(hand, source, 1);
-        JanPaiUtil.cleanJanPaiMap(hand);
+    private JanPaiCount getHandCount(final JanInfo info, final Wind wind, final JanPai source) {
+        final JanPaiCount hand = info.getHandCount(wind);
+        hand.add(source);
         return hand;
     }
     
@@ -711,22 +806,6 @@ class SoloJanController implements JanController {
         return pai;
     }
     
-    /**
-     * ポンの待ち牌リストを取得
-     * 
-     * @param hand クリーン済みの手牌マップ。
-     * @return ポンの待ち牌リスト。
-     */
-    private List<JanPai> getPonWaitList(final Map<JanPai, Integer> hand) {
-        final List<JanPai> resultList = new ArrayList<>();
-        for (final Map.Entry<JanPai, Integer> entry : hand.entrySet()) {
-            if (entry.getValue() >= 2) {
-                resultList.add(entry.getKey());
-            }
-        }
-        return resultList;
-    }
-    
     /**
      * 指定牌のポン面子を持っているか
      * 
@@ -746,53 +825,106 @@ class SoloJanController implements JanController {
     }
     
     /**
-     * チー可能か
+     * 巡目ごとの処理
      * 
-     * @param hand クリーン済みの手牌マップ。
-     * @param discard 捨て牌。
-     * @return 判定結果。
-     */
-    private boolean isCallableChi(final Map<JanPai, Integer> hand, final JanPai discard) {
-        if (discard.isJi()) {
-            return false;
-        }
-        
-        switch (discard) {
-        case MAN_1:
-        case PIN_1:
-        case SOU_1:
-            return hand.containsKey(discard.getNext()) && hand.containsKey(discard.getNext().getNext());
-        case MAN_2:
-        case PIN_2:
-        case SOU_2:
-            return (hand.containsKey(discard.getNext()) && hand.containsKey(discard.getNext().getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getNext()));
-        case MAN_8:
-        case PIN_8:
-        case SOU_8:
-            return (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getPrev().getPrev()));
-        case MAN_9:
-        case PIN_9:
-        case SOU_9:
-            return hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getPrev().getPrev());
+     * 自動進行中は、人間の手番か終局までNPCの手番を繰り返し処理する。
+     * 
+     * @return 処理結果。
+     */
+    private TurnResult onPhase() {
+        _phase = TurnPhase.DRAW;
+        TurnResult result = TurnResult.CONTINUE;
+        while (_autoPlay && _phase == TurnPhase.DRAW) {
+            result = stepCore();
+        }
+        return result;
+    }
+    
+    /**
+     * カンの後処理 (王牌操作)
+     * 
+     * @param activeWind アクティブプレイヤーの風。
+     */
+    private void postProcessKan(final Wind activeWind) {
+        // ドラを追加
+        final WanPai wanPai = _info.getWanPai();
+        wanPai.openNewDora();
+        
+        // 嶺上牌をツモる
+        final JanPai activeTsumo = wanPai.getWall();
+        _info.setActiveTsumo(activeTsumo);
+        _info.decreaseRemainCount();
+        _info.setWanPai(wanPai);
+        
+        // 手変わりがあったので待ち判定更新
+        updateWaitList(_info, activeWind);
+    }
+    
+    /**
+     * イベントを発行
+     * 
+     * 購読者がいない場合と再実行中はスナップショットを作らない。
+     * 
+     * @param type イベントの種類。
+     * @param wind 対象プレイヤーの風。
+     * @param pai 対象牌。
+     * @param callType 副露タイプ。
+     * @param status ゲーム終了状態。
+     * @param flagSet 実況フラグ。
+     */
+    private void publish(final GameEventType type,
+                         final Wind wind,
+                         final JanPai pai,
+                         final CallType callType,
+                         final GameSetStatus status,
+                         final EnumSet<AnnounceFlag> flagSet) {
+        if (!_muted && _eventBus.hasListener()) {
+            _eventBus.publish(new GameEvent(type, _info.snapshot(), wind, pai, callType, status, flagSet));
+        }
+    }
+    
+    /**
+     * 記録済みの操作を再実行
+     * 
+     * @param action 操作。
+     * @return 処理結果。
+     * @throws JanException 例外イベント。
+     */
+    private TurnResult replayAction(final GameAction action) throws JanException {
+        final String playerName = _info.getPlayer(action.getWind()).getName();
+        switch (action.getType()) {
+        case DISCARD:
+            return discard(action.getPai());
+        case RICHI:
+            return richi(action.getPai());
+        case CHI:
+        case PON:
+        case KAN_LIGHT:
+        case KAN_ADD:
+        case KAN_DARK:
+            return call(playerName, action.getType().toCallType(), action.getPai());
+        case NEXT:
+            return next();
+        case COMPLETE_RON:
+            return completeRon(playerName);
+        case COMPLETE_TSUMO:
+            return completeTsumo();
         default:
-            return (hand.containsKey(discard.getNext()) && hand.containsKey(discard.getNext().getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getPrev().getPrev()));
+            throw new InternalError();
         }
     }
     
     /**
-     * 巡目ごとの処理
+     * 1手番分の処理 (ツモとNPCの打牌)
      * 
-     * @throws CallableException 副露が可能。
-     * @throws GameSetException 局が終了した。
+     * @return 処理結果。
      */
-    private void onPhase() throws CallableException, GameSetException {
+    private TurnResult stepCore() {
         if (_info.getRemainCount() == 0) {
             _onGame = false;
-            throw new GameSetException(GameSetStatus.GAME_OVER);
+            _phase = TurnPhase.END;
+            publish(GameEventType.RYUKYOKU, null, null, null, GameSetStatus.GAME_OVER, null);
+            return TurnResult.gameSet(GameSetStatus.GAME_OVER);
         }
         
         // 牌をツモる
@@ -804,43 +936,29 @@ class SoloJanController implements JanController {
         final Player activePlayer = _info.getActivePlayer();
         switch (activePlayer.getType()) {
         case COM:
+            publish(GameEventType.TSUMO, _info.getActiveWind(), activeTsumo, null, null, null);
+            
             // ツモ切り
-            discardCore(activeTsumo);
+            final TurnResult result = discardCore(activeTsumo);
+            if (result.isCallable()) {
+                return result;
+            }
             
-            // 次巡へ
+            // 次巡へ (ツモ待ちのまま)
             _info.setActiveWindToNext();
-            onPhase();
-            return;
+            break;
         case HUMAN:
+            _phase = TurnPhase.WAIT_DISCARD;
             if (_firstPhase) {
                 _firstPhase = false;
-                _info.notifyObservers(ANNOUNCE_FLAG_HAND_TSUMO_FIELD);
+                publish(GameEventType.TSUMO, _info.getActiveWind(), activeTsumo, null, null, ANNOUNCE_FLAG_HAND_TSUMO_FIELD);
             }
             else {
-                _info.notifyObservers(ANNOUNCE_FLAG_HAND_TSUMO);
+                publish(GameEventType.TSUMO, _info.getActiveWind(), activeTsumo, null, null, ANNOUNCE_FLAG_HAND_TSUMO);
             }
             break;
         }
-    }
-    
-    /**
-     * カンの後処理 (王牌操作)
-     * 
-     * @param activeWind アクティブプレイヤーの風。
-     */
-    private void postProcessKan(final Wind activeWind) {
-        // ドラを追加
-        final WanPai wanPai = _info.getWanPai();
-        wanPai.openNewDora();
-        
-        // 嶺上牌をツモる
-        final JanPai activeTsumo = wanPai.getWall();
-        _info.setActiveTsumo(activeTsumo);
-        _info.decreaseRemainCount();
-        _info.setWanPai(wanPai);
-        
-        // 手変わりがあったので待ち判定更新
-        updateWaitList(_info, activeWind);
+        return TurnResult.CONTINUE;
     }
     
     /**
@@ -850,10 +968,7 @@ class SoloJanController implements JanController {
      * @param targetWind 更新対象の風。
      */
     private void updateWaitList(final JanInfo info, final Wind targetWind) {
-        final Map<JanPai, Integer> hand = getHandMap(info, targetWind);
-        _completeWait.put(targetWind, HandCheckUtil.getCompletableJanPaiList(hand));
-        _chiWait.put(targetWind, getChiWaitList(hand));
-        _ponWait.put(targetWind, getPonWaitList(hand));
+        _waitIndexTable.get(targetWind).update(info.getHandCount(targetWind));
     }
     
     
@@ -877,51 +992,64 @@ class SoloJanController implements JanController {
     
     
     /**
-     * ロックオブジェクト
+     * 麻雀ゲーム情報
      */
-    private final Object _GAME_INFO_LOCK = new Object();
-    
+    private JanInfo _info = new JanInfo();
     
+    /**
+     * イベント配信
+     */
+    private final GameEventBus _eventBus = new GameEventBus();
     
     /**
-     * 麻雀ゲーム情報
+     * 操作履歴
      */
-    private JanInfo _info = new JanInfo();
+    private final List<GameAction> _actionList = new ArrayList<>();
     
     /**
      * ゲーム中か
      */
-    private volatile boolean _onGame = false;
+    private boolean _onGame = false;
+    
+    /**
+     * 手番の進行状態
+     */
+    private TurnPhase _phase = TurnPhase.IDLE;
+    
+    /**
+     * NPCの手番を自動で進めるか
+     */
+    private boolean _autoPlay = true;
     
     /**
      * 初巡フラグ
      */
-    private volatile boolean _firstPhase = true;
+    private boolean _firstPhase = true;
     
     /**
      * リーチフラグ
      */
-    private volatile boolean _onRichi = false;
+    private boolean _onRichi = false;
     
     /**
      * 副露後の打牌フラグ
      */
-    private volatile boolean _afterCall = false;
+    private boolean _afterCall = false;
     
     /**
-     * 和了の待ち
+     * リーチ宣言中の打牌か
      */
-    private Map<Wind, List<JanPai>> _completeWait = Collections.synchronizedMap(new TreeMap<Wind, List<JanPai>>());
+    private boolean _richiDeclared = false;
     
     /**
-     * チーの待ち
+     * 再実行中で実況しないか
      */
-    private Map<Wind, List<JanPai>> _chiWait = Collections.synchronizedMap(new TreeMap<Wind, List<JanPai>>());
+    private boolean _muted = false;
     
     /**
-     * ポンの待ち
+     * 待ち判定テーブル
      */
-    private Map<Wind, List<JanPai>> _ponWait = Collections.synchronizedMap(new TreeMap<Wind, List<JanPai>>());
+    private final Map<Wind, WaitIndex> _waitIndexTable = new EnumMap<>(Wind.class);
     
 }
 
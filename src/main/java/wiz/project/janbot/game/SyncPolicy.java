@@ -0,0 +1,32 @@
+/**
+ * SyncPolicy.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * 牌譜書き込み時のディスク同期方針
+ */
+enum SyncPolicy {
+    
+    /**
+     * 同期しない (OSに任せる)
+     */
+    NONE,
+    
+    /**
+     * まとめて書き込んだ後に1回同期
+     */
+    BATCH,
+    
+    /**
+     * 1件ごとに同期
+     */
+    EVERY_RECORD,
+    
+}
+
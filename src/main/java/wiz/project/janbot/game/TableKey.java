@@ -0,0 +1,109 @@
+/**
+ * TableKey.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Objects;
+
+
+
+/**
+ * 卓のキー (チャンネル名 + プレイヤー名)
+ */
+final class TableKey {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     */
+    public TableKey(final String channel, final String playerName) {
+        if (channel != null) {
+            _channel = channel;
+        }
+        if (playerName != null) {
+            _playerName = playerName;
+        }
+    }
+    
+    
+    
+    /**
+     * 等価なオブジェクトか
+     * 
+     * @param target 比較対象。
+     * @return 比較結果。
+     */
+    @Override
+    public boolean equals(final Object target) {
+        if (target == null) {
+            return false;
+        }
+        if (this == target) {
+            return true;
+        }
+        if (!(target instanceof TableKey)) {
+            return false;
+        }
+        
+        final TableKey targetKey = (TableKey)target;
+        return _channel.equals(targetKey._channel) &&
+               _playerName.equals(targetKey._playerName);
+    }
+    
+    /**
+     * チャンネル名を取得
+     * 
+     * @return チャンネル名。
+     */
+    public String getChannel() {
+        return _channel;
+    }
+    
+    /**
+     * プレイヤー名を取得
+     * 
+     * @return プレイヤー名。
+     */
+    public String getPlayerName() {
+        return _playerName;
+    }
+    
+    /**
+     * ハッシュコードを取得
+     * 
+     * @return ハッシュコード。
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(_channel, _playerName);
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        return _channel + "/" + _playerName;
+    }
+    
+    
+    
+    /**
+     * チャンネル名
+     */
+    private String _channel = "";
+    
+    /**
+     * プレイヤー名
+     */
+    private String _playerName = "";
+    
+}
+
@@ -0,0 +1,387 @@
+/**
+ * TableMailbox.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * 卓のメールボックス
+ * 
+ * 投入された処理を投入順に1つずつ実行する。(同時に実行される処理は常に1つ)
+ * 実行スレッドは全ての卓で共有するスレッドプールから借りるので、別の卓の処理は並行に進む。
+ * 処理の間の受け渡しはキューのロックを経由するため、処理から触る状態にはロックも volatile も不要。
+ */
+final class TableMailbox implements Executor {
+    
+    /**
+     * コンストラクタ (共有のスレッドプールで実行)
+     */
+    public TableMailbox() {
+        this(SHARED_EXECUTOR);
+    }
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param executor 実行スレッドを借りる実行者。
+     */
+    public TableMailbox(final Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("Executor is null.");
+        }
+        _executor = executor;
+    }
+    
+    
+    
+    /**
+     * 処理を投入して結果を待つ
+     * 
+     * メールボックスの処理の中から呼ばれた場合は、その場で実行する。(自分自身の完了待ちを避ける)
+     * 待機は割り込みで中断しない。(割り込み状態は戻り時に復元する)
+     * 
+     * @param <T> 処理結果の型。
+     * @param task 処理。
+     * @return 処理結果。
+     * @throws JanException 処理でゲーム処理エラーが発生した。
+     */
+    public <T> T call(final Callable<T> task) throws JanException {
+        if (task == null) {
+            throw new NullPointerException("Task is null.");
+        }
+        
+        if (isOwner()) {
+            try {
+                return task.call();
+            }
+            catch (final Exception e) {
+                throw rethrow(e);
+            }
+        }
+        
+        final FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                }
+                catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+                catch (final ExecutionException e) {
+                    throw rethrow(e.getCause());
+                }
+            }
+        }
+        finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * 処理を投入 (完了を待たない)
+     * 
+     * @param task 処理。
+     */
+    public void execute(final Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("Task is null.");
+        }
+        
+        final Runnable entry = new Entry(task, System.nanoTime(), LockProfiler.getInstance().getCommand());
+        _MAILBOX_LOCK.lock();
+        try {
+            _queue.addLast(entry);
+            if (_running) {
+                return;
+            }
+            _running = true;
+        }
+        finally {
+            _MAILBOX_LOCK.unlock();
+        }
+        
+        try {
+            _executor.execute(new Runnable() {
+                public void run() {
+                    drain();
+                }
+            });
+        }
+        catch (final RuntimeException e) {
+            _MAILBOX_LOCK.lock();
+            try {
+                _queue.remove(entry);
+                _running = false;
+            }
+            finally {
+                _MAILBOX_LOCK.unlock();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * 未実行の処理の数を取得
+     * 
+     * @return 未実行の処理の数。
+     */
+    public int getPendingCount() {
+        _MAILBOX_LOCK.lock();
+        try {
+            return _queue.size();
+        }
+        finally {
+            _MAILBOX_LOCK.unlock();
+        }
+    }
+    
+    /**
+     * 現在のスレッドがメールボックスの処理を実行中か
+     * 
+     * @return 判定結果。
+     */
+    public boolean isOwner() {
+        return _owner == Thread.currentThread();
+    }
+    
+    
+    
+    /**
+     * 処理の例外を呼び出し元に投げ直す形に変換
+     * 
+     * @param cause 処理で発生した例外。
+     * @return 投げ直す例外。(非検査例外とエラーはここで投げる)
+     * @throws JanException ゲーム処理エラー。
+     */
+    private static JanException rethrow(final Throwable cause) throws JanException {
+        if (cause instanceof JanException) {
+            throw (JanException)cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException)cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error)cause;
+        }
+        throw new IllegalStateException(cause);
+    }
+    
+    /**
+     * 溜まった処理を順に実行
+     */
+    private void drain() {
+        _owner = Thread.currentThread();
+        boolean drained = false;
+        try {
+            while (true) {
+                final Runnable task;
+                _MAILBOX_LOCK.lock();
+                try {
+                    task = _queue.pollFirst();
+                    if (task == null) {
+                        _running = false;
+                        drained = true;
+                        return;
+                    }
+                }
+                finally {
+                    _MAILBOX_LOCK.unlock();
+                }
+                
+                try {
+                    task.run();
+                }
+                catch (final RuntimeException e) {
+                    // 完了を待たない処理の例外は、後続の処理を止めないよう捨てる
+                    e.printStackTrace();
+                }
+            }
+        }
+        finally {
+            _owner = null;
+            if (!drained) {
+                // エラーで抜けた場合も、残りの処理は別のスレッドに引き継ぐ
+                restartDrain();
+            }
+        }
+    }
+    
+    /**
+     * 残りの処理を別のスレッドで再開
+     * 
+     * 再開できない場合は実行中の状態だけ解除し、次の投入時に再開させる。
+     */
+    private void restartDrain() {
+        _MAILBOX_LOCK.lock();
+        try {
+            if (_queue.isEmpty()) {
+                _running = false;
+                return;
+            }
+        }
+        finally {
+            _MAILBOX_LOCK.unlock();
+        }
+        
+        try {
+            _executor.execute(new Runnable() {
+                public void run() {
+                    drain();
+                }
+            });
+        }
+        catch (final RuntimeException e) {
+            _MAILBOX_LOCK.lock();
+            try {
+                _running = false;
+            }
+            finally {
+                _MAILBOX_LOCK.unlock();
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 全ての卓で共有する実行スレッド
+     */
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(task, "TableMailbox-" + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    
+    /**
+     * 生成した実行スレッドの数
+     */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    
+    /**
+     * ロック名
+     */
+    private static final String LOCK_NAME = "table.mailbox";
+    
+    
+    
+    /**
+     * ロックオブジェクト
+     */
+    private final ProfiledLock _MAILBOX_LOCK = new ProfiledLock("table.mailbox.queue");
+    
+    
+    
+    /**
+     * 実行スレッドを借りる実行者
+     */
+    private final Executor _executor;
+    
+    /**
+     * 未実行の処理
+     */
+    private final Deque<Runnable> _queue = new ArrayDeque<>();
+    
+    /**
+     * 実行スレッドを借りているか
+     */
+    private boolean _running = false;
+    
+    /**
+     * 処理を実行中のスレッド
+     */
+    private volatile Thread _owner = null;
+    
+    
+    
+    /**
+     * 投入された処理
+     */
+    private static final class Entry implements Runnable {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param task 処理。
+         * @param submitTime 投入時刻。(ナノ秒)
+         * @param command 投入したコマンド名。
+         */
+        public Entry(final Runnable task, final long submitTime, final String command) {
+            _task = task;
+            _submitTime = submitTime;
+            _command = command;
+        }
+        
+        
+        
+        /**
+         * 処理を実行
+         * 
+         * 投入から実行開始までを卓の処理待ち時間として記録し、計測が有効な場合は実行時間も記録する。
+         */
+        public void run() {
+            final long startTime = System.nanoTime();
+            GameMetrics.getInstance().getTableWaitHistogram().record(startTime - _submitTime);
+            
+            final LockProfiler profiler = LockProfiler.getInstance();
+            final boolean profiling = profiler.isEnabled();
+            if (profiling) {
+                profiler.recordWait(LOCK_NAME, _command, startTime - _submitTime);
+            }
+            profiler.setCommand(_command);
+            try {
+                _task.run();
+            }
+            finally {
+                profiler.clearCommand();
+                if (profiling) {
+                    profiler.recordHold(LOCK_NAME, _command, System.nanoTime() - startTime);
+                }
+            }
+        }
+        
+        
+        
+        /**
+         * 処理
+         */
+        private final Runnable _task;
+        
+        /**
+         * 投入時刻 (ナノ秒)
+         */
+        private final long _submitTime;
+        
+        /**
+         * 投入したコマンド名
+         */
+        private final String _command;
+        
+    }
+    
+}
+
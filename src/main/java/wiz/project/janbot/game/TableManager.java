@@ -0,0 +1,163 @@
+/**
+ * TableManager.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+
+/**
+ * 卓管理
+ */
+final class TableManager {
+    
+    /**
+     * コンストラクタ
+     */
+    public TableManager() {
+    }
+    
+    
+    
+    /**
+     * 全ての卓を閉じる
+     * 
+     * @return 閉じた卓のリスト。
+     */
+    public List<GameTable> closeAll() {
+        _REGISTRY_LOCK.lock();
+        try {
+            final List<GameTable> tableList = new ArrayList<>(_tableMap.values());
+            _tableMap.clear();
+            _seatMap.clear();
+            return tableList;
+        }
+        finally {
+            _REGISTRY_LOCK.unlock();
+        }
+    }
+    
+    /**
+     * 卓を閉じる
+     * 
+     * @param table 対象卓。
+     */
+    public void close(final GameTable table) {
+        if (table == null) {
+            throw new NullPointerException("Table is null.");
+        }
+        
+        _REGISTRY_LOCK.lock();
+        try {
+            _tableMap.remove(table.getKey(), table);
+            for (final String playerName : table.getPlayerNameList()) {
+                _seatMap.remove(new TableKey(table.getKey().getChannel(), playerName), table);
+            }
+        }
+        finally {
+            _REGISTRY_LOCK.unlock();
+        }
+    }
+    
+    /**
+     * プレイヤーが着席している卓を取得
+     * 
+     * @param channel チャンネル名。
+     * @param playerName プレイヤー名。
+     * @return 着席中の卓。存在しない場合はnull。
+     */
+    public GameTable getTable(final String channel, final String playerName) {
+        if (channel == null) {
+            throw new NullPointerException("Channel name is null.");
+        }
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
+        
+        return _seatMap.get(new TableKey(channel, playerName));
+    }
+    
+    /**
+     * 卓の数を取得
+     * 
+     * @return 卓の数。
+     */
+    public int getTableCount() {
+        return _tableMap.size();
+    }
+    
+    /**
+     * 卓リストを取得
+     * 
+     * @return 卓リスト。
+     */
+    public List<GameTable> getTableList() {
+        return new ArrayList<>(_tableMap.values());
+    }
+    
+    /**
+     * 卓を開く
+     * 
+     * @param channel チャンネル名。
+     * @param playerNameList 着席するプレイヤー名のリスト。先頭が卓の主となる。
+     * @return 開いた卓。いずれかのプレイヤーが着席済みの場合はnull。
+     */
+    public GameTable open(final String channel, final List<String> playerNameList) {
+        if (channel == null) {
+            throw new NullPointerException("Channel name is null.");
+        }
+        if (playerNameList == null) {
+            throw new NullPointerException("Player name list is null.");
+        }
+        if (playerNameList.isEmpty()) {
+            throw new IllegalArgumentException("Player name list is empty.");
+        }
+        
+        _REGISTRY_LOCK.lock();
+        try {
+            for (final String playerName : playerNameList) {
+                if (_seatMap.containsKey(new TableKey(channel, playerName))) {
+                    return null;
+                }
+            }
+            
+            final GameTable table = new GameTable(new TableKey(channel, playerNameList.get(0)), playerNameList);
+            _tableMap.put(table.getKey(), table);
+            for (final String playerName : playerNameList) {
+                _seatMap.put(new TableKey(channel, playerName), table);
+            }
+            return table;
+        }
+        finally {
+            _REGISTRY_LOCK.unlock();
+        }
+    }
+    
+    
+    
+    /**
+     * ロックオブジェクト (卓の登録・削除)
+     */
+    private final ProfiledLock _REGISTRY_LOCK = new ProfiledLock("table_manager.registry");
+    
+    
+    
+    /**
+     * 卓テーブル (キーは卓の主)
+     */
+    private final ConcurrentMap<TableKey, GameTable> _tableMap = new ConcurrentHashMap<>();
+    
+    /**
+     * 着席テーブル (キーは着席中のプレイヤー)
+     */
+    private final ConcurrentMap<TableKey, GameTable> _seatMap = new ConcurrentHashMap<>();
+    
+}
+
@@ -0,0 +1,53 @@
+/**
+ * TurnPhase.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+
+
+/**
+ * 手番の進行状態
+ */
+public enum TurnPhase {
+    
+    /**
+     * 開始前
+     */
+    IDLE,
+    
+    /**
+     * ツモ待ち (次の手番へ進める)
+     */
+    DRAW,
+    
+    /**
+     * 打牌待ち
+     */
+    WAIT_DISCARD,
+    
+    /**
+     * 副露・和了の宣言待ち
+     */
+    WAIT_CALL,
+    
+    /**
+     * 終局
+     */
+    END;
+    
+    
+    
+    /**
+     * プレイヤーの入力待ちか
+     * 
+     * @return 判定結果。
+     */
+    public boolean isWaiting() {
+        return this == WAIT_DISCARD || this == WAIT_CALL;
+    }
+    
+}
+
@@ -0,0 +1,193 @@
+/**
+ * TurnResult.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * 手番の処理結果 (副露の確認待ち、または局の終了を通知する)
+ */
+public final class TurnResult {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param callTypeList 可能な副露タイプリスト。
+     * @param callableTable 席ごとの可能な副露タイプリスト。
+     * @param status ゲーム終了状態。終了していない場合はnull。
+     */
+    private TurnResult(final List<CallType> callTypeList, final Map<String, List<CallType>> callableTable, final GameSetStatus status) {
+        _callTypeList = callTypeList;
+        _callableTable = callableTable;
+        _status = status;
+    }
+    
+    
+    
+    /**
+     * 副露確認待ちの結果を生成
+     * 
+     * @param callTypeList 可能な副露タイプリスト。
+     * @return 処理結果。
+     */
+    public static TurnResult callable(final List<CallType> callTypeList) {
+        if (callTypeList == null) {
+            throw new NullPointerException("Call type list is null.");
+        }
+        if (callTypeList.isEmpty()) {
+            throw new IllegalArgumentException("Call type list is empty.");
+        }
+        return new TurnResult(Collections.unmodifiableList(new ArrayList<>(callTypeList)), Collections.<String, List<CallType>>emptyMap(), null);
+    }
+    
+    /**
+     * 副露確認待ちの結果を生成 (副露できる席が複数ある場合)
+     * 
+     * @param callableTable 席ごとの可能な副露タイプリスト。(プレイヤー名をキーとする)
+     * @return 処理結果。
+     */
+    public static TurnResult callable(final Map<String, List<CallType>> callableTable) {
+        if (callableTable == null) {
+            throw new NullPointerException("Callable table is null.");
+        }
+        if (callableTable.isEmpty()) {
+            throw new IllegalArgumentException("Callable table is empty.");
+        }
+        
+        final EnumSet<CallType> callTypeSet = EnumSet.noneOf(CallType.class);
+        final Map<String, List<CallType>> table = new LinkedHashMap<>();
+        for (final Map.Entry<String, List<CallType>> entry : callableTable.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                throw new IllegalArgumentException("Call type list is empty - " + entry.getKey());
+            }
+            callTypeSet.addAll(entry.getValue());
+            table.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        return new TurnResult(Collections.unmodifiableList(new ArrayList<>(callTypeSet)), Collections.unmodifiableMap(table), null);
+    }
+    
+    /**
+     * 局の終了結果を取得
+     * 
+     * @param status ゲーム終了状態。
+     * @return 処理結果。
+     */
+    public static TurnResult gameSet(final GameSetStatus status) {
+        if (status == null) {
+            throw new NullPointerException("Game set status is null.");
+        }
+        return GAME_SET_TABLE.get(status);
+    }
+    
+    
+    
+    /**
+     * 席ごとの可能な副露タイプリストを取得
+     * 
+     * @return 席ごとの可能な副露タイプリスト。(プレイヤー名をキーとする、変更不可) 席の指定がない場合は空。
+     */
+    public Map<String, List<CallType>> getCallableTable() {
+        return _callableTable;
+    }
+    
+    /**
+     * 可能な副露タイプリストを取得
+     * 
+     * @return 可能な副露タイプリスト。(全ての席の合計、変更不可)
+     */
+    public List<CallType> getCallTypeList() {
+        return _callTypeList;
+    }
+    
+    /**
+     * ゲーム終了状態を取得
+     * 
+     * @return ゲーム終了状態。終了していない場合はnull。
+     */
+    public GameSetStatus getStatus() {
+        return _status;
+    }
+    
+    /**
+     * 副露確認待ちか
+     * 
+     * @return 判定結果。
+     */
+    public boolean isCallable() {
+        return !_callTypeList.isEmpty();
+    }
+    
+    /**
+     * 局が終了したか
+     * 
+     * @return 判定結果。
+     */
+    public boolean isGameSet() {
+        return _status != null;
+    }
+    
+    /**
+     * 文字列に変換
+     * 
+     * @return 変換結果。
+     */
+    @Override
+    public String toString() {
+        if (isGameSet()) {
+            return "[GameSet] " + _status;
+        }
+        if (isCallable()) {
+            return "[Callable] " + (_callableTable.isEmpty() ? _callTypeList : _callableTable);
+        }
+        return "[Continue]";
+    }
+    
+    
+    
+    /**
+     * 処理結果 (続行)
+     */
+    public static final TurnResult CONTINUE = new TurnResult(Collections.<CallType>emptyList(), Collections.<String, List<CallType>>emptyMap(), null);
+    
+    /**
+     * 局の終了結果テーブル (状態ごとに共有する)
+     */
+    private static final Map<GameSetStatus, TurnResult> GAME_SET_TABLE = new EnumMap<>(GameSetStatus.class);
+    
+    static {
+        for (final GameSetStatus status : GameSetStatus.values()) {
+            GAME_SET_TABLE.put(status, new TurnResult(Collections.<CallType>emptyList(), Collections.<String, List<CallType>>emptyMap(), status));
+        }
+    }
+    
+    
+    
+    /**
+     * 可能な副露タイプリスト
+     */
+    private final List<CallType> _callTypeList;
+    
+    /**
+     * 席ごとの可能な副露タイプリスト
+     */
+    private final Map<String, List<CallType>> _callableTable;
+    
+    /**
+     * ゲーム終了状態
+     */
+    private final GameSetStatus _status;
+    
+}
+
@@ -6,31 +6,44 @@ package wiz.project.janbot.game;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import wiz.project.jan.Hand;
 import wiz.project.jan.JanPai;
 import wiz.project.jan.Wind;
-import wiz.project.jan.util.HandCheckUtil;
-import wiz.project.jan.util.JanPaiUtil;
-import wiz.project.janbot.game.exception.CallableException;
-import wiz.project.janbot.game.exception.GameSetException;
+import wiz.project.janbot.game.exception.InvalidInputException;
 import wiz.project.janbot.game.exception.JanException;
 
 
 
 /**
  * 麻雀コントローラ (対戦)
+ * 
+ * 打牌ごとに副露の受付を開き、複数の人間の応答を集めて、決着した時点で結果を適用する。
+ * スレッドセーフではない。操作は全て卓のメールボックスから行い、時間切れ処理も同じ実行者に投入する。
  */
 class VSJanController implements JanController {
     
     /**
      * コンストラクタ
+     * 
+     * @param executor 時間切れ処理を投入する実行者。(操作を行うメールボックス)
      */
-    public VSJanController() {
+    public VSJanController(final Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("Executor is null.");
+        }
+        _executor = executor;
     }
     
     
@@ -38,7 +51,7 @@ class VSJanController implements JanController {
     /**
      * 副露
      */
-    public void call(final String playerName, final CallType type, final JanPai target) throws JanException {
+    public TurnResult call(final String playerName, final CallType type, final JanPai target) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -52,14 +65,18 @@ class VSJanController implements JanController {
             throw new JanException("Game is not started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
+        final CallWindow window = _callWindow;
+        if (window != null) {
+            return respond(window, playerName, type);
         }
+        
+        return TurnResult.CONTINUE;
     }
     
     /**
      * 和了 (ロン)
      */
-    public void completeRon(final String playerName) throws JanException {
+    public TurnResult completeRon(final String playerName) throws JanException {
         if (playerName == null) {
             throw new NullPointerException("Player name is null.");
         }
@@ -70,35 +87,38 @@ class VSJanController implements JanController {
             throw new JanException("Game is not started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
+        final CallWindow window = _callWindow;
+        if (window == null) {
+            throw new InvalidInputException("Can't ron.");
         }
+        return respond(window, playerName, CallType.RON);
     }
     
     /**
      * 和了 (ツモ)
      */
-    public void completeTsumo() throws JanException {
+    public TurnResult completeTsumo() throws JanException {
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
-        }
+        return TurnResult.CONTINUE;
     }
     
     /**
      * 打牌 (ツモ切り)
      */
-    public void discard() throws JanException {
+    public TurnResult discard() throws JanException {
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
+        return TurnResult.CONTINUE;
     }
     
     /**
      * 打牌 (手出し)
      */
-    public void discard(final JanPai target) throws JanException {
+    public TurnResult discard(final JanPai target) throws JanException {
         if (target == null) {
             throw new NullPointerException("Discard target is null.");
         }
@@ -106,45 +126,126 @@ class VSJanController implements JanController {
             throw new JanException("Game is not started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
-        }
+        return TurnResult.CONTINUE;
+    }
+    
+    /**
+     * 操作履歴を取得
+     */
+    public List<GameAction> getActionList() {
+        return Collections.emptyList();
+    }
+    
+    /**
+     * イベント配信を取得
+     */
+    public GameEventBus getEventBus() {
+        return _eventBus;
     }
     
     /**
      * ゲーム情報を取得
      */
     public JanInfo getGameInfo() {
-        synchronized (_GAME_INFO_LOCK) {
-            return _info.clone();
-        }
+        return _info.snapshot();
+    }
+    
+    /**
+     * 手番の進行状態を取得
+     */
+    public TurnPhase getPhase() {
+        return _phase;
     }
     
     /**
      * 次のプレイヤーの打牌へ
+     * 
+     * 副露の受付中は何もしない。(見送りは pass() で席ごとに応答し、未応答の席は時間切れで締め切る)
+     */
+    public TurnResult next() throws JanException {
+        if (!_onGame) {
+            throw new JanException("Game is not started.");
+        }
+        
+        return TurnResult.CONTINUE;
+    }
+    
+    /**
+     * 副露の見送り
+     * 
+     * 応答した席のみ見送り扱いにする。
      */
-    public void next() throws JanException {
+    public TurnResult pass(final String playerName) throws JanException {
+        if (playerName == null) {
+            throw new NullPointerException("Player name is null.");
+        }
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
+        final CallWindow window = _callWindow;
+        if (window == null) {
+            return TurnResult.CONTINUE;
         }
+        
+        final Wind wind = getWind(playerName);
+        if (!window.isPending(wind)) {
+            return TurnResult.CONTINUE;
+        }
+        window.pass(wind);
+        return applyCallWindow(window);
+    }
+    
+    /**
+     * 操作履歴を再実行して開始
+     */
+    public TurnResult replay(final List<JanPai> deck, final Map<Wind, Player> playerTable, final List<GameAction> actionList, final int turn) throws JanException {
+        throw new JanException("Replay is not supported.");
     }
     
     /**
      * リーチ
      */
-    public void richi(final JanPai target) throws JanException {
+    public TurnResult richi(final JanPai target) throws JanException {
         if (!_onGame) {
             throw new JanException("Game is not started.");
         }
         
+        return TurnResult.CONTINUE;
+    }
+    
+    /**
+     * 副露の受付時間を設定
+     * 
+     * @param timeout 受付時間。(ミリ秒) 時間切れの席は見送り扱い。
+     */
+    public void setCallTimeout(final long timeout) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Invalid timeout - " + timeout);
+        }
+        _callTimeout = timeout;
+    }
+    
+    /**
+     * NPCの手番を自動で進めるか設定
+     */
+    public void setAutoPlay(final boolean autoPlay) {
+        _autoPlay = autoPlay;
+    }
+    
+    /**
+     * 副露の受付の時間切れの通知先を設定
+     * 
+     * @param listener 通知先。nullの場合は通知しない。
+     */
+    public void setCallWindowListener(final CallWindowListener listener) {
+        _callWindowListener = listener;
     }
     
     /**
      * 開始
      */
-    public void start(final List<JanPai> deck, final Map<Wind, Player> playerTable) throws JanException {
+    public TurnResult start(final List<JanPai> deck, final Map<Wind, Player> playerTable) throws JanException {
         if (deck == null) {
             throw new NullPointerException("Deck is null.");
         }
@@ -161,60 +262,109 @@ class VSJanController implements JanController {
             throw new JanException("Game is already started.");
         }
         
-        synchronized (_GAME_INFO_LOCK) {
-            _onGame = true;
-            _info.clear();
-            
-            // 席決めと山積み
-            _info.setFieldWind(Wind.TON);
-            _info.setPlayerTable(playerTable);
-            _info.setDeck(deck);
-            
-            // 王牌を生成
-            final int deckSize = deck.size();
-            _info.setWanPai(new WanPai(new ArrayList<>(deck.subList(deckSize - 14, deckSize))));
-            
-            // 配牌
-            _info.setHand(Wind.TON, new Hand(new ArrayList<JanPai>(deck.subList( 0, 13))));
-            _info.setHand(Wind.NAN, new Hand(new ArrayList<JanPai>(deck.subList(13, 26))));
-            _info.setHand(Wind.SHA, new Hand(new ArrayList<JanPai>(deck.subList(26, 39))));
-            _info.setHand(Wind.PEI, new Hand(new ArrayList<JanPai>(deck.subList(39, 52))));
-            _info.setDeckIndex(13 * 4);
-            _info.setRemainCount(70);
-            
-            // 待ち判定
-            for (final Wind wind : Wind.values()) {
-                if (playerTable.get(wind).getType() == PlayerType.COM) {
-                    // NPCはツモ切り固定
-                    _completeWait.put(wind, new ArrayList<JanPai>());
-                    _chiWait.put(wind, new ArrayList<JanPai>());
-                    _ponWait.put(wind, new ArrayList<JanPai>());
-                }
-                else {
-                    updateWaitList(_info, wind);
-                }
+        _onGame = true;
+        _info.clear();
+        
+        // 席決めと山積み
+        _info.setFieldWind(Wind.TON);
+        _info.setPlayerTable(playerTable);
+        _info.setDeck(deck);
+        
+        // 王牌を生成
+        final int deckSize = deck.size();
+        _info.setWanPai(new WanPai(new ArrayList<>(deck.subList(deckSize - 14, deckSize))));
+        
+        // 配牌
+        _info.setHand(Wind.TON, new Hand(new ArrayList<JanPai>(deck.subList( 0, 13))));
+        _info.setHand(Wind.NAN, new Hand(new ArrayList<JanPai>(deck.subList(13, 26))));
+        _info.setHand(Wind.SHA, new Hand(new ArrayList<JanPai>(deck.subList(26, 39))));
+        _info.setHand(Wind.PEI, new Hand(new ArrayList<JanPai>(deck.subList(39, 52))));
+        _info.setDeckIndex(13 * 4);
+        _info.setRemainCount(70);
+        
+        // 待ち判定
+        for (final Wind wind : Wind.values()) {
+            _waitIndexTable.put(wind, new WaitIndex());
+            if (playerTable.get(wind).getType() == PlayerType.COM) {
+                // NPCはツモ切り固定
+                continue;
             }
-            
-            _info.notifyObservers(ANNOUNCE_FLAG_GAME_START);
-            
-            // 1巡目
-            _info.setActiveWind(Wind.TON);
-            onPhase();
+            updateWaitList(_info, wind);
+        }
+        
+        publish(GameEventType.INFO, null, null, null, null, ANNOUNCE_FLAG_GAME_START);
+        
+        // 1巡目
+        _info.setActiveWind(Wind.TON);
+        return onPhase();
+    }
+    
+    /**
+     * 1手番進める
+     */
+    public TurnResult step() throws JanException {
+        if (!_onGame) {
+            throw new JanException("Game is not started.");
         }
+        
+        if (_phase != TurnPhase.DRAW) {
+            return TurnResult.CONTINUE;
+        }
+        return stepCore();
     }
     
     
     
+    /**
+     * 副露の受付の決着を適用
+     * 
+     * 決着していない場合や、既に適用済みの場合は何もしない。
+     * 
+     * @param window 副露の受付。
+     * @return 処理結果。
+     */
+    private TurnResult applyCallWindow(final CallWindow window) {
+        if (!window.takeDecision()) {
+            return TurnResult.CONTINUE;
+        }
+        
+        if (_callWindow != window) {
+            // 終了済みの局の受付
+            return TurnResult.CONTINUE;
+        }
+        _callWindow = null;
+        if (_callTimeoutFuture != null) {
+            // 早く決着した受付の時間切れの予約は取り消す
+            _callTimeoutFuture.cancel(false);
+            _callTimeoutFuture = null;
+        }
+        
+        final Wind winnerWind = window.getWinnerWind();
+        if (winnerWind == null) {
+            // 全員見送り
+            _info.setActiveWindToNext();
+            return onPhase();
+        }
+        
+        // 受付はロンのみ
+        _info.setActiveWind(winnerWind);
+        _onGame = false;
+        _phase = TurnPhase.END;
+        publish(GameEventType.AGARI, winnerWind, window.getDiscard(), null, GameSetStatus.COMPLETE_RON, ANNOUNCE_FLAG_COMPLETE_RON);
+        return TurnResult.gameSet(GameSetStatus.COMPLETE_RON);
+    }
+    
     /**
      * 牌を切る
      * 
      * @param target 対象牌。
-     * @throws CallableException 副露が可能。
+     * @return 処理結果。
      */
-    private void discardCore(final JanPai target) throws CallableException {
+    private TurnResult discardCore(final JanPai target) {
         final Wind activeWind = _info.getActiveWind();
         _info.addDiscard(activeWind, target);
         _info.setActiveDiscard(target);
+        publish(GameEventType.DISCARD, activeWind, target, null, null, null);
         
         // 他家の待ち判定
         final Map<Wind, List<CallType>> callableTable = new TreeMap<>();
@@ -222,19 +372,44 @@ class VSJanController implements JanController {
         while (targetWind != activeWind) {
             // NPCはツモ切り固定
             if (_info.getPlayer(targetWind).getType() != PlayerType.COM) {
-                callableTable.put(targetWind, getCallableList(_info, activeWind, targetWind, target));
+                final List<CallType> callableList = getCallableList(_info, activeWind, targetWind, target);
+                if (!callableList.isEmpty()) {
+                    callableTable.put(targetWind, callableList);
+                }
             }
             targetWind = targetWind.getNext();
         }
-        if (!callableTable.isEmpty()) {
-            // TODO 副露拡張対応
-            // 副露された場合、捨て牌リストのインデックスにマークをつけて灰色表示させたい
+        if (callableTable.isEmpty()) {
+            return TurnResult.CONTINUE;
+        }
+        
+        // 副露の受付を開く (時間切れの席は見送り扱い)
+        final CallWindow window = new CallWindow(activeWind, target, callableTable);
+        _callWindow = window;
+        _phase = TurnPhase.WAIT_CALL;
+        _callTimeoutFuture = CALL_WINDOW_TIMER.schedule(new Runnable() {
+            public void run() {
+                _executor.execute(new Runnable() {
+                    public void run() {
+                        onCallTimeout(window);
+                    }
+                });
+            }
+        }, _callTimeout, TimeUnit.MILLISECONDS);
+        
+        // 確認待ちは副露できる席ごとに開く
+        final Map<String, List<CallType>> playerCallableTable = new LinkedHashMap<>();
+        for (final Map.Entry<Wind, List<CallType>> entry : callableTable.entrySet()) {
+            playerCallableTable.put(_info.getPlayer(entry.getKey()).getName(), entry.getValue());
         }
+        return TurnResult.callable(playerCallableTable);
     }
     
     /**
      * 可能な副露リストを取得
      * 
+     * 手牌の面子操作が未対応のため、受付はロンのみ。
+     * 
      * @param info ゲーム情報。
      * @param activeWind 打牌中の風。
      * @param targetWind 判定対象の風。
@@ -243,132 +418,140 @@ class VSJanController implements JanController {
      */
     private List<CallType> getCallableList(final JanInfo info, final Wind activeWind,  final Wind targetWind, final JanPai discard) {
         final List<CallType> callTypeList = new ArrayList<>();
-        // ロン可能か
-        if (_completeWait.get(targetWind).contains(discard)) {
+        final WaitIndex waitIndex = _waitIndexTable.get(targetWind);
+        // ロン可能か (フリテンは除く)
+        if (waitIndex.isCompleteWait(discard) && !info.getRiver(targetWind).contains(discard)) {
             callTypeList.add(CallType.RON);
         }
         
-        // チー可能か
-        if (activeWind.getNext() == targetWind) {
-            if (_chiWait.get(targetWind).contains(discard)) {
-                callTypeList.add(CallType.CHI);
-            }
-        }
-        
-        // ポン可能か
-        if (_ponWait.get(targetWind).contains(discard)) {
-            callTypeList.add(CallType.PON);
-            if (info.getHand(targetWind).getJanPaiCount(discard) == 3) {
-                callTypeList.add(CallType.KAN_LIGHT);
-            }
-        }
+        // TODO 副露拡張対応 (チー・ポン・カンは SoloJanController.call() と同様に手牌の面子操作を実装してから受け付ける)
         return callTypeList;
     }
     
     /**
-     * チーの待ち牌リストを取得
+     * 牌をツモる
+     * 
+     * @return ツモ牌。
+     */
+    private JanPai getJanPaiFromDeck() {
+        final JanPai pai = _info.getJanPaiFromDeck();
+        _info.increaseDeckIndex();
+        return pai;
+    }
+    
+    /**
+     * プレイヤーの風を取得
      * 
-     * @param hand クリーン済みの手牌マップ。
-     * @return チーの待ち牌リスト。
-     */
-    private List<JanPai> getChiWaitList(final Map<JanPai, Integer> hand) {
-        final List<JanPai> resultList = new ArrayList<>();
-        for (final JanPai pai : JanPai.values()) {
-            if (isCallableChi(hand, pai)) {
-                resultList.add(pai);
+     * @param playerName プレイヤー名。
+     * @return プレイヤーの風。
+     * @throws InvalidInputException 着席していないプレイヤー。
+     */
+    private Wind getWind(final String playerName) throws InvalidInputException {
+        for (final Map.Entry<Wind, Player> entry : _info.getPlayerTable().entrySet()) {
+            if (entry.getValue().getName().equals(playerName)) {
+                return entry.getKey();
             }
         }
-        return resultList;
+        throw new InvalidInputException("Invalid player name - " + playerName);
     }
     
     /**
-     * プレイヤーの手牌マップを取得
+     * 副露の受付の時間切れ処理
      * 
-     * @param info ゲーム情報。
-     * @param wind プレイヤーの風。
-     * @return プレイヤーの手牌マップ。
+     * 未応答の席を全て見送り扱いにして決着を適用し、処理結果を通知する。決着済みの受付では何もしない。
+     * 
+     * @param window 副露の受付。
      */
-    private Map<JanPai, Integer> getHandMap(final JanInfo info, final Wind wind) {
-        final Map<JanPai, Integer> hand = info.getHand(wind).getMenZenMap();
-        JanPaiUtil.cleanJanPaiMap(hand);
-        return hand;
+    private void onCallTimeout(final CallWindow window) {
+        if (_callWindow != window) {
+            return;
+        }
+        
+        final List<String> playerNameList = new ArrayList<>();
+        for (final Wind wind : Wind.values()) {
+            if (window.isPending(wind)) {
+                playerNameList.add(_info.getPlayer(wind).getName());
+            }
+        }
+        window.expire();
+        final TurnResult result = applyCallWindow(window);
+        
+        final CallWindowListener listener = _callWindowListener;
+        if (listener != null) {
+            listener.onTimeout(playerNameList, result);
+        }
     }
     
     /**
-     * 牌をツモる
+     * 巡目ごとの処理
      * 
-     * @return ツモ牌。
+     * 自動進行中は、人間の手番か終局までNPCの手番を繰り返し処理する。
+     * 
+     * @return 処理結果。
      */
-    private JanPai getJanPaiFromDeck() {
-        final JanPai pai = _info.getJanPaiFromDeck();
-        _info.increaseDeckIndex();
-        return pai;
+    private TurnResult onPhase() {
+        _phase = TurnPhase.DRAW;
+        TurnResult result = TurnResult.CONTINUE;
+        while (_autoPlay && _phase == TurnPhase.DRAW) {
+            result = stepCore();
+        }
+        return result;
     }
     
     /**
-     * ポンの待ち牌リストを取得
+     * イベントを発行
      * 
-     * @param hand クリーン済みの手牌マップ。
-     * @return ポンの待ち牌リスト。
-     */
-    private List<JanPai> getPonWaitList(final Map<JanPai, Integer> hand) {
-        final List<JanPai> resultList = new ArrayList<>();
-        for (final Map.Entry<JanPai, Integer> entry : hand.entrySet()) {
-            if (entry.getValue() >= 2) {
-                resultList.add(entry.getKey());
-            }
+     * 購読者がいない場合はスナップショットを作らない。
+     * 
+     * @param type イベントの種類。
+     * @param wind 対象プレイヤーの風。
+     * @param pai 対象牌。
+     * @param callType 副露タイプ。
+     * @param status ゲーム終了状態。
+     * @param flagSet 実況フラグ。
+     */
+    private void publish(final GameEventType type,
+                         final Wind wind,
+                         final JanPai pai,
+                         final CallType callType,
+                         final GameSetStatus status,
+                         final EnumSet<AnnounceFlag> flagSet) {
+        if (_eventBus.hasListener()) {
+            _eventBus.publish(new GameEvent(type, _info.snapshot(), wind, pai, callType, status, flagSet));
         }
-        return resultList;
     }
     
     /**
-     * チー可能か
+     * 副露の受付に応答
      * 
-     * @param hand クリーン済みの手牌マップ。
-     * @param discard 捨て牌。
-     * @return 判定結果。
+     * 応答を受付へ渡し、決着した場合のみ結果を適用する。
+     * 
+     * @param window 副露の受付。
+     * @param playerName プレイヤー名。
+     * @param callType 副露タイプ。
+     * @return 処理結果。決着前はCONTINUE。
+     * @throws JanException ゲーム処理エラー。
      */
-    private boolean isCallableChi(final Map<JanPai, Integer> hand, final JanPai discard) {
-        if (discard.isJi()) {
-            return false;
-        }
-        
-        switch (discard) {
-        case MAN_1:
-        case PIN_1:
-        case SOU_1:
-            return hand.containsKey(discard.getNext()) && hand.containsKey(discard.getNext().getNext());
-        case MAN_2:
-        case PIN_2:
-        case SOU_2:
-            return (hand.containsKey(discard.getNext()) && hand.containsKey(discard.getNext().getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getNext()));
-        case MAN_8:
-        case PIN_8:
-        case SOU_8:
-            return (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getPrev().getPrev()));
-        case MAN_9:
-        case PIN_9:
-        case SOU_9:
-            return hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getPrev().getPrev());
-        default:
-            return (hand.containsKey(discard.getNext()) && hand.containsKey(discard.getNext().getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getNext())) ||
-                   (hand.containsKey(discard.getPrev()) && hand.containsKey(discard.getPrev().getPrev()));
+    private TurnResult respond(final CallWindow window, final String playerName, final CallType callType) throws JanException {
+        final Wind wind = getWind(playerName);
+        if (!window.isPending(wind) || !window.getCallableList(wind).contains(callType)) {
+            throw new InvalidInputException("Can't call.");
         }
+        window.respond(wind, callType);
+        return applyCallWindow(window);
     }
     
     /**
-     * 巡目ごとの処理
+     * 1手番分の処理 (ツモとNPCの打牌)
      * 
-     * @throws CallableException 副露が可能。
-     * @throws GameSetException 局が終了した。
+     * @return 処理結果。
      */
-    private void onPhase() throws CallableException, GameSetException {
+    private TurnResult stepCore() {
         if (_info.getRemainCount() == 0) {
             _onGame = false;
-            throw new GameSetException(GameSetStatus.GAME_OVER);
+            _phase = TurnPhase.END;
+            publish(GameEventType.RYUKYOKU, null, null, null, GameSetStatus.GAME_OVER, null);
+            return TurnResult.gameSet(GameSetStatus.GAME_OVER);
         }
         
         // 牌をツモる
@@ -380,17 +563,23 @@ class VSJanController implements JanController {
         final Player activePlayer = _info.getActivePlayer();
         switch (activePlayer.getType()) {
         case COM:
+            publish(GameEventType.TSUMO, _info.getActiveWind(), activeTsumo, null, null, null);
+            
             // ツモ切り
-            discardCore(activeTsumo);
+            final TurnResult result = discardCore(activeTsumo);
+            if (result.isCallable()) {
+                return result;
+            }
             
-            // 次巡へ
+            // 次巡へ (ツモ待ちのまま)
             _info.setActiveWindToNext();
-            onPhase();
-            return;
+            break;
         case HUMAN:
-            _info.notifyObservers(ANNOUNCE_FLAG_HAND_TSUMO);
+            _phase = TurnPhase.WAIT_DISCARD;
+            publish(GameEventType.TSUMO, _info.getActiveWind(), activeTsumo, null, null, ANNOUNCE_FLAG_HAND_TSUMO);
             break;
         }
+        return TurnResult.CONTINUE;
     }
     
     /**
@@ -400,10 +589,7 @@ class VSJanController implements JanController {
      * @param targetWind 更新対象の風。
      */
     private void updateWaitList(final JanInfo info, final Wind targetWind) {
-        final Map<JanPai, Integer> hand = getHandMap(_info, targetWind);
-        _completeWait.put(targetWind, HandCheckUtil.getCompletableJanPaiList(hand));
-        _chiWait.put(targetWind, getChiWaitList(hand));
-        _ponWait.put(targetWind, getPonWaitList(hand));
+        _waitIndexTable.get(targetWind).update(info.getHandCount(targetWind));
     }
     
     
@@ -415,13 +601,29 @@ class VSJanController implements JanController {
         EnumSet.of(AnnounceFlag.GAME_START);
     private static final EnumSet<AnnounceFlag> ANNOUNCE_FLAG_HAND_TSUMO =
         EnumSet.of(AnnounceFlag.HAND, AnnounceFlag.ACTIVE_TSUMO);
+    private static final EnumSet<AnnounceFlag> ANNOUNCE_FLAG_COMPLETE_RON =
+        EnumSet.of(AnnounceFlag.COMPLETE_RON, AnnounceFlag.FIELD, AnnounceFlag.URA_DORA, AnnounceFlag.RIVER_SINGLE, AnnounceFlag.HAND, AnnounceFlag.ACTIVE_DISCARD);
     
-    
+    /**
+     * 副露の受付時間 (デフォルト、ミリ秒)
+     */
+    private static final long DEFAULT_CALL_TIMEOUT = 30000L;
     
     /**
-     * ロックオブジェクト
+     * 副露の受付の時間切れ処理の実行者 (全卓で共有)
      */
-    private final Object _GAME_INFO_LOCK = new Object();
+    private static final ScheduledThreadPoolExecutor CALL_WINDOW_TIMER = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        public Thread newThread(final Runnable task) {
+            final Thread thread = new Thread(task, "CallWindowTimer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    
+    static {
+        // 取り消した予約をキューに残さない
+        CALL_WINDOW_TIMER.setRemoveOnCancelPolicy(true);
+    }
     
     
     
@@ -430,25 +632,55 @@ class VSJanController implements JanController {
      */
     private JanInfo _info = new JanInfo();
     
+    /**
+     * イベント配信
+     */
+    private final GameEventBus _eventBus = new GameEventBus();
+    
+    /**
+     * 時間切れ処理を投入する実行者
+     */
+    private final Executor _executor;
+    
     /**
      * ゲーム中か
      */
-    private volatile boolean _onGame = false;
+    private boolean _onGame = false;
+    
+    /**
+     * 手番の進行状態
+     */
+    private TurnPhase _phase = TurnPhase.IDLE;
+    
+    /**
+     * NPCの手番を自動で進めるか
+     */
+    private boolean _autoPlay = true;
+    
+    /**
+     * 受付中の副露 (受付中でない場合はnull)
+     */
+    private CallWindow _callWindow = null;
+    
+    /**
+     * 副露の受付時間 (ミリ秒)
+     */
+    private long _callTimeout = DEFAULT_CALL_TIMEOUT;
     
     /**
-     * 和了の待ち
+     * 副露の受付の時間切れの予約 (受付中でない場合はnull)
      */
-    private Map<Wind, List<JanPai>> _completeWait = Collections.synchronizedMap(new TreeMap<Wind, List<JanPai>>());
+    private ScheduledFuture<?> _callTimeoutFuture = null;
     
     /**
-     * チーの待ち
+     * 副露の受付の時間切れの通知先
      */
-    private Map<Wind, List<JanPai>> _chiWait = Collections.synchronizedMap(new TreeMap<Wind, List<JanPai>>());
+    private CallWindowListener _callWindowListener = null;
     
     /**
-     * ポンの待ち
+     * 待ち判定テーブル
      */
-    private Map<Wind, List<JanPai>> _ponWait = Collections.synchronizedMap(new TreeMap<Wind, List<JanPai>>());
+    private final Map<Wind, WaitIndex> _waitIndexTable = new EnumMap<>(Wind.class);
     
 }
 
@@ -0,0 +1,393 @@
+/**
+ * WaitEngine.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 和了・待ち判定
+ * 
+ * 数牌は色ごとに枚数を8進数の1キーに詰め、起動時に作成した和了形の表を二分探索する。
+ * 字牌は3枚組か対子しか作れないため、枚数の剰余のみで判定する。
+ */
+public final class WaitEngine {
+    
+    /**
+     * コンストラクタを自分自身に限定許可
+     */
+    private WaitEngine() {
+        final Set<Integer> mentsuSet = new TreeSet<>();
+        final Set<Integer> headSet = new TreeSet<>();
+        createCompleteKey(0, 0, 0, mentsuSet);
+        for (final int key : mentsuSet) {
+            for (int i = 0; i < SUIT_SIZE; i++) {
+                if (getDigit(key, i) + 2 <= DIGIT_MAX) {
+                    headSet.add(key + (2 << (DIGIT_BITS * i)));
+                }
+            }
+        }
+        _mentsuKeyArray = toArray(mentsuSet);
+        _headKeyArray = toArray(headSet);
+    }
+    
+    
+    
+    /**
+     * インスタンスを取得
+     * 
+     * @return インスタンス。
+     */
+    public static WaitEngine getInstance() {
+        return INSTANCE;
+    }
+    
+    
+    
+    /**
+     * 待ち牌をビット列で取得
+     * 
+     * 手牌と無関係な牌 (同色で前後2枚以内に手牌がない数牌、手牌にない字牌) は和了牌になり得ないため判定を省く。
+     * 
+     * @param hand 手牌の枚数表。(和了牌を除く)
+     * @return 待ち牌のビット列。(牌の序数をビット位置とする)
+     */
+    public long getWaitBits(final JanPaiCount hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        
+        long resultBits = 0L;
+        if (hand.getTotal() % 3 != 1) {
+            return resultBits;
+        }
+        
+        final boolean kokushiCandidate = isKokushiCandidate(hand);
+        final JanPaiCount work = hand.clone();
+        for (final JanPai pai : JANPAI_ARRAY) {
+            final int index = pai.ordinal();
+            if (!isWaitCandidate(hand, index) && !(kokushiCandidate && YAO_ARRAY[index])) {
+                continue;
+            }
+            work.add(pai);
+            if (isComplete(work)) {
+                resultBits |= 1L << index;
+            }
+            work.remove(pai);
+        }
+        return resultBits;
+    }
+    
+    /**
+     * 待ち牌リストを取得
+     * 
+     * @param hand 手牌の枚数表。(和了牌を除く)
+     * @return 待ち牌リスト。
+     */
+    public List<JanPai> getWaitList(final JanPaiCount hand) {
+        final long waitBits = getWaitBits(hand);
+        final List<JanPai> resultList = new ArrayList<>();
+        for (final JanPai pai : JANPAI_ARRAY) {
+            if ((waitBits & (1L << pai.ordinal())) != 0L) {
+                resultList.add(pai);
+            }
+        }
+        return resultList;
+    }
+    
+    /**
+     * 和了形か
+     * 
+     * @param hand 手牌の枚数表。(和了牌を含む)
+     * @return 判定結果。
+     */
+    public boolean isComplete(final JanPaiCount hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        
+        final int total = hand.getTotal();
+        if (total % 3 != 2) {
+            return false;
+        }
+        if (isCompleteNormal(hand)) {
+            return true;
+        }
+        if (total == 14) {
+            return isCompleteChiToi(hand) || isCompleteKokushi(hand);
+        }
+        return false;
+    }
+    
+    /**
+     * 聴牌か
+     * 
+     * @param hand 手牌の枚数表。(和了牌を除く)
+     * @return 判定結果。
+     */
+    public boolean isTenpai(final JanPaiCount hand) {
+        return getWaitBits(hand) != 0L;
+    }
+    
+    
+    
+    /**
+     * 面子の組み合わせから和了形のキーを作成
+     * 
+     * @param key 作成中のキー。
+     * @param start 次に追加する面子の番号。(同じ組み合わせを重複して数えないため)
+     * @param mentsuCount 追加済みの面子数。
+     * @param resultSet 作成したキーの格納先。
+     */
+    private void createCompleteKey(final int key, final int start, final int mentsuCount, final Set<Integer> resultSet) {
+        resultSet.add(key);
+        if (mentsuCount == MENTSU_MAX) {
+            return;
+        }
+        
+        for (int mentsu = start; mentsu < SUIT_SIZE * 2 - 2; mentsu++) {
+            if (mentsu < SUIT_SIZE) {
+                // 刻子
+                if (getDigit(key, mentsu) + 3 <= DIGIT_MAX) {
+                    createCompleteKey(key + (3 << (DIGIT_BITS * mentsu)), mentsu, mentsuCount + 1, resultSet);
+                }
+            }
+            else {
+                // 順子
+                final int head = mentsu - SUIT_SIZE;
+                if (getDigit(key, head) < DIGIT_MAX &&
+                    getDigit(key, head + 1) < DIGIT_MAX &&
+                    getDigit(key, head + 2) < DIGIT_MAX) {
+                    createCompleteKey(key + (0111 << (DIGIT_BITS * head)), mentsu, mentsuCount + 1, resultSet);
+                }
+            }
+        }
+    }
+    
+    /**
+     * キーから指定位置の枚数を取得
+     * 
+     * @param key キー。
+     * @param index 位置。
+     * @return 枚数。
+     */
+    private int getDigit(final int key, final int index) {
+        return (key >>> (DIGIT_BITS * index)) & DIGIT_MAX;
+    }
+    
+    /**
+     * 七対子か
+     * 
+     * @param hand 手牌の枚数表。
+     * @return 判定結果。
+     */
+    private boolean isCompleteChiToi(final JanPaiCount hand) {
+        int pairCount = 0;
+        for (int i = 0; i < JanPaiCount.SIZE; i++) {
+            final int count = hand.getAt(i);
+            if (count == 2) {
+                pairCount++;
+            }
+            else if (count != 0) {
+                return false;
+            }
+        }
+        return pairCount == 7;
+    }
+    
+    /**
+     * 国士無双か
+     * 
+     * @param hand 手牌の枚数表。
+     * @return 判定結果。
+     */
+    private boolean isCompleteKokushi(final JanPaiCount hand) {
+        for (int i = 0; i < JanPaiCount.SIZE; i++) {
+            final boolean yao = YAO_ARRAY[i];
+            final int count = hand.getAt(i);
+            if (yao && count == 0) {
+                return false;
+            }
+            if (!yao && count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 4面子1雀頭か
+     * 
+     * @param hand 手牌の枚数表。
+     * @return 判定結果。
+     */
+    private boolean isCompleteNormal(final JanPaiCount hand) {
+        int headCount = 0;
+        
+        // 数牌
+        for (int suit = 0; suit < 3; suit++) {
+            final int offset = suit * SUIT_SIZE;
+            int key = 0;
+            int total = 0;
+            for (int i = 0; i < SUIT_SIZE; i++) {
+                final int count = hand.getAt(offset + i);
+                if (count > DIGIT_MAX) {
+                    return false;
+                }
+                key |= count << (DIGIT_BITS * i);
+                total += count;
+            }
+            
+            switch (total % 3) {
+            case 0:
+                if (Arrays.binarySearch(_mentsuKeyArray, key) < 0) {
+                    return false;
+                }
+                break;
+            case 2:
+                if (Arrays.binarySearch(_headKeyArray, key) < 0) {
+                    return false;
+                }
+                headCount++;
+                break;
+            default:
+                return false;
+            }
+        }
+        
+        // 字牌
+        for (int i = SUIT_SIZE * 3; i < JanPaiCount.SIZE; i++) {
+            switch (hand.getAt(i) % 3) {
+            case 0:
+                break;
+            case 2:
+                headCount++;
+                break;
+            default:
+                return false;
+            }
+        }
+        return headCount == 1;
+    }
+    
+    /**
+     * 国士無双の候補か (么九牌のみで構成されているか)
+     * 
+     * @param hand 手牌の枚数表。
+     * @return 判定結果。
+     */
+    private boolean isKokushiCandidate(final JanPaiCount hand) {
+        for (int i = 0; i < JanPaiCount.SIZE; i++) {
+            if (!YAO_ARRAY[i] && hand.getAt(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 和了牌になり得るか
+     * 
+     * @param hand 手牌の枚数表。
+     * @param index 判定対象の序数。
+     * @return 判定結果。
+     */
+    private boolean isWaitCandidate(final JanPaiCount hand, final int index) {
+        if (index >= SUIT_SIZE * 3) {
+            return hand.getAt(index) > 0;
+        }
+        
+        final int suitStart = index - (index % SUIT_SIZE);
+        final int from = Math.max(suitStart, index - 2);
+        final int to = Math.min(suitStart + SUIT_SIZE - 1, index + 2);
+        for (int i = from; i <= to; i++) {
+            if (hand.getAt(i) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * キーの集合を昇順の配列に変換
+     * 
+     * @param keySet キーの集合。
+     * @return 変換結果。
+     */
+    private int[] toArray(final Set<Integer> keySet) {
+        final int[] resultArray = new int[keySet.size()];
+        int index = 0;
+        for (final int key : keySet) {
+            resultArray[index++] = key;
+        }
+        return resultArray;
+    }
+    
+    
+    
+    /**
+     * 1色の数牌の種類数
+     */
+    private static final int SUIT_SIZE = 9;
+    
+    /**
+     * 1色あたりの面子の最大数
+     */
+    private static final int MENTSU_MAX = 4;
+    
+    /**
+     * キー1桁のビット数
+     */
+    private static final int DIGIT_BITS = 3;
+    
+    /**
+     * キー1桁で表せる最大枚数
+     */
+    private static final int DIGIT_MAX = (1 << DIGIT_BITS) - 1;
+    
+    /**
+     * 全ての牌
+     */
+    private static final JanPai[] JANPAI_ARRAY = JanPai.values();
+    
+    /**
+     * 么九牌か (牌の序数で索引する)
+     */
+    private static final boolean[] YAO_ARRAY = new boolean[JanPaiCount.SIZE];
+    
+    static {
+        for (final JanPai pai : JANPAI_ARRAY) {
+            YAO_ARRAY[pai.ordinal()] = pai.isYao();
+        }
+    }
+    
+    /**
+     * 自分自身のインスタンス
+     */
+    private static final WaitEngine INSTANCE = new WaitEngine();
+    
+    
+    
+    /**
+     * 面子のみで構成される1色の和了形のキー (昇順)
+     */
+    private final int[] _mentsuKeyArray;
+    
+    /**
+     * 面子と雀頭で構成される1色の和了形のキー (昇順)
+     */
+    private final int[] _headKeyArray;
+    
+}
+
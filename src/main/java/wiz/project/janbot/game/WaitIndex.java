@@ -0,0 +1,232 @@
+/**
+ * WaitIndex.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * 1人分の待ち判定 (牌の序数をビット位置とする)
+ * 
+ * 前回の手牌との差分だけを反映し、副露の待ちは変化した牌の周辺のみを再計算する。
+ */
+final class WaitIndex {
+    
+    /**
+     * コンストラクタ
+     */
+    public WaitIndex() {
+    }
+    
+    
+    
+    /**
+     * 待ちを全消去
+     */
+    public void clear() {
+        _hand = new JanPaiCount();
+        _completeBits = 0L;
+        _chiBits = 0L;
+        _ponBits = 0L;
+        _kanBits = 0L;
+    }
+    
+    /**
+     * 和了の待ち牌リストを取得
+     * 
+     * @return 和了の待ち牌リスト。
+     */
+    public List<JanPai> getCompleteWaitList() {
+        final List<JanPai> resultList = new ArrayList<>();
+        for (final JanPai pai : JANPAI_ARRAY) {
+            if (isCompleteWait(pai)) {
+                resultList.add(pai);
+            }
+        }
+        return resultList;
+    }
+    
+    /**
+     * チーの待ちか
+     * 
+     * @param pai 捨て牌。
+     * @return 判定結果。
+     */
+    public boolean isChiWait(final JanPai pai) {
+        return testBit(_chiBits, pai);
+    }
+    
+    /**
+     * 和了の待ちか
+     * 
+     * @param pai 捨て牌。
+     * @return 判定結果。
+     */
+    public boolean isCompleteWait(final JanPai pai) {
+        return testBit(_completeBits, pai);
+    }
+    
+    /**
+     * 大明カンの待ちか
+     * 
+     * @param pai 捨て牌。
+     * @return 判定結果。
+     */
+    public boolean isKanWait(final JanPai pai) {
+        return testBit(_kanBits, pai);
+    }
+    
+    /**
+     * ポンの待ちか
+     * 
+     * @param pai 捨て牌。
+     * @return 判定結果。
+     */
+    public boolean isPonWait(final JanPai pai) {
+        return testBit(_ponBits, pai);
+    }
+    
+    /**
+     * 手牌の変化を反映
+     * 
+     * @param hand 最新の手牌の枚数表。
+     */
+    public void update(final JanPaiCount hand) {
+        if (hand == null) {
+            throw new NullPointerException("Hand is null.");
+        }
+        
+        boolean changed = false;
+        for (int index = 0; index < JanPaiCount.SIZE; index++) {
+            final int count = hand.getAt(index);
+            if (count == _hand.getAt(index)) {
+                continue;
+            }
+            changed = true;
+            
+            // ポン・大明カンは変化した牌のみ
+            _ponBits = setBit(_ponBits, index, count >= 2);
+            _kanBits = setBit(_kanBits, index, count == 3);
+            
+            // チーは変化した牌の前後2枚のみ
+            if (index < SUIT_END) {
+                final int suitStart = index - (index % SUIT_SIZE);
+                final int from = Math.max(suitStart, index - 2);
+                final int to = Math.min(suitStart + SUIT_SIZE - 1, index + 2);
+                for (int target = from; target <= to; target++) {
+                    _chiBits = setBit(_chiBits, target, isCallableChi(hand, target, suitStart));
+                }
+            }
+        }
+        if (!changed) {
+            return;
+        }
+        
+        _hand = hand.clone();
+        _completeBits = WaitEngine.getInstance().getWaitBits(_hand);
+    }
+    
+    
+    
+    /**
+     * チー可能か
+     * 
+     * @param hand 手牌の枚数表。
+     * @param index 捨て牌の序数。
+     * @param suitStart 捨て牌と同じ色の1の序数。
+     * @return 判定結果。
+     */
+    private boolean isCallableChi(final JanPaiCount hand, final int index, final int suitStart) {
+        final int suitEnd = suitStart + SUIT_SIZE - 1;
+        final boolean prev2 = index - 2 >= suitStart && hand.getAt(index - 2) > 0;
+        final boolean prev1 = index - 1 >= suitStart && hand.getAt(index - 1) > 0;
+        final boolean next1 = index + 1 <= suitEnd && hand.getAt(index + 1) > 0;
+        final boolean next2 = index + 2 <= suitEnd && hand.getAt(index + 2) > 0;
+        return (prev2 && prev1) || (prev1 && next1) || (next1 && next2);
+    }
+    
+    /**
+     * ビットを設定
+     * 
+     * @param bits 設定先。
+     * @param index 牌の序数。
+     * @param value 設定値。
+     * @return 設定結果。
+     */
+    private static long setBit(final long bits, final int index, final boolean value) {
+        if (value) {
+            return bits | (1L << index);
+        }
+        else {
+            return bits & ~(1L << index);
+        }
+    }
+    
+    /**
+     * ビットを確認
+     * 
+     * @param bits 確認対象。
+     * @param pai 牌。
+     * @return 確認結果。
+     */
+    private static boolean testBit(final long bits, final JanPai pai) {
+        if (pai == null) {
+            return false;
+        }
+        return (bits & (1L << pai.ordinal())) != 0L;
+    }
+    
+    
+    
+    /**
+     * 1色の数牌の種類数
+     */
+    private static final int SUIT_SIZE = 9;
+    
+    /**
+     * 数牌の終端 (字牌の先頭の序数)
+     */
+    private static final int SUIT_END = SUIT_SIZE * 3;
+    
+    /**
+     * 全ての牌
+     */
+    private static final JanPai[] JANPAI_ARRAY = JanPai.values();
+    
+    
+    
+    /**
+     * 反映済みの手牌
+     */
+    private JanPaiCount _hand = new JanPaiCount();
+    
+    /**
+     * 和了の待ち
+     */
+    private long _completeBits = 0L;
+    
+    /**
+     * チーの待ち
+     */
+    private long _chiBits = 0L;
+    
+    /**
+     * ポンの待ち
+     */
+    private long _ponBits = 0L;
+    
+    /**
+     * 大明カンの待ち
+     */
+    private long _kanBits = 0L;
+    
+}
+
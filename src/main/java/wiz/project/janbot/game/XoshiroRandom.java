@@ -0,0 +1,150 @@
+/**
+ * XoshiroRandom.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.Random;
+
+
+
+/**
+ * xoshiro256** による高速な乱数生成
+ * 
+ * 内部状態は種からsplitmix64で展開するので、同じ種からは必ず同じ乱数列が得られる。
+ * 暗号用途には使えない。また、スレッドセーフではない。(スレッドごとに生成すること)
+ */
+final class XoshiroRandom extends Random {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param seed 乱数の種。
+     */
+    public XoshiroRandom(final long seed) {
+        super(0L);
+        setSeed(seed);
+    }
+    
+    
+    
+    /**
+     * 64ビットの乱数を取得
+     * 
+     * @return 乱数。
+     */
+    @Override
+    public long nextLong() {
+        final long result = Long.rotateLeft(_s1 * 5L, 7) * 9L;
+        final long t = _s1 << 17;
+        _s2 ^= _s0;
+        _s3 ^= _s1;
+        _s1 ^= _s2;
+        _s0 ^= _s3;
+        _s2 ^= t;
+        _s3 = Long.rotateLeft(_s3, 45);
+        return result;
+    }
+    
+    /**
+     * 範囲内の乱数を取得 (偏りなし)
+     * 
+     * @param bound 上限。(この値を含まない)
+     * @return 0以上bound未満の乱数。
+     */
+    @Override
+    public int nextInt(final int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Invalid bound - " + bound);
+        }
+        
+        // 上位32ビットとの積で範囲に写像し、偏りが出る端数のみ引き直す
+        long product = (nextLong() >>> 32) * bound;
+        if ((product & 0xFFFFFFFFL) < bound) {
+            final long threshold = (0x100000000L - bound) % bound;
+            while ((product & 0xFFFFFFFFL) < threshold) {
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int)(product >>> 32);
+    }
+    
+    /**
+     * 乱数の種を設定
+     * 
+     * @param seed 乱数の種。
+     */
+    @Override
+    public void setSeed(final long seed) {
+        long x = seed;
+        _s0 = splitMix64(x += GOLDEN_GAMMA);
+        _s1 = splitMix64(x += GOLDEN_GAMMA);
+        _s2 = splitMix64(x += GOLDEN_GAMMA);
+        _s3 = splitMix64(x += GOLDEN_GAMMA);
+    }
+    
+    
+    
+    /**
+     * 指定ビット数の乱数を取得
+     * 
+     * @param bits ビット数。
+     * @return 乱数。
+     */
+    @Override
+    protected int next(final int bits) {
+        return (int)(nextLong() >>> (64 - bits));
+    }
+    
+    
+    
+    /**
+     * splitmix64の出力関数
+     * 
+     * @param z 入力値。
+     * @return 出力値。
+     */
+    private static long splitMix64(final long z) {
+        long result = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        result = (result ^ (result >>> 27)) * 0x94D049BB133111EBL;
+        return result ^ (result >>> 31);
+    }
+    
+    
+    
+    /**
+     * シリアルバージョンUID
+     */
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * splitmix64の増分
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    
+    
+    
+    /**
+     * 内部状態 (0)
+     */
+    private long _s0;
+    
+    /**
+     * 内部状態 (1)
+     */
+    private long _s1;
+    
+    /**
+     * 内部状態 (2)
+     */
+    private long _s2;
+    
+    /**
+     * 内部状態 (3)
+     */
+    private long _s3;
+    
+}
+
@@ -0,0 +1,92 @@
+/**
+ * CommandParserTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * CommandParserのテスト
+ */
+public final class CommandParserTest {
+    
+    /**
+     * parse() のテスト
+     */
+    @Test
+    public void testParse() {
+        final CommandParser parser = CommandParser.getInstance();
+        {
+            // 正常 (引数なし)
+            assertEquals(CommandType.START, parser.parse("jan s").getType());
+            assertEquals(CommandType.START, parser.parse("jan start").getType());
+            assertEquals(CommandType.INFO_RIVER, parser.parse("jan r i").getType());
+            assertEquals(CommandType.INFO_RIVER_ALL, parser.parse("jan i ra").getType());
+            assertEquals(CommandType.STATS, parser.parse("jan stats").getType());
+            
+            final Command command = parser.parse("jan d");
+            assertEquals(CommandType.DISCARD, command.getType());
+            assertNull(command.getPai());
+        }
+        {
+            // 正常 (牌の引数)
+            final Command command = parser.parse("jan d 9p");
+            assertEquals(CommandType.DISCARD, command.getType());
+            assertEquals(JanPai.PIN_9, command.getPai());
+            
+            assertEquals(JanPai.CHUN, parser.parse("jan kan 中").getPai());
+            assertEquals(JanPai.SOU_3, parser.parse("jan chi  3s ").getPai());
+        }
+        {
+            // 正常 (文字列の引数)
+            final Command command = parser.parse("jan replay 1A 5");
+            assertEquals(CommandType.REPLAY, command.getType());
+            assertEquals(Arrays.asList("1A", "5"), command.getArgList());
+            assertTrue(parser.parse("jan replay").getArgList().isEmpty());
+            assertEquals(Arrays.asList("on"), parser.parse("jan locks on").getArgList());
+            assertEquals(CommandType.LOCKS, parser.parse("jan locks").getType());
+        }
+        {
+            // 正常 (発言への反応は最長一致)
+            assertEquals(CommandType.REACT_RICHI_DECLARE, parser.parse("リーチ！！").getType());
+            assertEquals(CommandType.REACT_RICHI, parser.parse("リーチかな").getType());
+            assertEquals(CommandType.REACT_RICHI_DECLARE, parser.parse("ri-chi!").getType());
+            assertEquals(CommandType.REACT_KYUIN, parser.parse("キュイン").getType());
+        }
+        {
+            // 正常 (コマンド以外)
+            assertNull(parser.parse(""));
+            assertNull(parser.parse("hello"));
+            assertNull(parser.parse("jan"));
+            assertNull(parser.parse("jan x"));
+            assertNull(parser.parse("jan d 0m"));
+            assertNull(parser.parse("jan d 1m 2m"));
+            assertNull(parser.parse("jan chi"));
+            assertNull(parser.parse("jan replay 1 2 3"));
+            assertNull(parser.parse("janken"));
+        }
+        {
+            // エラー (メッセージがNull)
+            try {
+                parser.parse(null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Message is null.", e.getMessage());
+            }
+        }
+    }
+    
+}
+
@@ -0,0 +1,162 @@
+/**
+ * EventDispatcherTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+
+
+/**
+ * EventDispatcherのテスト
+ */
+public final class EventDispatcherTest {
+    
+    /**
+     * execute() のテスト
+     */
+    @Test
+    public void testExecute() throws InterruptedException {
+        {
+            // 正常 (同じキーは投入順に1つずつ実行)
+            final EventDispatcher dispatcher = new EventDispatcher();
+            final List<Integer> resultList = new ArrayList<>();
+            final AtomicInteger runningCount = new AtomicInteger();
+            final CountDownLatch latch = new CountDownLatch(TASK_COUNT);
+            for (int i = 0; i < TASK_COUNT; i++) {
+                final int index = i;
+                dispatcher.execute(TEST_KEY, new Runnable() {
+                    public void run() {
+                        assertEquals(1, runningCount.incrementAndGet());
+                        resultList.add(index);
+                        runningCount.decrementAndGet();
+                        latch.countDown();
+                    }
+                });
+            }
+            assertTrue(latch.await(10L, TimeUnit.SECONDS));
+            for (int i = 0; i < TASK_COUNT; i++) {
+                assertEquals(Integer.valueOf(i), resultList.get(i));
+            }
+        }
+        {
+            // 正常 (別のキーは並行に進み、空になった列は破棄)
+            final EventDispatcher dispatcher = new EventDispatcher();
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(1);
+            dispatcher.execute(TEST_KEY, new Runnable() {
+                public void run() {
+                    try {
+                        release.await();
+                    }
+                    catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            dispatcher.execute(TEST_KEY_OTHER, new Runnable() {
+                public void run() {
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(10L, TimeUnit.SECONDS));
+            
+            release.countDown();
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+            while (dispatcher.getLaneCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1L);
+            }
+            assertEquals(0, dispatcher.getLaneCount());
+            assertEquals(0, dispatcher.getPendingCount());
+        }
+        {
+            // 正常 (例外が発生しても後続の処理は止めない)
+            final EventDispatcher dispatcher = new EventDispatcher();
+            final CountDownLatch done = new CountDownLatch(1);
+            dispatcher.execute(TEST_KEY, new Runnable() {
+                public void run() {
+                    throw new IllegalStateException("test");
+                }
+            });
+            dispatcher.execute(TEST_KEY, new Runnable() {
+                public void run() {
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(10L, TimeUnit.SECONDS));
+        }
+        {
+            // 正常 (エラーで抜けた処理の後も続きを実行)
+            final EventDispatcher dispatcher = new EventDispatcher();
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(1);
+            dispatcher.execute(TEST_KEY, new Runnable() {
+                public void run() {
+                    try {
+                        release.await();
+                    }
+                    catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new Error("test");
+                }
+            });
+            dispatcher.execute(TEST_KEY, new Runnable() {
+                public void run() {
+                    done.countDown();
+                }
+            });
+            release.countDown();
+            assertTrue(done.await(10L, TimeUnit.SECONDS));
+        }
+        {
+            // エラー (キーがNull)
+            try {
+                new EventDispatcher().execute(null, new Runnable() {
+                    public void run() {
+                    }
+                });
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Key is null.", e.getMessage());
+            }
+        }
+        {
+            // エラー (処理がNull)
+            try {
+                new EventDispatcher().execute(TEST_KEY, null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Task is null.", e.getMessage());
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * テスト用キー
+     */
+    private static final String TEST_KEY       = "#test-channel/a";
+    private static final String TEST_KEY_OTHER = "#test-channel/b";
+    
+    /**
+     * 投入する処理の数
+     */
+    private static final int TASK_COUNT = 1000;
+    
+}
+
@@ -0,0 +1,267 @@
+/**
+ * BenchmarkRunner.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.lang.management.ManagementFactory;
+
+
+
+/**
+ * ベンチマークの計測
+ * 
+ * 準備処理を除いた1操作あたりの時間と割り当てバイト数 (gc.alloc.rate.norm 相当) を計測する。
+ * 割り当てバイト数は計測スレッドのみが対象のため、タスク内で別スレッドを使わないこと。
+ */
+final class BenchmarkRunner {
+    
+    /**
+     * コンストラクタ
+     * 
+     * @param warmupRoundCount ウォームアップ回数。
+     * @param roundCount 計測回数。
+     * @param invokeCount 1回の計測でのタスク実行回数。
+     */
+    public BenchmarkRunner(final int warmupRoundCount, final int roundCount, final int invokeCount) {
+        if (warmupRoundCount < 0) {
+            throw new IllegalArgumentException("Invalid warmup round count - " + warmupRoundCount);
+        }
+        if (roundCount <= 0) {
+            throw new IllegalArgumentException("Invalid round count - " + roundCount);
+        }
+        if (invokeCount <= 0) {
+            throw new IllegalArgumentException("Invalid invoke count - " + invokeCount);
+        }
+        
+        _warmupRoundCount = warmupRoundCount;
+        _roundCount = roundCount;
+        _invokeCount = invokeCount;
+    }
+    
+    
+    
+    /**
+     * 計測
+     * 
+     * @param name ベンチマーク名。
+     * @param task 計測対象のタスク。
+     * @return 計測結果。
+     * @throws Exception タスクで例外が発生した。
+     */
+    public Result run(final String name, final Task task) throws Exception {
+        if (name == null) {
+            throw new NullPointerException("Benchmark name is null.");
+        }
+        if (task == null) {
+            throw new NullPointerException("Task is null.");
+        }
+        
+        for (int round = 0; round < _warmupRoundCount; round++) {
+            measure(task);
+        }
+        
+        Result best = null;
+        long allocatedBytes = 0;
+        long opCount = 0;
+        for (int round = 0; round < _roundCount; round++) {
+            final Result result = measure(task);
+            if (best == null || result.getNanosPerOp() < best.getNanosPerOp()) {
+                best = result;
+            }
+            allocatedBytes += result._allocatedBytes;
+            opCount += result._opCount;
+        }
+        
+        // 時間は最良値、割り当ては全計測の平均
+        final Result result = new Result(name, best._nanos, best._opCount, allocatedBytes * best._opCount / opCount);
+        System.out.println(result);
+        return result;
+    }
+    
+    
+    
+    /**
+     * 現在のスレッドの割り当てバイト数を取得
+     * 
+     * @return 割り当てバイト数。取得できない場合は-1。
+     */
+    private static long getAllocatedBytes() {
+        if (THREAD_BEAN == null) {
+            return -1;
+        }
+        return THREAD_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    
+    /**
+     * スレッド情報を取得
+     * 
+     * @return スレッド情報。割り当てバイト数を取得できない場合はnull。
+     */
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        
+        final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+        if (!sunBean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        return sunBean;
+    }
+    
+    /**
+     * 1回分を計測
+     * 
+     * @param task 計測対象のタスク。
+     * @return 計測結果。
+     * @throws Exception タスクで例外が発生した。
+     */
+    private Result measure(final Task task) throws Exception {
+        long nanos = 0;
+        long allocatedBytes = 0;
+        long opCount = 0;
+        for (int i = 0; i < _invokeCount; i++) {
+            task.prepare();
+            
+            final long startBytes = getAllocatedBytes();
+            final long start = System.nanoTime();
+            final int count = task.run();
+            nanos += System.nanoTime() - start;
+            allocatedBytes += getAllocatedBytes() - startBytes;
+            opCount += count;
+        }
+        return new Result("", nanos, Math.max(opCount, 1), THREAD_BEAN != null ? allocatedBytes : -1);
+    }
+    
+    
+    
+    /**
+     * 割り当てバイト数の計測に使うスレッド情報
+     */
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+    
+    
+    
+    /**
+     * ウォームアップ回数
+     */
+    private final int _warmupRoundCount;
+    
+    /**
+     * 計測回数
+     */
+    private final int _roundCount;
+    
+    /**
+     * 1回の計測でのタスク実行回数
+     */
+    private final int _invokeCount;
+    
+    
+    
+    /**
+     * 計測対象のタスク
+     */
+    public interface Task {
+        
+        /**
+         * 計測前の準備 (計測に含まない)
+         * 
+         * @throws Exception 準備に失敗した。
+         */
+        public void prepare() throws Exception;
+        
+        /**
+         * 計測対象の処理
+         * 
+         * @return 実行した操作の数。
+         * @throws Exception 処理に失敗した。
+         */
+        public int run() throws Exception;
+        
+    }
+    
+    /**
+     * 計測結果
+     */
+    public static final class Result {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param name ベンチマーク名。
+         * @param nanos 経過時間。(ナノ秒)
+         * @param opCount 操作の数。
+         * @param allocatedBytes 割り当てバイト数。取得できない場合は負の値。
+         */
+        public Result(final String name, final long nanos, final long opCount, final long allocatedBytes) {
+            _name = name;
+            _nanos = nanos;
+            _opCount = opCount;
+            _allocatedBytes = allocatedBytes;
+        }
+        
+        
+        
+        /**
+         * 1操作あたりの割り当てバイト数を取得
+         * 
+         * @return 1操作あたりの割り当てバイト数。取得できない場合は-1。
+         */
+        public double getBytesPerOp() {
+            if (_allocatedBytes < 0) {
+                return -1;
+            }
+            return (double)_allocatedBytes / _opCount;
+        }
+        
+        /**
+         * 1操作あたりの時間を取得
+         * 
+         * @return 1操作あたりの時間。(ナノ秒)
+         */
+        public double getNanosPerOp() {
+            return (double)_nanos / _opCount;
+        }
+        
+        /**
+         * 文字列に変換
+         * 
+         * @return 変換結果。
+         */
+        @Override
+        public String toString() {
+            return String.format("%-24s %,14.1f ns/op %,14.1f B/op (%,d ops)", _name, getNanosPerOp(), getBytesPerOp(), _opCount);
+        }
+        
+        
+        
+        /**
+         * ベンチマーク名
+         */
+        private final String _name;
+        
+        /**
+         * 経過時間 (ナノ秒)
+         */
+        private final long _nanos;
+        
+        /**
+         * 操作の数
+         */
+        private final long _opCount;
+        
+        /**
+         * 割り当てバイト数
+         */
+        private final long _allocatedBytes;
+        
+    }
+    
+}
+
@@ -0,0 +1,129 @@
+/**
+ * CallWindowTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * CallWindowのテスト
+ */
+public final class CallWindowTest {
+    
+    /**
+     * expire() のテスト
+     */
+    @Test
+    public void testExpire() {
+        {
+            // 正常 (時間切れの席は見送り扱い)
+            final Map<Wind, List<CallType>> callableTable = new EnumMap<>(Wind.class);
+            callableTable.put(Wind.NAN, Arrays.asList(CallType.CHI));
+            callableTable.put(Wind.SHA, Arrays.asList(CallType.PON));
+            final CallWindow window = new CallWindow(Wind.TON, JanPai.MAN_3, callableTable);
+            assertFalse(window.respond(Wind.NAN, CallType.CHI));
+            
+            assertTrue(window.expire());
+            assertTrue(window.isDecided());
+            assertEquals(Wind.NAN, window.getWinnerWind());
+            assertEquals(CallType.CHI, window.getWinnerCallType());
+        }
+        {
+            // 正常 (決着済みなら結果を変えない)
+            final Map<Wind, List<CallType>> callableTable = new EnumMap<>(Wind.class);
+            callableTable.put(Wind.NAN, Arrays.asList(CallType.PON));
+            final CallWindow window = new CallWindow(Wind.TON, JanPai.MAN_3, callableTable);
+            assertTrue(window.pass(Wind.NAN));
+            
+            assertTrue(window.expire());
+            assertNull(window.getWinnerWind());
+        }
+    }
+    
+    /**
+     * respond() のテスト
+     */
+    @Test
+    public void testRespond() {
+        {
+            // 正常 (ロンはポンより優先)
+            final Map<Wind, List<CallType>> callableTable = new EnumMap<>(Wind.class);
+            callableTable.put(Wind.NAN, Arrays.asList(CallType.PON));
+            callableTable.put(Wind.PEI, Arrays.asList(CallType.RON));
+            final CallWindow window = new CallWindow(Wind.TON, JanPai.MAN_3, callableTable);
+            assertFalse(window.respond(Wind.NAN, CallType.PON));
+            assertNull(window.getWinnerWind());
+            
+            assertTrue(window.respond(Wind.PEI, CallType.RON));
+            assertEquals(Wind.PEI, window.getWinnerWind());
+            assertEquals(CallType.RON, window.getWinnerCallType());
+        }
+        {
+            // 正常 (ロンが重なった場合は頭ハネ)
+            final Map<Wind, List<CallType>> callableTable = new EnumMap<>(Wind.class);
+            callableTable.put(Wind.TON, Arrays.asList(CallType.RON));
+            callableTable.put(Wind.NAN, Arrays.asList(CallType.RON));
+            final CallWindow window = new CallWindow(Wind.PEI, JanPai.MAN_3, callableTable);
+            assertFalse(window.respond(Wind.NAN, CallType.RON));
+            assertTrue(window.respond(Wind.TON, CallType.RON));
+            assertEquals(Wind.TON, window.getWinnerWind());
+        }
+        {
+            // 正常 (上回れる席がなければ全員を待たない)
+            final Map<Wind, List<CallType>> callableTable = new EnumMap<>(Wind.class);
+            callableTable.put(Wind.NAN, Arrays.asList(CallType.RON, CallType.CHI));
+            callableTable.put(Wind.SHA, Arrays.asList(CallType.RON));
+            final CallWindow window = new CallWindow(Wind.TON, JanPai.MAN_3, callableTable);
+            assertTrue(window.respond(Wind.NAN, CallType.RON));
+            assertEquals(Wind.NAN, window.getWinnerWind());
+            assertFalse(window.isPending(Wind.SHA));
+            
+            // 決着後の処理権は1回のみ
+            assertTrue(window.takeDecision());
+            assertFalse(window.takeDecision());
+        }
+        {
+            // 正常 (対象の席がなければ即決着)
+            final CallWindow window = new CallWindow(Wind.TON, JanPai.MAN_3, new EnumMap<Wind, List<CallType>>(Wind.class));
+            assertTrue(window.isDecided());
+            assertNull(window.getWinnerWind());
+        }
+        {
+            // エラー (不可能な副露)
+            final Map<Wind, List<CallType>> callableTable = new EnumMap<>(Wind.class);
+            callableTable.put(Wind.SHA, Arrays.asList(CallType.PON));
+            final CallWindow window = new CallWindow(Wind.TON, JanPai.MAN_3, callableTable);
+            try {
+                window.respond(Wind.SHA, CallType.CHI);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid call type - CHI", e.getMessage());
+            }
+            try {
+                window.respond(Wind.NAN, CallType.PON);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid wind - " + Wind.NAN, e.getMessage());
+            }
+        }
+    }
+    
+}
+
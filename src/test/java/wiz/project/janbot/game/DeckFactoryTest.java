@@ -0,0 +1,118 @@
+/**
+ * DeckFactoryTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * DeckFactoryのテスト
+ */
+public final class DeckFactoryTest {
+    
+    /**
+     * createDeck() のテスト
+     */
+    @Test
+    public void testCreateDeck() {
+        {
+            // 正常 (同じ種の生成器は同じ牌山列を生成)
+            final DeckFactory factory1 = DeckFactory.newSeededFactory(1234L);
+            final DeckFactory factory2 = DeckFactory.newSeededFactory(1234L);
+            for (int i = 0; i < 10; i++) {
+                final Deck deck1 = factory1.createDeck();
+                final Deck deck2 = factory2.createDeck();
+                assertTrue(deck1.isSeeded());
+                assertEquals(deck1.getSeed(), deck2.getSeed());
+                assertEquals(deck1.getPaiList(), deck2.getPaiList());
+                assertEquals(deck1.getWindList(), deck2.getWindList());
+                assertAllPai(deck1.getPaiList());
+                assertAllWind(deck1.getWindList());
+            }
+        }
+        {
+            // 正常 (牌山の種だけで再現できる)
+            final Deck deck = DeckFactory.newSeededFactory(1L).createDeck();
+            final Deck copy = DeckFactory.newSeededFactory(2L).createDeck(deck.getSeed());
+            assertEquals(deck.getSeed(), copy.getSeed());
+            assertEquals(deck.getPaiList(), copy.getPaiList());
+            assertEquals(deck.getWindList(), copy.getWindList());
+        }
+        {
+            // 正常 (種が異なれば牌山も異なる)
+            final DeckFactory factory = DeckFactory.newSeededFactory(0L);
+            assertFalse(factory.createDeck(1L).getPaiList().equals(factory.createDeck(2L).getPaiList()));
+        }
+        {
+            // 正常 (対局用は種を持たない)
+            final Deck deck = DeckFactory.newSecureFactory().createDeck();
+            assertFalse(deck.isSeeded());
+            assertEquals(0L, deck.getSeed());
+            assertAllPai(deck.getPaiList());
+            assertAllWind(deck.getWindList());
+        }
+    }
+    
+    /**
+     * split() のテスト
+     */
+    @Test
+    public void testSplit() {
+        {
+            // 正常 (同じ種の生成器からは同じ生成器が得られる)
+            final DeckFactory factory1 = DeckFactory.newSeededFactory(1234L).split();
+            final DeckFactory factory2 = DeckFactory.newSeededFactory(1234L).split();
+            assertEquals(factory1.createDeck().getPaiList(), factory2.createDeck().getPaiList());
+        }
+        {
+            // 正常 (対局用からは対局用)
+            assertFalse(DeckFactory.newSecureFactory().split().createDeck().isSeeded());
+        }
+    }
+    
+    
+    
+    /**
+     * 全ての風が1つずつあることを確認
+     * 
+     * @param windList 風のリスト。
+     */
+    static void assertAllWind(final List<Wind> windList) {
+        final List<Wind> sortedList = new ArrayList<>(windList);
+        Collections.sort(sortedList);
+        assertEquals(Arrays.asList(Wind.values()), sortedList);
+    }
+    
+    /**
+     * 全ての牌が4枚ずつあることを確認
+     * 
+     * @param paiList 牌のリスト。
+     */
+    static void assertAllPai(final List<JanPai> paiList) {
+        assertEquals(136, paiList.size());
+        final int[] countArray = new int[JanPai.values().length];
+        for (final JanPai pai : paiList) {
+            countArray[pai.ordinal()]++;
+        }
+        for (final int count : countArray) {
+            assertEquals(4, count);
+        }
+    }
+    
+}
+
@@ -0,0 +1,115 @@
+/**
+ * DeckPoolTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+
+
+/**
+ * DeckPoolのテスト
+ */
+public final class DeckPoolTest {
+    
+    /**
+     * コンストラクタのテスト
+     */
+    @SuppressWarnings("unused")
+    @Test
+    public void testConstructor() {
+        {
+            // エラー (生成器がNull)
+            try {
+                new DeckPool(null, 1, 1);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Deck factory is null.", e.getMessage());
+            }
+        }
+        {
+            // エラー (不正な上限数)
+            try {
+                new DeckPool(DeckFactory.newSeededFactory(0L), 0, 1);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid capacity - 0", e.getMessage());
+            }
+        }
+        {
+            // エラー (不正なスレッド数)
+            try {
+                new DeckPool(DeckFactory.newSeededFactory(0L), 1, 0);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid thread count - 0", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * take() のテスト
+     */
+    @Test
+    public void testTake() throws InterruptedException {
+        {
+            // 正常 (補充スレッドが上限まで満たす)
+            final DeckPool pool = new DeckPool(DeckFactory.newSeededFactory(1L), 4, 2);
+            waitPooled(pool, 4);
+            assertEquals(4, pool.getRefilledCount());
+            
+            final Deck deck = pool.take();
+            DeckFactoryTest.assertAllPai(deck.getPaiList());
+            DeckFactoryTest.assertAllWind(deck.getWindList());
+            assertEquals(1, pool.getTakenCount());
+            assertEquals(0, pool.getStarvedCount());
+            
+            // 取り出した分は補充される
+            waitPooled(pool, 4);
+            assertEquals(5, pool.getRefilledCount());
+            pool.shutdown();
+        }
+        {
+            // 正常 (停止後に空になったら呼び出し元で生成)
+            final DeckPool pool = new DeckPool(DeckFactory.newSeededFactory(2L), 1, 1);
+            waitPooled(pool, 1);
+            pool.shutdown();
+            pool.take();
+            assertEquals(0, pool.getStarvedCount());
+            
+            DeckFactoryTest.assertAllPai(pool.take().getPaiList());
+            assertEquals(2, pool.getTakenCount());
+            assertEquals(1, pool.getStarvedCount());
+            assertEquals(1, pool.getRefilledCount());
+        }
+    }
+    
+    
+    
+    /**
+     * プールが指定数まで満たされるのを待機
+     * 
+     * @param pool 牌山のプール。
+     * @param count 牌山数。
+     * @throws InterruptedException 割り込みが発生した。
+     */
+    private void waitPooled(final DeckPool pool, final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000L;
+        while (pool.getPooledCount() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Deck pool was not refilled.");
+            }
+            Thread.sleep(10L);
+        }
+    }
+    
+}
+
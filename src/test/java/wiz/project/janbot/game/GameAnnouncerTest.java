@@ -9,6 +9,7 @@ package wiz.project.janbot.game;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -29,10 +30,10 @@ import wiz.project.janbot.MockBOT;
 public final class GameAnnouncerTest {
     
     /**
-     * update() のテスト
+     * onEvent() のテスト
      */
     @Test
-    public void testUpdate() {
+    public void testOnEvent() {
         {
             // 正常 (手牌)
             MockBOT.initialize();
@@ -41,7 +42,7 @@ public final class GameAnnouncerTest {
             final String playerName = TEST_PLAYER_NAME;
             final JanInfo info = createGameInfo(playerName);
             final GameAnnouncer announcer = createAnnouncer();
-            announcer.update(info, AnnounceFlag.HAND);
+            announcer.onEvent(GameEvent.info(info, EnumSet.of(AnnounceFlag.HAND)));
         }
         {
             // 正常 (場情報)
@@ -51,7 +52,7 @@ public final class GameAnnouncerTest {
             final String playerName = TEST_PLAYER_NAME;
             final JanInfo info = createGameInfo(playerName);
             final GameAnnouncer announcer = createAnnouncer();
-            announcer.update(info, AnnounceFlag.RIVER_SINGLE);
+            announcer.onEvent(GameEvent.info(info, EnumSet.of(AnnounceFlag.RIVER_SINGLE)));
         }
         {
             // 正常 (捨て牌)
@@ -61,7 +62,7 @@ public final class GameAnnouncerTest {
             final String playerName = TEST_PLAYER_NAME;
             final JanInfo info = createGameInfo(playerName);
             final GameAnnouncer announcer = createAnnouncer();
-            announcer.update(info, AnnounceFlag.FIELD);
+            announcer.onEvent(GameEvent.info(info, EnumSet.of(AnnounceFlag.FIELD)));
         }
     }
     
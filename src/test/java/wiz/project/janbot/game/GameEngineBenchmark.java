@@ -0,0 +1,281 @@
+/**
+ * GameEngineBenchmark.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.janbot.game.exception.InvalidInputException;
+
+
+
+/**
+ * ゲームエンジンの主要処理の計測
+ * 
+ * 打牌、待ち判定の更新、ゲーム情報の複製、実況の文字列化、雀牌の解析、NPCのみの1局を計測する。
+ * 牌山は固定の種から生成するため、同じ引数なら毎回同じ局面を計測する。
+ */
+public final class GameEngineBenchmark {
+    
+    /**
+     * メイン
+     * 
+     * @param args 起動引数。(1番目: 計測回数 2番目: 対象のベンチマーク名の部分文字列)
+     * @throws Exception 計測中に例外が発生した。
+     */
+    public static void main(final String[] args) throws Exception {
+        final int roundCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUND_COUNT;
+        final String filter = args.length > 1 ? args[1] : "";
+        final BenchmarkRunner runner = new BenchmarkRunner(WARMUP_ROUND_COUNT, roundCount, INVOKE_COUNT);
+        final DeckFactory factory = DeckFactory.newSeededFactory(RANDOM_SEED);
+        
+        // 実況の文字列化のみを計測するため、送信キューは止めておく
+        MessageDispatcher.getInstance().shutdown();
+        
+        final Map<String, BenchmarkRunner.Task> taskTable = new TreeMap<>();
+        taskTable.put("announce.updateOnSolo", createAnnounceTask(factory));
+        taskTable.put("game.comOnly", createComOnlyTask(factory));
+        taskTable.put("info.clone", createCloneTask(factory));
+        taskTable.put("parser.parse", createParseTask());
+        taskTable.put("solo.discard", createDiscardTask(factory));
+        taskTable.put("wait.update", createWaitTask(factory));
+        for (final Map.Entry<String, BenchmarkRunner.Task> entry : taskTable.entrySet()) {
+            if (entry.getKey().contains(filter)) {
+                runner.run(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+    
+    /**
+     * 途中局面のゲーム情報を生成
+     * 
+     * @param factory 牌山生成器。
+     * @return ゲーム情報。
+     * @throws Exception 局面の生成に失敗した。
+     */
+    static JanInfo createMidGameInfo(final DeckFactory factory) throws Exception {
+        final SoloJanController controller = new SoloJanController();
+        controller.start(factory.createDeck().getPaiList(), createPlayerTable(Wind.TON));
+        for (int i = 0; i < MID_GAME_TURN; i++) {
+            final TurnResult result = controller.discard();
+            if (result.isCallable()) {
+                controller.next();
+            }
+        }
+        return controller.getGameInfo();
+    }
+    
+    /**
+     * プレイヤーテーブルを生成
+     * 
+     * @param playerWind プレイヤーの風。NPCのみの場合はnull。
+     * @return プレイヤーテーブル。
+     */
+    static Map<Wind, Player> createPlayerTable(final Wind playerWind) {
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        for (final Wind wind : Wind.values()) {
+            if (wind == playerWind) {
+                playerTable.put(wind, new Player("benchmark", PlayerType.HUMAN));
+            }
+            else {
+                playerTable.put(wind, new Player("COM", PlayerType.COM));
+            }
+        }
+        return playerTable;
+    }
+    
+    
+    
+    /**
+     * 実況の文字列化のタスクを生成
+     * 
+     * @param factory 牌山生成器。
+     * @return タスク。
+     * @throws Exception 局面の生成に失敗した。
+     */
+    private static BenchmarkRunner.Task createAnnounceTask(final DeckFactory factory) throws Exception {
+        final JanInfo info = createMidGameInfo(factory);
+        final GameAnnouncer announcer = new GameAnnouncer();
+        final EnumSet<AnnounceFlag> flagSet = EnumSet.of(AnnounceFlag.FIELD, AnnounceFlag.RIVER_SINGLE, AnnounceFlag.HAND, AnnounceFlag.ACTIVE_TSUMO);
+        return new BenchmarkRunner.Task() {
+            public void prepare() {
+            }
+            public int run() {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    announcer.updateOnSolo(info, flagSet);
+                }
+                return BATCH_SIZE;
+            }
+        };
+    }
+    
+    /**
+     * ゲーム情報の複製のタスクを生成
+     * 
+     * @param factory 牌山生成器。
+     * @return タスク。
+     * @throws Exception 局面の生成に失敗した。
+     */
+    private static BenchmarkRunner.Task createCloneTask(final DeckFactory factory) throws Exception {
+        final JanInfo info = createMidGameInfo(factory);
+        return new BenchmarkRunner.Task() {
+            public void prepare() {
+            }
+            public int run() {
+                int count = 0;
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    count += info.clone().getRemainCount() >= 0 ? 1 : 0;
+                }
+                return count;
+            }
+        };
+    }
+    
+    /**
+     * NPCのみの1局のタスクを生成
+     * 
+     * @param factory 牌山生成器。
+     * @return タスク。
+     */
+    private static BenchmarkRunner.Task createComOnlyTask(final DeckFactory factory) {
+        final Map<Wind, Player> playerTable = createPlayerTable(null);
+        return new BenchmarkRunner.Task() {
+            public void prepare() {
+                _deck = factory.createDeck().getPaiList();
+            }
+            public int run() throws Exception {
+                final SoloJanController controller = new SoloJanController();
+                controller.start(_deck, playerTable);
+                return 1;
+            }
+            private List<JanPai> _deck = null;
+        };
+    }
+    
+    /**
+     * 打牌のタスクを生成 (1局分のツモ切りを計測)
+     * 
+     * @param factory 牌山生成器。
+     * @return タスク。
+     */
+    private static BenchmarkRunner.Task createDiscardTask(final DeckFactory factory) {
+        final Map<Wind, Player> playerTable = createPlayerTable(Wind.TON);
+        return new BenchmarkRunner.Task() {
+            public void prepare() throws Exception {
+                _controller = new SoloJanController();
+                _controller.start(factory.createDeck().getPaiList(), playerTable);
+            }
+            public int run() throws Exception {
+                int count = 0;
+                TurnResult result = TurnResult.CONTINUE;
+                while (!result.isGameSet()) {
+                    result = result.isCallable() ? _controller.next() : _controller.discard();
+                    count++;
+                }
+                return count;
+            }
+            private SoloJanController _controller = null;
+        };
+    }
+    
+    /**
+     * 雀牌の解析のタスクを生成
+     * 
+     * @return タスク。
+     */
+    private static BenchmarkRunner.Task createParseTask() {
+        final List<String> sourceList = new ArrayList<>();
+        for (final JanPai pai : JanPai.values()) {
+            sourceList.add(pai.toString());
+        }
+        sourceList.add("1m");
+        sourceList.add("9s");
+        sourceList.add("xx");
+        return new BenchmarkRunner.Task() {
+            public void prepare() {
+            }
+            public int run() {
+                int count = 0;
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    for (final String source : sourceList) {
+                        try {
+                            JanPaiParser.parse(source);
+                        }
+                        catch (final InvalidInputException e) {
+                            // 解析失敗も計測対象
+                        }
+                        count++;
+                    }
+                }
+                return count;
+            }
+        };
+    }
+    
+    /**
+     * 待ち判定の更新のタスクを生成
+     * 
+     * @param factory 牌山生成器。
+     * @return タスク。
+     */
+    private static BenchmarkRunner.Task createWaitTask(final DeckFactory factory) {
+        final List<JanPaiCount> handList = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            handList.add(new JanPaiCount(factory.createDeck().getPaiList().subList(0, 13)));
+        }
+        final WaitIndex index = new WaitIndex();
+        return new BenchmarkRunner.Task() {
+            public void prepare() {
+            }
+            public int run() {
+                for (final JanPaiCount hand : handList) {
+                    index.update(hand);
+                }
+                return handList.size();
+            }
+        };
+    }
+    
+    
+    
+    /**
+     * 計測回数 (デフォルト)
+     */
+    private static final int DEFAULT_ROUND_COUNT = 5;
+    
+    /**
+     * ウォームアップ回数
+     */
+    private static final int WARMUP_ROUND_COUNT = 3;
+    
+    /**
+     * 1回の計測でのタスク実行回数
+     */
+    private static final int INVOKE_COUNT = 20;
+    
+    /**
+     * タスク1回あたりの繰り返し数
+     */
+    private static final int BATCH_SIZE = 1000;
+    
+    /**
+     * 途中局面までの打牌回数
+     */
+    private static final int MID_GAME_TURN = 8;
+    
+    /**
+     * 乱数の種
+     */
+    static final long RANDOM_SEED = 20140101L;
+    
+}
+
@@ -0,0 +1,210 @@
+/**
+ * GameEventBusTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.jan.util.JanPaiUtil;
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * GameEventBusのテスト
+ */
+public final class GameEventBusTest {
+    
+    /**
+     * publish() のテスト
+     */
+    @Test
+    public void testPublish() {
+        {
+            // 正常 (登録順に配信)
+            final GameEventBus bus = new GameEventBus();
+            final List<String> recordList = new ArrayList<>();
+            bus.subscribe(new RecordListener("a", recordList));
+            bus.subscribe(new RecordListener("b", recordList));
+            bus.publish(GameEvent.info(new JanInfo(), null));
+            assertEquals(Arrays.asList("a:INFO", "b:INFO"), recordList);
+        }
+        {
+            // 正常 (購読終了後は配信しない)
+            final GameEventBus bus = new GameEventBus();
+            final List<String> recordList = new ArrayList<>();
+            final RecordListener listener = new RecordListener("a", recordList);
+            bus.subscribe(listener);
+            assertTrue(bus.hasListener());
+            
+            bus.unsubscribe(listener);
+            assertFalse(bus.hasListener());
+            bus.publish(GameEvent.info(new JanInfo(), null));
+            assertTrue(recordList.isEmpty());
+        }
+        {
+            // 正常 (NPCのみの卓は打牌70回の後に流局)
+            final Map<GameEventType, Integer> countTable = new EnumMap<>(GameEventType.class);
+            final SoloJanController controller = new SoloJanController(new GameEventListener() {
+                public void onEvent(final GameEvent event) {
+                    final Integer count = countTable.get(event.getType());
+                    countTable.put(event.getType(), count != null ? count + 1 : 1);
+                }
+            });
+            try {
+                controller.start(createDeck(), createComPlayerTable());
+            }
+            catch (final JanException e) {
+                fail(e.getMessage());
+            }
+            assertEquals(Integer.valueOf(70), countTable.get(GameEventType.TSUMO));
+            assertEquals(Integer.valueOf(70), countTable.get(GameEventType.DISCARD));
+            assertEquals(Integer.valueOf(1), countTable.get(GameEventType.RYUKYOKU));
+        }
+        {
+            // エラー (イベントがNull)
+            try {
+                new GameEventBus().publish(null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Game event is null.", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * subscribe() のテスト
+     */
+    @Test
+    public void testSubscribe() {
+        {
+            // 正常 (実行者を通して配信)
+            final List<Runnable> taskList = new ArrayList<>();
+            final List<String> recordList = new ArrayList<>();
+            final RecordListener listener = new RecordListener("a", recordList);
+            final GameEventBus bus = new GameEventBus();
+            bus.subscribe(listener, new Executor() {
+                public void execute(final Runnable task) {
+                    taskList.add(task);
+                }
+            });
+            bus.publish(GameEvent.info(new JanInfo(), null));
+            assertTrue(recordList.isEmpty());
+            assertEquals(1, taskList.size());
+            
+            taskList.get(0).run();
+            assertEquals(Arrays.asList("a:INFO"), recordList);
+            
+            // 元の購読者で購読終了できる
+            bus.unsubscribe(listener);
+            assertFalse(bus.hasListener());
+        }
+        {
+            // エラー (購読者がNull)
+            try {
+                new GameEventBus().subscribe(null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Listener is null.", e.getMessage());
+            }
+        }
+        {
+            // エラー (実行者がNull)
+            try {
+                new GameEventBus().subscribe(new RecordListener("a", new ArrayList<String>()), null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Executor is null.", e.getMessage());
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * NPCのみのプレイヤーテーブルを生成
+     * 
+     * @return プレイヤーテーブル。
+     */
+    private Map<Wind, Player> createComPlayerTable() {
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        for (final Wind wind : Wind.values()) {
+            playerTable.put(wind, new Player("COM", PlayerType.COM));
+        }
+        return playerTable;
+    }
+    
+    /**
+     * 牌山を生成
+     * 
+     * @return 牌山。
+     */
+    private List<JanPai> createDeck() {
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        Collections.shuffle(deck, new SecureRandom());
+        return deck;
+    }
+    
+    
+    
+    /**
+     * 受信内容を記録する購読者
+     */
+    private static final class RecordListener implements GameEventListener {
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param name 購読者名。
+         * @param recordList 記録先。
+         */
+        public RecordListener(final String name, final List<String> recordList) {
+            _name = name;
+            _recordList = recordList;
+        }
+        
+        
+        
+        /**
+         * イベント受信時の処理
+         */
+        public void onEvent(final GameEvent event) {
+            _recordList.add(_name + ":" + event.getType());
+        }
+        
+        
+        
+        /**
+         * 購読者名
+         */
+        private final String _name;
+        
+        /**
+         * 記録先
+         */
+        private final List<String> _recordList;
+        
+    }
+    
+}
+
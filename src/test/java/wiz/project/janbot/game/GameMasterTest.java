@@ -9,6 +9,7 @@ package wiz.project.janbot.game;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.junit.Test;
 
@@ -33,6 +34,44 @@ public final class GameMasterTest {
         }
     }
     
+    /**
+     * getTableName() のテスト
+     */
+    @Test
+    public void testGetTableName() throws JanException {
+        {
+            // 正常 (未着席はプレイヤーごと)
+            final String name = GameMaster.getInstance().getTableName(TEST_CHANNEL, TEST_PLAYER_NAME);
+            final String nameOther = GameMaster.getInstance().getTableName(TEST_CHANNEL, TEST_PLAYER_NAME_OTHER);
+            assertFalse(name.equals(nameOther));
+        }
+        {
+            // 正常 (同じ卓は同じ名前)
+            MockBOT.initialize();
+            MockBOT.connect();
+            
+            try {
+                GameMaster.getInstance().onStartVS(TEST_CHANNEL, Arrays.asList(TEST_PLAYER_NAME, TEST_PLAYER_NAME_OTHER));
+                final String name = GameMaster.getInstance().getTableName(TEST_CHANNEL, TEST_PLAYER_NAME);
+                final String nameOther = GameMaster.getInstance().getTableName(TEST_CHANNEL, TEST_PLAYER_NAME_OTHER);
+                assertEquals(name, nameOther);
+            }
+            finally {
+                GameMaster.getInstance().onEnd();
+            }
+        }
+        {
+            // エラー (プレイヤー名がNull)
+            try {
+                GameMaster.getInstance().getTableName(TEST_CHANNEL, null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Player name is null.", e.getMessage());
+            }
+        }
+    }
+    
     /**
      * onDiscard() のテスト
      */
@@ -44,8 +83,8 @@ public final class GameMasterTest {
             MockBOT.connect();
             
             try {
-                GameMaster.getInstance().onStartSolo(TEST_PLAYER_NAME);
-                GameMaster.getInstance().onDiscard();
+                GameMaster.getInstance().onStartSolo(TEST_CHANNEL, TEST_PLAYER_NAME);
+                GameMaster.getInstance().onDiscard(TEST_CHANNEL, TEST_PLAYER_NAME);
             }
             finally {
                 GameMaster.getInstance().onEnd();
@@ -64,7 +103,7 @@ public final class GameMasterTest {
             MockBOT.connect();
             
             try {
-                GameMaster.getInstance().onStartSolo(TEST_PLAYER_NAME);
+                GameMaster.getInstance().onStartSolo(TEST_CHANNEL, TEST_PLAYER_NAME);
             }
             finally {
                 GameMaster.getInstance().onEnd();
@@ -73,6 +112,32 @@ public final class GameMasterTest {
         }
     }
     
+    /**
+     * onEnd() のテスト (複数卓)
+     */
+    @Test
+    public void testOnEndMultiTable() throws JanException, IOException {
+        {
+            // 正常 (他の卓は継続)
+            MockBOT.initialize();
+            MockBOT.connect();
+            
+            try {
+                GameMaster.getInstance().onStartSolo(TEST_CHANNEL, TEST_PLAYER_NAME);
+                GameMaster.getInstance().onStartSolo(TEST_CHANNEL, TEST_PLAYER_NAME_OTHER);
+                assertEquals(GameStatus.PLAYING_SOLO, GameMaster.getInstance().getStatus(TEST_CHANNEL, TEST_PLAYER_NAME));
+                assertEquals(GameStatus.PLAYING_SOLO, GameMaster.getInstance().getStatus(TEST_CHANNEL, TEST_PLAYER_NAME_OTHER));
+                
+                GameMaster.getInstance().onEnd(TEST_CHANNEL, TEST_PLAYER_NAME);
+                assertEquals(GameStatus.IDLE, GameMaster.getInstance().getStatus(TEST_CHANNEL, TEST_PLAYER_NAME));
+                assertEquals(GameStatus.PLAYING_SOLO, GameMaster.getInstance().getStatus(TEST_CHANNEL, TEST_PLAYER_NAME_OTHER));
+            }
+            finally {
+                GameMaster.getInstance().onEnd();
+            }
+        }
+    }
+    
     /**
      * onStartSolo() のテスト
      */
@@ -85,7 +150,7 @@ public final class GameMasterTest {
             
             final String playerName = TEST_PLAYER_NAME;
             try {
-                GameMaster.getInstance().onStartSolo(playerName);
+                GameMaster.getInstance().onStartSolo(TEST_CHANNEL, playerName);
                 assertEquals(GameStatus.PLAYING_SOLO, GameMaster.getInstance().getStatus());
             }
             finally {
@@ -99,8 +164,8 @@ public final class GameMasterTest {
             
             final String playerName = TEST_PLAYER_NAME;
             try {
-                GameMaster.getInstance().onStartSolo(playerName);
-                GameMaster.getInstance().onStartSolo(playerName);
+                GameMaster.getInstance().onStartSolo(TEST_CHANNEL, playerName);
+                GameMaster.getInstance().onStartSolo(TEST_CHANNEL, playerName);
                 assertEquals(GameStatus.PLAYING_SOLO, GameMaster.getInstance().getStatus());
             }
             finally {
@@ -114,7 +179,7 @@ public final class GameMasterTest {
             
             final String playerName = "";
             try {
-                GameMaster.getInstance().onStartSolo(playerName);
+                GameMaster.getInstance().onStartSolo(TEST_CHANNEL, playerName);
                 fail();
             }
             catch (final IllegalArgumentException e) {
@@ -132,7 +197,7 @@ public final class GameMasterTest {
             
             final String playerName = null;
             try {
-                GameMaster.getInstance().onStartSolo(playerName);
+                GameMaster.getInstance().onStartSolo(TEST_CHANNEL, playerName);
                 fail();
             }
             catch (final NullPointerException e) {
@@ -147,10 +212,16 @@ public final class GameMasterTest {
     
     
     
+    /**
+     * チャンネル名
+     */
+    private static final String TEST_CHANNEL = "#test-channel";
+    
     /**
      * プレイヤー名
      */
-    private static final String TEST_PLAYER_NAME = "テストプレイヤー";
+    private static final String TEST_PLAYER_NAME       = "テストプレイヤー";
+    private static final String TEST_PLAYER_NAME_OTHER = "テストプレイヤー2";
     
 }
 
@@ -0,0 +1,90 @@
+/**
+ * GameMetricsTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.Test;
+
+
+
+/**
+ * GameMetricsのテスト
+ */
+public final class GameMetricsTest {
+    
+    /**
+     * getSnapshot() のテスト
+     */
+    @Test
+    public void testGetSnapshot() {
+        {
+            // 正常 (集計項目とコマンドの処理時間)
+            final GameMetrics metrics = GameMetrics.getInstance();
+            final long started = metrics.getCount(GameCounterType.GAME_STARTED);
+            metrics.countUp(GameCounterType.GAME_STARTED);
+            metrics.recordCommand("test_snapshot", 2000000L);
+            
+            final Map<String, Long> snapshot = metrics.getSnapshot();
+            assertEquals(Long.valueOf(started + 1), snapshot.get("game.game_started"));
+            assertEquals(Long.valueOf(1), snapshot.get("command.test_snapshot.count"));
+            assertEquals(Long.valueOf(2000000L), snapshot.get("command.test_snapshot.max_ns"));
+            assertTrue(snapshot.containsKey("table_wait.p99_ns"));
+        }
+        {
+            // エラー (集計項目がNull)
+            try {
+                GameMetrics.getInstance().countUp(null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Counter type is null.", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * MetricsHttpServer のテスト
+     */
+    @Test
+    public void testHttpServer() throws Exception {
+        {
+            // 正常 (テキスト形式で応答)
+            GameMetrics.getInstance().recordCommand("test_http", 1000L);
+            final MetricsHttpServer server = new MetricsHttpServer(GameMetrics.getInstance(), 0);
+            server.start();
+            try {
+                final URL url = new URL("http://127.0.0.1:" + server.getPort() + "/metrics");
+                final HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+                assertEquals(200, connection.getResponseCode());
+                
+                boolean found = false;
+                try (final BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.equals("janbot_command_test_http_count 1")) {
+                            found = true;
+                        }
+                    }
+                }
+                assertTrue(found);
+            }
+            finally {
+                server.stop();
+            }
+        }
+    }
+    
+}
+
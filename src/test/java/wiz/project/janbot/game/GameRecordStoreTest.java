@@ -0,0 +1,230 @@
+/**
+ * GameRecordStoreTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.jan.util.JanPaiUtil;
+
+
+
+/**
+ * GameRecordStoreのテスト
+ */
+public final class GameRecordStoreTest {
+    
+    /**
+     * append() のテスト
+     */
+    @Test
+    public void testAppend() throws IOException {
+        final Path directory = Files.createTempDirectory("record");
+        try {
+            {
+                // 正常 (セグメントをまたいで追記し、ゲームコードで読み込む)
+                final GameRecordStore store = new GameRecordStore(directory, 512, 4);
+                assertNull(store.readLast());
+                
+                final List<String> gameCodeList = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    gameCodeList.add(store.append(createRecord(i)));
+                }
+                assertEquals(10, store.getCount());
+                assertEquals(GameRecordStore.toGameCode(9), gameCodeList.get(9));
+                for (int i = 0; i < 10; i++) {
+                    assertEquals(i, store.read(gameCodeList.get(i)).getSeed());
+                }
+                assertEquals(9, store.readLast().getSeed());
+                assertNull(store.read(10));
+                store.close();
+            }
+            {
+                // 正常 (開き直すと続きから追記)
+                final GameRecordStore store = new GameRecordStore(directory, 512, 4);
+                assertEquals(10, store.getCount());
+                assertEquals(GameRecordStore.toGameCode(10), store.append(createRecord(10)));
+                assertEquals(3, store.read(3).getSeed());
+                assertEquals(10, store.readLast().getSeed());
+                store.close();
+            }
+        }
+        finally {
+            delete(directory);
+        }
+        
+        final Path holeDirectory = Files.createTempDirectory("record");
+        try {
+            {
+                // 準備 (2件目の索引だけディスクに書き出されずに落ちた状態を作る)
+                final GameRecordStore store = new GameRecordStore(holeDirectory, 512, 4);
+                for (int i = 0; i < 3; i++) {
+                    store.append(createRecord(i));
+                }
+                store.close();
+                
+                try (final FileChannel channel = FileChannel.open(holeDirectory.resolve("record_00000.idx"),
+                                                                  StandardOpenOption.WRITE)) {
+                    channel.write(ByteBuffer.allocate(8), 8);
+                }
+            }
+            {
+                // 異常 (穴以降の索引は切り捨てる)
+                final GameRecordStore store = new GameRecordStore(holeDirectory, 512, 4);
+                assertEquals(1, store.getCount());
+                assertNull(store.read(2));
+                assertEquals(GameRecordStore.toGameCode(1), store.append(createRecord(11)));
+                assertEquals(11, store.read(1).getSeed());
+                assertNull(store.read(2));
+                store.close();
+            }
+            {
+                // 正常 (切り捨てた古い索引は開き直しても復活しない)
+                final GameRecordStore store = new GameRecordStore(holeDirectory, 512, 4);
+                assertEquals(2, store.getCount());
+                assertEquals(0, store.read(0).getSeed());
+                assertEquals(11, store.readLast().getSeed());
+                store.close();
+            }
+        }
+        finally {
+            delete(holeDirectory);
+        }
+        
+        final Path tornDirectory = Files.createTempDirectory("record");
+        try {
+            {
+                // 準備 (索引は書き出されたが2件目のデータが書き出されずに落ちた状態を作る)
+                final GameRecordStore store = new GameRecordStore(tornDirectory, 512, 4);
+                for (int i = 0; i < 3; i++) {
+                    store.append(createRecord(i));
+                }
+                store.close();
+                
+                try (final FileChannel channel = FileChannel.open(tornDirectory.resolve("record_00000.dat"),
+                                                                  StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    final ByteBuffer length = ByteBuffer.allocate(4);
+                    channel.read(length, 0);
+                    channel.write(ByteBuffer.allocate(4), 8 + length.getInt(0) + 8);
+                }
+            }
+            {
+                // 異常 (CRCが一致しない牌譜以降は切り捨てる)
+                final GameRecordStore store = new GameRecordStore(tornDirectory, 512, 4);
+                assertEquals(1, store.getCount());
+                assertEquals(0, store.readLast().getSeed());
+                assertEquals(GameRecordStore.toGameCode(1), store.append(createRecord(12)));
+                assertEquals(12, store.read(1).getSeed());
+                store.close();
+            }
+        }
+        finally {
+            delete(tornDirectory);
+        }
+        
+        final Path smallDirectory = Files.createTempDirectory("record");
+        try {
+            // エラー (セグメントに収まらない)
+            final GameRecordStore store = new GameRecordStore(smallDirectory, 64, 4);
+            try {
+                store.append(createRecord(0));
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertTrue(e.getMessage().startsWith("Invalid record size - "));
+            }
+            assertEquals(0, store.getCount());
+        }
+        finally {
+            delete(smallDirectory);
+        }
+    }
+    
+    /**
+     * parseGameCode() のテスト
+     */
+    @Test
+    public void testParseGameCode() {
+        {
+            // 正常
+            assertEquals(0L, GameRecordStore.parseGameCode("0"));
+            assertEquals(1295L, GameRecordStore.parseGameCode("ZZ"));
+            assertEquals(1295L, GameRecordStore.parseGameCode("zz"));
+            assertEquals("ZZ", GameRecordStore.toGameCode(1295L));
+        }
+        {
+            // エラー (不正なコード)
+            try {
+                GameRecordStore.parseGameCode("-1");
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid game code - -1", e.getMessage());
+            }
+            try {
+                GameRecordStore.parseGameCode("あ");
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid game code - あ", e.getMessage());
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 牌譜を生成
+     * 
+     * @param seed 乱数シード。
+     * @return 牌譜。
+     */
+    private GameRecord createRecord(final long seed) {
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        Collections.shuffle(deck, new Random(seed));
+        
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        for (final Wind wind : Wind.values()) {
+            playerTable.put(wind, new Player("COM_" + wind, PlayerType.COM));
+        }
+        return new GameRecord(deck, playerTable, seed, 0L);
+    }
+    
+    /**
+     * ディレクトリを削除
+     * 
+     * @param directory ディレクトリ。
+     * @throws IOException 削除に失敗。
+     */
+    private void delete(final Path directory) throws IOException {
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (final Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+    
+}
+
@@ -0,0 +1,162 @@
+/**
+ * GameRecordTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.jan.util.JanPaiUtil;
+
+
+
+/**
+ * GameRecordのテスト
+ */
+public final class GameRecordTest {
+    
+    /**
+     * コンストラクタのテスト
+     */
+    @SuppressWarnings("unused")
+    @Test
+    public void testConstructor() {
+        {
+            // エラー (牌山がNull)
+            try {
+                new GameRecord(null, createPlayerTable(), 0L, 0L);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Deck is null.", e.getMessage());
+            }
+        }
+        {
+            // エラー (プレイヤーが不足)
+            final Map<Wind, Player> playerTable = createPlayerTable();
+            playerTable.remove(Wind.PEI);
+            try {
+                new GameRecord(createDeck(), playerTable, 0L, 0L);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Player is not found - " + Wind.PEI, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * read() のテスト
+     */
+    @Test
+    public void testRead() throws IOException {
+        {
+            // 正常 (書き込んだ内容を復元)
+            final List<JanPai> deck = createDeck();
+            final Map<Wind, Player> playerTable = createPlayerTable();
+            final GameRecord source = new GameRecord(deck, playerTable, 1234L, 5678L);
+            source.addAction(new GameAction(GameActionType.DISCARD, Wind.TON, JanPai.MAN_1));
+            source.addAction(new GameAction(GameActionType.NEXT, Wind.NAN, null));
+            
+            final byte[] data = source.toByteArray();
+            final GameRecord record = GameRecord.read(data);
+            assertEquals(deck, record.getDeck());
+            assertEquals(playerTable, record.getPlayerTable());
+            assertEquals(1234L, record.getSeed());
+            assertEquals(5678L, record.getTimestamp());
+            assertEquals(source.getActionList(), record.getActionList());
+            
+            // 牌は1枚1バイト、操作は1件3バイト
+            final int nameSize = "テスト".getBytes("UTF-8").length + "COM_01".length() * 3;
+            assertEquals(22 + 136 + 4 * 2 + nameSize + 4 + 2 * 3, data.length);
+        }
+        {
+            // エラー (識別子が不正)
+            final byte[] data = new GameRecord(createDeck(), createPlayerTable(), 0L, 0L).toByteArray();
+            data[0] = 'X';
+            try {
+                GameRecord.read(data);
+                fail();
+            }
+            catch (final IOException e) {
+                assertEquals("Invalid game record magic.", e.getMessage());
+            }
+        }
+        {
+            // エラー (途中で終わっている)
+            final byte[] data = new GameRecord(createDeck(), createPlayerTable(), 0L, 0L).toByteArray();
+            try {
+                GameRecord.read(Arrays.copyOf(data, data.length - 1));
+                fail();
+            }
+            catch (final IOException e) {
+                assertEquals("Game record is truncated.", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * write() のテスト
+     */
+    @Test
+    public void testWrite() throws IOException {
+        final Path directory = Files.createTempDirectory("record");
+        final Path path = directory.resolve("game_record.bin");
+        try {
+            // 正常 (上書きしても一時ファイルは残らない)
+            new GameRecord(createDeck(), createPlayerTable(), 1L, 0L).write(path);
+            new GameRecord(createDeck(), createPlayerTable(), 2L, 0L).write(path);
+            assertEquals(2L, GameRecord.read(path).getSeed());
+            assertFalse(Files.exists(directory.resolve("game_record.bin.tmp")));
+        }
+        finally {
+            Files.deleteIfExists(path);
+            Files.delete(directory);
+        }
+    }
+    
+    
+    
+    /**
+     * 牌山を生成
+     * 
+     * @return 牌山。
+     */
+    private List<JanPai> createDeck() {
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        Collections.shuffle(deck, new Random(0L));
+        return deck;
+    }
+    
+    /**
+     * プレイヤーテーブルを生成
+     * 
+     * @return プレイヤーテーブル。
+     */
+    private Map<Wind, Player> createPlayerTable() {
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        playerTable.put(Wind.TON, new Player("COM_01", PlayerType.COM));
+        playerTable.put(Wind.NAN, new Player("テスト", PlayerType.HUMAN));
+        playerTable.put(Wind.SHA, new Player("COM_02", PlayerType.COM));
+        playerTable.put(Wind.PEI, new Player("COM_03", PlayerType.COM));
+        return playerTable;
+    }
+    
+}
+
@@ -0,0 +1,232 @@
+/**
+ * GameRecordWriterTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.jan.util.JanPaiUtil;
+
+
+
+/**
+ * GameRecordWriterのテスト
+ */
+public final class GameRecordWriterTest {
+    
+    /**
+     * コンストラクタのテスト
+     */
+    @SuppressWarnings("unused")
+    @Test
+    public void testConstructor() throws IOException {
+        final Path directory = Files.createTempDirectory("record");
+        try {
+            final GameRecordStore store = new GameRecordStore(directory, 4096, 16);
+            {
+                // エラー (同期方針がNull)
+                try {
+                    new GameRecordWriter(store, 1, 1, null);
+                    fail();
+                }
+                catch (final NullPointerException e) {
+                    assertEquals("Sync policy is null.", e.getMessage());
+                }
+            }
+            {
+                // エラー (不正な上限数)
+                try {
+                    new GameRecordWriter(store, 0, 1, SyncPolicy.NONE);
+                    fail();
+                }
+                catch (final IllegalArgumentException e) {
+                    assertEquals("Invalid capacity - 0", e.getMessage());
+                }
+            }
+        }
+        finally {
+            delete(directory);
+        }
+    }
+    
+    /**
+     * submit() のテスト
+     */
+    @Test
+    public void testSubmit() throws IOException, InterruptedException {
+        final Path directory = Files.createTempDirectory("record");
+        try {
+            final GameRecordStore store = new GameRecordStore(directory, 4096, 16);
+            {
+                // 正常 (受付順に書き込み、完了を通知)
+                final GameRecordWriter writer = new GameRecordWriter(store, 100, 8, SyncPolicy.BATCH);
+                final RecordCallback callback = new RecordCallback();
+                for (int i = 0; i < 20; i++) {
+                    writer.submit(createRecord(i), callback);
+                }
+                assertTrue(writer.flush(10000L));
+                
+                assertEquals(20, callback.getGameCodeList().size());
+                for (int i = 0; i < 20; i++) {
+                    assertEquals(i, store.read(callback.getGameCodeList().get(i)).getSeed());
+                }
+                assertEquals(20, writer.getWrittenCount());
+                assertEquals(0, writer.getFailedCount());
+                assertEquals(0, writer.getPendingCount());
+                assertTrue(writer.getBatchCount() <= 20);
+                assertTrue(writer.getTotalLatencyNanos() >= writer.getMaxLatencyNanos());
+                writer.shutdown();
+            }
+            {
+                // 正常 (停止後は呼び出し元で書き込む)
+                final GameRecordWriter writer = new GameRecordWriter(store, 100, 8, SyncPolicy.EVERY_RECORD);
+                writer.shutdown();
+                
+                final RecordCallback callback = new RecordCallback();
+                writer.submit(createRecord(99), callback);
+                assertEquals(1, callback.getGameCodeList().size());
+                assertEquals(99, store.readLast().getSeed());
+                assertEquals(1, writer.getOverflowCount());
+            }
+            {
+                // 異常 (通知先のエラーで書き込みスレッドが抜けても、残りの牌譜は新しいスレッドで書き込む)
+                final GameRecordWriter writer = new GameRecordWriter(store, 100, 1, SyncPolicy.BATCH);
+                final RecordCallback callback = new RecordCallback();
+                writer.submit(createRecord(100), new RecordCallback() {
+                    @Override
+                    public void onWritten(final String gameCode) {
+                        throw new Error("test");
+                    }
+                });
+                writer.submit(createRecord(101), callback);
+                assertTrue(writer.flush(10000L));
+                
+                assertEquals(1, callback.getGameCodeList().size());
+                assertEquals(101, store.read(callback.getGameCodeList().get(0)).getSeed());
+                assertEquals(2, writer.getWrittenCount());
+                assertEquals(0, writer.getPendingCount());
+                
+                writer.submit(createRecord(102), callback);
+                assertTrue(writer.flush(10000L));
+                assertEquals(2, callback.getGameCodeList().size());
+                writer.shutdown();
+            }
+            store.close();
+        }
+        finally {
+            delete(directory);
+        }
+    }
+    
+    
+    
+    /**
+     * 牌譜を生成
+     * 
+     * @param seed 乱数シード。
+     * @return 牌譜。
+     */
+    private GameRecord createRecord(final long seed) {
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        Collections.shuffle(deck, new Random(seed));
+        
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        for (final Wind wind : Wind.values()) {
+            playerTable.put(wind, new Player("COM_" + wind, PlayerType.COM));
+        }
+        return new GameRecord(deck, playerTable, seed, 0L);
+    }
+    
+    /**
+     * ディレクトリを削除
+     * 
+     * @param directory ディレクトリ。
+     * @throws IOException 削除に失敗。
+     */
+    private void delete(final Path directory) throws IOException {
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (final Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+    
+    
+    
+    /**
+     * 結果を記録する通知先
+     */
+    private static class RecordCallback implements GameRecordCallback {
+        
+        /**
+         * コンストラクタ
+         */
+        public RecordCallback() {
+        }
+        
+        
+        
+        /**
+         * ゲームコードリストを取得
+         * 
+         * @return ゲームコードリスト。
+         */
+        public List<String> getGameCodeList() {
+            synchronized (_gameCodeList) {
+                return new ArrayList<>(_gameCodeList);
+            }
+        }
+        
+        /**
+         * 書き込みに失敗した
+         */
+        public void onFailed(final Throwable e) {
+            fail(e.getMessage());
+        }
+        
+        /**
+         * 同期に失敗した
+         */
+        public void onSyncFailed(final String gameCode, final Throwable e) {
+            fail(e.getMessage());
+        }
+        
+        /**
+         * 書き込みが完了した
+         */
+        public void onWritten(final String gameCode) {
+            synchronized (_gameCodeList) {
+                _gameCodeList.add(gameCode);
+            }
+        }
+        
+        
+        
+        /**
+         * ゲームコードリスト
+         */
+        private final List<String> _gameCodeList = new ArrayList<>();
+        
+    }
+    
+}
+
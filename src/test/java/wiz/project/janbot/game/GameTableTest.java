@@ -0,0 +1,139 @@
+/**
+ * GameTableTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.FutureTask;
+
+import org.junit.Test;
+
+import wiz.project.jan.Wind;
+import wiz.project.jan.util.JanPaiUtil;
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * GameTableのテスト
+ */
+public final class GameTableTest {
+    
+    /**
+     * claimPrompt() のテスト
+     */
+    @Test
+    public void testClaimPrompt() {
+        {
+            // 正常 (席ごとに独立)
+            final GameTable table = createTable();
+            final CallPrompt prompt1 = new CallPrompt("p1", Arrays.asList(CallType.PON));
+            final CallPrompt prompt2 = new CallPrompt("p2", Arrays.asList(CallType.RON));
+            table.openPrompt(prompt1);
+            table.openPrompt(prompt2);
+            
+            assertSame(prompt1, table.claimPrompt("p1"));
+            assertNull(table.getPrompt("p1"));
+            assertSame(prompt2, table.getPrompt("p2"));
+            assertNull(table.claimPrompt("p1"));
+        }
+        {
+            // 正常 (応答に失敗したら戻す)
+            final GameTable table = createTable();
+            final CallPrompt prompt = new CallPrompt("p1", Arrays.asList(CallType.CHI));
+            table.openPrompt(prompt);
+            table.restorePrompt(table.claimPrompt("p1"));
+            assertSame(prompt, table.getPrompt("p1"));
+            
+            // 新しい確認待ちがあれば戻さない
+            final CallPrompt newPrompt = new CallPrompt("p1", Arrays.asList(CallType.PON));
+            table.claimPrompt("p1");
+            table.openPrompt(newPrompt);
+            table.restorePrompt(prompt);
+            assertSame(newPrompt, table.getPrompt("p1"));
+        }
+        {
+            // 正常 (時間切れ処理は同じ確認待ちのみ引き取れる)
+            final GameTable table = createTable();
+            final CallPrompt oldPrompt = new CallPrompt("p1", Arrays.asList(CallType.PON));
+            final CallPrompt newPrompt = new CallPrompt("p1", Arrays.asList(CallType.RON));
+            table.openPrompt(oldPrompt);
+            table.openPrompt(newPrompt);
+            assertFalse(table.claimPrompt(oldPrompt));
+            assertTrue(table.claimPrompt(newPrompt));
+            assertFalse(table.claimPrompt(newPrompt));
+        }
+    }
+    
+    /**
+     * close() のテスト
+     */
+    @Test
+    public void testClose() {
+        {
+            // 正常 (確認待ちと時間切れの予約も破棄)
+            final GameTable table = createTable();
+            table.open(GameStatus.PLAYING_SOLO);
+            final CallPrompt prompt = new CallPrompt("p1", Arrays.asList(CallType.PON));
+            final FutureTask<Void> future = new FutureTask<>(new Runnable() {
+                public void run() {
+                }
+            }, null);
+            prompt.setTimeoutFuture(future);
+            table.openPrompt(prompt);
+            
+            assertTrue(table.close());
+            assertNull(table.getPrompt("p1"));
+            assertTrue(future.isCancelled());
+        }
+    }
+    
+    /**
+     * start() のテスト
+     */
+    @Test
+    public void testStart() throws JanException {
+        {
+            // 正常 (開始処理中のイベントも購読者に届く)
+            final GameTable table = createTable();
+            final List<GameEventType> typeList = new ArrayList<>();
+            final GameEventListener listener = new GameEventListener() {
+                public void onEvent(final GameEvent event) {
+                    typeList.add(event.getType());
+                }
+            };
+            
+            // NPCのみの対戦は開始処理の中で流局まで進む
+            final Map<Wind, Player> playerTable = new TreeMap<>();
+            for (final Wind wind : Wind.values()) {
+                playerTable.put(wind, new Player("COM_" + wind, PlayerType.COM));
+            }
+            final TurnResult result = table.start(false, JanPaiUtil.createAllJanPaiList(), playerTable, Arrays.asList(listener));
+            assertEquals(TurnResult.gameSet(GameSetStatus.GAME_OVER), result);
+            assertEquals(GameEventType.INFO, typeList.get(0));
+            assertEquals(GameEventType.RYUKYOKU, typeList.get(typeList.size() - 1));
+        }
+    }
+    
+    
+    
+    /**
+     * 2人が着席した卓を生成
+     * 
+     * @return 卓。
+     */
+    private GameTable createTable() {
+        return new GameTable(new TableKey("#test", "p1"), Arrays.asList("p1", "p2"));
+    }
+    
+}
+
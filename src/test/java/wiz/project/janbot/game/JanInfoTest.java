@@ -0,0 +1,111 @@
+/**
+ * JanInfoTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import wiz.project.jan.Hand;
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * JanInfoのテスト
+ */
+public final class JanInfoTest {
+    
+    /**
+     * getHand() のテスト
+     */
+    @Test
+    public void testGetHand() {
+        {
+            // 正常 (スナップショットの手牌を変更しても共有中の手牌は変わらない)
+            final JanInfo info = new JanInfo();
+            info.setHand(Wind.TON, new Hand(new ArrayList<>(Arrays.asList(JanPai.HAKU, JanPai.HATU))));
+            final JanInfo snapshot = info.snapshot();
+            final JanInfo other = info.snapshot();
+            
+            snapshot.getHand(Wind.TON).addJanPai(JanPai.CHUN);
+            assertEquals(2, other.getMenZenList(Wind.TON).size());
+            assertEquals(2, info.getMenZenList(Wind.TON).size());
+        }
+        {
+            // 正常 (書き戻した手牌は既存のスナップショットに影響しない)
+            final JanInfo info = new JanInfo();
+            info.setHand(Wind.TON, new Hand(new ArrayList<>(Arrays.asList(JanPai.HAKU, JanPai.HATU))));
+            final JanInfo snapshot = info.snapshot();
+            
+            final Hand hand = info.getHand(Wind.TON);
+            hand.addJanPai(JanPai.CHUN);
+            info.setHand(Wind.TON, hand);
+            assertEquals(3, info.getMenZenList(Wind.TON).size());
+            assertEquals(2, snapshot.getMenZenList(Wind.TON).size());
+        }
+        {
+            // 正常 (風がNull)
+            assertEquals(0, new JanInfo().getHand(null).getMenZenSize());
+        }
+    }
+    
+    /**
+     * getWanPai() のテスト
+     */
+    @Test
+    public void testGetWanPai() {
+        {
+            // 正常 (スナップショットの王牌を変更しても共有中の王牌は変わらない)
+            final JanInfo info = new JanInfo();
+            info.setWanPai(new WanPai(createWanPaiSource()));
+            final JanInfo snapshot = info.snapshot();
+            
+            snapshot.getWanPai().openNewDora();
+            assertEquals(1, info.getDoraList().size());
+            assertEquals(1, snapshot.getDoraList().size());
+        }
+    }
+    
+    /**
+     * setHand() のテスト
+     */
+    @Test
+    public void testSetHand() {
+        {
+            // エラー (スナップショットは変更不可)
+            try {
+                new JanInfo().snapshot().setHand(Wind.TON, new Hand());
+                fail();
+            }
+            catch (final UnsupportedOperationException e) {
+                assertEquals("Snapshot is read-only.", e.getMessage());
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 王牌の元になる牌リストを生成
+     * 
+     * @return 牌リスト。
+     */
+    private ArrayList<JanPai> createWanPaiSource() {
+        final ArrayList<JanPai> sourceList = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            sourceList.add(JanPai.values()[i]);
+        }
+        return sourceList;
+    }
+    
+}
+
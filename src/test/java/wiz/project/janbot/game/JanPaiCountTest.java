@@ -0,0 +1,88 @@
+/**
+ * JanPaiCountTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import wiz.project.jan.Hand;
+import wiz.project.jan.JanPai;
+import wiz.project.jan.util.JanPaiUtil;
+
+
+
+/**
+ * JanPaiCountのテスト
+ */
+public final class JanPaiCountTest {
+    
+    /**
+     * コンストラクタのテスト
+     */
+    @SuppressWarnings("unused")
+    @Test
+    public void testConstructor() {
+        {
+            // 正常 (手牌から生成)
+            final List<JanPai> sourceList = Arrays.asList(JanPai.MAN_1, JanPai.MAN_1, JanPai.PIN_5, JanPai.CHUN);
+            final JanPaiCount count = new JanPaiCount(new Hand(sourceList));
+            assertEquals(2, count.get(JanPai.MAN_1));
+            assertEquals(1, count.get(JanPai.PIN_5));
+            assertEquals(1, count.get(JanPai.CHUN));
+            assertEquals(0, count.get(JanPai.SOU_9));
+            assertEquals(4, count.getTotal());
+        }
+        {
+            // エラー (手牌がNull)
+            final Hand hand = null;
+            try {
+                new JanPaiCount(hand);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Hand is null.", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * add(), remove() のテスト
+     */
+    @Test
+    public void testAddRemove() {
+        final JanPaiCount count = new JanPaiCount();
+        count.add(JanPai.TON);
+        count.add(JanPai.TON);
+        assertEquals(2, count.get(JanPai.TON));
+        assertTrue(count.contains(JanPai.TON));
+        
+        count.remove(JanPai.TON);
+        count.remove(JanPai.TON);
+        count.remove(JanPai.TON);
+        assertEquals(0, count.get(JanPai.TON));
+        assertFalse(count.contains(JanPai.TON));
+    }
+    
+    /**
+     * toMap() のテスト
+     */
+    @Test
+    public void testToMap() {
+        final List<JanPai> sourceList = Arrays.asList(JanPai.MAN_1, JanPai.MAN_2, JanPai.MAN_3, JanPai.SOU_7, JanPai.SOU_7, JanPai.HAKU);
+        final Map<JanPai, Integer> expected = new Hand(sourceList).getMenZenMap();
+        JanPaiUtil.cleanJanPaiMap(expected);
+        assertEquals(expected, new JanPaiCount(sourceList).toMap());
+        assertEquals(new JanPaiCount(new Hand(sourceList)), new JanPaiCount(sourceList));
+    }
+    
+}
+
@@ -0,0 +1,92 @@
+/**
+ * LatencyHistogramTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+
+
+/**
+ * LatencyHistogramのテスト
+ */
+public final class LatencyHistogramTest {
+    
+    /**
+     * getIndex() のテスト
+     */
+    @Test
+    public void testGetIndex() {
+        {
+            // 正常 (区間の上限値と次の区間の境界が一致)
+            long lower = 0;
+            for (int index = 0; index < LatencyHistogram.getIndex(Long.MAX_VALUE); index++) {
+                final long upper = LatencyHistogram.getUpperBound(index);
+                assertEquals(index, LatencyHistogram.getIndex(lower));
+                assertEquals(index, LatencyHistogram.getIndex(upper));
+                assertEquals(index + 1, LatencyHistogram.getIndex(upper + 1));
+                
+                // 区間の幅は下限値の1/16以内
+                assertTrue(upper - lower <= Math.max(lower / 16, 1));
+                lower = upper + 1;
+            }
+            assertEquals(Long.MAX_VALUE, LatencyHistogram.getUpperBound(LatencyHistogram.getIndex(Long.MAX_VALUE)));
+        }
+    }
+    
+    /**
+     * getPercentile() のテスト
+     */
+    @Test
+    public void testGetPercentile() {
+        {
+            // 正常 (記録なし)
+            final LatencyHistogram histogram = new LatencyHistogram();
+            assertEquals(0, histogram.getCount());
+            assertEquals(0, histogram.getMean());
+            assertEquals(0, histogram.getPercentile(99.0));
+        }
+        {
+            // 正常 (1～1000を記録)
+            final LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 1; i <= 1000; i++) {
+                histogram.record(i * 1000L);
+            }
+            assertEquals(1000, histogram.getCount());
+            assertEquals(500500L, histogram.getMean());
+            assertEquals(1000000L, histogram.getMax());
+            assertEquals(1000000L, histogram.getPercentile(100.0));
+            
+            final long p0 = histogram.getPercentile(0.0);
+            assertTrue(p0 >= 1000L && p0 <= 1000L * 17 / 16);
+            final long p50 = histogram.getPercentile(50.0);
+            assertTrue(p50 >= 500000L && p50 <= 500000L * 17 / 16);
+            final long p99 = histogram.getPercentile(99.0);
+            assertTrue(p99 >= 990000L && p99 <= 1000000L);
+        }
+        {
+            // 正常 (負の値は0として扱う)
+            final LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(-1);
+            assertEquals(1, histogram.getCount());
+            assertEquals(0, histogram.getMax());
+        }
+        {
+            // エラー (不正な百分位)
+            try {
+                new LatencyHistogram().getPercentile(100.5);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid percentile - 100.5", e.getMessage());
+            }
+        }
+    }
+    
+}
+
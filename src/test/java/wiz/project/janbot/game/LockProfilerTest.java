@@ -0,0 +1,100 @@
+/**
+ * LockProfilerTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+
+
+/**
+ * LockProfilerのテスト
+ */
+public final class LockProfilerTest {
+    
+    /**
+     * toLineList() のテスト
+     */
+    @Test
+    public void testToLineList() throws InterruptedException {
+        final LockProfiler profiler = LockProfiler.getInstance();
+        try {
+            {
+                // 正常 (無効時は記録しない)
+                profiler.reset();
+                profiler.setEnabled(false);
+                final ProfiledLock lock = new ProfiledLock("test.disabled");
+                lock.lock();
+                lock.unlock();
+                assertEquals(1, profiler.toLineList().size());
+            }
+            {
+                // 正常 (ロック名とコマンド名ごとに記録、再入は1回分)
+                profiler.reset();
+                profiler.setEnabled(true);
+                profiler.setCommand("discard");
+                final ProfiledLock lock = new ProfiledLock("test.enabled");
+                lock.lock();
+                lock.lock();
+                lock.unlock();
+                lock.unlock();
+                profiler.clearCommand();
+                
+                final List<String> lineList = profiler.toLineList();
+                assertEquals(2, lineList.size());
+                assertEquals("lock profile: on", lineList.get(0));
+                assertTrue(lineList.get(1).startsWith("test.enabled <discard>: n=1 "));
+            }
+            {
+                // 正常 (コマンド名のないスレッドはスレッド名で記録し、待ち時間は常時記録先にも記録)
+                profiler.reset();
+                final LatencyHistogram waitHistogram = new LatencyHistogram();
+                final ProfiledLock lock = new ProfiledLock("test.contended", waitHistogram);
+                final CountDownLatch latch = new CountDownLatch(1);
+                final Thread thread = new Thread(new Runnable() {
+                    public void run() {
+                        latch.countDown();
+                        lock.lock();
+                        lock.unlock();
+                    }
+                }, "LockProfilerTest");
+                
+                lock.lock();
+                try {
+                    thread.start();
+                    latch.await();
+                    Thread.sleep(20L);
+                }
+                finally {
+                    lock.unlock();
+                }
+                thread.join();
+                
+                assertEquals(2, waitHistogram.getCount());
+                assertTrue(waitHistogram.getMax() > 0);
+                
+                boolean found = false;
+                for (final String line : profiler.toLineList()) {
+                    if (line.startsWith("test.contended <(LockProfilerTest)>: n=1 ")) {
+                        found = true;
+                    }
+                }
+                assertTrue(found);
+            }
+        }
+        finally {
+            profiler.setEnabled(false);
+            profiler.reset();
+        }
+    }
+    
+}
+
@@ -0,0 +1,259 @@
+/**
+ * MessageDispatcherTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+
+
+/**
+ * MessageDispatcherのテスト
+ */
+public final class MessageDispatcherTest {
+    
+    /**
+     * コンストラクタのテスト
+     */
+    @SuppressWarnings("unused")
+    @Test
+    public void testConstructor() {
+        {
+            // エラー (送信先がNull)
+            try {
+                new MessageDispatcher(null, 1, 0, 1);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Sender is null.", e.getMessage());
+            }
+        }
+        {
+            // エラー (不正な連続送信数)
+            try {
+                new MessageDispatcher(new RecordSender(), 0, 0, 1);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid burst size - 0", e.getMessage());
+            }
+        }
+        {
+            // エラー (不正な上限数)
+            try {
+                new MessageDispatcher(new RecordSender(), 1, 0, 0);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid capacity - 0", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * pack() のテスト
+     */
+    @Test
+    public void testPack() {
+        final String target = "#test-channel";
+        final int limit = MessageDispatcher.getPayloadLimit(target);
+        final MessageDispatcher dispatcher = new MessageDispatcher(new RecordSender(), 1, 0, 1);
+        {
+            // 正常 (長い行を分割)
+            final String source = createString('a', limit + 10);
+            final List<String> lineList = dispatcher.pack(target, Arrays.asList(source));
+            assertEquals(Arrays.asList(createString('a', limit), createString('a', 10)), lineList);
+        }
+        {
+            // 正常 (マルチバイト文字は文字の境界で分割)
+            final String source = createString('牌', (limit / 3) * 2 + 1);
+            final List<String> lineList = dispatcher.pack(target, Arrays.asList(source));
+            assertEquals(3, lineList.size());
+            assertEquals(limit / 3, lineList.get(0).length());
+            assertEquals(source, lineList.get(0) + lineList.get(1) + lineList.get(2));
+        }
+        {
+            // 正常 (連結無効)
+            assertEquals(Arrays.asList("a", "b"), dispatcher.pack(target, Arrays.asList("a", "b")));
+        }
+        {
+            // 正常 (連結有効)
+            dispatcher.setLinePacking(true);
+            assertEquals(Arrays.asList("a  b"), dispatcher.pack(target, Arrays.asList("a", "b")));
+            
+            final String longLine = createString('c', limit - 1);
+            assertEquals(Arrays.asList("a", longLine), dispatcher.pack(target, Arrays.asList("a", longLine)));
+        }
+    }
+    
+    /**
+     * talk() のテスト
+     */
+    @Test
+    public void testTalk() throws InterruptedException {
+        {
+            // 正常 (送信先ごとに順序を保つ)
+            final RecordSender sender = new RecordSender();
+            final MessageDispatcher dispatcher = new MessageDispatcher(sender, 2, 0, 100);
+            dispatcher.talk("#a", Arrays.asList("a1", "a2", "a3"));
+            dispatcher.talk("#b", "b1");
+            dispatcher.println("c1");
+            dispatcher.talk("#a", "a4");
+            assertTrue(dispatcher.flush(10000L));
+            
+            assertEquals(Arrays.asList("a1", "a2", "a3", "a4"), sender.getMessageList("#a"));
+            assertEquals(Arrays.asList("b1"), sender.getMessageList("#b"));
+            assertEquals(Arrays.asList("c1"), sender.getMessageList(""));
+            assertEquals(6, dispatcher.getPostedCount());
+            assertEquals(6, dispatcher.getSentLineCount());
+            assertEquals(0, dispatcher.getPendingCount());
+            assertEquals(0, dispatcher.getDroppedCount());
+            dispatcher.shutdown();
+        }
+        {
+            // 正常 (上限を超えたメッセージは破棄)
+            final CountDownLatch latch = new CountDownLatch(1);
+            final RecordSender sender = new RecordSender(latch);
+            final MessageDispatcher dispatcher = new MessageDispatcher(sender, 1, 0, 3);
+            dispatcher.talk("#a", Arrays.asList("a1", "a2", "a3"));
+            dispatcher.talk("#a", "a4");
+            assertEquals(1, dispatcher.getDroppedCount());
+            assertEquals(3, dispatcher.getMaxPendingCount());
+            
+            latch.countDown();
+            assertTrue(dispatcher.flush(10000L));
+            assertEquals(Arrays.asList("a1", "a2", "a3"), sender.getMessageList("#a"));
+            dispatcher.shutdown();
+        }
+        {
+            // 正常 (送信中にエラーが発生しても配送を続ける)
+            final RecordSender sender = new RecordSender();
+            final MessageDispatcher dispatcher = new MessageDispatcher(new MessageSender() {
+                public void send(final String target, final String message) {
+                    if (message.equals("error")) {
+                        throw new Error("test");
+                    }
+                    sender.send(target, message);
+                }
+            }, 1, 0, 100);
+            dispatcher.talk("#a", "error");
+            assertTrue(dispatcher.flush(10000L));
+            dispatcher.talk("#a", "a1");
+            assertTrue(dispatcher.flush(10000L));
+            
+            assertEquals(Arrays.asList("a1"), sender.getMessageList("#a"));
+            assertEquals(1, dispatcher.getFailedCount());
+            assertEquals(0, dispatcher.getPendingCount());
+            dispatcher.shutdown();
+        }
+        {
+            // エラー (メッセージがNull)
+            final MessageDispatcher dispatcher = new MessageDispatcher(new RecordSender(), 1, 0, 1);
+            try {
+                dispatcher.talk("#a", (String)null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Message is null.", e.getMessage());
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 同じ文字を並べた文字列を生成
+     * 
+     * @param c 文字。
+     * @param length 長さ。
+     * @return 生成結果。
+     */
+    private String createString(final char c, final int length) {
+        final char[] buf = new char[length];
+        Arrays.fill(buf, c);
+        return new String(buf);
+    }
+    
+    
+    
+    /**
+     * 送信内容を記録する送信先
+     */
+    private static final class RecordSender implements MessageSender {
+        
+        /**
+         * コンストラクタ
+         */
+        public RecordSender() {
+            this(new CountDownLatch(0));
+        }
+        
+        /**
+         * コンストラクタ
+         * 
+         * @param latch 送信前に待機するラッチ。
+         */
+        public RecordSender(final CountDownLatch latch) {
+            _latch = latch;
+        }
+        
+        
+        
+        /**
+         * 送信先ごとのメッセージリストを取得
+         * 
+         * @param target 送信先。
+         * @return メッセージリスト。
+         */
+        public List<String> getMessageList(final String target) {
+            final List<String> resultList = new ArrayList<>();
+            synchronized (_recordList) {
+                for (final String[] record : _recordList) {
+                    if (record[0].equals(target)) {
+                        resultList.add(record[1]);
+                    }
+                }
+            }
+            return resultList;
+        }
+        
+        /**
+         * メッセージを1行送信
+         */
+        public void send(final String target, final String message) {
+            try {
+                _latch.await();
+            }
+            catch (final InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            _recordList.add(new String[] { target, message });
+        }
+        
+        
+        
+        /**
+         * 送信前に待機するラッチ
+         */
+        private final CountDownLatch _latch;
+        
+        /**
+         * 送信記録
+         */
+        private final List<String[]> _recordList = Collections.synchronizedList(new ArrayList<String[]>());
+        
+    }
+    
+}
+
@@ -0,0 +1,78 @@
+/**
+ * SimulatorTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import wiz.project.jan.Wind;
+
+
+
+/**
+ * Simulatorのテスト
+ */
+public final class SimulatorTest {
+    
+    /**
+     * コンストラクタのテスト
+     */
+    @SuppressWarnings("unused")
+    @Test
+    public void testConstructor() {
+        {
+            // エラー (不正なスレッド数)
+            try {
+                new Simulator(0);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid thread count - 0", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * run() のテスト
+     */
+    @Test
+    public void testRun() throws InterruptedException {
+        final SimulationResult single = new Simulator(1).run(TEST_SEED, TEST_HAND_COUNT);
+        assertEquals(TEST_HAND_COUNT, single.getHandCount());
+        assertEquals(TEST_HAND_COUNT, single.getDrawCount() + single.getTsumoCount() + single.getRonCount());
+        
+        long winCount = 0;
+        for (final Wind wind : Wind.values()) {
+            winCount += single.getWinCount(wind);
+        }
+        assertEquals(single.getTsumoCount() + single.getRonCount(), winCount);
+        
+        // スレッド数によらず同じ結果になる
+        final SimulationResult multi = new Simulator(4).run(TEST_SEED, TEST_HAND_COUNT);
+        assertEquals(single.getDrawCount(), multi.getDrawCount());
+        assertEquals(single.getTsumoCount(), multi.getTsumoCount());
+        assertEquals(single.getRonCount(), multi.getRonCount());
+        for (final Wind wind : Wind.values()) {
+            assertEquals(single.getWinCount(wind), multi.getWinCount(wind));
+        }
+    }
+    
+    
+    
+    /**
+     * テスト用の乱数の種
+     */
+    private static final long TEST_SEED = 12345L;
+    
+    /**
+     * テスト用の局数
+     */
+    private static final int TEST_HAND_COUNT = 500;
+    
+}
+
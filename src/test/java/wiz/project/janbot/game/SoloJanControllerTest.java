@@ -7,6 +7,7 @@ package wiz.project.janbot.game;
 import static org.junit.Assert.*;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -370,6 +371,74 @@ public final class SoloJanControllerTest {
         }
     }
     
+    /**
+     * replay() のテスト
+     */
+    @Test
+    public void testReplay() throws JanException {
+        {
+            // 正常 (指定巡目の打牌直前まで実況なしで進める)
+            final List<JanPai> deck = createDeck();
+            final Map<Wind, Player> playerTable = createPlayerTable(TEST_PLAYER_NAME, Wind.TON);
+            final int turn = 6;
+            
+            // ツモ切りと副露見送りで1局進め、指定巡目の状態を記録
+            final JanController source = new SoloJanController();
+            TurnResult result = source.start(deck, playerTable);
+            JanInfo expected = null;
+            int discardCount = 0;
+            while (!result.isGameSet()) {
+                if (result.isCallable()) {
+                    result = source.next();
+                    continue;
+                }
+                if (discardCount == turn - 1) {
+                    expected = source.getGameInfo();
+                }
+                result = source.discard();
+                discardCount++;
+            }
+            final List<GameAction> actionList = source.getActionList();
+            assertEquals(GameActionType.DISCARD, actionList.get(0).getType());
+            assertEquals(Wind.TON, actionList.get(0).getWind());
+            
+            final List<GameEvent> eventList = new ArrayList<>();
+            final JanController controller = new SoloJanController(new GameEventListener() {
+                public void onEvent(final GameEvent event) {
+                    eventList.add(event);
+                }
+            });
+            result = controller.replay(deck, playerTable, actionList, turn);
+            assertFalse(result.isGameSet());
+            assertEquals(TurnPhase.WAIT_DISCARD, controller.getPhase());
+            
+            final JanInfo info = controller.getGameInfo();
+            assertEquals(expected.getRemainCount(), info.getRemainCount());
+            assertEquals(expected.getActiveTsumo(), info.getActiveTsumo());
+            for (final Wind wind : Wind.values()) {
+                assertEquals(expected.getRiver(wind), info.getRiver(wind));
+            }
+            
+            // 再開位置の実況のみ
+            assertEquals(1, eventList.size());
+            assertEquals(GameEventType.INFO, eventList.get(0).getType());
+            
+            // 再実行した操作も記録される
+            assertEquals(turn - 1, countDiscard(controller.getActionList()));
+        }
+        {
+            // エラー (不正な巡目)
+            final JanController controller = createJanController();
+            try {
+                controller.replay(createDeck(), createPlayerTable(TEST_PLAYER_NAME, Wind.TON), new ArrayList<GameAction>(), 0);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid turn - 0", e.getMessage());
+            }
+        }
+    }
+    
     /**
      * start() のテスト
      */
@@ -473,7 +542,66 @@ public final class SoloJanControllerTest {
         }
     }
     
+    /**
+     * step() のテスト
+     */
+    @Test
+    public void testStep() throws JanException {
+        {
+            // 正常 (NPCのみの卓を1手番ずつ進める)
+            final Map<Wind, Player> playerTable = new TreeMap<>();
+            for (final Wind wind : Wind.values()) {
+                playerTable.put(wind, new Player("COM", PlayerType.COM));
+            }
+            
+            final JanController controller = new SoloJanController();
+            controller.setAutoPlay(false);
+            controller.start(createDeck(), playerTable);
+            assertEquals(TurnPhase.DRAW, controller.getPhase());
+            
+            int stepCount = 0;
+            TurnResult result = controller.step();
+            while (!result.isGameSet()) {
+                assertFalse(result.isCallable());
+                assertEquals(TurnPhase.DRAW, controller.getPhase());
+                stepCount++;
+                result = controller.step();
+            }
+            assertEquals(GameSetStatus.GAME_OVER, result.getStatus());
+            assertEquals(70, stepCount);
+            assertEquals(TurnPhase.END, controller.getPhase());
+            assertEquals(0, controller.getGameInfo().getRemainCount());
+        }
+        {
+            // エラー (開始前)
+            final JanController controller = createJanController();
+            try {
+                controller.step();
+                fail();
+            }
+            catch (final JanException e) {
+                assertEquals("Game is not started.", e.getMessage());
+            }
+        }
+    }
+    
+    
     
+    /**
+     * 打牌数を取得
+     * 
+     * @param actionList 操作履歴。
+     * @return 打牌数。
+     */
+    private int countDiscard(final List<GameAction> actionList) {
+        int count = 0;
+        for (final GameAction action : actionList) {
+            if (action.getType().isDiscard()) {
+                count++;
+            }
+        }
+        return count;
+    }
     
     /**
      * 牌山を生成
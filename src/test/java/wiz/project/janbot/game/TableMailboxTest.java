@@ -0,0 +1,187 @@
+/**
+ * TableMailboxTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * TableMailboxのテスト
+ */
+public final class TableMailboxTest {
+    
+    /**
+     * call() のテスト
+     */
+    @Test
+    public void testCall() throws JanException {
+        final TableMailbox mailbox = new TableMailbox();
+        {
+            // 正常 (結果を返す)
+            assertEquals("a", mailbox.call(new Callable<String>() {
+                public String call() {
+                    return "a";
+                }
+            }));
+        }
+        {
+            // 正常 (処理の中からの呼び出しはその場で実行)
+            final String result = mailbox.call(new Callable<String>() {
+                public String call() throws JanException {
+                    assertTrue(mailbox.isOwner());
+                    return mailbox.call(new Callable<String>() {
+                        public String call() {
+                            return "nested";
+                        }
+                    });
+                }
+            });
+            assertEquals("nested", result);
+            assertFalse(mailbox.isOwner());
+        }
+        {
+            // エラー (ゲーム処理エラーはそのまま投げ直す)
+            try {
+                mailbox.call(new Callable<String>() {
+                    public String call() throws JanException {
+                        throw new JanException("test");
+                    }
+                });
+                fail();
+            }
+            catch (final JanException e) {
+                assertEquals("test", e.getMessage());
+            }
+        }
+        {
+            // エラー (非検査例外もそのまま投げ直す)
+            try {
+                mailbox.call(new Callable<String>() {
+                    public String call() {
+                        throw new IllegalStateException("test");
+                    }
+                });
+                fail();
+            }
+            catch (final IllegalStateException e) {
+                assertEquals("test", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * execute() のテスト
+     */
+    @Test
+    public void testExecute() throws InterruptedException {
+        {
+            // 正常 (投入順に1つずつ実行)
+            final TableMailbox mailbox = new TableMailbox();
+            final List<Integer> resultList = new ArrayList<>();
+            final AtomicInteger runningCount = new AtomicInteger();
+            final CountDownLatch latch = new CountDownLatch(TASK_COUNT);
+            for (int i = 0; i < TASK_COUNT; i++) {
+                final int index = i;
+                mailbox.execute(new Runnable() {
+                    public void run() {
+                        assertEquals(1, runningCount.incrementAndGet());
+                        resultList.add(index);
+                        runningCount.decrementAndGet();
+                        latch.countDown();
+                    }
+                });
+            }
+            assertTrue(latch.await(10L, TimeUnit.SECONDS));
+            for (int i = 0; i < TASK_COUNT; i++) {
+                assertEquals(Integer.valueOf(i), resultList.get(i));
+            }
+        }
+        {
+            // 正常 (別のメールボックスは並行に進む)
+            final TableMailbox blocked = new TableMailbox();
+            final TableMailbox other = new TableMailbox();
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(1);
+            blocked.execute(new Runnable() {
+                public void run() {
+                    started.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            other.execute(new Runnable() {
+                public void run() {
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(10L, TimeUnit.SECONDS));
+            assertTrue(started.await(10L, TimeUnit.SECONDS));
+            assertEquals(0, blocked.getPendingCount());
+            release.countDown();
+        }
+        {
+            // 正常 (エラーで抜けた処理の後も続きを実行)
+            final TableMailbox mailbox = new TableMailbox();
+            final CountDownLatch release = new CountDownLatch(1);
+            mailbox.execute(new Runnable() {
+                public void run() {
+                    try {
+                        release.await();
+                    }
+                    catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new Error("test");
+                }
+            });
+            final CountDownLatch done = new CountDownLatch(1);
+            mailbox.execute(new Runnable() {
+                public void run() {
+                    done.countDown();
+                }
+            });
+            release.countDown();
+            assertTrue(done.await(10L, TimeUnit.SECONDS));
+        }
+        {
+            // エラー (処理がNull)
+            try {
+                new TableMailbox().execute(null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Task is null.", e.getMessage());
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 投入する処理の数
+     */
+    private static final int TASK_COUNT = 1000;
+    
+}
+
@@ -0,0 +1,210 @@
+/**
+ * VSJanControllerTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.Wind;
+import wiz.project.jan.util.JanPaiUtil;
+import wiz.project.janbot.game.exception.InvalidInputException;
+import wiz.project.janbot.game.exception.JanException;
+
+
+
+/**
+ * VSJanControllerのテスト
+ */
+public final class VSJanControllerTest {
+    
+    /**
+     * call() のテスト
+     */
+    @Test
+    public void testCall() throws JanException {
+        {
+            // 正常 (受付はロンのみ)
+            final VSJanController controller = createJanController();
+            final TurnResult result = controller.start(createDeck(), createPlayerTable());
+            assertTrue(result.isCallable());
+            assertEquals(Arrays.asList(CallType.RON), result.getCallableTable().get(PLAYER_NAME_SHA));
+            assertEquals(1, result.getCallableTable().size());
+            assertEquals(TurnPhase.WAIT_CALL, controller.getPhase());
+            
+            assertEquals(TurnResult.gameSet(GameSetStatus.COMPLETE_RON), controller.completeRon(PLAYER_NAME_SHA));
+            assertEquals(TurnPhase.END, controller.getPhase());
+            assertEquals(Wind.SHA, controller.getGameInfo().getActiveWind());
+        }
+        {
+            // エラー (ポンは受け付けない)
+            final VSJanController controller = createJanController();
+            controller.start(createDeck(), createPlayerTable());
+            try {
+                controller.call(PLAYER_NAME_NAN, CallType.PON, null);
+                fail();
+            }
+            catch (final InvalidInputException e) {
+                assertEquals("Can't call.", e.getMessage());
+            }
+            assertEquals(TurnPhase.WAIT_CALL, controller.getPhase());
+        }
+    }
+    
+    /**
+     * pass() のテスト
+     */
+    @Test
+    public void testPass() throws JanException {
+        {
+            // 正常 (受付対象外の席の見送りは無視)
+            final VSJanController controller = createJanController();
+            controller.start(createDeck(), createPlayerTable());
+            
+            assertEquals(TurnResult.CONTINUE, controller.next());
+            assertEquals(TurnPhase.WAIT_CALL, controller.getPhase());
+            assertEquals(TurnResult.CONTINUE, controller.pass(PLAYER_NAME_NAN));
+            assertEquals(TurnPhase.WAIT_CALL, controller.getPhase());
+            
+            // 全員見送りで次巡へ
+            assertEquals(TurnResult.CONTINUE, controller.pass(PLAYER_NAME_SHA));
+            assertEquals(TurnPhase.WAIT_DISCARD, controller.getPhase());
+            assertEquals(Wind.NAN, controller.getGameInfo().getActiveWind());
+        }
+    }
+    
+    /**
+     * setCallTimeout() のテスト
+     */
+    @Test
+    public void testSetCallTimeout() throws JanException, InterruptedException {
+        {
+            // 正常 (未応答の席を見送り扱いにして通知)
+            final CountDownLatch timeout = new CountDownLatch(1);
+            final AtomicReference<List<String>> playerNameList = new AtomicReference<>();
+            final AtomicReference<TurnResult> timeoutResult = new AtomicReference<>();
+            final VSJanController controller = createJanController();
+            controller.setCallTimeout(10L);
+            controller.setCallWindowListener(new CallWindowListener() {
+                public void onTimeout(final List<String> timeoutPlayerNameList, final TurnResult result) {
+                    playerNameList.set(timeoutPlayerNameList);
+                    timeoutResult.set(result);
+                    timeout.countDown();
+                }
+            });
+            controller.start(createDeck(), createPlayerTable());
+            
+            assertTrue(timeout.await(10, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(PLAYER_NAME_SHA), playerNameList.get());
+            assertEquals(TurnResult.CONTINUE, timeoutResult.get());
+            assertEquals(TurnPhase.WAIT_DISCARD, controller.getPhase());
+            assertEquals(Wind.NAN, controller.getGameInfo().getActiveWind());
+        }
+        {
+            // 正常 (時間切れ前に決着した受付は通知しない)
+            final CountDownLatch timeout = new CountDownLatch(1);
+            final VSJanController controller = createJanController();
+            controller.setCallTimeout(50L);
+            controller.setCallWindowListener(new CallWindowListener() {
+                public void onTimeout(final List<String> timeoutPlayerNameList, final TurnResult result) {
+                    timeout.countDown();
+                }
+            });
+            controller.start(createDeck(), createPlayerTable());
+            controller.completeRon(PLAYER_NAME_SHA);
+            
+            assertFalse(timeout.await(200, TimeUnit.MILLISECONDS));
+        }
+        {
+            // エラー (不正な受付時間)
+            try {
+                createJanController().setCallTimeout(0L);
+                fail();
+            }
+            catch (final IllegalArgumentException e) {
+                assertEquals("Invalid timeout - 0", e.getMessage());
+            }
+        }
+    }
+    
+    
+    
+    /**
+     * 牌山を生成
+     * 
+     * 東家 (NPC) の1巡目のツモ切りに対し、南家はポン (受付対象外)、西家はロンできる。
+     * 
+     * @return 牌山。
+     */
+    private List<JanPai> createDeck() {
+        final List<JanPai> head = new ArrayList<>();
+        // 東家
+        head.addAll(Arrays.asList(JanPai.MAN_1, JanPai.MAN_2, JanPai.MAN_3, JanPai.MAN_4, JanPai.MAN_5, JanPai.MAN_6, JanPai.MAN_7,
+                                  JanPai.MAN_8, JanPai.MAN_9, JanPai.PIN_4, JanPai.PIN_5, JanPai.PIN_6, JanPai.PIN_7));
+        // 南家 (9索の対子)
+        head.addAll(Arrays.asList(JanPai.SOU_9, JanPai.SOU_9, JanPai.TON, JanPai.NAN, JanPai.SHA, JanPai.PEI, JanPai.HAKU,
+                                  JanPai.HATU, JanPai.CHUN, JanPai.TON, JanPai.NAN, JanPai.SHA, JanPai.PEI));
+        // 西家 (9索の単騎待ち)
+        head.addAll(Arrays.asList(JanPai.MAN_1, JanPai.MAN_2, JanPai.MAN_3, JanPai.MAN_4, JanPai.MAN_5, JanPai.MAN_6, JanPai.MAN_7,
+                                  JanPai.MAN_8, JanPai.MAN_9, JanPai.PIN_1, JanPai.PIN_2, JanPai.PIN_3, JanPai.SOU_9));
+        // 北家
+        head.addAll(Arrays.asList(JanPai.SOU_1, JanPai.SOU_2, JanPai.SOU_3, JanPai.SOU_4, JanPai.SOU_5, JanPai.SOU_6, JanPai.SOU_7,
+                                  JanPai.SOU_8, JanPai.HAKU, JanPai.HATU, JanPai.CHUN, JanPai.PIN_5, JanPai.PIN_6));
+        // 東家のツモ
+        head.add(JanPai.SOU_9);
+        
+        final List<JanPai> deck = JanPaiUtil.createAllJanPaiList();
+        for (final JanPai pai : head) {
+            deck.remove(pai);
+        }
+        deck.addAll(0, head);
+        return deck;
+    }
+    
+    /**
+     * 麻雀コントローラを生成
+     * 
+     * @return 麻雀コントローラ。
+     */
+    private VSJanController createJanController() {
+        return new VSJanController(new TableMailbox());
+    }
+    
+    /**
+     * プレイヤーテーブルを生成 (南家と西家が人間)
+     * 
+     * @return プレイヤーテーブル。
+     */
+    private Map<Wind, Player> createPlayerTable() {
+        final Map<Wind, Player> playerTable = new TreeMap<>();
+        playerTable.put(Wind.TON, new Player("COM_01", PlayerType.COM));
+        playerTable.put(Wind.NAN, new Player(PLAYER_NAME_NAN, PlayerType.HUMAN));
+        playerTable.put(Wind.SHA, new Player(PLAYER_NAME_SHA, PlayerType.HUMAN));
+        playerTable.put(Wind.PEI, new Player("COM_02", PlayerType.COM));
+        return playerTable;
+    }
+    
+    
+    
+    /**
+     * テスト用プレイヤー名
+     */
+    private static final String PLAYER_NAME_NAN = "p1";
+    private static final String PLAYER_NAME_SHA = "p2";
+    
+}
+
@@ -0,0 +1,104 @@
+/**
+ * WaitEngineBenchmark.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.util.HandCheckUtil;
+import wiz.project.jan.util.JanPaiUtil;
+
+
+
+/**
+ * WaitEngine と HandCheckUtil の待ち判定の速度比較
+ */
+public final class WaitEngineBenchmark {
+    
+    /**
+     * メイン
+     * 
+     * @param args 起動引数。(1番目: 手牌の数)
+     */
+    public static void main(final String[] args) {
+        final int handCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_HAND_COUNT;
+        final List<JanPaiCount> countList = new ArrayList<>();
+        final List<Map<JanPai, Integer>> mapList = new ArrayList<>();
+        final Random random = new Random(RANDOM_SEED);
+        for (int i = 0; i < handCount; i++) {
+            final List<JanPai> hand = createRandomList(random, 13);
+            countList.add(new JanPaiCount(hand));
+            final Map<JanPai, Integer> map = JanPaiUtil.convertJanPaiList(hand);
+            JanPaiUtil.cleanJanPaiMap(map);
+            mapList.add(map);
+        }
+        
+        for (int round = 0; round < ROUND_COUNT; round++) {
+            long start = System.nanoTime();
+            int waitCount = 0;
+            for (final Map<JanPai, Integer> map : mapList) {
+                waitCount += HandCheckUtil.getCompletableJanPaiList(map).size();
+            }
+            final long handCheckTime = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            int engineWaitCount = 0;
+            for (final JanPaiCount count : countList) {
+                engineWaitCount += WaitEngine.getInstance().getWaitList(count).size();
+            }
+            final long engineTime = System.nanoTime() - start;
+            
+            System.out.println(String.format("round %d: HandCheckUtil %,d ns/hand (%d waits), WaitEngine %,d ns/hand (%d waits)",
+                                             round + 1,
+                                             handCheckTime / handCount, waitCount,
+                                             engineTime / handCount, engineWaitCount));
+        }
+    }
+    
+    
+    
+    /**
+     * 無作為な手牌を作成
+     * 
+     * @param random 乱数生成器。
+     * @param size 枚数。
+     * @return 手牌。
+     */
+    private static List<JanPai> createRandomList(final Random random, final int size) {
+        final List<JanPai> deck = new ArrayList<>();
+        for (final JanPai pai : JanPai.values()) {
+            for (int i = 0; i < 4; i++) {
+                deck.add(pai);
+            }
+        }
+        Collections.shuffle(deck, random);
+        return new ArrayList<>(deck.subList(0, size));
+    }
+    
+    
+    
+    /**
+     * 手牌の数 (デフォルト)
+     */
+    private static final int DEFAULT_HAND_COUNT = 20000;
+    
+    /**
+     * 計測回数 (前半はウォームアップを兼ねる)
+     */
+    private static final int ROUND_COUNT = 5;
+    
+    /**
+     * 乱数の種
+     */
+    private static final long RANDOM_SEED = 20140101L;
+    
+}
+
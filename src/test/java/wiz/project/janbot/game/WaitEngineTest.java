@@ -0,0 +1,233 @@
+/**
+ * WaitEngineTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+import wiz.project.jan.util.HandCheckUtil;
+import wiz.project.jan.util.JanPaiUtil;
+
+
+
+/**
+ * WaitEngineのテスト
+ */
+public final class WaitEngineTest {
+    
+    /**
+     * getWaitList() のテスト
+     */
+    @Test
+    public void testGetWaitList() {
+        {
+            // 正常 (多面張)
+            final List<JanPai> sourceList = Arrays.asList(JanPai.MAN_1, JanPai.MAN_1, JanPai.MAN_1, JanPai.MAN_1,
+                                                          JanPai.MAN_2, JanPai.MAN_2, JanPai.MAN_2,
+                                                          JanPai.MAN_3, JanPai.MAN_3, JanPai.MAN_3,
+                                                          JanPai.MAN_4, JanPai.MAN_5, JanPai.MAN_6);
+            final List<JanPai> expected = Arrays.asList(JanPai.MAN_1, JanPai.MAN_2, JanPai.MAN_3, JanPai.MAN_4, JanPai.MAN_7);
+            assertEquals(expected, WaitEngine.getInstance().getWaitList(new JanPaiCount(sourceList)));
+        }
+        {
+            // 正常 (国士無双13面待ち)
+            final List<JanPai> sourceList = new ArrayList<>(JanPaiUtil.YAO_LIST);
+            assertEquals(13, WaitEngine.getInstance().getWaitList(new JanPaiCount(sourceList)).size());
+        }
+        {
+            // 正常 (枚数が合わない)
+            final List<JanPai> sourceList = Arrays.asList(JanPai.MAN_1, JanPai.MAN_2);
+            assertTrue(WaitEngine.getInstance().getWaitList(new JanPaiCount(sourceList)).isEmpty());
+        }
+        {
+            // エラー (手牌がNull)
+            try {
+                WaitEngine.getInstance().getWaitList(null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Hand is null.", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * getWaitList() が HandCheckUtil と一致するかのテスト
+     */
+    @Test
+    public void testGetWaitListCompatibility() {
+        final Random random = new Random(RANDOM_SEED);
+        for (int i = 0; i < TRIAL_COUNT; i++) {
+            // 和了形から1枚抜いて聴牌形を作る
+            final List<JanPai> sourceList = createCompleteList(random, 1 + random.nextInt(4));
+            sourceList.remove(random.nextInt(sourceList.size()));
+            assertWaitList(sourceList);
+        }
+        for (int i = 0; i < TRIAL_COUNT; i++) {
+            // 無作為な手牌
+            assertWaitList(createRandomList(random, 13));
+        }
+    }
+    
+    /**
+     * isComplete() のテスト
+     */
+    @Test
+    public void testIsComplete() {
+        {
+            // 正常 (七対子)
+            final List<JanPai> sourceList = Arrays.asList(JanPai.MAN_1, JanPai.MAN_1, JanPai.MAN_3, JanPai.MAN_3,
+                                                          JanPai.PIN_5, JanPai.PIN_5, JanPai.SOU_7, JanPai.SOU_7,
+                                                          JanPai.TON, JanPai.TON, JanPai.HAKU, JanPai.HAKU,
+                                                          JanPai.CHUN, JanPai.CHUN);
+            assertTrue(WaitEngine.getInstance().isComplete(new JanPaiCount(sourceList)));
+        }
+        {
+            // 正常 (国士無双)
+            final List<JanPai> sourceList = new ArrayList<>(JanPaiUtil.YAO_LIST);
+            sourceList.add(JanPai.TON);
+            assertTrue(WaitEngine.getInstance().isComplete(new JanPaiCount(sourceList)));
+        }
+        {
+            // 正常 (副露後の単騎)
+            final List<JanPai> sourceList = Arrays.asList(JanPai.NAN, JanPai.NAN);
+            assertTrue(WaitEngine.getInstance().isComplete(new JanPaiCount(sourceList)));
+        }
+        {
+            // 正常 (雀頭なし)
+            final List<JanPai> sourceList = Arrays.asList(JanPai.MAN_1, JanPai.MAN_1, JanPai.MAN_1);
+            assertFalse(WaitEngine.getInstance().isComplete(new JanPaiCount(sourceList)));
+        }
+        
+        final Random random = new Random(RANDOM_SEED);
+        for (int i = 0; i < TRIAL_COUNT; i++) {
+            // HandCheckUtil と一致するか
+            final List<JanPai> completeList = createCompleteList(random, 4);
+            assertComplete(completeList);
+            assertComplete(createRandomList(random, 14));
+        }
+    }
+    
+    
+    
+    /**
+     * 和了判定が HandCheckUtil と一致するか確認
+     * 
+     * @param sourceList 手牌。
+     */
+    private void assertComplete(final List<JanPai> sourceList) {
+        final Map<JanPai, Integer> hand = JanPaiUtil.convertJanPaiList(sourceList);
+        JanPaiUtil.cleanJanPaiMap(hand);
+        final boolean expected = HandCheckUtil.isComplete(hand);
+        assertEquals(sourceList.toString(), expected, WaitEngine.getInstance().isComplete(new JanPaiCount(sourceList)));
+    }
+    
+    /**
+     * 待ち牌リストが HandCheckUtil と一致するか確認
+     * 
+     * @param sourceList 手牌。
+     */
+    private void assertWaitList(final List<JanPai> sourceList) {
+        final Map<JanPai, Integer> hand = JanPaiUtil.convertJanPaiList(sourceList);
+        JanPaiUtil.cleanJanPaiMap(hand);
+        final List<JanPai> expected = HandCheckUtil.getCompletableJanPaiList(hand);
+        assertEquals(sourceList.toString(), expected, WaitEngine.getInstance().getWaitList(new JanPaiCount(sourceList)));
+    }
+    
+    /**
+     * 無作為な和了形を作成
+     * 
+     * @param random 乱数生成器。
+     * @param mentsuCount 面子数。
+     * @return 和了形の牌リスト。
+     */
+    private List<JanPai> createCompleteList(final Random random, final int mentsuCount) {
+        final JanPai[] paiArray = JanPai.values();
+        final int[] countArray = new int[paiArray.length];
+        final List<JanPai> resultList = new ArrayList<>();
+        while (resultList.size() < mentsuCount * 3) {
+            final JanPai head = paiArray[random.nextInt(paiArray.length)];
+            final List<JanPai> mentsu;
+            if (random.nextBoolean() && !head.isJi() && head.ordinal() % 9 < 7) {
+                mentsu = Arrays.asList(head, head.getNext(), head.getNext().getNext());
+            }
+            else {
+                mentsu = Arrays.asList(head, head, head);
+            }
+            addAll(resultList, countArray, mentsu);
+        }
+        while (true) {
+            final JanPai head = paiArray[random.nextInt(paiArray.length)];
+            if (addAll(resultList, countArray, Arrays.asList(head, head))) {
+                break;
+            }
+        }
+        Collections.shuffle(resultList, random);
+        return resultList;
+    }
+    
+    /**
+     * 無作為な手牌を作成
+     * 
+     * @param random 乱数生成器。
+     * @param size 枚数。
+     * @return 手牌。
+     */
+    private List<JanPai> createRandomList(final Random random, final int size) {
+        final List<JanPai> deck = new ArrayList<>();
+        for (final JanPai pai : JanPai.values()) {
+            for (int i = 0; i < 4; i++) {
+                deck.add(pai);
+            }
+        }
+        Collections.shuffle(deck, random);
+        return new ArrayList<>(deck.subList(0, size));
+    }
+    
+    /**
+     * 1種類あたり4枚を超えない場合のみ牌を追加
+     * 
+     * @param targetList 追加先。
+     * @param countArray 牌ごとの枚数。
+     * @param sourceList 追加する牌。
+     * @return 追加できたか。
+     */
+    private boolean addAll(final List<JanPai> targetList, final int[] countArray, final List<JanPai> sourceList) {
+        final int[] workArray = countArray.clone();
+        for (final JanPai pai : sourceList) {
+            if (++workArray[pai.ordinal()] > 4) {
+                return false;
+            }
+        }
+        System.arraycopy(workArray, 0, countArray, 0, countArray.length);
+        targetList.addAll(sourceList);
+        return true;
+    }
+    
+    
+    
+    /**
+     * 乱数の種
+     */
+    private static final long RANDOM_SEED = 20140101L;
+    
+    /**
+     * 試行回数
+     */
+    private static final int TRIAL_COUNT = 2000;
+    
+}
+
@@ -0,0 +1,110 @@
+/**
+ * WaitIndexTest.java
+ * 
+ * @author Yuki
+ */
+
+package wiz.project.janbot.game;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import wiz.project.jan.JanPai;
+
+
+
+/**
+ * WaitIndexのテスト
+ */
+public final class WaitIndexTest {
+    
+    /**
+     * update() のテスト
+     */
+    @Test
+    public void testUpdate() {
+        {
+            // 正常
+            final List<JanPai> sourceList = Arrays.asList(JanPai.MAN_2, JanPai.MAN_3, JanPai.MAN_3, JanPai.MAN_3,
+                                                          JanPai.PIN_1, JanPai.PIN_2, JanPai.PIN_3,
+                                                          JanPai.SOU_7, JanPai.SOU_8, JanPai.SOU_9,
+                                                          JanPai.TON, JanPai.TON, JanPai.TON);
+            final WaitIndex waitIndex = new WaitIndex();
+            waitIndex.update(new JanPaiCount(sourceList));
+            assertEquals(Arrays.asList(JanPai.MAN_1, JanPai.MAN_2, JanPai.MAN_4), waitIndex.getCompleteWaitList());
+            assertTrue(waitIndex.isChiWait(JanPai.MAN_1));
+            assertTrue(waitIndex.isChiWait(JanPai.MAN_4));
+            assertFalse(waitIndex.isChiWait(JanPai.MAN_5));
+            assertTrue(waitIndex.isPonWait(JanPai.MAN_3));
+            assertTrue(waitIndex.isKanWait(JanPai.MAN_3));
+            assertTrue(waitIndex.isPonWait(JanPai.TON));
+            assertFalse(waitIndex.isPonWait(JanPai.MAN_2));
+            assertFalse(waitIndex.isChiWait(JanPai.TON));
+            
+            waitIndex.clear();
+            assertTrue(waitIndex.getCompleteWaitList().isEmpty());
+            assertFalse(waitIndex.isPonWait(JanPai.MAN_3));
+        }
+        {
+            // エラー (手牌がNull)
+            try {
+                new WaitIndex().update(null);
+                fail();
+            }
+            catch (final NullPointerException e) {
+                assertEquals("Hand is null.", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * update() の差分反映が全再計算と一致するかのテスト
+     */
+    @Test
+    public void testUpdateIncremental() {
+        final Random random = new Random(20140101L);
+        final List<JanPai> deck = new ArrayList<>();
+        for (final JanPai pai : JanPai.values()) {
+            for (int i = 0; i < 4; i++) {
+                deck.add(pai);
+            }
+        }
+        
+        for (int game = 0; game < 50; game++) {
+            Collections.shuffle(deck, random);
+            final JanPaiCount hand = new JanPaiCount(deck.subList(0, 13));
+            final WaitIndex waitIndex = new WaitIndex();
+            waitIndex.update(hand);
+            
+            // ツモ切りと手出しを繰り返す
+            for (int index = 13; index < 13 + 70; index++) {
+                final JanPai tsumo = deck.get(index);
+                hand.add(tsumo);
+                JanPai discard = tsumo;
+                while (!hand.contains(discard) || random.nextInt(3) != 0) {
+                    discard = JanPai.values()[random.nextInt(JanPaiCount.SIZE)];
+                }
+                hand.remove(discard);
+                waitIndex.update(hand);
+                
+                final WaitIndex expected = new WaitIndex();
+                expected.update(hand);
+                for (final JanPai pai : JanPai.values()) {
+                    assertEquals(expected.isCompleteWait(pai), waitIndex.isCompleteWait(pai));
+                    assertEquals(expected.isChiWait(pai), waitIndex.isChiWait(pai));
+                    assertEquals(expected.isPonWait(pai), waitIndex.isPonWait(pai));
+                    assertEquals(expected.isKanWait(pai), waitIndex.isKanWait(pai));
+                }
+            }
+        }
+    }
+    
+}
+